@@ -51,6 +51,18 @@ public class StandardXmlElementBindingImpl extends LayeredElementBindingImpl
     {
         LocalizableText.init( StandardXmlElementBindingImpl.class );
     }
+    
+    private static final XmlTypeMappingMetadata.Factory<StandardXmlElementBindingImpl> METADATA = new XmlTypeMappingMetadata.Factory<StandardXmlElementBindingImpl>( StandardXmlElementBindingImpl.class )
+    {
+        @Override
+        protected XmlTypeMappingMetadata create( final PropertyDef property,
+                                                 final Set<ElementType> possible,
+                                                 final XmlNamespaceResolver xmlNamespaceResolver,
+                                                 final StandardXmlElementBindingImpl binding )
+        {
+            return createMetadata( property, possible, xmlNamespaceResolver, binding );
+        }
+    };
 
     private PossibleTypesService possibleTypesService;
     private Listener possibleTypesServiceListener;
@@ -86,81 +98,14 @@ public class StandardXmlElementBindingImpl extends LayeredElementBindingImpl
         
         try
         {
-            final XmlElementBinding xmlElementBindingAnnotation = property.getAnnotation( XmlElementBinding.class );
             final XmlNamespaceResolver xmlNamespaceResolver = ( (XmlResource) element.resource() ).getXmlNamespaceResolver();
-            
             final Set<ElementType> possible = this.possibleTypesService.types();
-            this.modelElementTypes = possible.toArray( new ElementType[ possible.size() ] );
-
-            if( xmlElementBindingAnnotation == null )
-            {
-                final XmlBinding xmlBindingAnnotation = property.getAnnotation( XmlBinding.class );
-                
-                if( xmlBindingAnnotation != null && possible.size() == 1 )
-                {
-                    final String path = xmlBindingAnnotation.path();
-                    final int slashIndex = path.lastIndexOf( '/' );
-                    
-                    if( slashIndex == -1 )
-                    {
-                        this.xmlElementNames = new QName[] { createQualifiedName( path, xmlNamespaceResolver ) };
-                    }
-                    else if( slashIndex > 0 && slashIndex < path.length() - 1 )
-                    {
-                        this.path = new XmlPath( path.substring( 0, slashIndex ), xmlNamespaceResolver );
-                        this.xmlElementNames = new QName[] { createQualifiedName( path.substring( slashIndex + 1 ), xmlNamespaceResolver ) };
-                    }
-                }
-                
-                if( this.xmlElementNames == null )
-                {
-                    this.path = new XmlPath( property.name(), ( (XmlResource) element.resource() ).getXmlNamespaceResolver() );
-                    
-                    this.xmlElementNames = new QName[ this.modelElementTypes.length ];
-                    
-                    for( int i = 0; i < this.modelElementTypes.length; i++ )
-                    {
-                        this.xmlElementNames[ i ] = createDefaultElementName( this.modelElementTypes[ i ], xmlNamespaceResolver );
-                    }
-                }
-            }
-            else
-            {
-                if( xmlElementBindingAnnotation.path().length() > 0 )
-                {
-                    this.path = new XmlPath( xmlElementBindingAnnotation.path(), xmlNamespaceResolver );
-                }
-                
-                final XmlElementBinding.Mapping[] mappings = xmlElementBindingAnnotation.mappings();
-                this.xmlElementNames = new QName[ this.modelElementTypes.length ];
-                
-                for( int i = 0; i < this.modelElementTypes.length; i++ )
-                {
-                    final ElementType type = this.modelElementTypes[ i ];
-                            
-                    for( XmlElementBinding.Mapping mapping : mappings )
-                    {
-                        if( mapping.type() == type.getModelElementClass() )
-                        {
-                            final String mappingElementName = mapping.element().trim();
-                            
-                            if( mappingElementName.length() == 0 )
-                            {
-                                throw new RuntimeException( mustSpecifyElementNameMsg.text() );
-                            }
-
-                            this.xmlElementNames[ i ] = createQualifiedName( mappingElementName, xmlNamespaceResolver );
-                            
-                            break;
-                        }
-                    }
-                    
-                    if( this.xmlElementNames[ i ] == null )
-                    {
-                        this.xmlElementNames[ i ] = createDefaultElementName( type, xmlNamespaceResolver );
-                    }
-                }
-            }
+            
+            final XmlTypeMappingMetadata metadata = METADATA.metadata( this, property, possible, xmlNamespaceResolver );
+            
+            this.path = metadata.path;
+            this.modelElementTypes = metadata.modelElementTypes;
+            this.xmlElementNames = metadata.xmlElementNames;
         }
         catch( Exception e )
         {
@@ -169,6 +114,13 @@ public class StandardXmlElementBindingImpl extends LayeredElementBindingImpl
         }
     }
     
+    static XmlTypeMappingMetadata metadata( final PropertyDef property,
+                                            final Set<ElementType> possible,
+                                            final XmlNamespaceResolver xmlNamespaceResolver )
+    {
+        return METADATA.metadata( property, possible, xmlNamespaceResolver );
+    }
+    
     /**
      * Creates the XML element name for a type that does not have an explicit mapping. This method can be
      * overridden to provide custom behavior.
@@ -188,7 +140,7 @@ public class StandardXmlElementBindingImpl extends LayeredElementBindingImpl
     public ElementType type( final Resource resource )
     {
         final XmlElement xmlElement = ( (XmlResource) resource ).getXmlElement();
-        final QName xmlElementName = createQualifiedName( xmlElement.getDomNode() );
+        final QName xmlElementName = xmlElement.getQualifiedName();
         final String xmlElementNamespace = xmlElementName.getNamespaceURI();
         
         for( int i = 0; i < this.xmlElementNames.length; i++ )
@@ -211,7 +163,7 @@ public class StandardXmlElementBindingImpl extends LayeredElementBindingImpl
         {
             for( XmlElement element : parent.getChildElements() )
             {
-                final QName xmlElementName = createQualifiedName( element.getDomNode() );
+                final QName xmlElementName = element.getQualifiedName();
                 
                 if( contains( this.xmlElementNames, xmlElementName, xmlElementName.getNamespaceURI() ) )
                 {
@@ -235,7 +187,7 @@ public class StandardXmlElementBindingImpl extends LayeredElementBindingImpl
             {
                 for( XmlElement element : parent.getChildElements() )
                 {
-                    final QName xmlElementName = createQualifiedName( element.getDomNode() );
+                    final QName xmlElementName = element.getQualifiedName();
                     
                     if( contains( this.xmlElementNames, xmlElementName, xmlElementName.getNamespaceURI() ) )
                     {
@@ -278,7 +230,7 @@ public class StandardXmlElementBindingImpl extends LayeredElementBindingImpl
             {
                 for( XmlElement element : parent.getChildElements() )
                 {
-                    final QName xmlElementName = createQualifiedName( element.getDomNode() );
+                    final QName xmlElementName = element.getQualifiedName();
                     
                     if( contains( this.xmlElementNames, xmlElementName, xmlElementName.getNamespaceURI() ) )
                     {
@@ -323,4 +275,99 @@ public class StandardXmlElementBindingImpl extends LayeredElementBindingImpl
         }
     }
     
+    private static XmlTypeMappingMetadata createMetadata( final PropertyDef property,
+                                                          final Set<ElementType> possible,
+                                                          final XmlNamespaceResolver xmlNamespaceResolver,
+                                                          final StandardXmlElementBindingImpl binding )
+    {
+        final XmlElementBinding xmlElementBindingAnnotation = property.getAnnotation( XmlElementBinding.class );
+        final ElementType[] modelElementTypes = possible.toArray( new ElementType[ possible.size() ] );
+        XmlPath path = null;
+        QName[] xmlElementNames = null;
+        
+        if( xmlElementBindingAnnotation == null )
+        {
+            final XmlBinding xmlBindingAnnotation = property.getAnnotation( XmlBinding.class );
+            
+            if( xmlBindingAnnotation != null && possible.size() == 1 )
+            {
+                final String p = xmlBindingAnnotation.path();
+                final int slashIndex = p.lastIndexOf( '/' );
+                
+                if( slashIndex == -1 )
+                {
+                    xmlElementNames = new QName[] { createQualifiedName( p, xmlNamespaceResolver ) };
+                }
+                else if( slashIndex > 0 && slashIndex < p.length() - 1 )
+                {
+                    path = new XmlPath( p.substring( 0, slashIndex ), xmlNamespaceResolver );
+                    xmlElementNames = new QName[] { createQualifiedName( p.substring( slashIndex + 1 ), xmlNamespaceResolver ) };
+                }
+            }
+            
+            if( xmlElementNames == null )
+            {
+                path = new XmlPath( property.name(), xmlNamespaceResolver );
+                
+                xmlElementNames = new QName[ modelElementTypes.length ];
+                
+                for( int i = 0; i < modelElementTypes.length; i++ )
+                {
+                    xmlElementNames[ i ] = createDefaultElementName( binding, modelElementTypes[ i ], xmlNamespaceResolver );
+                }
+            }
+        }
+        else
+        {
+            if( xmlElementBindingAnnotation.path().length() > 0 )
+            {
+                path = new XmlPath( xmlElementBindingAnnotation.path(), xmlNamespaceResolver );
+            }
+            
+            final XmlElementBinding.Mapping[] mappings = xmlElementBindingAnnotation.mappings();
+            xmlElementNames = new QName[ modelElementTypes.length ];
+            
+            for( int i = 0; i < modelElementTypes.length; i++ )
+            {
+                final ElementType type = modelElementTypes[ i ];
+                        
+                for( XmlElementBinding.Mapping mapping : mappings )
+                {
+                    if( mapping.type() == type.getModelElementClass() )
+                    {
+                        final String mappingElementName = mapping.element().trim();
+                        
+                        if( mappingElementName.length() == 0 )
+                        {
+                            throw new RuntimeException( mustSpecifyElementNameMsg.text() );
+                        }
+
+                        xmlElementNames[ i ] = createQualifiedName( mappingElementName, xmlNamespaceResolver );
+                        
+                        break;
+                    }
+                }
+                
+                if( xmlElementNames[ i ] == null )
+                {
+                    xmlElementNames[ i ] = createDefaultElementName( binding, type, xmlNamespaceResolver );
+                }
+            }
+        }
+        
+        return new XmlTypeMappingMetadata( possible, path, modelElementTypes, xmlElementNames );
+    }
+    
+    private static QName createDefaultElementName( final StandardXmlElementBindingImpl binding,
+                                                   final ElementType type,
+                                                   final XmlNamespaceResolver xmlNamespaceResolver )
+    {
+        if( binding == null )
+        {
+            return XmlUtil.createDefaultElementName( type );
+        }
+        
+        return binding.createDefaultElementName( type, xmlNamespaceResolver );
+    }
+    
 }
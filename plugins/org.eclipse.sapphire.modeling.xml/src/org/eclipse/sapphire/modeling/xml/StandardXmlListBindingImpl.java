@@ -31,6 +31,7 @@ import org.eclipse.sapphire.LocalizableText;
 import org.eclipse.sapphire.LoggingService;
 import org.eclipse.sapphire.PossibleTypesService;
 import org.eclipse.sapphire.Property;
+import org.eclipse.sapphire.PropertyDef;
 import org.eclipse.sapphire.Resource;
 import org.eclipse.sapphire.Sapphire;
 import org.eclipse.sapphire.Text;
@@ -54,6 +55,18 @@ public class StandardXmlListBindingImpl extends LayeredListPropertyBinding
     {
         LocalizableText.init( StandardXmlListBindingImpl.class );
     }
+    
+    private static final XmlTypeMappingMetadata.Factory<StandardXmlListBindingImpl> METADATA = new XmlTypeMappingMetadata.Factory<StandardXmlListBindingImpl>( StandardXmlListBindingImpl.class )
+    {
+        @Override
+        protected XmlTypeMappingMetadata create( final PropertyDef property,
+                                                 final Set<ElementType> possible,
+                                                 final XmlNamespaceResolver xmlNamespaceResolver,
+                                                 final StandardXmlListBindingImpl binding )
+        {
+            return createMetadata( property, possible, xmlNamespaceResolver, binding );
+        }
+    };
 
     private PossibleTypesService possibleTypesService;
     private Listener possibleTypesServiceListener;
@@ -100,60 +113,26 @@ public class StandardXmlListBindingImpl extends LayeredListPropertyBinding
     
     protected void initBindingMetadata()
     {
-        final XmlListBinding annotation = property().definition().getAnnotation( XmlListBinding.class );
+        final PropertyDef property = property().definition();
         final XmlNamespaceResolver xmlNamespaceResolver = ( (XmlResource) property().element().resource() ).getXmlNamespaceResolver();
-        
         final Set<ElementType> possible = this.possibleTypesService.types();
-        this.modelElementTypes = possible.toArray( new ElementType[ possible.size() ] );
-
-        if( annotation == null )
+        
+        final XmlTypeMappingMetadata metadata = METADATA.metadata( this, property, possible, xmlNamespaceResolver );
+        
+        if( metadata.path != null )
         {
-            this.path = new XmlPath( property().name(), xmlNamespaceResolver );
-            
-            this.xmlElementNames = new QName[ this.modelElementTypes.length ];
-            
-            for( int i = 0; i < this.modelElementTypes.length; i++ )
-            {
-                this.xmlElementNames[ i ] = createDefaultElementName( this.modelElementTypes[ i ], xmlNamespaceResolver );
-            }
-        }
-        else
-        {
-            if( annotation.path().length() > 0 )
-            {
-                this.path = new XmlPath( annotation.path(), xmlNamespaceResolver );
-            }
-            
-            final XmlListBinding.Mapping[] mappings = annotation.mappings();
-            this.xmlElementNames = new QName[ this.modelElementTypes.length ];
-            
-            for( int i = 0; i < this.modelElementTypes.length; i++ )
-            {
-                final ElementType type = this.modelElementTypes[ i ];
-                        
-                for( XmlListBinding.Mapping mapping : mappings )
-                {
-                    if( mapping.type() == type.getModelElementClass() )
-                    {
-                        final String mappingElementName = mapping.element().trim();
-                        
-                        if( mappingElementName.length() == 0 )
-                        {
-                            throw new RuntimeException( mustSpecifyElementNameMsg.text() );
-                        }
-
-                        this.xmlElementNames[ i ] = createQualifiedName( mappingElementName, xmlNamespaceResolver );
-                        
-                        break;
-                    }
-                }
-                
-                if( this.xmlElementNames[ i ] == null )
-                {
-                    this.xmlElementNames[ i ] = createDefaultElementName( type, xmlNamespaceResolver );
-                }
-            }
+            this.path = metadata.path;
         }
+        
+        this.modelElementTypes = metadata.modelElementTypes;
+        this.xmlElementNames = metadata.xmlElementNames;
+    }
+    
+    static XmlTypeMappingMetadata metadata( final PropertyDef property,
+                                            final Set<ElementType> possible,
+                                            final XmlNamespaceResolver xmlNamespaceResolver )
+    {
+        return METADATA.metadata( property, possible, xmlNamespaceResolver );
     }
     
     /**
@@ -175,7 +154,7 @@ public class StandardXmlListBindingImpl extends LayeredListPropertyBinding
     public ElementType type( final Resource resource )
     {
         final XmlElement xmlElement = ( (XmlResource) resource ).getXmlElement();
-        final QName xmlElementName = createQualifiedName( xmlElement.getDomNode() );
+        final QName xmlElementName = xmlElement.getQualifiedName();
         final String xmlElementNamespace = xmlElementName.getNamespaceURI();
         
         for( int i = 0; i < this.xmlElementNames.length; i++ )
@@ -213,7 +192,7 @@ public class StandardXmlListBindingImpl extends LayeredListPropertyBinding
             
             for( XmlElement element : parent.getChildElements() )
             {
-                final QName xmlElementName = createQualifiedName( element.getDomNode() );
+                final QName xmlElementName = element.getQualifiedName();
                 
                 if( contains( this.xmlElementNames, xmlElementName, xmlElementName.getNamespaceURI() ) )
                 {
@@ -307,4 +286,75 @@ public class StandardXmlListBindingImpl extends LayeredListPropertyBinding
         }
     }
     
+    private static XmlTypeMappingMetadata createMetadata( final PropertyDef property,
+                                                          final Set<ElementType> possible,
+                                                          final XmlNamespaceResolver xmlNamespaceResolver,
+                                                          final StandardXmlListBindingImpl binding )
+    {
+        final XmlListBinding annotation = property.getAnnotation( XmlListBinding.class );
+        final ElementType[] modelElementTypes = possible.toArray( new ElementType[ possible.size() ] );
+        final QName[] xmlElementNames = new QName[ modelElementTypes.length ];
+        XmlPath path = null;
+        
+        if( annotation == null )
+        {
+            path = new XmlPath( property.name(), xmlNamespaceResolver );
+            
+            for( int i = 0; i < modelElementTypes.length; i++ )
+            {
+                xmlElementNames[ i ] = createDefaultElementName( binding, modelElementTypes[ i ], xmlNamespaceResolver );
+            }
+        }
+        else
+        {
+            if( annotation.path().length() > 0 )
+            {
+                path = new XmlPath( annotation.path(), xmlNamespaceResolver );
+            }
+            
+            final XmlListBinding.Mapping[] mappings = annotation.mappings();
+            
+            for( int i = 0; i < modelElementTypes.length; i++ )
+            {
+                final ElementType type = modelElementTypes[ i ];
+                        
+                for( XmlListBinding.Mapping mapping : mappings )
+                {
+                    if( mapping.type() == type.getModelElementClass() )
+                    {
+                        final String mappingElementName = mapping.element().trim();
+                        
+                        if( mappingElementName.length() == 0 )
+                        {
+                            throw new RuntimeException( mustSpecifyElementNameMsg.text() );
+                        }
+
+                        xmlElementNames[ i ] = createQualifiedName( mappingElementName, xmlNamespaceResolver );
+                        
+                        break;
+                    }
+                }
+                
+                if( xmlElementNames[ i ] == null )
+                {
+                    xmlElementNames[ i ] = createDefaultElementName( binding, type, xmlNamespaceResolver );
+                }
+            }
+        }
+        
+        return new XmlTypeMappingMetadata( possible, path, modelElementTypes, xmlElementNames );
+    }
+    
+    private static QName createDefaultElementName( final StandardXmlListBindingImpl binding,
+                                                   final ElementType type,
+                                                   final XmlNamespaceResolver xmlNamespaceResolver )
+    {
+        if( binding == null )
+        {
+            return XmlUtil.createDefaultElementName( type );
+        }
+        
+        return binding.createDefaultElementName( type, xmlNamespaceResolver );
+    }
+    
 }
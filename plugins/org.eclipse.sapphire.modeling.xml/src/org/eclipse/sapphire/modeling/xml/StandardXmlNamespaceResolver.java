@@ -30,6 +30,15 @@ public class StandardXmlNamespaceResolver extends XmlNamespaceResolver
         this.type = type;
     }
     
+    /**
+     * Returns the element type whose annotations define the namespaces.
+     */
+    
+    final ElementType type()
+    {
+        return this.type;
+    }
+    
     @Override
     public String resolve( final String prefix )
     {
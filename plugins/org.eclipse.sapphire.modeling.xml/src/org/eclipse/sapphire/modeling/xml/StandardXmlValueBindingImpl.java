@@ -33,6 +33,8 @@ public class StandardXmlValueBindingImpl extends XmlValueBindingImpl
         LocalizableText.init( StandardXmlValueBindingImpl.class );
     }
 
+    private static final XmlBindingMetadataCache<Metadata> METADATA = new XmlBindingMetadataCache<Metadata>();
+    
     protected XmlPath path;
     protected boolean treatExistanceAsValue;
     protected String valueWhenPresent;
@@ -57,85 +59,16 @@ public class StandardXmlValueBindingImpl extends XmlValueBindingImpl
     
     protected void initBindingMetadata()
     {
-        final Value<?> property = (Value<?>) property();
-        final ValueProperty pdef = property.definition();
-        final XmlNamespaceResolver xmlNamespaceResolver = resource().getXmlNamespaceResolver();
-        
-        final XmlBinding genericBindingAnnotation = pdef.getAnnotation( XmlBinding.class );
+        final ValueProperty pdef = ( (Value<?>) property() ).definition();
+        final Metadata metadata = metadata( pdef, resource().getXmlNamespaceResolver() );
         
-        if( genericBindingAnnotation != null )
-        {
-            this.path = new XmlPath( genericBindingAnnotation.path(), xmlNamespaceResolver );
-            this.removeNodeOnSetIfNull = true;
-        }
-        else
-        {
-            final XmlValueBinding bindingAnnotation = pdef.getAnnotation( XmlValueBinding.class );
-            
-            if( bindingAnnotation != null )
-            {
-                this.path = new XmlPath( bindingAnnotation.path(), xmlNamespaceResolver );
-                this.removeNodeOnSetIfNull = bindingAnnotation.removeNodeOnSetIfNull();
-                
-                if( bindingAnnotation.mapExistanceToValue().length() > 0 )
-                {
-                    this.treatExistanceAsValue = true;
-                    
-                    final String directive = bindingAnnotation.mapExistanceToValue();
-                    StringBuilder buf = new StringBuilder();
-                    boolean escapeNextChar = false;
-                    int separatorCount = 0;
-                    
-                    for( int i = 0, n = directive.length(); i < n; i++ )
-                    {
-                        final char ch = directive.charAt( i );
-                        
-                        if( escapeNextChar )
-                        {
-                            buf.append( ch );
-                            escapeNextChar = false;
-                        }
-                        else if( ch == '\\' )
-                        {
-                            escapeNextChar = true;
-                        }
-                        else if( ch == ';' )
-                        {
-                            separatorCount++;
-                            
-                            this.valueWhenPresent = buf.toString();
-                            buf = new StringBuilder();
-                        }
-                        else
-                        {
-                            buf.append( ch );
-                        }
-                    }
-                    
-                    if( separatorCount == 0 )
-                    {
-                        this.valueWhenPresent = buf.toString();
-                        
-                        // todo: report an error
-                    }
-                    else
-                    {
-                        this.valueWhenNotPresent = buf.toString();
-                        
-                        if( separatorCount > 1 )
-                        {
-                            // todo: report an error;
-                        }
-                    }
-                }
-            }
-            else
-            {
-                this.path = new XmlPath( property.name(), xmlNamespaceResolver );
-            }
-        }
+        this.path = metadata.path;
+        this.treatExistanceAsValue = metadata.treatExistanceAsValue;
+        this.valueWhenPresent = metadata.valueWhenPresent;
+        this.valueWhenNotPresent = metadata.valueWhenNotPresent;
+        this.removeNodeOnSetIfNull = metadata.removeNodeOnSetIfNull;
     }
-
+    
     @Override
     public String read()
     {
@@ -162,7 +95,7 @@ public class StandardXmlValueBindingImpl extends XmlValueBindingImpl
         
         return value;
     }
-
+    
     @Override
     public void write( final String value )
     {
@@ -193,7 +126,7 @@ public class StandardXmlValueBindingImpl extends XmlValueBindingImpl
             xml( true ).setChildNodeText( this.path, value, this.removeNodeOnSetIfNull );
         }
     }
-
+    
     @Override
     public XmlNode getXmlNode()
     {
@@ -207,4 +140,119 @@ public class StandardXmlValueBindingImpl extends XmlValueBindingImpl
         return null;
     }
     
+    static Metadata metadata( final ValueProperty pdef, final XmlNamespaceResolver xmlNamespaceResolver )
+    {
+        Metadata metadata = METADATA.get( pdef, xmlNamespaceResolver );
+        
+        if( metadata == null )
+        {
+            metadata = new Metadata( pdef, xmlNamespaceResolver );
+            METADATA.put( pdef, xmlNamespaceResolver, metadata );
+        }
+        
+        return metadata;
+    }
+    
+    /**
+     * The binding metadata derived from the property annotations, shared by all instances of the property.
+     */
+    
+    static final class Metadata
+    {
+        final XmlPath path;
+        final boolean treatExistanceAsValue;
+        final String valueWhenPresent;
+        final String valueWhenNotPresent;
+        final boolean removeNodeOnSetIfNull;
+        
+        private Metadata( final ValueProperty pdef, final XmlNamespaceResolver xmlNamespaceResolver )
+        {
+            XmlPath path = null;
+            boolean treatExistanceAsValue = false;
+            String valueWhenPresent = null;
+            String valueWhenNotPresent = null;
+            boolean removeNodeOnSetIfNull = false;
+            
+            final XmlBinding genericBindingAnnotation = pdef.getAnnotation( XmlBinding.class );
+            
+            if( genericBindingAnnotation != null )
+            {
+                path = new XmlPath( genericBindingAnnotation.path(), xmlNamespaceResolver );
+                removeNodeOnSetIfNull = true;
+            }
+            else
+            {
+                final XmlValueBinding bindingAnnotation = pdef.getAnnotation( XmlValueBinding.class );
+                
+                if( bindingAnnotation != null )
+                {
+                    path = new XmlPath( bindingAnnotation.path(), xmlNamespaceResolver );
+                    removeNodeOnSetIfNull = bindingAnnotation.removeNodeOnSetIfNull();
+                    
+                    if( bindingAnnotation.mapExistanceToValue().length() > 0 )
+                    {
+                        treatExistanceAsValue = true;
+                        
+                        final String directive = bindingAnnotation.mapExistanceToValue();
+                        StringBuilder buf = new StringBuilder();
+                        boolean escapeNextChar = false;
+                        int separatorCount = 0;
+                        
+                        for( int i = 0, n = directive.length(); i < n; i++ )
+                        {
+                            final char ch = directive.charAt( i );
+                            
+                            if( escapeNextChar )
+                            {
+                                buf.append( ch );
+                                escapeNextChar = false;
+                            }
+                            else if( ch == '\\' )
+                            {
+                                escapeNextChar = true;
+                            }
+                            else if( ch == ';' )
+                            {
+                                separatorCount++;
+                                
+                                valueWhenPresent = buf.toString();
+                                buf = new StringBuilder();
+                            }
+                            else
+                            {
+                                buf.append( ch );
+                            }
+                        }
+                        
+                        if( separatorCount == 0 )
+                        {
+                            valueWhenPresent = buf.toString();
+                            
+                            // todo: report an error
+                        }
+                        else
+                        {
+                            valueWhenNotPresent = buf.toString();
+                            
+                            if( separatorCount > 1 )
+                            {
+                                // todo: report an error;
+                            }
+                        }
+                    }
+                }
+                else
+                {
+                    path = new XmlPath( pdef.name(), xmlNamespaceResolver );
+                }
+            }
+            
+            this.path = path;
+            this.treatExistanceAsValue = treatExistanceAsValue;
+            this.valueWhenPresent = valueWhenPresent;
+            this.valueWhenNotPresent = valueWhenNotPresent;
+            this.removeNodeOnSetIfNull = removeNodeOnSetIfNull;
+        }
+    }
+
 }
@@ -0,0 +1,779 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling.xml;
+
+import static org.eclipse.sapphire.modeling.util.MiscUtil.equal;
+import static org.eclipse.sapphire.modeling.util.MiscUtil.normalizeToNull;
+import static org.eclipse.sapphire.modeling.xml.XmlUtil.EMPTY_STRING;
+import static org.eclipse.sapphire.modeling.xml.XmlUtil.contains;
+import static org.eclipse.sapphire.modeling.xml.XmlUtil.createDefaultElementName;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementHandle;
+import org.eclipse.sapphire.ElementList;
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.ImpliedElementProperty;
+import org.eclipse.sapphire.ListPropertyBinding;
+import org.eclipse.sapphire.LocalizableText;
+import org.eclipse.sapphire.PossibleTypesService;
+import org.eclipse.sapphire.Property;
+import org.eclipse.sapphire.PropertyBinding;
+import org.eclipse.sapphire.PropertyDef;
+import org.eclipse.sapphire.Resource;
+import org.eclipse.sapphire.Text;
+import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.ValueProperty;
+import org.eclipse.sapphire.ValuePropertyBinding;
+import org.eclipse.sapphire.modeling.ElementPropertyBinding;
+import org.eclipse.sapphire.modeling.ResourceStoreException;
+import org.eclipse.sapphire.modeling.xml.annotations.CustomXmlElementBinding;
+import org.eclipse.sapphire.modeling.xml.annotations.CustomXmlListBinding;
+import org.eclipse.sapphire.modeling.xml.annotations.CustomXmlRootBinding;
+import org.eclipse.sapphire.modeling.xml.annotations.CustomXmlValueBinding;
+import org.eclipse.sapphire.modeling.xml.annotations.XmlBinding;
+import org.eclipse.sapphire.modeling.xml.annotations.XmlElementBinding;
+import org.eclipse.sapphire.util.ListFactory;
+
+/**
+ * A read-only resource that reads an XML document in a single pass using a streaming parser. Instead of a DOM,
+ * the content of each XML element is retained in compact arrays of attributes, meta comments and child elements,
+ * from which the properties are read directly. Intended for tools that need to read a large number of documents,
+ * such as for validation or reporting.
+ *
+ * <p>The standard XML bindings are supported. Properties with custom XML bindings cannot be read and any attempt to
+ * modify the model fails with an {@link UnsupportedOperationException}.</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class StreamingXmlResource extends Resource
+{
+    @Text( "Property {0}.{1} has a custom XML binding, which is not supported when reading with a streaming XML resource." )
+    private static LocalizableText customBindingNotSupported;
+    
+    @Text( "Streaming XML resource is read-only." )
+    private static LocalizableText readOnly;
+    
+    static
+    {
+        LocalizableText.init( StreamingXmlResource.class );
+    }
+    
+    private static final XMLInputFactory FACTORY = factory();
+    
+    private Node node;
+    private XmlNamespaceResolver xmlNamespaceResolver;
+    
+    public StreamingXmlResource( final InputStream contents )
+    {
+        super( null );
+        
+        this.node = parse( contents );
+    }
+    
+    public StreamingXmlResource( final File file ) throws ResourceStoreException
+    {
+        super( null );
+        
+        this.node = parse( file );
+    }
+    
+    private StreamingXmlResource( final StreamingXmlResource parent,
+                                  final Node node )
+    {
+        super( parent );
+        
+        this.node = node;
+    }
+    
+    @Override
+    public void init( final Element element )
+    {
+        super.init( element );
+        
+        this.xmlNamespaceResolver = new StandardXmlNamespaceResolver( element.type() );
+        
+        if( parent() == null && this.node != null && ! checkRootElement( element.type() ) )
+        {
+            this.node = null;
+        }
+    }
+    
+    private boolean checkRootElement( final ElementType type )
+    {
+        if( type.getAnnotation( CustomXmlRootBinding.class ) != null )
+        {
+            return true;
+        }
+        
+        final XmlBinding xmlBindingAnnotation = type.getAnnotation( XmlBinding.class );
+        final QName name;
+        
+        if( xmlBindingAnnotation != null && xmlBindingAnnotation.path().length() != 0 )
+        {
+            name = new XmlPath( xmlBindingAnnotation.path(), this.xmlNamespaceResolver ).getSegment( 0 ).getQualifiedName();
+        }
+        else
+        {
+            name = createDefaultElementName( type );
+        }
+        
+        return equal( this.node.localName, name.getLocalPart() ) && equal( this.node.namespace, normalizeToNull( name.getNamespaceURI() ) );
+    }
+    
+    @Override
+    protected PropertyBinding createBinding( final Property property )
+    {
+        final PropertyDef pdef = property.definition();
+        
+        if( property instanceof Value )
+        {
+            if( pdef.hasAnnotation( CustomXmlValueBinding.class ) )
+            {
+                throw new UnsupportedOperationException( customBindingNotSupported.format( pdef.getModelElementType().getSimpleName(), pdef.name() ) );
+            }
+            
+            return new ValueBinding();
+        }
+        else if( property instanceof ElementHandle )
+        {
+            if( pdef.hasAnnotation( CustomXmlElementBinding.class ) )
+            {
+                throw new UnsupportedOperationException( customBindingNotSupported.format( pdef.getModelElementType().getSimpleName(), pdef.name() ) );
+            }
+            
+            return ( pdef instanceof ImpliedElementProperty ? new ImpliedElementBinding() : new ElementBinding() );
+        }
+        else if( property instanceof ElementList )
+        {
+            if( pdef.hasAnnotation( CustomXmlListBinding.class ) )
+            {
+                throw new UnsupportedOperationException( customBindingNotSupported.format( pdef.getModelElementType().getSimpleName(), pdef.name() ) );
+            }
+            
+            return new ListBinding();
+        }
+        
+        return null;
+    }
+    
+    private Node parent( final XmlPath path )
+    {
+        if( this.node == null || path == null )
+        {
+            return this.node;
+        }
+        
+        return this.node.element( path );
+    }
+    
+    private static ElementType type( final Resource resource,
+                                     final QName[] xmlElementNames,
+                                     final ElementType[] modelElementTypes )
+    {
+        final QName xmlElementName = ( (StreamingXmlResource) resource ).node.name();
+        
+        for( int i = 0; i < xmlElementNames.length; i++ )
+        {
+            if( XmlUtil.equal( xmlElementNames[ i ], xmlElementName, xmlElementName.getNamespaceURI() ) )
+            {
+                return modelElementTypes[ i ];
+            }
+        }
+        
+        throw new IllegalStateException();
+    }
+    
+    private static XMLInputFactory factory()
+    {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        
+        factory.setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, true );
+        factory.setProperty( XMLInputFactory.IS_COALESCING, true );
+        factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+        
+        factory.setXMLResolver
+        (
+            new XMLResolver()
+            {
+                public Object resolveEntity( final String publicID,
+                                             final String systemID,
+                                             final String baseURI,
+                                             final String namespace )
+                {
+                    return new ByteArrayInputStream( new byte[ 0 ] );
+                }
+            }
+        );
+        
+        return factory;
+    }
+    
+    private static Node parse( final File file ) throws ResourceStoreException
+    {
+        try( InputStream in = new BufferedInputStream( new FileInputStream( file ) ) )
+        {
+            return parse( in );
+        }
+        catch( IOException e )
+        {
+            throw new ResourceStoreException( e );
+        }
+    }
+    
+    /**
+     * Parses the document, returning its root element. Similarly to XmlResourceStore, a document that cannot
+     * be parsed is treated as empty.
+     */
+    
+    private static Node parse( final InputStream in )
+    {
+        try
+        {
+            final XMLStreamReader reader = FACTORY.createXMLStreamReader( in );
+            
+            try
+            {
+                return parse( reader );
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        catch( XMLStreamException e )
+        {
+            return null;
+        }
+    }
+    
+    private static Node parse( final XMLStreamReader reader ) throws XMLStreamException
+    {
+        final List<NodeBuilder> stack = new ArrayList<NodeBuilder>();
+        NodeBuilder current = null;
+        Node root = null;
+        
+        while( reader.hasNext() )
+        {
+            switch( reader.next() )
+            {
+                case XMLStreamConstants.START_ELEMENT:
+                {
+                    if( current != null )
+                    {
+                        stack.add( current );
+                    }
+                    
+                    current = new NodeBuilder( reader );
+                    
+                    break;
+                }
+                case XMLStreamConstants.END_ELEMENT:
+                {
+                    final Node node = current.result();
+                    
+                    if( stack.isEmpty() )
+                    {
+                        current = null;
+                        root = node;
+                    }
+                    else
+                    {
+                        current = stack.remove( stack.size() - 1 );
+                        current.child( node );
+                    }
+                    
+                    break;
+                }
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                {
+                    if( current != null )
+                    {
+                        current.text( reader.getText() );
+                    }
+                    
+                    break;
+                }
+                case XMLStreamConstants.COMMENT:
+                {
+                    if( current != null )
+                    {
+                        current.comment( reader.getText() );
+                    }
+                    
+                    break;
+                }
+            }
+        }
+        
+        return root;
+    }
+    
+    private final class ValueBinding extends ValuePropertyBinding
+    {
+        private StandardXmlValueBindingImpl.Metadata metadata;
+        
+        @Override
+        public void init( final Property property )
+        {
+            super.init( property );
+            
+            this.metadata = StandardXmlValueBindingImpl.metadata( (ValueProperty) property.definition(), StreamingXmlResource.this.xmlNamespaceResolver );
+        }
+        
+        @Override
+        public String read()
+        {
+            final Node node = StreamingXmlResource.this.node;
+            
+            if( node == null )
+            {
+                return null;
+            }
+            
+            final String text = node.text( this.metadata.path );
+            
+            if( this.metadata.treatExistanceAsValue )
+            {
+                return ( text != null ? this.metadata.valueWhenPresent : this.metadata.valueWhenNotPresent );
+            }
+            
+            return ( text == null ? EMPTY_STRING : text );
+        }
+        
+        @Override
+        public void write( final String value )
+        {
+            throw new UnsupportedOperationException( readOnly.text() );
+        }
+    }
+    
+    private final class ElementBinding extends ElementPropertyBinding
+    {
+        private XmlTypeMappingMetadata metadata;
+        private Resource resource;
+        private boolean initialized;
+        
+        @Override
+        public void init( final Property property )
+        {
+            super.init( property );
+            
+            final Set<ElementType> possible = property.service( PossibleTypesService.class ).types();
+            this.metadata = StandardXmlElementBindingImpl.metadata( property.definition(), possible, StreamingXmlResource.this.xmlNamespaceResolver );
+        }
+        
+        @Override
+        public Resource read()
+        {
+            if( ! this.initialized )
+            {
+                final Node parent = parent( this.metadata.path );
+                
+                if( parent != null )
+                {
+                    for( Node child : parent.children )
+                    {
+                        final QName name = child.name();
+                        
+                        if( contains( this.metadata.xmlElementNames, name, name.getNamespaceURI() ) )
+                        {
+                            this.resource = new StreamingXmlResource( StreamingXmlResource.this, child );
+                            break;
+                        }
+                    }
+                }
+                
+                this.initialized = true;
+            }
+            
+            return this.resource;
+        }
+        
+        @Override
+        public ElementType type( final Resource resource )
+        {
+            return StreamingXmlResource.type( resource, this.metadata.xmlElementNames, this.metadata.modelElementTypes );
+        }
+    }
+    
+    private final class ImpliedElementBinding extends ElementPropertyBinding
+    {
+        private Resource resource;
+        
+        @Override
+        public void init( final Property property )
+        {
+            super.init( property );
+            
+            final PropertyDef pdef = property.definition();
+            final XmlElementBinding xmlElementBindingAnnotation = pdef.getAnnotation( XmlElementBinding.class );
+            final String path;
+            
+            if( xmlElementBindingAnnotation != null )
+            {
+                path = xmlElementBindingAnnotation.path();
+            }
+            else
+            {
+                final XmlBinding xmlBindingAnnotation = pdef.getAnnotation( XmlBinding.class );
+                path = ( xmlBindingAnnotation != null ? xmlBindingAnnotation.path() : pdef.name() );
+            }
+            
+            final Node node = StreamingXmlResource.this.node;
+            final Node child = ( node == null ? null : node.element( new XmlPath( path, StreamingXmlResource.this.xmlNamespaceResolver ) ) );
+            
+            this.resource = new StreamingXmlResource( StreamingXmlResource.this, child );
+        }
+        
+        @Override
+        public Resource read()
+        {
+            return this.resource;
+        }
+        
+        @Override
+        public ElementType type( final Resource resource )
+        {
+            return property().definition().getType();
+        }
+    }
+    
+    private final class ListBinding extends ListPropertyBinding
+    {
+        private XmlTypeMappingMetadata metadata;
+        private List<Resource> resources;
+        
+        @Override
+        public void init( final Property property )
+        {
+            super.init( property );
+            
+            final Set<ElementType> possible = property.service( PossibleTypesService.class ).types();
+            this.metadata = StandardXmlListBindingImpl.metadata( property.definition(), possible, StreamingXmlResource.this.xmlNamespaceResolver );
+        }
+        
+        @Override
+        public List<Resource> read()
+        {
+            if( this.resources == null )
+            {
+                final ListFactory<Resource> list = ListFactory.start();
+                final Node parent = parent( this.metadata.path );
+                
+                if( parent != null )
+                {
+                    for( Node child : parent.children )
+                    {
+                        final QName name = child.name();
+                        
+                        if( contains( this.metadata.xmlElementNames, name, name.getNamespaceURI() ) )
+                        {
+                            list.add( new StreamingXmlResource( StreamingXmlResource.this, child ) );
+                        }
+                    }
+                }
+                
+                this.resources = list.result();
+            }
+            
+            return this.resources;
+        }
+        
+        @Override
+        public ElementType type( final Resource resource )
+        {
+            return StreamingXmlResource.type( resource, this.metadata.xmlElementNames, this.metadata.modelElementTypes );
+        }
+    }
+    
+    /**
+     * An XML element, as retained by the streaming resource.
+     */
+    
+    private static final class Node
+    {
+        private static final String[] NO_STRINGS = new String[ 0 ];
+        private static final Node[] NO_NODES = new Node[ 0 ];
+        
+        private final String namespace;
+        private final String localName;
+        
+        /**
+         * The local names and values of attributes, alternating.
+         */
+        
+        private final String[] attributes;
+        
+        /**
+         * The trimmed text of comments that hold metadata in the form of name:value.
+         */
+        
+        private final String[] comments;
+        
+        private final Node[] children;
+        private final String text;
+        
+        public Node( final String namespace,
+                     final String localName,
+                     final String[] attributes,
+                     final String[] comments,
+                     final Node[] children,
+                     final String text )
+        {
+            this.namespace = namespace;
+            this.localName = localName;
+            this.attributes = attributes;
+            this.comments = comments;
+            this.children = children;
+            this.text = text;
+        }
+        
+        public QName name()
+        {
+            return new QName( this.namespace, this.localName );
+        }
+        
+        /**
+         * Finds the element at the specified path, returning null if the element does not exist or if the path
+         * does not lead to an element.
+         */
+        
+        public Node element( final XmlPath path )
+        {
+            Node node = this;
+            
+            for( XmlPath.Segment segment : path.getSegments() )
+            {
+                if( segment.isAttribute() || segment.isComment() )
+                {
+                    return null;
+                }
+                
+                node = node.element( segment.getQualifiedName() );
+                
+                if( node == null )
+                {
+                    return null;
+                }
+            }
+            
+            return node;
+        }
+        
+        private Node element( final QName name )
+        {
+            String namespace = name.getNamespaceURI();
+            
+            if( namespace.length() == 0 && name.getPrefix().length() == 0 )
+            {
+                namespace = this.namespace;
+            }
+            
+            namespace = normalizeToNull( namespace );
+            
+            for( Node child : this.children )
+            {
+                if( equal( child.namespace, namespace ) && child.localName.equals( name.getLocalPart() ) )
+                {
+                    return child;
+                }
+            }
+            
+            return null;
+        }
+        
+        /**
+         * Finds the text of the node at the specified path, following the semantics of
+         * {@link XmlElement#getChildNode(XmlPath, boolean)}. Returns null if the node does not exist.
+         */
+        
+        public String text( final XmlPath path )
+        {
+            Node node = this;
+            
+            for( XmlPath.Segment segment : path.getSegments() )
+            {
+                final String name = segment.getQualifiedName().getLocalPart();
+                
+                if( segment.isAttribute() )
+                {
+                    return node.attribute( name );
+                }
+                else if( segment.isComment() )
+                {
+                    return node.comment( name );
+                }
+                
+                node = node.element( segment.getQualifiedName() );
+                
+                if( node == null )
+                {
+                    return null;
+                }
+            }
+            
+            return node.text;
+        }
+        
+        private String attribute( final String name )
+        {
+            for( int i = 0; i < this.attributes.length; i += 2 )
+            {
+                if( this.attributes[ i ].equals( name ) )
+                {
+                    return this.attributes[ i + 1 ];
+                }
+            }
+            
+            return null;
+        }
+        
+        private String comment( final String name )
+        {
+            for( String comment : this.comments )
+            {
+                final int colon = comment.indexOf( ':' );
+                
+                if( comment.substring( 0, colon ).equals( name ) )
+                {
+                    return comment.substring( colon + 1 );
+                }
+            }
+            
+            return null;
+        }
+    }
+    
+    private static final class NodeBuilder
+    {
+        private final String namespace;
+        private final String localName;
+        private final String[] attributes;
+        private List<String> comments;
+        private List<Node> children;
+        private String text;
+        private StringBuilder buf;
+        
+        public NodeBuilder( final XMLStreamReader reader )
+        {
+            this.namespace = normalizeToNull( reader.getNamespaceURI() );
+            this.localName = reader.getLocalName();
+            
+            final int count = reader.getAttributeCount();
+            
+            if( count == 0 )
+            {
+                this.attributes = Node.NO_STRINGS;
+            }
+            else
+            {
+                this.attributes = new String[ count * 2 ];
+                
+                for( int i = 0; i < count; i++ )
+                {
+                    this.attributes[ i * 2 ] = reader.getAttributeLocalName( i );
+                    this.attributes[ i * 2 + 1 ] = reader.getAttributeValue( i );
+                }
+            }
+        }
+        
+        public void text( final String text )
+        {
+            if( this.buf != null )
+            {
+                this.buf.append( text );
+            }
+            else if( this.text != null )
+            {
+                this.buf = new StringBuilder( this.text );
+                this.buf.append( text );
+                this.text = null;
+            }
+            else
+            {
+                this.text = text;
+            }
+        }
+        
+        public void comment( final String text )
+        {
+            if( text != null && text.indexOf( ':' ) != -1 )
+            {
+                if( this.comments == null )
+                {
+                    this.comments = new ArrayList<String>( 1 );
+                }
+                
+                this.comments.add( text.trim() );
+            }
+        }
+        
+        public void child( final Node node )
+        {
+            if( this.children == null )
+            {
+                this.children = new ArrayList<Node>();
+            }
+            
+            this.children.add( node );
+        }
+        
+        public Node result()
+        {
+            final String text;
+            
+            if( this.buf != null )
+            {
+                text = this.buf.toString();
+            }
+            else if( this.text != null )
+            {
+                text = this.text;
+            }
+            else
+            {
+                text = EMPTY_STRING;
+            }
+            
+            return new Node
+            (
+                this.namespace,
+                this.localName,
+                this.attributes,
+                ( this.comments == null ? Node.NO_STRINGS : this.comments.toArray( new String[ this.comments.size() ] ) ),
+                ( this.children == null ? Node.NO_NODES : this.children.toArray( new Node[ this.children.size() ] ) ),
+                text
+            );
+        }
+    }
+
+}
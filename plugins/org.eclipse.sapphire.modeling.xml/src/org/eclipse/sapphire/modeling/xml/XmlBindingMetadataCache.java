@@ -0,0 +1,105 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling.xml;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.PropertyDef;
+
+/**
+ * Holds binding metadata derived from the annotations of a property, such as parsed paths and qualified names, so
+ * that it is computed once rather than for every property instance. Since qualified names depend on namespace
+ * resolution, the metadata is only cached for properties of resources that use the standard namespace resolver,
+ * in which case the resolution is fully determined by the element type.
+ * 
+ * <p>The metadata refers to the property and the element type that key it, so it is held through soft references.
+ * Otherwise, the weak keys would never become unreachable. Once the metadata is cleared, the keys can be collected
+ * along with the classes that define them.</p>
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+final class XmlBindingMetadataCache<T>
+{
+    private final Map<PropertyDef,Map<ElementType,SoftReference<T>>> entries = new WeakHashMap<PropertyDef,Map<ElementType,SoftReference<T>>>();
+    
+    /**
+     * Returns the cached metadata for the specified property and namespace resolver.
+     * 
+     * @param property the property definition
+     * @param resolver the namespace resolver of the resource holding the property
+     * @return the cached metadata or null if none has been cached
+     */
+    
+    synchronized T get( final PropertyDef property, final XmlNamespaceResolver resolver )
+    {
+        final ElementType type = type( resolver );
+        
+        if( type != null )
+        {
+            final Map<ElementType,SoftReference<T>> metadataByType = this.entries.get( property );
+            
+            if( metadataByType != null )
+            {
+                final SoftReference<T> metadata = metadataByType.get( type );
+                
+                if( metadata != null )
+                {
+                    return metadata.get();
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Caches the metadata for the specified property and namespace resolver. Does nothing if the namespace resolver
+     * is not the standard namespace resolver.
+     * 
+     * @param property the property definition
+     * @param resolver the namespace resolver of the resource holding the property
+     * @param metadata the metadata
+     */
+    
+    synchronized void put( final PropertyDef property, final XmlNamespaceResolver resolver, final T metadata )
+    {
+        final ElementType type = type( resolver );
+        
+        if( type != null )
+        {
+            Map<ElementType,SoftReference<T>> metadataByType = this.entries.get( property );
+            
+            if( metadataByType == null )
+            {
+                metadataByType = new WeakHashMap<ElementType,SoftReference<T>>();
+                this.entries.put( property, metadataByType );
+            }
+            
+            metadataByType.put( type, new SoftReference<T>( metadata ) );
+        }
+    }
+    
+    private static ElementType type( final XmlNamespaceResolver resolver )
+    {
+        if( resolver != null && resolver.getClass() == StandardXmlNamespaceResolver.class )
+        {
+            return ( (StandardXmlNamespaceResolver) resolver ).type();
+        }
+        
+        return null;
+    }
+
+}
@@ -0,0 +1,372 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling.xml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.ProcessingInstruction;
+
+/**
+ * Converts a DOM document to and from a compact binary form, so that a document can be restored without parsing
+ * XML. The binary form holds elements, attributes, text, CDATA sections, comments and processing instructions.
+ * Document type declarations are not retained. Strings are written once to a string table and referenced by index.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class XmlDocumentSerializer
+{
+    private static final int MAGIC = 0x53584D4C;
+    
+    /**
+     * The version of the binary form. Must be incremented when the binary form changes.
+     */
+    
+    public static final int VERSION = 1;
+    
+    private static final byte ELEMENT = 1;
+    private static final byte TEXT = 2;
+    private static final byte CDATA = 3;
+    private static final byte COMMENT = 4;
+    private static final byte PROCESSING_INSTRUCTION = 5;
+    
+    private static final int NULL = -1;
+    
+    private XmlDocumentSerializer()
+    {
+    }
+    
+    /**
+     * Writes the binary form of a document.
+     *
+     * @param document the document to write
+     * @param out the output to write to
+     * @throws IOException if the document could not be written
+     */
+    
+    public static void write( final Document document, final DataOutput out ) throws IOException
+    {
+        final Writer writer = new Writer();
+        
+        writer.children( document );
+        
+        out.writeInt( MAGIC );
+        out.writeInt( VERSION );
+        out.writeInt( writer.strings.size() );
+        
+        for( final String string : writer.strings )
+        {
+            final byte[] bytes = string.getBytes( UTF_8 );
+            
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+        
+        writer.body.flush();
+        
+        final byte[] body = writer.bytes.toByteArray();
+        
+        out.writeInt( body.length );
+        out.write( body );
+    }
+    
+    /**
+     * Reads the binary form of a document, starting at the current position of the buffer.
+     *
+     * @param in the buffer to read from
+     * @return the document
+     * @throws IOException if the buffer does not hold the binary form of a document or holds the binary form
+     *   written by a different version
+     */
+    
+    public static Document read( final ByteBuffer in ) throws IOException
+    {
+        try
+        {
+            if( in.getInt() != MAGIC || in.getInt() != VERSION )
+            {
+                throw new IOException( "Unrecognized document binary form." );
+            }
+            
+            // Each string takes at least four bytes, which bounds the size of the string table by the size of the
+            // buffer, so that a corrupted count cannot cause an excessive allocation.
+            
+            final int count = count( in, 4 );
+            final String[] strings = new String[ count ];
+            
+            for( int i = 0; i < count; i++ )
+            {
+                final byte[] bytes = new byte[ count( in, 1 ) ];
+                
+                in.get( bytes );
+                
+                strings[ i ] = new String( bytes, UTF_8 );
+            }
+            
+            count( in, 1 );
+            
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            
+            factory.setNamespaceAware( true );
+            
+            final Document document = factory.newDocumentBuilder().newDocument();
+            
+            ( new Reader( in, strings, document ) ).children( document );
+            
+            return document;
+        }
+        catch( final ParserConfigurationException e )
+        {
+            throw new IOException( e );
+        }
+        catch( final BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | DOMException e )
+        {
+            throw new IOException( "Corrupted document binary form.", e );
+        }
+    }
+    
+    /**
+     * Reads a count and verifies that the remainder of the buffer can hold that many items.
+     *
+     * @param in the buffer to read from
+     * @param size the minimum size of an item in bytes
+     * @return the count
+     * @throws IOException if the count is negative or exceeds the remainder of the buffer
+     */
+    
+    private static int count( final ByteBuffer in, final int size ) throws IOException
+    {
+        final int count = in.getInt();
+        
+        if( count < 0 || count > in.remaining() / size )
+        {
+            throw new IOException( "Corrupted document binary form." );
+        }
+        
+        return count;
+    }
+    
+    private static final class Writer
+    {
+        private final List<String> strings = new ArrayList<String>();
+        private final Map<String,Integer> indexes = new HashMap<String,Integer>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream body = new DataOutputStream( this.bytes );
+        
+        public void children( final Node parent ) throws IOException
+        {
+            final List<Node> children = new ArrayList<Node>();
+            
+            for( Node child = parent.getFirstChild(); child != null; child = child.getNextSibling() )
+            {
+                switch( child.getNodeType() )
+                {
+                    case Node.ELEMENT_NODE:
+                    case Node.TEXT_NODE:
+                    case Node.CDATA_SECTION_NODE:
+                    case Node.COMMENT_NODE:
+                    case Node.PROCESSING_INSTRUCTION_NODE:
+                    case Node.ENTITY_REFERENCE_NODE:
+                    {
+                        children.add( child );
+                        break;
+                    }
+                    default:
+                    {
+                        // Other nodes, such as document type declarations, are not retained.
+                    }
+                }
+            }
+            
+            this.body.writeInt( children.size() );
+            
+            for( final Node child : children )
+            {
+                node( child );
+            }
+        }
+        
+        private void node( final Node node ) throws IOException
+        {
+            switch( node.getNodeType() )
+            {
+                case Node.ELEMENT_NODE:
+                {
+                    final NamedNodeMap attributes = node.getAttributes();
+                    final int count = attributes.getLength();
+                    
+                    this.body.writeByte( ELEMENT );
+                    string( node.getNamespaceURI() );
+                    string( node.getNodeName() );
+                    this.body.writeInt( count );
+                    
+                    for( int i = 0; i < count; i++ )
+                    {
+                        final Attr attribute = (Attr) attributes.item( i );
+                        
+                        string( attribute.getNamespaceURI() );
+                        string( attribute.getName() );
+                        string( attribute.getValue() );
+                    }
+                    
+                    children( node );
+                    
+                    break;
+                }
+                case Node.TEXT_NODE:
+                case Node.ENTITY_REFERENCE_NODE:
+                {
+                    this.body.writeByte( TEXT );
+                    string( node.getTextContent() );
+                    break;
+                }
+                case Node.CDATA_SECTION_NODE:
+                {
+                    this.body.writeByte( CDATA );
+                    string( node.getNodeValue() );
+                    break;
+                }
+                case Node.COMMENT_NODE:
+                {
+                    this.body.writeByte( COMMENT );
+                    string( node.getNodeValue() );
+                    break;
+                }
+                case Node.PROCESSING_INSTRUCTION_NODE:
+                {
+                    final ProcessingInstruction instruction = (ProcessingInstruction) node;
+                    
+                    this.body.writeByte( PROCESSING_INSTRUCTION );
+                    string( instruction.getTarget() );
+                    string( instruction.getData() );
+                    break;
+                }
+                default:
+                {
+                    throw new IllegalArgumentException();
+                }
+            }
+        }
+        
+        private void string( final String string ) throws IOException
+        {
+            if( string == null )
+            {
+                this.body.writeInt( NULL );
+            }
+            else
+            {
+                Integer index = this.indexes.get( string );
+                
+                if( index == null )
+                {
+                    index = this.strings.size();
+                    this.strings.add( string );
+                    this.indexes.put( string, index );
+                }
+                
+                this.body.writeInt( index );
+            }
+        }
+    }
+    
+    private static final class Reader
+    {
+        private final ByteBuffer in;
+        private final String[] strings;
+        private final Document document;
+        
+        public Reader( final ByteBuffer in, final String[] strings, final Document document )
+        {
+            this.in = in;
+            this.strings = strings;
+            this.document = document;
+        }
+        
+        public void children( final Node parent ) throws IOException
+        {
+            for( int i = 0, n = count( this.in, 1 ); i < n; i++ )
+            {
+                parent.appendChild( node() );
+            }
+        }
+        
+        private Node node() throws IOException
+        {
+            final byte kind = this.in.get();
+            
+            switch( kind )
+            {
+                case ELEMENT:
+                {
+                    final Element element = this.document.createElementNS( string(), string() );
+                    
+                    for( int i = 0, n = count( this.in, 12 ); i < n; i++ )
+                    {
+                        element.setAttributeNS( string(), string(), string() );
+                    }
+                    
+                    children( element );
+                    
+                    return element;
+                }
+                case TEXT:
+                {
+                    return this.document.createTextNode( string() );
+                }
+                case CDATA:
+                {
+                    return this.document.createCDATASection( string() );
+                }
+                case COMMENT:
+                {
+                    return this.document.createComment( string() );
+                }
+                case PROCESSING_INSTRUCTION:
+                {
+                    return this.document.createProcessingInstruction( string(), string() );
+                }
+                default:
+                {
+                    throw new IOException( "Corrupted document binary form." );
+                }
+            }
+        }
+        
+        private String string()
+        {
+            final int index = this.in.getInt();
+            return ( index == NULL ? null : this.strings[ index ] );
+        }
+    }
+
+}
@@ -12,7 +12,6 @@
 
 package org.eclipse.sapphire.modeling.xml;
 
-import static org.eclipse.sapphire.modeling.util.MiscUtil.normalizeToNull;
 import static org.eclipse.sapphire.modeling.xml.XmlUtil.EMPTY_STRING;
 
 import java.io.File;
@@ -51,6 +50,8 @@ public final class XmlElement extends XmlNode
     private final IdentityCache<Comment,XmlComment> commentsCache = new IdentityCache<Comment,XmlComment>();
     private final IdentityCache<Comment,XmlMetaComment> metaCommentsCache = new IdentityCache<Comment,XmlMetaComment>();
 
+    private ChildElements childElements;
+    private InsertionRun insertionRun;
     private QName qname;
     private XmlContentModel contentModel;
     private boolean contentModelInitialized;
@@ -78,6 +79,15 @@ public final class XmlElement extends XmlNode
         this.contentModelInitialized = false;
     }
     
+    /**
+     * Returns the underlying DOM element. The DOM element may be modified directly. The child elements returned by
+     * {@link #getChildElements()} and related methods are cached. The cache is checked on every access against the
+     * number of child nodes and the identity of the first and the last child node, which catches adding and
+     * removing children. An edit that keeps all three, such as replacing a child in the middle, is only noticed
+     * after a call to {@link XmlResourceStore#notifyDomChanged()}, so code that modifies the DOM directly should make
+     * that call afterwards. The methods of this class and {@link XmlUtil} do so automatically.
+     */
+    
     @Override
     public Element getDomNode()
     {
@@ -293,6 +303,8 @@ public final class XmlElement extends XmlNode
         {
             domElement.removeChild( child );
         }
+        
+        getResourceStore().notifyDomChanged();
 
         if( isElementTextNonEmpty )
         {
@@ -405,51 +417,22 @@ public final class XmlElement extends XmlNode
         }
     }
     
+    /**
+     * Returns the child elements. The returned list is immutable and reflects the DOM at the time of the call.
+     * It is reused by subsequent calls until the DOM version of the store changes or the children of the DOM
+     * element no longer match the list, as described for {@link #getDomNode()}.
+     * 
+     * @return the child elements
+     */
+    
     public List<XmlElement> getChildElements()
     {
-        final ListFactory<XmlElement> result = ListFactory.start();
-        final NodeList children = getDomNode().getChildNodes();
-        
-        this.elementsCache.track();
-        
-        for( int i = 0, count = children.getLength(); i < count; i++ )
-        {
-            final Node n = children.item( i );
-            
-            if( n.getNodeType() == Node.ELEMENT_NODE )
-            {
-                final Element element = (Element) n;
-                XmlElement xmlElement = this.elementsCache.get( element );
-            
-                if( xmlElement == null )
-                {
-                    xmlElement = new XmlElement( this, element );
-                    this.elementsCache.put( element, xmlElement );
-                }
-    
-                result.add( xmlElement );
-            }
-        }
-        
-        this.elementsCache.purge();
-        
-        return result.result();
+        return childElements().list;
     }
 
     public List<XmlElement> getChildElements( final QName name )
     {
-        final ListFactory<XmlElement> result = ListFactory.start();
-        
-        for( XmlElement element : getChildElements() )
-        {
-            if( equal( normalizeToNull( element.getNamespace() ), normalizeToNull( name.getNamespaceURI() ) ) &&
-                equal( element.getLocalName(), name.getLocalPart() ) )
-            {
-                result.add( element );
-            }
-        }
-        
-        return result.result();
+        return childElements().list( name );
     }
     
     public List<XmlElement> getChildElements( final String name )
@@ -478,13 +461,11 @@ public final class XmlElement extends XmlNode
     public XmlElement getChildElement( final QName name,
                                        final boolean createIfNecessary )
     {
-        for( XmlElement element : getChildElements() )
+        final List<XmlElement> elements = getChildElements( name );
+        
+        if( ! elements.isEmpty() )
         {
-            if( equal( normalizeToNull( element.getNamespace() ), normalizeToNull( name.getNamespaceURI() ) ) &&
-                equal( element.getLocalName(), name.getLocalPart() ) )
-            {
-                return element;
-            }
+            return elements.get( 0 );
         }
          
         if( createIfNecessary )
@@ -525,47 +506,118 @@ public final class XmlElement extends XmlNode
         return addChildElement( createQualifiedName( name ), refElement );
     }
     
+    /**
+     * Adds the specified number of child elements with the same name. The insertion position is determined once
+     * for all of the new elements, which makes this method considerably faster than adding the elements one at
+     * a time when the parent already has many children.
+     * 
+     * @param name the name of the child elements
+     * @param count the number of child elements to add
+     * @return the added child elements, in document order
+     */
+    
+    public List<XmlElement> addChildElements( final QName name,
+                                              final int count )
+    {
+        final List<XmlElement> result = new ArrayList<XmlElement>( count );
+        
+        if( count > 0 )
+        {
+            final XmlContentModel xmlContentModel = getContentModel();
+            int position = -1;
+            
+            if( xmlContentModel != null )
+            {
+                position = xmlContentModel.findInsertionPosition( getDomNode().getChildNodes(), name, count );
+            }
+            
+            if( xmlContentModel != null && position == -1 )
+            {
+                for( int i = 0; i < count; i++ )
+                {
+                    result.add( addChildElement( name ) );
+                }
+            }
+            else
+            {
+                final NodeList siblings = getDomNode().getChildNodes();
+                final Node refNode = ( position != -1 && position < siblings.getLength() ? siblings.item( position ) : null );
+                
+                for( int i = 0; i < count; i++ )
+                {
+                    result.add( addChildElement( name, refNode, false ) );
+                }
+            }
+        }
+        
+        return result;
+    }
+    
+    public List<XmlElement> addChildElements( final String name,
+                                              final int count )
+    {
+        return addChildElements( createQualifiedName( name ), count );
+    }
+    
     private XmlElement addChildElement( final QName name,
                                         final Node refNode )
+    {
+        return addChildElement( name, refNode, true );
+    }
+    
+    private XmlElement addChildElement( final QName name,
+                                        final Node refNode,
+                                        final boolean findPosition )
     {
         validateEdit();
         
         final Element domElement = getDomNode();
         final Document document = domElement.getOwnerDocument();
-        final NodeList siblings = domElement.getChildNodes();
-        final int siblingsCount = siblings.getLength();
         
         // Notify listeners that an element is about to be added.
         
         notifyPreChildElementAddListeners();
         
-        // Create the new element and insert it in the correct spot.
+        // Create the new element and insert it in the correct spot. When the previous element was inserted
+        // using the content model and is still in place, the new element goes right after it.
         
         Node refNodeRevised = refNode;
+        InsertionRun run = null;
         
-        if( refNodeRevised == null )
+        if( refNodeRevised == null && findPosition )
         {
             final XmlContentModel xmlContentModel = getContentModel();
             
             if( xmlContentModel != null )
             {
-                final int position = xmlContentModel.findInsertionPosition( siblings, name );
+                run = this.insertionRun;
                 
-                if( position < siblingsCount )
+                if( run != null && run.continues( domElement, name ) )
                 {
-                    refNodeRevised = siblings.item( position );
+                    refNodeRevised = run.next;
+                }
+                else
+                {
+                    final NodeList siblings = domElement.getChildNodes();
+                    final int position = xmlContentModel.findInsertionPosition( siblings, name );
+                    
+                    if( position < siblings.getLength() )
+                    {
+                        refNodeRevised = siblings.item( position );
+                    }
+                    
+                    run = InsertionRun.start( xmlContentModel, siblings, name, position, run );
                 }
             }
         }
         
+        this.insertionRun = null;
+        
         Node prevNode = null;
         
         if( refNodeRevised == null )
         {
-            if( siblingsCount > 0 )
-            {
-                prevNode = siblings.item( siblingsCount - 1 );
-            }
+            prevNode = domElement.getLastChild();
         }
         else
         {
@@ -598,11 +650,12 @@ public final class XmlElement extends XmlNode
         }
         
         domElement.insertBefore( element, refNodeRevised );
+        getResourceStore().notifyDomChanged();
         
         final XmlElement wrappedElement = new XmlElement( this, element );
         this.elementsCache.put( element, wrappedElement );
         
-        if( domElement.getNodeType() == Node.ELEMENT_NODE && domElement.getChildNodes().getLength() == 1 )
+        if( domElement.getNodeType() == Node.ELEMENT_NODE && domElement.getFirstChild() == element && element.getNextSibling() == null )
         {
             format();
         }
@@ -611,6 +664,12 @@ public final class XmlElement extends XmlNode
             wrappedElement.format();
         }
         
+        if( run != null )
+        {
+            run.inserted( element );
+            this.insertionRun = run;
+        }
+        
         // Notify listeners that an element has been added.
         
         notifyPostChildElementAddListeners();
@@ -938,6 +997,9 @@ public final class XmlElement extends XmlNode
                 domParentNode.insertBefore( node, domRefNode );
                 domRefNode = node;
             }
+            
+            getResourceStore().notifyDomChanged();
+            resetInsertionRun( getParent() );
         }
     }
     
@@ -967,6 +1029,10 @@ public final class XmlElement extends XmlNode
         
         parent.removeChild( xBookmark );
         parent.removeChild( yBookmark );
+        
+        getResourceStore().notifyDomChanged();
+        resetInsertionRun( getParent() );
+        resetInsertionRun( y.getParent() );
     }
 
     @Override
@@ -989,6 +1055,8 @@ public final class XmlElement extends XmlNode
             final Node previousSibling = domElement.getPreviousSibling();
             
             parentDomNode.removeChild( domElement );
+            getResourceStore().notifyDomChanged();
+            resetInsertionRun( parentXmlElement );
              
             if( previousSibling != null && previousSibling.getNodeType() == Node.TEXT_NODE &&
                 previousSibling.getNodeValue().trim().length() == 0 )
@@ -1271,4 +1339,199 @@ public final class XmlElement extends XmlNode
         notifyListeners( new Event( EventType.POST_CHILD_ELEMENT_REMOVE, this ) );
     }
 
+    private static void resetInsertionRun( final XmlElement parent )
+    {
+        if( parent != null )
+        {
+            parent.insertionRun = null;
+        }
+    }
+    
+    /**
+     * Returns the view of child elements, rebuilding it if the DOM has been modified since the view was built.
+     */
+    
+    private ChildElements childElements()
+    {
+        final long version = getResourceStore().getDomVersion();
+        final Element domElement = getDomNode();
+        ChildElements view = this.childElements;
+        
+        if( view == null || ! view.valid( version, domElement ) )
+        {
+            final ListFactory<XmlElement> result = ListFactory.start();
+            
+            this.elementsCache.track();
+            
+            for( Node n = domElement.getFirstChild(); n != null; n = n.getNextSibling() )
+            {
+                if( n.getNodeType() == Node.ELEMENT_NODE )
+                {
+                    final Element element = (Element) n;
+                    XmlElement xmlElement = this.elementsCache.get( element );
+                
+                    if( xmlElement == null )
+                    {
+                        xmlElement = new XmlElement( this, element );
+                        this.elementsCache.put( element, xmlElement );
+                    }
+        
+                    result.add( xmlElement );
+                }
+            }
+            
+            this.elementsCache.purge();
+            
+            view = new ChildElements( version, domElement, result.result() );
+            this.childElements = view;
+        }
+        
+        return view;
+    }
+    
+    /**
+     * An immutable view of the child elements, valid for a particular version of the DOM and a particular shape of
+     * the child nodes. The elements are indexed by qualified name on first lookup by name.
+     */
+    
+    private static final class ChildElements
+    {
+        private final long version;
+        private final Node first;
+        private final Node last;
+        private final int count;
+        private final List<XmlElement> list;
+        private Map<QName,List<XmlElement>> index;
+        
+        public ChildElements( final long version,
+                              final Element parent,
+                              final List<XmlElement> list )
+        {
+            this.version = version;
+            this.first = parent.getFirstChild();
+            this.last = parent.getLastChild();
+            this.count = parent.getChildNodes().getLength();
+            this.list = list;
+        }
+        
+        /**
+         * Determines whether the view still matches the children of the DOM element. Checking the first and the last
+         * child node and the child node count is cheap and catches children added or removed directly in the DOM.
+         */
+        
+        public boolean valid( final long version, final Element parent )
+        {
+            return this.version == version && this.first == parent.getFirstChild() && this.last == parent.getLastChild() &&
+                   this.count == parent.getChildNodes().getLength();
+        }
+        
+        public synchronized List<XmlElement> list( final QName name )
+        {
+            if( this.index == null )
+            {
+                final Map<QName,ListFactory<XmlElement>> factories = new HashMap<QName,ListFactory<XmlElement>>();
+                
+                for( XmlElement element : this.list )
+                {
+                    final QName key = element.getQualifiedName();
+                    ListFactory<XmlElement> factory = factories.get( key );
+                    
+                    if( factory == null )
+                    {
+                        factory = ListFactory.start();
+                        factories.put( key, factory );
+                    }
+                    
+                    factory.add( element );
+                }
+                
+                this.index = new HashMap<QName,List<XmlElement>>();
+                
+                for( Map.Entry<QName,ListFactory<XmlElement>> entry : factories.entrySet() )
+                {
+                    this.index.put( entry.getKey(), entry.getValue().result() );
+                }
+            }
+            
+            final List<XmlElement> elements = this.index.get( name );
+            
+            return ( elements == null ? ListFactory.<XmlElement>empty() : elements );
+        }
+    }
+    
+    /**
+     * Tracks consecutive inserts of elements with the same name at the position found using the content model,
+     * such as appends to a list. While the most recently inserted element is followed by the same sibling element
+     * as right after it was inserted, the next element goes right after it without consulting the content model.
+     * The number of elements inserted this way is confirmed with the content model when the run starts and
+     * doubles with every run, so that appending many elements only consults the content model a few times.
+     */
+    
+    private static final class InsertionRun
+    {
+        private static final int MAX_SIZE = 1024;
+        
+        private final QName name;
+        private final int size;
+        private int remaining;
+        private Element last;
+        private Element next;
+        
+        private InsertionRun( final QName name,
+                              final int size )
+        {
+            this.name = name;
+            this.size = size;
+            this.remaining = size;
+        }
+        
+        public static InsertionRun start( final XmlContentModel xmlContentModel,
+                                          final NodeList siblings,
+                                          final QName name,
+                                          final int position,
+                                          final InsertionRun previous )
+        {
+            int size = 1;
+            
+            if( previous != null && previous.name.equals( name ) )
+            {
+                size = Math.min( previous.size * 2, MAX_SIZE );
+                
+                if( xmlContentModel.findInsertionPosition( siblings, name, size ) != position )
+                {
+                    size = 1;
+                }
+            }
+            
+            return new InsertionRun( name, size );
+        }
+        
+        public boolean continues( final Element parent,
+                                  final QName name )
+        {
+            return this.remaining > 0 && this.name.equals( name ) && this.last.getParentNode() == parent &&
+                   nextElementSibling( this.last ) == this.next;
+        }
+        
+        public void inserted( final Element element )
+        {
+            this.remaining--;
+            this.last = element;
+            this.next = nextElementSibling( element );
+        }
+        
+        private static Element nextElementSibling( final Node node )
+        {
+            for( Node n = node.getNextSibling(); n != null; n = n.getNextSibling() )
+            {
+                if( n.getNodeType() == Node.ELEMENT_NODE )
+                {
+                    return (Element) n;
+                }
+            }
+            
+            return null;
+        }
+    }
+    
 }
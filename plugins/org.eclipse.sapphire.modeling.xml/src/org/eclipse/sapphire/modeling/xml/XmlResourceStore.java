@@ -14,14 +14,15 @@ package org.eclipse.sapphire.modeling.xml;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.sapphire.modeling.xml.XmlUtil.XML_DECLARATION;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Locale;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -29,6 +30,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
@@ -55,8 +57,14 @@ import org.xml.sax.SAXParseException;
 
 public class XmlResourceStore extends ResourceStore
 {
+    private static final String STORE_USER_DATA_KEY = XmlResourceStore.class.getName();
+    
+    private static TransformerFactory transformerFactory;
+    
     private final ByteArrayResourceStore base;
     private Document document;
+    private volatile long domVersion;
+    private Transformer transformer;
     
     public XmlResourceStore( final ByteArrayResourceStore baseModelStore )
     {
@@ -67,11 +75,9 @@ public class XmlResourceStore extends ResourceStore
         {
             try
             {
-                byte[] contents = this.base.getContents();
-                
-                if( contents.length > 0 ) 
+                if( this.base.getContentsBuffer().hasRemaining() ) 
                 {
-                    try( Reader reader = new InputStreamReader( new ByteArrayInputStream( contents ), UTF_8 ) )
+                    try( Reader reader = new InputStreamReader( this.base.getContentsStream(), UTF_8 ) )
                     {
                         this.document = doc( reader );
                     }
@@ -88,9 +94,32 @@ public class XmlResourceStore extends ResourceStore
             }
             
             this.document.setStrictErrorChecking( false );
+            this.document.setUserData( STORE_USER_DATA_KEY, this, null );
         }
     }
     
+    /**
+     * Creates a store for a document that is already available as a DOM, such as a document restored from its
+     * binary form by {@link XmlDocumentSerializer}. The contents of the base store are not read, but the base
+     * store still receives the contents when the store is saved and supplies adapters and localization.
+     * 
+     * @param baseModelStore the base store
+     * @param document the document
+     */
+    
+    public XmlResourceStore( final ByteArrayResourceStore baseModelStore, final Document document )
+    {
+        if( baseModelStore == null || document == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        this.base = baseModelStore;
+        this.document = document;
+        this.document.setStrictErrorChecking( false );
+        this.document.setUserData( STORE_USER_DATA_KEY, this, null );
+    }
+    
     public XmlResourceStore( final byte[] contents )
     {
         this( new ByteArrayResourceStore( contents ) );
@@ -124,6 +153,56 @@ public class XmlResourceStore extends ResourceStore
     protected void setDomDocument( final Document document )
     {
         this.document = document;
+        
+        if( this.document != null )
+        {
+            this.document.setUserData( STORE_USER_DATA_KEY, this, null );
+        }
+        
+        notifyDomChanged();
+    }
+    
+    /**
+     * Returns a counter that changes whenever the DOM document is modified. This allows information derived from
+     * the DOM to be cached until the next modification. Modifications made through {@link XmlElement} and
+     * {@link XmlUtil} are counted automatically. Code that modifies the DOM document directly should call
+     * {@link #notifyDomChanged()}. The child elements cached by {@link XmlElement} also notice children added or
+     * removed without that call, but not every direct modification.
+     * 
+     * @return the DOM version
+     */
+    
+    public final long getDomVersion()
+    {
+        return this.domVersion;
+    }
+    
+    /**
+     * Notifies the store that the DOM document has been modified other than through {@link XmlElement} or
+     * {@link XmlUtil}, such as by a text editor that shares the document. Information cached from the DOM, such as
+     * the child elements of an {@link XmlElement}, is recomputed on next access.
+     */
+    
+    public final void notifyDomChanged()
+    {
+        this.domVersion++;
+    }
+    
+    /**
+     * Notifies the store holding the specified DOM document, if any, that the document has been modified. This
+     * is used by utilities that modify a DOM document without knowing which store holds it.
+     * 
+     * @param document the modified DOM document
+     */
+    
+    static void notifyDomChanged( final Document document )
+    {
+        final Object store = document.getUserData( STORE_USER_DATA_KEY );
+        
+        if( store instanceof XmlResourceStore )
+        {
+            ( (XmlResourceStore) store ).notifyDomChanged();
+        }
     }
     
     public boolean isXmlDeclarationNeeded()
@@ -153,41 +232,38 @@ public class XmlResourceStore extends ResourceStore
         {
             if( this.document.getDocumentElement() != null )
             {
-                final StringWriter sw = new StringWriter();
-                
-                sw.append( XML_DECLARATION );
-                sw.append( '\n' );
-                
-                final DOMSource source = new DOMSource( this.document );
-                final StreamResult result = new StreamResult( sw );
+                final Transformer transformer = transformer();
                 
-                final TransformerFactory factory = TransformerFactory.newInstance();
-                final Transformer transformer = factory.newTransformer();
-                transformer.setOutputProperty( OutputKeys.OMIT_XML_DECLARATION, "yes" );
-                
-                final DocumentType doctype = this.document.getDoctype();
-                if (doctype != null) 
-                {
-                    if (doctype.getPublicId() != null) 
+                this.base.save
+                (
+                    new ByteArrayResourceStore.ContentsWriter()
                     {
-                        transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, doctype.getPublicId());
+                        public void write( final OutputStream out ) throws IOException
+                        {
+                            final Writer writer = new OutputStreamWriter( out, UTF_8 );
+                            
+                            writer.write( XML_DECLARATION );
+                            writer.write( '\n' );
+                            
+                            try
+                            {
+                                transformer.transform( new DOMSource( XmlResourceStore.this.document ), new StreamResult( writer ) );
+                            }
+                            catch( final TransformerException e )
+                            {
+                                throw new IOException( e );
+                            }
+                            
+                            writer.flush();
+                        }
                     }
-                    if (doctype.getSystemId() != null) 
-                    {
-                        transformer.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM, doctype.getSystemId());
-                    }
-                }
-                
-                transformer.transform( source, result );
-                
-                this.base.setContents( sw.toString().getBytes( UTF_8 ) );
+                );
             }
             else
             {
                 this.base.setContents( new byte[ 0 ] );
+                this.base.save();
             }
-            
-            this.base.save();
         }
         catch( Exception e )
         {
@@ -195,6 +271,52 @@ public class XmlResourceStore extends ResourceStore
         }
     }
     
+    /**
+     * Returns the transformer used to serialize the document, configured for the current doctype. The transformer
+     * is created on first save and reused by subsequent saves of this store.
+     */
+    
+    private Transformer transformer() throws TransformerException
+    {
+        if( this.transformer == null )
+        {
+            synchronized( XmlResourceStore.class )
+            {
+                if( transformerFactory == null )
+                {
+                    transformerFactory = TransformerFactory.newInstance();
+                }
+                
+                this.transformer = transformerFactory.newTransformer();
+            }
+        }
+        else
+        {
+            this.transformer.reset();
+        }
+        
+        final Transformer transformer = this.transformer;
+        
+        transformer.setOutputProperty( OutputKeys.OMIT_XML_DECLARATION, "yes" );
+        
+        final DocumentType doctype = this.document.getDoctype();
+        
+        if( doctype != null )
+        {
+            if( doctype.getPublicId() != null )
+            {
+                transformer.setOutputProperty( OutputKeys.DOCTYPE_PUBLIC, doctype.getPublicId() );
+            }
+            
+            if( doctype.getSystemId() != null )
+            {
+                transformer.setOutputProperty( OutputKeys.DOCTYPE_SYSTEM, doctype.getSystemId() );
+            }
+        }
+        
+        return transformer;
+    }
+    
     @Override
     public void validateEdit()
     {
@@ -0,0 +1,128 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling.xml;
+
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.PropertyDef;
+
+/**
+ * The binding metadata of an element or a list property for a particular set of possible types, which maps each
+ * possible type to an XML element name.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+final class XmlTypeMappingMetadata
+{
+    final Set<ElementType> possible;
+    final XmlPath path;
+    final ElementType[] modelElementTypes;
+    final QName[] xmlElementNames;
+    
+    XmlTypeMappingMetadata( final Set<ElementType> possible,
+                            final XmlPath path,
+                            final ElementType[] modelElementTypes,
+                            final QName[] xmlElementNames )
+    {
+        this.possible = possible;
+        this.path = path;
+        this.modelElementTypes = modelElementTypes;
+        this.xmlElementNames = xmlElementNames;
+    }
+    
+    /**
+     * Creates the metadata for a standard binding and shares it among all instances of the property.
+     *
+     * @param <B> the type of the standard binding
+     */
+    
+    static abstract class Factory<B>
+    {
+        private final Class<B> standard;
+        private final XmlBindingMetadataCache<XmlTypeMappingMetadata> cache = new XmlBindingMetadataCache<XmlTypeMappingMetadata>();
+        
+        Factory( final Class<B> standard )
+        {
+            this.standard = standard;
+        }
+        
+        /**
+         * Returns the shared metadata that uses the standard default element names.
+         *
+         * @param property the property definition
+         * @param possible the possible types
+         * @param xmlNamespaceResolver the namespace resolver of the resource holding the property
+         * @return the metadata
+         */
+        
+        final XmlTypeMappingMetadata metadata( final PropertyDef property,
+                                               final Set<ElementType> possible,
+                                               final XmlNamespaceResolver xmlNamespaceResolver )
+        {
+            XmlTypeMappingMetadata metadata = this.cache.get( property, xmlNamespaceResolver );
+            
+            if( metadata == null || ! metadata.possible.equals( possible ) )
+            {
+                metadata = create( property, possible, xmlNamespaceResolver, null );
+                this.cache.put( property, xmlNamespaceResolver, metadata );
+            }
+            
+            return metadata;
+        }
+        
+        /**
+         * Returns the metadata for a binding instance.
+         *
+         * @param binding the binding
+         * @param property the property definition
+         * @param possible the possible types
+         * @param xmlNamespaceResolver the namespace resolver of the resource holding the property
+         * @return the metadata
+         */
+        
+        final XmlTypeMappingMetadata metadata( final B binding,
+                                               final PropertyDef property,
+                                               final Set<ElementType> possible,
+                                               final XmlNamespaceResolver xmlNamespaceResolver )
+        {
+            // Subclasses can customize the default element names, so only the metadata of the standard binding is shared.
+            
+            if( binding.getClass() == this.standard )
+            {
+                return metadata( property, possible, xmlNamespaceResolver );
+            }
+            
+            return create( property, possible, xmlNamespaceResolver, binding );
+        }
+        
+        /**
+         * Creates the metadata.
+         *
+         * @param property the property definition
+         * @param possible the possible types
+         * @param xmlNamespaceResolver the namespace resolver of the resource holding the property
+         * @param binding the binding that creates the default element names or null to use the standard
+         *   default element names
+         * @return the metadata
+         */
+        
+        protected abstract XmlTypeMappingMetadata create( PropertyDef property,
+                                                          Set<ElementType> possible,
+                                                          XmlNamespaceResolver xmlNamespaceResolver,
+                                                          B binding );
+    }
+
+}
@@ -57,6 +57,7 @@ public final class XmlUtil
             final Node newRootElement = changeNamespace( oldRootElement, oldNamespace, newNamespace, newSchemaLocation );
             document.removeChild( oldRootElement );
             document.insertBefore( newRootElement, nodeAfterRootElement );
+            XmlResourceStore.notifyDomChanged( document );
         }
     }
     
@@ -139,6 +140,7 @@ public final class XmlUtil
         
         element.setAttributeNS( null, XMLNS_COLON + XSI_NAMESPACE_PREFIX, XSI_NAMESPACE );
         element.setAttributeNS( XSI_NAMESPACE, XSI_SCHEMA_LOCATION_ATTR_QUALIFIED, schemaLocationAttrValue );
+        XmlResourceStore.notifyDomChanged( element.getOwnerDocument() );
     }
 
     private static String createSchemaLocationAttrValue( final String primarySchemaLocation )
@@ -194,6 +196,7 @@ public final class XmlUtil
             final Node newRootElement = convertToNamespaceForm( oldRootElement, namespace, schemaLocation );
             document.removeChild( oldRootElement );
             document.insertBefore( newRootElement, nodeAfterRootElement );
+            XmlResourceStore.notifyDomChanged( document );
         }
     }
     
@@ -258,6 +261,7 @@ public final class XmlUtil
             final Node newRootElement = convertFromNamespaceForm( oldRootElement );
             document.removeChild( oldRootElement );
             document.insertBefore( newRootElement, nodeAfterRootElement );
+            XmlResourceStore.notifyDomChanged( document );
         }
     }
     
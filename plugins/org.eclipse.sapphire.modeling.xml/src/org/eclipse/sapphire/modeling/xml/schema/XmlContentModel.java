@@ -11,8 +11,12 @@
 
 package org.eclipse.sapphire.modeling.xml.schema;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.xml.namespace.QName;
 
+import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 /**
@@ -24,6 +28,8 @@ public abstract class XmlContentModel
     protected final XmlDocumentSchema schema;
     protected final int minOccur;
     protected final int maxOccur;
+    private XmlContentModelAutomaton automaton;
+    private boolean automatonCompiled;
     
     protected XmlContentModel( final XmlDocumentSchema schema,
                                final int minOccur,
@@ -54,6 +60,13 @@ public abstract class XmlContentModel
     public final int findInsertionPosition( final NodeList nodeList,
                                             final QName element )
     {
+        final int position = findInsertionPosition( nodeList, element, 1 );
+        
+        if( position != -1 )
+        {
+            return position;
+        }
+        
         final InsertionPosition point
             = findInsertionPosition( nodeList, nodeList.getLength(), element, new Position() );
         
@@ -65,6 +78,65 @@ public abstract class XmlContentModel
         return point.listIndex;
     }
     
+    /**
+     * Finds the position for inserting one or more consecutive elements with the specified name. Unlike
+     * {@link #findInsertionPosition(NodeList, QName)}, this method does not fall back on a heuristic when
+     * the existing elements do not conform to the content model.
+     * 
+     * @param nodeList the child nodes of the parent element
+     * @param element the name of the elements to insert
+     * @param count the number of elements to insert
+     * @return the index in the node list before which the elements should be inserted or -1 if the position
+     *     cannot be determined
+     */
+    
+    public final int findInsertionPosition( final NodeList nodeList,
+                                            final QName element,
+                                            final int count )
+    {
+        final XmlContentModelAutomaton automaton = automaton();
+        
+        if( automaton == null )
+        {
+            return -1;
+        }
+        
+        final int nodeListLength = nodeList.getLength();
+        final List<QName> names = new ArrayList<QName>();
+        final List<Integer> indexes = new ArrayList<Integer>();
+        
+        for( int i = 0; i < nodeListLength; i++ )
+        {
+            final Node node = nodeList.item( i );
+            
+            if( node.getNodeType() == Node.ELEMENT_NODE )
+            {
+                names.add( new QName( node.getNamespaceURI(), node.getLocalName() ) );
+                indexes.add( i );
+            }
+        }
+        
+        final int position = automaton.findInsertionPosition( names, element, count );
+        
+        if( position == -1 )
+        {
+            return -1;
+        }
+        
+        return ( position < indexes.size() ? indexes.get( position ) : nodeListLength );
+    }
+    
+    private synchronized XmlContentModelAutomaton automaton()
+    {
+        if( ! this.automatonCompiled )
+        {
+            this.automaton = XmlContentModelAutomaton.compile( this );
+            this.automatonCompiled = true;
+        }
+        
+        return this.automaton;
+    }
+    
     protected abstract InsertionPosition findInsertionPosition( NodeList nodeList,
                                                                 int nodeListLength,
                                                                 QName element,
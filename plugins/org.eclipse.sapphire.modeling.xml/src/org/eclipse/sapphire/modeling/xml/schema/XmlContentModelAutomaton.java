@@ -0,0 +1,538 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling.xml.schema;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+/**
+ * A content model compiled into a position automaton over child element names. Each state of the automaton
+ * other than the start state corresponds to an occurrence of an element definition in the content model,
+ * with bounded repetitions unrolled. The automaton is used to find insertion positions for child elements
+ * in a single pass over the siblings.
+ *
+ * <p>An insertion position is only reported when the existing siblings conform to the content model and the
+ * new element can be inserted without breaking conformance. Among such positions, the last one that extends
+ * an existing run of elements matched by the same element definition is preferred. Otherwise, the last
+ * position is used.</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+final class XmlContentModelAutomaton
+{
+    private static final int MAX_STATES = 1024;
+    private static final int MAX_DEPTH = 32;
+    
+    private final int start;
+    private final XmlElementDefinition[] definitions;
+    private final BitSet[] follow;
+    private final BitSet[] runFollow;
+    private final BitSet[] preceding;
+    private final BitSet accepting;
+    private final Map<QName,BitSet> matching = new HashMap<QName,BitSet>();
+    
+    private XmlContentModelAutomaton( final Builder builder, final Term term )
+    {
+        final int count = builder.definitions.size();
+        
+        this.start = count;
+        this.definitions = builder.definitions.toArray( new XmlElementDefinition[ count ] );
+        this.follow = new BitSet[ count + 1 ];
+        this.runFollow = new BitSet[ count + 1 ];
+        this.preceding = new BitSet[ count + 1 ];
+        
+        for( int i = 0; i < count; i++ )
+        {
+            this.follow[ i ] = builder.follow.get( i );
+            this.runFollow[ i ] = builder.runFollow.get( i );
+        }
+        
+        this.follow[ this.start ] = term.first;
+        this.runFollow[ this.start ] = new BitSet();
+        
+        for( int i = 0; i <= count; i++ )
+        {
+            this.preceding[ i ] = new BitSet();
+        }
+        
+        for( int i = 0; i <= count; i++ )
+        {
+            final BitSet next = this.follow[ i ];
+            
+            for( int j = next.nextSetBit( 0 ); j >= 0; j = next.nextSetBit( j + 1 ) )
+            {
+                this.preceding[ j ].set( i );
+            }
+        }
+        
+        this.accepting = (BitSet) term.last.clone();
+        
+        if( term.nullable )
+        {
+            this.accepting.set( this.start );
+        }
+    }
+    
+    /**
+     * Compiles the specified content model.
+     *
+     * @param contentModel the content model
+     * @return the compiled automaton or null if the content model cannot be compiled, such as when it contains
+     *     an all group or is too large
+     */
+    
+    static XmlContentModelAutomaton compile( final XmlContentModel contentModel )
+    {
+        final Builder builder = new Builder();
+        final Term term = builder.compile( contentModel, 0 );
+        
+        if( term == null )
+        {
+            return null;
+        }
+        
+        return new XmlContentModelAutomaton( builder, term );
+    }
+    
+    /**
+     * Finds the position for inserting one or more elements with the specified name.
+     *
+     * @param siblings the names of existing child elements
+     * @param name the name of the elements to insert
+     * @param count the number of elements to insert
+     * @return the index in the siblings list before which the elements should be inserted or -1 if the siblings
+     *     do not conform to the content model or there is no position that would preserve conformance
+     */
+    
+    int findInsertionPosition( final List<QName> siblings,
+                               final QName name,
+                               final int count )
+    {
+        final int n = siblings.size();
+        final BitSet[] forward = new BitSet[ n + 1 ];
+        
+        forward[ 0 ] = new BitSet();
+        forward[ 0 ].set( this.start );
+        
+        for( int i = 0; i < n; i++ )
+        {
+            forward[ i + 1 ] = step( forward[ i ], siblings.get( i ) );
+            
+            if( forward[ i + 1 ].isEmpty() )
+            {
+                return -1;
+            }
+        }
+        
+        if( ! forward[ n ].intersects( this.accepting ) )
+        {
+            return -1;
+        }
+        
+        final BitSet candidates = matching( name );
+        
+        BitSet backward = this.accepting;
+        int lastValid = -1;
+        
+        for( int i = n; i >= 0; i-- )
+        {
+            if( i < n )
+            {
+                backward = back( backward, siblings.get( i ) );
+            }
+            
+            BitSet states = forward[ i ];
+            
+            for( int j = 0; j < count && ! states.isEmpty(); j++ )
+            {
+                states = step( states, candidates );
+            }
+            
+            if( states.intersects( backward ) )
+            {
+                if( extendsRun( forward[ i ], candidates, backward, count ) )
+                {
+                    return i;
+                }
+                
+                if( lastValid == -1 )
+                {
+                    lastValid = i;
+                }
+            }
+        }
+        
+        return lastValid;
+    }
+    
+    /**
+     * Determines whether inserting at a position continues a run of elements matched by the same element
+     * definition as the preceding sibling.
+     */
+    
+    private boolean extendsRun( final BitSet states,
+                                final BitSet candidates,
+                                final BitSet backward,
+                                final int count )
+    {
+        for( int s = states.nextSetBit( 0 ); s >= 0; s = states.nextSetBit( s + 1 ) )
+        {
+            final BitSet next = (BitSet) this.runFollow[ s ].clone();
+            next.and( candidates );
+            
+            if( ! next.isEmpty() )
+            {
+                BitSet reached = next;
+                
+                for( int j = 1; j < count && ! reached.isEmpty(); j++ )
+                {
+                    reached = step( reached, candidates );
+                }
+                
+                if( reached.intersects( backward ) )
+                {
+                    return true;
+                }
+            }
+        }
+        
+        return false;
+    }
+    
+    private BitSet step( final BitSet states, final QName name )
+    {
+        return step( states, matching( name ) );
+    }
+    
+    private BitSet step( final BitSet states, final BitSet candidates )
+    {
+        final BitSet result = new BitSet();
+        
+        for( int s = states.nextSetBit( 0 ); s >= 0; s = states.nextSetBit( s + 1 ) )
+        {
+            result.or( this.follow[ s ] );
+        }
+        
+        result.and( candidates );
+        
+        return result;
+    }
+    
+    /**
+     * Computes the states from which reading the specified name leads to one of the specified states.
+     */
+    
+    private BitSet back( final BitSet states, final QName name )
+    {
+        final BitSet targets = (BitSet) states.clone();
+        targets.and( matching( name ) );
+        
+        final BitSet result = new BitSet();
+        
+        for( int t = targets.nextSetBit( 0 ); t >= 0; t = targets.nextSetBit( t + 1 ) )
+        {
+            result.or( this.preceding[ t ] );
+        }
+        
+        return result;
+    }
+    
+    private BitSet matching( final QName name )
+    {
+        synchronized( this.matching )
+        {
+            BitSet result = this.matching.get( name );
+            
+            if( result == null )
+            {
+                result = new BitSet();
+                
+                for( int i = 0; i < this.definitions.length; i++ )
+                {
+                    if( this.definitions[ i ].sameElementName( name ) )
+                    {
+                        result.set( i );
+                    }
+                }
+                
+                this.matching.put( name, result );
+            }
+            
+            return result;
+        }
+    }
+    
+    private static final class Term
+    {
+        private final boolean nullable;
+        private final BitSet first;
+        private final BitSet last;
+        
+        public Term( final boolean nullable, final BitSet first, final BitSet last )
+        {
+            this.nullable = nullable;
+            this.first = first;
+            this.last = last;
+        }
+    }
+    
+    private static final class Builder
+    {
+        private final List<XmlElementDefinition> definitions = new ArrayList<XmlElementDefinition>();
+        private final List<BitSet> follow = new ArrayList<BitSet>();
+        private final List<BitSet> runFollow = new ArrayList<BitSet>();
+        private boolean run;
+        
+        /**
+         * Compiles a content model into a term, returning null if the content model cannot be compiled.
+         */
+        
+        public Term compile( final XmlContentModel contentModel, final int depth )
+        {
+            if( depth > MAX_DEPTH )
+            {
+                return null;
+            }
+            
+            if( contentModel instanceof XmlAllGroup )
+            {
+                return null;
+            }
+            
+            return repeat( contentModel, depth );
+        }
+        
+        /**
+         * Compiles a single occurrence of a content model, ignoring its occurrence constraints.
+         */
+        
+        private Term occurrence( final XmlContentModel contentModel, final int depth )
+        {
+            if( contentModel instanceof XmlElementDefinition )
+            {
+                if( this.definitions.size() == MAX_STATES )
+                {
+                    return null;
+                }
+                
+                final int state = this.definitions.size();
+                
+                this.definitions.add( (XmlElementDefinition) contentModel );
+                this.follow.add( new BitSet() );
+                this.runFollow.add( new BitSet() );
+                
+                final BitSet states = new BitSet();
+                states.set( state );
+                
+                return new Term( false, states, states );
+            }
+            else if( contentModel instanceof XmlContentModelReference )
+            {
+                final XmlContentModel referenced = ( (XmlContentModelReference) contentModel ).getContentModel();
+                
+                if( referenced == null )
+                {
+                    return empty();
+                }
+                
+                final boolean run = this.run;
+                
+                this.run = false;
+                
+                try
+                {
+                    return compile( referenced, depth + 1 );
+                }
+                finally
+                {
+                    this.run = run;
+                }
+            }
+            else
+            {
+                final boolean choice = ( contentModel instanceof XmlChoiceGroup );
+                final boolean run = this.run;
+                
+                this.run = false;
+                
+                try
+                {
+                    Term result = ( choice ? null : empty() );
+                    
+                    for( XmlContentModel nested : ( (XmlGroupContentModel) contentModel ).getNestedContent() )
+                    {
+                        final Term term = compile( nested, depth + 1 );
+                        
+                        if( term == null )
+                        {
+                            return null;
+                        }
+                        
+                        result = ( result == null ? term : ( choice ? union( result, term ) : concat( result, term ) ) );
+                    }
+                    
+                    return ( result == null ? empty() : result );
+                }
+                finally
+                {
+                    this.run = run;
+                }
+            }
+        }
+        
+        /**
+         * Compiles a content model along with its occurrence constraints. Repetitions of an element definition
+         * are recorded as runs.
+         */
+        
+        private Term repeat( final XmlContentModel contentModel, final int depth )
+        {
+            final int min = contentModel.getMinOccur();
+            final int max = contentModel.getMaxOccur();
+            
+            if( max == 0 )
+            {
+                return empty();
+            }
+            
+            if( max != -1 && max - min > MAX_STATES )
+            {
+                return null;
+            }
+            
+            final boolean run = this.run;
+            
+            this.run = ( contentModel instanceof XmlElementDefinition );
+            
+            try
+            {
+                Term result = empty();
+                
+                for( int i = 0; i < min; i++ )
+                {
+                    final Term term = occurrence( contentModel, depth );
+                    
+                    if( term == null )
+                    {
+                        return null;
+                    }
+                    
+                    if( max == -1 && i == min - 1 )
+                    {
+                        return concat( result, loop( term ) );
+                    }
+                    
+                    result = concat( result, term );
+                }
+                
+                if( max == -1 )
+                {
+                    final Term term = occurrence( contentModel, depth );
+                    
+                    if( term == null )
+                    {
+                        return null;
+                    }
+                    
+                    return concat( result, optional( loop( term ) ) );
+                }
+                
+                for( int i = min; i < max; i++ )
+                {
+                    final Term term = occurrence( contentModel, depth );
+                    
+                    if( term == null )
+                    {
+                        return null;
+                    }
+                    
+                    result = concat( result, optional( term ) );
+                }
+                
+                return result;
+            }
+            finally
+            {
+                this.run = run;
+            }
+        }
+        
+        private Term empty()
+        {
+            return new Term( true, new BitSet(), new BitSet() );
+        }
+        
+        private Term optional( final Term term )
+        {
+            return new Term( true, term.first, term.last );
+        }
+        
+        private Term loop( final Term term )
+        {
+            link( term.last, term.first );
+            
+            return term;
+        }
+        
+        private Term union( final Term a, final Term b )
+        {
+            final BitSet first = (BitSet) a.first.clone();
+            first.or( b.first );
+            
+            final BitSet last = (BitSet) a.last.clone();
+            last.or( b.last );
+            
+            return new Term( a.nullable || b.nullable, first, last );
+        }
+        
+        private Term concat( final Term a, final Term b )
+        {
+            link( a.last, b.first );
+            
+            final BitSet first = (BitSet) a.first.clone();
+            
+            if( a.nullable )
+            {
+                first.or( b.first );
+            }
+            
+            final BitSet last = (BitSet) b.last.clone();
+            
+            if( b.nullable )
+            {
+                last.or( a.last );
+            }
+            
+            return new Term( a.nullable && b.nullable, first, last );
+        }
+        
+        private void link( final BitSet from, final BitSet to )
+        {
+            for( int i = from.nextSetBit( 0 ); i >= 0; i = from.nextSetBit( i + 1 ) )
+            {
+                this.follow.get( i ).or( to );
+                
+                if( this.run )
+                {
+                    this.runFollow.get( i ).or( to );
+                }
+            }
+        }
+    }
+
+}
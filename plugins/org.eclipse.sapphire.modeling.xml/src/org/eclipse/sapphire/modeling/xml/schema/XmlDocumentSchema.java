@@ -137,6 +137,21 @@ public final class XmlDocumentSchema
         return this.contentModels.get( name );
     }
     
+    Map<String,String> getImportedNamespaces()
+    {
+        return Collections.unmodifiableMap( this.importedNamespaces );
+    }
+    
+    Map<String,XmlContentModel> getContentModels()
+    {
+        return Collections.unmodifiableMap( this.contentModels );
+    }
+    
+    Map<String,XmlElementDefinition> getTopLevelElements()
+    {
+        return Collections.unmodifiableMap( this.topLevelElements );
+    }
+    
     @Override
     public String toString()
     {
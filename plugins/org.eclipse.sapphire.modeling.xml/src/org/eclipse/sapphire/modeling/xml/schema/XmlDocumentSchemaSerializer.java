@@ -0,0 +1,433 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling.xml.schema;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Converts a compiled {@link XmlDocumentSchema} to and from a compact binary form. The binary form holds
+ * the content models and element definitions of the schema, so that a schema can be restored without
+ * parsing its source. Strings are written once to a string table and referenced by index.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class XmlDocumentSchemaSerializer
+{
+    private static final int MAGIC = 0x53585344;
+    
+    /**
+     * The version of the binary form. Must be incremented when the binary form changes.
+     */
+    
+    public static final int VERSION = 1;
+    
+    private static final byte ELEMENT = 1;
+    private static final byte ELEMENT_BY_REFERENCE = 2;
+    private static final byte SEQUENCE = 3;
+    private static final byte CHOICE = 4;
+    private static final byte ALL = 5;
+    private static final byte CONTENT_MODEL_REFERENCE = 6;
+    
+    private static final int NULL = -1;
+    
+    private XmlDocumentSchemaSerializer()
+    {
+    }
+    
+    /**
+     * Writes the binary form of a schema.
+     *
+     * @param schema the schema to write
+     * @param out the output to write to
+     * @throws IOException if the schema could not be written
+     * @throws IllegalArgumentException if the schema contains a content model that has no binary form
+     */
+    
+    public static void write( final XmlDocumentSchema schema, final DataOutput out ) throws IOException
+    {
+        final Writer writer = new Writer();
+        
+        writer.write( schema );
+        
+        out.writeInt( MAGIC );
+        out.writeInt( VERSION );
+        out.writeInt( writer.strings.size() );
+        
+        for( final String string : writer.strings )
+        {
+            writeString( string, out );
+        }
+        
+        writer.body.flush();
+        
+        final byte[] body = writer.bytes.toByteArray();
+        
+        out.writeInt( body.length );
+        out.write( body );
+    }
+    
+    /**
+     * Reads the binary form of a schema, starting at the current position of the buffer.
+     *
+     * @param in the buffer to read from
+     * @return the schema
+     * @throws IOException if the buffer does not hold the binary form of a schema or holds the binary form
+     *   written by a different version
+     */
+    
+    public static XmlDocumentSchema read( final ByteBuffer in ) throws IOException
+    {
+        try
+        {
+            if( in.getInt() != MAGIC || in.getInt() != VERSION )
+            {
+                throw new IOException( "Unrecognized schema binary form." );
+            }
+            
+            final int count = in.getInt();
+            final String[] strings = new String[ count ];
+            
+            for( int i = 0; i < count; i++ )
+            {
+                strings[ i ] = readString( in );
+            }
+            
+            in.getInt();
+            
+            return ( new Reader( in, strings ) ).read();
+        }
+        catch( final BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e )
+        {
+            throw new IOException( "Corrupted schema binary form.", e );
+        }
+    }
+    
+    static void writeString( final String string, final DataOutput out ) throws IOException
+    {
+        final byte[] bytes = string.getBytes( UTF_8 );
+        
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+    
+    static String readString( final ByteBuffer in )
+    {
+        final byte[] bytes = new byte[ in.getInt() ];
+        
+        in.get( bytes );
+        
+        return new String( bytes, UTF_8 );
+    }
+    
+    private static final class Writer
+    {
+        private final List<String> strings = new ArrayList<String>();
+        private final Map<String,Integer> indexes = new HashMap<String,Integer>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream body = new DataOutputStream( this.bytes );
+        
+        public void write( final XmlDocumentSchema schema ) throws IOException
+        {
+            string( schema.getNamespace() );
+            string( schema.getSchemaLocation() );
+            
+            final Map<String,String> importedNamespaces = schema.getImportedNamespaces();
+            
+            this.body.writeInt( importedNamespaces.size() );
+            
+            for( final Map.Entry<String,String> entry : importedNamespaces.entrySet() )
+            {
+                string( entry.getKey() );
+                string( entry.getValue() );
+            }
+            
+            final Map<String,XmlContentModel> contentModels = schema.getContentModels();
+            
+            this.body.writeInt( contentModels.size() );
+            
+            for( final Map.Entry<String,XmlContentModel> entry : contentModels.entrySet() )
+            {
+                string( entry.getKey() );
+                write( entry.getValue() );
+            }
+            
+            final Map<String,XmlElementDefinition> topLevelElements = schema.getTopLevelElements();
+            
+            this.body.writeInt( topLevelElements.size() );
+            
+            for( final XmlElementDefinition element : topLevelElements.values() )
+            {
+                write( element );
+            }
+        }
+        
+        private void write( final XmlContentModel contentModel ) throws IOException
+        {
+            if( contentModel instanceof XmlElementDefinitionByReference )
+            {
+                header( ELEMENT_BY_REFERENCE, contentModel );
+                qname( ( (XmlElementDefinition) contentModel ).getName() );
+            }
+            else if( contentModel.getClass() == XmlElementDefinition.class )
+            {
+                final XmlElementDefinition element = (XmlElementDefinition) contentModel;
+                
+                header( ELEMENT, contentModel );
+                qname( element.getName() );
+                qname( element.getContentModelName() );
+                this.body.writeBoolean( element.isAbstract() );
+                qname( element.getSubstitutionGroup() );
+            }
+            else if( contentModel instanceof XmlContentModelReference )
+            {
+                header( CONTENT_MODEL_REFERENCE, contentModel );
+                qname( ( (XmlContentModelReference) contentModel ).getContentModelName() );
+            }
+            else if( contentModel instanceof XmlGroupContentModel )
+            {
+                final byte kind;
+                
+                if( contentModel instanceof XmlSequenceGroup )
+                {
+                    kind = SEQUENCE;
+                }
+                else if( contentModel instanceof XmlChoiceGroup )
+                {
+                    kind = CHOICE;
+                }
+                else if( contentModel instanceof XmlAllGroup )
+                {
+                    kind = ALL;
+                }
+                else
+                {
+                    throw new IllegalArgumentException( contentModel.getClass().getName() );
+                }
+                
+                header( kind, contentModel );
+                
+                final List<XmlContentModel> nestedContent = ( (XmlGroupContentModel) contentModel ).getNestedContent();
+                
+                this.body.writeInt( nestedContent.size() );
+                
+                for( final XmlContentModel child : nestedContent )
+                {
+                    write( child );
+                }
+            }
+            else
+            {
+                throw new IllegalArgumentException( contentModel.getClass().getName() );
+            }
+        }
+        
+        private void header( final byte kind, final XmlContentModel contentModel ) throws IOException
+        {
+            this.body.writeByte( kind );
+            this.body.writeInt( contentModel.getMinOccur() );
+            this.body.writeInt( contentModel.getMaxOccur() );
+        }
+        
+        private void qname( final QName qname ) throws IOException
+        {
+            if( qname == null )
+            {
+                this.body.writeInt( NULL );
+            }
+            else
+            {
+                string( qname.getNamespaceURI() );
+                string( qname.getLocalPart() );
+                string( qname.getPrefix() );
+            }
+        }
+        
+        private void string( final String string ) throws IOException
+        {
+            if( string == null )
+            {
+                this.body.writeInt( NULL );
+            }
+            else
+            {
+                Integer index = this.indexes.get( string );
+                
+                if( index == null )
+                {
+                    index = this.strings.size();
+                    this.strings.add( string );
+                    this.indexes.put( string, index );
+                }
+                
+                this.body.writeInt( index );
+            }
+        }
+    }
+    
+    private static final class Reader
+    {
+        private final ByteBuffer in;
+        private final String[] strings;
+        
+        public Reader( final ByteBuffer in, final String[] strings )
+        {
+            this.in = in;
+            this.strings = strings;
+        }
+        
+        public XmlDocumentSchema read() throws IOException
+        {
+            final XmlDocumentSchema.Factory schema = new XmlDocumentSchema.Factory();
+            
+            schema.setNamespace( string() );
+            schema.setSchemaLocation( string() );
+            
+            for( int i = 0, n = this.in.getInt(); i < n; i++ )
+            {
+                schema.addImportedNamespace( string(), string() );
+            }
+            
+            for( int i = 0, n = this.in.getInt(); i < n; i++ )
+            {
+                schema.addContentModel( string(), contentModel() );
+            }
+            
+            for( int i = 0, n = this.in.getInt(); i < n; i++ )
+            {
+                final XmlContentModel.Factory element = contentModel();
+                
+                if( ! ( element instanceof XmlElementDefinition.Factory ) )
+                {
+                    throw new IOException( "Corrupted schema binary form." );
+                }
+                
+                schema.addTopLevelElement( (XmlElementDefinition.Factory) element );
+            }
+            
+            return schema.create();
+        }
+        
+        private XmlContentModel.Factory contentModel() throws IOException
+        {
+            final byte kind = this.in.get();
+            final int minOccur = this.in.getInt();
+            final int maxOccur = this.in.getInt();
+            final XmlContentModel.Factory factory;
+            
+            switch( kind )
+            {
+                case ELEMENT:
+                {
+                    final XmlElementDefinition.Factory element = new XmlElementDefinition.Factory();
+                    
+                    element.setName( qname() );
+                    element.setContentModelName( qname() );
+                    element.setAbstract( this.in.get() != 0 );
+                    element.setSubstitutionGroup( qname() );
+                    
+                    factory = element;
+                    break;
+                }
+                case ELEMENT_BY_REFERENCE:
+                {
+                    final XmlElementDefinitionByReference.Factory element = new XmlElementDefinitionByReference.Factory();
+                    
+                    element.setName( qname() );
+                    
+                    factory = element;
+                    break;
+                }
+                case CONTENT_MODEL_REFERENCE:
+                {
+                    final XmlContentModelReference.Factory reference = new XmlContentModelReference.Factory();
+                    
+                    reference.setContentModelName( qname() );
+                    
+                    factory = reference;
+                    break;
+                }
+                case SEQUENCE:
+                case CHOICE:
+                case ALL:
+                {
+                    final XmlGroupContentModel.Factory group;
+                    
+                    if( kind == SEQUENCE )
+                    {
+                        group = new XmlSequenceGroup.Factory();
+                    }
+                    else if( kind == CHOICE )
+                    {
+                        group = new XmlChoiceGroup.Factory();
+                    }
+                    else
+                    {
+                        group = new XmlAllGroup.Factory();
+                    }
+                    
+                    for( int i = 0, n = this.in.getInt(); i < n; i++ )
+                    {
+                        group.addNestedContent( contentModel() );
+                    }
+                    
+                    factory = group;
+                    break;
+                }
+                default:
+                {
+                    throw new IOException( "Corrupted schema binary form." );
+                }
+            }
+            
+            factory.setMinOccur( minOccur );
+            factory.setMaxOccur( maxOccur );
+            
+            return factory;
+        }
+        
+        private QName qname()
+        {
+            final int namespace = this.in.getInt();
+            
+            if( namespace == NULL )
+            {
+                return null;
+            }
+            
+            final String localPart = string();
+            final String prefix = string();
+            
+            return new QName( this.strings[ namespace ], localPart, prefix );
+        }
+        
+        private String string()
+        {
+            final int index = this.in.getInt();
+            return ( index == NULL ? null : this.strings[ index ] );
+        }
+    }
+
+}
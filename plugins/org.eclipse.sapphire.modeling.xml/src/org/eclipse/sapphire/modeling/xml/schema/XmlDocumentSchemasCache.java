@@ -12,18 +12,26 @@
 package org.eclipse.sapphire.modeling.xml.schema;
 
 import java.io.File;
-import java.lang.ref.SoftReference;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.sapphire.LoggingService;
 import org.eclipse.sapphire.Sapphire;
 import org.eclipse.sapphire.modeling.xml.dtd.DtdParser;
+import org.eclipse.sapphire.modeling.xml.schema.internal.PersistentXmlDocumentSchemasCache;
+import org.eclipse.sapphire.modeling.xml.schema.internal.RecentXmlDocumentSchemasCache;
 import org.eclipse.wst.common.uriresolver.internal.provisional.URIResolverPlugin;
 
 /**
+ * Cache of parsed XML schemas and DTDs, keyed by resolved location.
+ * 
+ * <p>The most recently used schemas are held strongly. Schemas that fall out of that set remain available until
+ * reclaimed by the garbage collector. If the {@value #CACHE_DIRECTORY_PROPERTY} system property specifies a directory,
+ * compiled schemas are also persisted in that directory, so that a schema is not parsed again in later sessions.
+ * A persisted schema is used only if the content of the schema and of the schemas that it includes has not changed.</p>
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
@@ -31,10 +39,20 @@ import org.eclipse.wst.common.uriresolver.internal.provisional.URIResolverPlugin
 
 public final class XmlDocumentSchemasCache
 {
+    /**
+     * The system property that specifies the directory where compiled schemas are persisted. Compiled schemas
+     * are not persisted if this property is not set.
+     */
+    
+    public static final String CACHE_DIRECTORY_PROPERTY = "sapphire.xml.schema.cache";
+    
+    private static final int RECENT_SCHEMAS_LIMIT = 32;
+    
     private static final XmlDocumentSchema EMPTY_SCHEMA = ( new XmlDocumentSchema.Factory() ).create();
     
-    private static final Map<String,SoftReference<XmlDocumentSchema>> cache 
-        = new HashMap<String,SoftReference<XmlDocumentSchema>>();
+    private static final RecentXmlDocumentSchemasCache recent = new RecentXmlDocumentSchemasCache( RECENT_SCHEMAS_LIMIT );
+    
+    private static PersistentXmlDocumentSchemasCache persistent;
 
     public static XmlDocumentSchema getSchema( final String location )
     {
@@ -96,85 +114,106 @@ public final class XmlDocumentSchemasCache
             return EMPTY_SCHEMA;
         }
         
-        XmlDocumentSchema schema = null;
+        XmlDocumentSchema schema = recent.get( location );
         
-        synchronized( XmlDocumentSchemasCache.class )
+        if( schema == null )
         {
-            final SoftReference<XmlDocumentSchema> ref = cache.get( location );
+            final PersistentXmlDocumentSchemasCache persisted = persistent();
             
-            if( ref != null )
+            if( persisted != null )
             {
-                schema = ref.get();
-                
-                if( schema == null )
-                {
-                    cache.remove( location );
-                }
+                schema = persisted.load( location );
             }
-        }
-        
-        if( schema == null )
-        {
-            try
+            
+            if( schema == null )
             {
-                if( location.endsWith( "dtd" ) )
-                {
-                    schema = DtdParser.parse( url );
-                }
-                else
+                final List<URL> dependencies = new ArrayList<URL>();
+                
+                dependencies.add( url );
+                
+                try
                 {
-                    final XmlDocumentSchemaParser.Resolver resolver = new XmlDocumentSchemaParser.Resolver()
+                    if( location.endsWith( "dtd" ) )
+                    {
+                        schema = DtdParser.parse( url );
+                    }
+                    else
                     {
-                        @Override
-                        public URL resolve( final String location )
+                        final XmlDocumentSchemaParser.Resolver resolver = new XmlDocumentSchemaParser.Resolver()
                         {
-                            URL schemaLocationUrl = null;
-                            
-                            try
+                            @Override
+                            public URL resolve( final String location )
                             {
-                                schemaLocationUrl = new URL( URIResolverPlugin.createResolver().resolve( referer, null, location ) );
-                            }
-                            catch( MalformedURLException e )
-                            {
-                                if( referer != null )
+                                URL schemaLocationUrl = null;
+                                
+                                try
                                 {
-                                    try
-                                    {
-                                        schemaLocationUrl = ( new File( new File( referer ).getParentFile(), location ) ).toURI().toURL();
-                                    }
-                                    catch( MalformedURLException ex )
+                                    schemaLocationUrl = new URL( URIResolverPlugin.createResolver().resolve( referer, null, location ) );
+                                }
+                                catch( MalformedURLException e )
+                                {
+                                    if( referer != null )
                                     {
-                                        throw new RuntimeException( ex );
+                                        try
+                                        {
+                                            schemaLocationUrl = ( new File( new File( referer ).getParentFile(), location ) ).toURI().toURL();
+                                        }
+                                        catch( MalformedURLException ex )
+                                        {
+                                            throw new RuntimeException( ex );
+                                        }
                                     }
                                 }
+                                
+                                if( schemaLocationUrl == null )
+                                {
+                                    throw new IllegalArgumentException();
+                                }
+                                
+                                dependencies.add( schemaLocationUrl );
+                                
+                                return schemaLocationUrl;
                             }
-                            
-                            if( schemaLocationUrl == null )
-                            {
-                                throw new IllegalArgumentException();
-                            }
-                            
-                            return schemaLocationUrl;
-                        }
-                    };
-                    
-                    schema = XmlDocumentSchemaParser.parse( url, systemId, resolver );
+                        };
+                        
+                        schema = XmlDocumentSchemaParser.parse( url, systemId, resolver );
+                    }
+                }
+                catch( Exception e )
+                {
+                    Sapphire.service( LoggingService.class ).log( e );
+                    schema = EMPTY_SCHEMA;
+                }
+                
+                if( persisted != null && schema != EMPTY_SCHEMA )
+                {
+                    persisted.store( location, dependencies, schema );
                 }
-            }
-            catch( Exception e )
-            {
-                Sapphire.service( LoggingService.class ).log( e );
-                schema = EMPTY_SCHEMA;
             }
             
-            synchronized( XmlDocumentSchemasCache.class )
-            {
-                final SoftReference<XmlDocumentSchema> ref = new SoftReference<XmlDocumentSchema>( schema );
-                cache.put( location, ref );
-            }
+            recent.put( location, schema );
         }
         
         return schema;
     }
+    
+    private static synchronized PersistentXmlDocumentSchemasCache persistent()
+    {
+        final String directory = System.getProperty( CACHE_DIRECTORY_PROPERTY );
+        
+        if( directory == null || directory.length() == 0 )
+        {
+            return null;
+        }
+        
+        final File file = new File( directory );
+        
+        if( persistent == null || ! persistent.directory().equals( file ) )
+        {
+            persistent = new PersistentXmlDocumentSchemasCache( file );
+        }
+        
+        return persistent;
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,301 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling.xml.schema.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.sapphire.FileUtil.mkdirs;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.sapphire.LoggingService;
+import org.eclipse.sapphire.Sapphire;
+import org.eclipse.sapphire.modeling.xml.schema.XmlDocumentSchema;
+import org.eclipse.sapphire.modeling.xml.schema.XmlDocumentSchemaSerializer;
+
+/**
+ * Persists compiled schemas in a directory, so that a schema is not parsed again in later sessions. Each persisted
+ * schema records the schemas that it was compiled from. A persisted schema is used only if the content of these
+ * schemas has not changed.
+ *
+ * <p>Comparing the content requires reading and hashing it. To avoid doing so every time a persisted schema is
+ * loaded, the modification time and the size of local files are recorded along with the hash and the hash is only
+ * compared when these differ. The hashes of other resources are computed at most once per session.</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class PersistentXmlDocumentSchemasCache
+{
+    private static final int MAGIC = 0x53585343;
+    private static final int VERSION = 2;
+    
+    private final File directory;
+    private final Map<String,byte[]> hashes = new HashMap<String,byte[]>();
+    
+    public PersistentXmlDocumentSchemasCache( final File directory )
+    {
+        if( directory == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        this.directory = directory;
+    }
+    
+    public File directory()
+    {
+        return this.directory;
+    }
+    
+    /**
+     * Loads a persisted schema.
+     *
+     * @param location the resolved location of the schema
+     * @return the schema or null if the schema is not persisted, if the persisted schema is out of date with respect
+     *   to the content of the schemas that it was compiled from or if the persisted schema cannot be read
+     */
+    
+    public XmlDocumentSchema load( final String location )
+    {
+        final File file = file( location );
+        
+        if( ! file.isFile() )
+        {
+            return null;
+        }
+        
+        try
+        {
+            // The file is read rather than mapped, so that it can be replaced while the schema is in use.
+            
+            final byte[] bytes = Files.readAllBytes( file.toPath() );
+            final ByteArrayInputStream stream = new ByteArrayInputStream( bytes );
+            final DataInputStream in = new DataInputStream( stream );
+            
+            if( in.readInt() != MAGIC || in.readInt() != VERSION || ! location.equals( in.readUTF() ) )
+            {
+                return null;
+            }
+            
+            for( int i = 0, n = in.readInt(); i < n; i++ )
+            {
+                final URL dependency = new URL( in.readUTF() );
+                final long modified = in.readLong();
+                final long size = in.readLong();
+                final int length = in.readInt();
+                
+                if( length < 0 || length > stream.available() )
+                {
+                    return null;
+                }
+                
+                final byte[] hash = new byte[ length ];
+                
+                in.readFully( hash );
+                
+                final File local = local( dependency );
+                
+                if( local == null || local.lastModified() != modified || local.length() != size )
+                {
+                    if( ! Arrays.equals( hash, hash( dependency ) ) )
+                    {
+                        return null;
+                    }
+                }
+            }
+            
+            return XmlDocumentSchemaSerializer.read( ByteBuffer.wrap( bytes, bytes.length - stream.available(), stream.available() ) );
+        }
+        catch( final Exception e )
+        {
+            // The persisted schema is unreadable or one of the dependencies is no longer available, in which case
+            // the schema is parsed and persisted again.
+            
+            return null;
+        }
+    }
+    
+    /**
+     * Persists a schema.
+     *
+     * @param location the resolved location of the schema
+     * @param dependencies the schemas that the schema was compiled from
+     * @param schema the schema
+     */
+    
+    public void store( final String location, final List<URL> dependencies, final XmlDocumentSchema schema )
+    {
+        try
+        {
+            mkdirs( this.directory );
+            
+            final File file = file( location );
+            final File temp = File.createTempFile( "schema", ".tmp", this.directory );
+            
+            try
+            {
+                try( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( temp ) ) ) )
+                {
+                    out.writeInt( MAGIC );
+                    out.writeInt( VERSION );
+                    out.writeUTF( location );
+                    out.writeInt( dependencies.size() );
+                    
+                    for( final URL dependency : dependencies )
+                    {
+                        final File local = local( dependency );
+                        final long modified = ( local == null ? 0 : local.lastModified() );
+                        final long size = ( local == null ? -1 : local.length() );
+                        final byte[] hash = hash( dependency );
+                        
+                        out.writeUTF( dependency.toString() );
+                        out.writeLong( modified );
+                        out.writeLong( size );
+                        out.writeInt( hash.length );
+                        out.write( hash );
+                    }
+                    
+                    XmlDocumentSchemaSerializer.write( schema, out );
+                }
+                
+                move( temp.toPath(), file.toPath() );
+            }
+            finally
+            {
+                temp.delete();
+            }
+        }
+        catch( final Exception e )
+        {
+            Sapphire.service( LoggingService.class ).log( e );
+        }
+    }
+    
+    private File file( final String location )
+    {
+        final StringBuilder name = new StringBuilder();
+        
+        for( final byte b : digest().digest( location.getBytes( UTF_8 ) ) )
+        {
+            name.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+            name.append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        
+        name.append( ".schema" );
+        
+        return new File( this.directory, name.toString() );
+    }
+    
+    private static void move( final Path source, final Path target ) throws IOException
+    {
+        try
+        {
+            Files.move( source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch( final AtomicMoveNotSupportedException e )
+        {
+            Files.move( source, target, StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+    
+    private static File local( final URL url )
+    {
+        if( "file".equals( url.getProtocol() ) )
+        {
+            try
+            {
+                return new File( url.toURI() );
+            }
+            catch( final URISyntaxException | IllegalArgumentException e )
+            {
+                // Not a local file after all.
+            }
+        }
+        
+        return null;
+    }
+    
+    private byte[] hash( final URL url ) throws IOException
+    {
+        final File local = local( url );
+        final String key = url.toString();
+        
+        if( local == null )
+        {
+            synchronized( this )
+            {
+                final byte[] hash = this.hashes.get( key );
+                
+                if( hash != null )
+                {
+                    return hash;
+                }
+            }
+        }
+        
+        final MessageDigest digest = digest();
+        final byte[] buffer = new byte[ 8 * 1024 ];
+        
+        try( InputStream in = url.openStream() )
+        {
+            for( int count = in.read( buffer ); count != -1; count = in.read( buffer ) )
+            {
+                digest.update( buffer, 0, count );
+            }
+        }
+        
+        final byte[] hash = digest.digest();
+        
+        if( local == null )
+        {
+            synchronized( this )
+            {
+                this.hashes.put( key, hash );
+            }
+        }
+        
+        return hash;
+    }
+    
+    private static MessageDigest digest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-256" );
+        }
+        catch( final NoSuchAlgorithmException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling.xml.schema.internal;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.sapphire.modeling.xml.schema.XmlDocumentSchema;
+
+/**
+ * Holds the most recently used schemas strongly. Schemas that fall out of that set remain available until
+ * reclaimed by the garbage collector.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class RecentXmlDocumentSchemasCache
+{
+    private final int limit;
+    private final Map<String,SoftReference<XmlDocumentSchema>> released = new HashMap<String,SoftReference<XmlDocumentSchema>>();
+    private final Map<String,XmlDocumentSchema> recent;
+    
+    /**
+     * Creates a cache.
+     *
+     * @param limit the maximum number of schemas held strongly
+     */
+    
+    public RecentXmlDocumentSchemasCache( final int limit )
+    {
+        if( limit < 1 )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        this.limit = limit;
+        
+        this.recent = new LinkedHashMap<String,XmlDocumentSchema>( 16, 0.75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry( final Map.Entry<String,XmlDocumentSchema> eldest )
+            {
+                if( size() > RecentXmlDocumentSchemasCache.this.limit )
+                {
+                    RecentXmlDocumentSchemasCache.this.released.put( eldest.getKey(), new SoftReference<XmlDocumentSchema>( eldest.getValue() ) );
+                    return true;
+                }
+                
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Returns a cached schema and marks it as the most recently used.
+     *
+     * @param location the resolved location of the schema
+     * @return the schema or null if the schema is not cached
+     */
+    
+    public synchronized XmlDocumentSchema get( final String location )
+    {
+        XmlDocumentSchema schema = this.recent.get( location );
+        
+        if( schema == null )
+        {
+            final SoftReference<XmlDocumentSchema> ref = this.released.remove( location );
+            
+            if( ref != null )
+            {
+                schema = ref.get();
+                
+                if( schema != null )
+                {
+                    this.recent.put( location, schema );
+                }
+            }
+        }
+        
+        return schema;
+    }
+    
+    /**
+     * Caches a schema as the most recently used.
+     *
+     * @param location the resolved location of the schema
+     * @param schema the schema
+     */
+    
+    public synchronized void put( final String location, final XmlDocumentSchema schema )
+    {
+        this.released.remove( location );
+        this.recent.put( location, schema );
+    }
+    
+    /**
+     * Returns the locations of the schemas that are held strongly, from the least to the most recently used.
+     *
+     * @return the locations of the schemas that are held strongly
+     */
+    
+    public synchronized List<String> recent()
+    {
+        return new ArrayList<String>( this.recent.keySet() );
+    }
+
+}
@@ -0,0 +1,37 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Specifies that models rooted in an element of this type allow reads of already initialized content to proceed
+ * without acquiring the model lock. Such reads observe the most recently published content snapshot, while writes
+ * and refreshes continue to be serialized on the model lock. Intended for models that are read concurrently by
+ * multiple threads much more often than they are modified.
+ *
+ * <p>Only the annotation on the type of the root element is considered.</p>
+ *
+ * <p><b>Applicability:</b> Element Types</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.TYPE )
+
+public @interface ConcurrentReads
+{
+}
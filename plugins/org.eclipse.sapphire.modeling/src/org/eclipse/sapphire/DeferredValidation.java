@@ -0,0 +1,45 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Specifies that models rooted in an element of this type recompute validation lazily. A content change only marks
+ * the validation of the affected property as stale. Stale validation is recomputed when it is requested through
+ * {@link Property#validation()} or {@link Element#validation()}, or in batches on a background thread if so
+ * specified. Until then, no {@link PropertyValidationEvent} is broadcast for the change. Intended for models
+ * that are subject to bulk modifications, such as an import, where recomputing validation after every change
+ * is wasteful.
+ *
+ * <p>Only the annotation on the type of the root element is considered.</p>
+ *
+ * <p><b>Applicability:</b> Element Types</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.TYPE )
+
+public @interface DeferredValidation
+{
+    /**
+     * Specifies whether stale validation should be recomputed on a background thread shortly after it is marked as
+     * stale. At most one batch is in progress for a given model at any time.
+     */
+    
+    boolean background() default false;
+}
@@ -53,6 +53,20 @@ public interface Element extends Observable, Disposable, AutoCloseable
     
     <T> T nearest( Class<T> type );    
     Status validation();
+    
+    /**
+     * Returns the most severe problems found in the validation of this element and the elements beneath it in
+     * the model tree. The validation result of each element is cached and only recomputed along the path from
+     * a change to the root, so this method does not traverse the model unless the validation has changed.
+     * 
+     * @param limit the maximum number of problems to return
+     * @return the problems ordered from the most to the least severe, never null
+     * @throws IllegalArgumentException if limit is negative
+     * @throws IllegalStateException if this element is already disposed
+     */
+    
+    List<Status> problems( int limit );
+    
     <A> A adapt( Class<A> adapterType );
     
     ElementType type();
@@ -175,18 +175,25 @@ public final class ElementHandle<T extends Element> extends Property
                 
                 if( head instanceof AllDescendentsSegment || head instanceof PropertySegment || head instanceof TypeFilterSegment )
                 {
-                    attach( listener );
-                    
-                    if( ! ( definition() instanceof ImpliedElementProperty ) )
+                    if( PathSubscriptions.supports( path ) )
                     {
-                        attach( new PropagationListener( listener, path ) );
+                        element().attach( listener, ( new ModelPath( name() ) ).append( path ) );
                     }
-                    
-                    final Element element = content();
-                    
-                    if( element != null )
+                    else
                     {
-                        element.attach( listener, path );
+                        attach( listener );
+                        
+                        if( ! ( definition() instanceof ImpliedElementProperty ) )
+                        {
+                            attach( new PropagationListener( listener, path ) );
+                        }
+                        
+                        final Element element = content();
+                        
+                        if( element != null )
+                        {
+                            element.attach( listener, path );
+                        }
                     }
                     
                     return;
@@ -218,18 +225,25 @@ public final class ElementHandle<T extends Element> extends Property
                 
                 if( head instanceof AllDescendentsSegment || head instanceof PropertySegment || head instanceof TypeFilterSegment )
                 {
-                    detach( listener );
-                    
-                    if( ! ( definition() instanceof ImpliedElementProperty ) )
+                    if( PathSubscriptions.supports( path ) )
                     {
-                        detach( new PropagationListener( listener, path ) );
+                        element().detach( listener, ( new ModelPath( name() ) ).append( path ) );
                     }
-                    
-                    final Element element = content();
-                    
-                    if( element != null )
+                    else
                     {
-                        element.detach( listener, path );
+                        detach( listener );
+                        
+                        if( ! ( definition() instanceof ImpliedElementProperty ) )
+                        {
+                            detach( new PropagationListener( listener, path ) );
+                        }
+                        
+                        final Element element = content();
+                        
+                        if( element != null )
+                        {
+                            element.detach( listener, path );
+                        }
                     }
                     
                     return;
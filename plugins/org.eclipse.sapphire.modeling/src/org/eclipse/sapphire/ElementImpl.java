@@ -12,6 +12,7 @@
 
 package org.eclipse.sapphire;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import org.eclipse.sapphire.modeling.localization.SourceLanguageLocalizationServ
 import org.eclipse.sapphire.services.EqualityService;
 import org.eclipse.sapphire.services.Service;
 import org.eclipse.sapphire.services.internal.ElementInstanceServiceContext;
+import org.eclipse.sapphire.util.ListFactory;
 import org.eclipse.sapphire.util.MapFactory;
 import org.eclipse.sapphire.util.MutableReference;
 import org.eclipse.sapphire.util.SetFactory;
@@ -72,8 +74,12 @@ public abstract class ElementImpl implements Element
     private final SortedSet<Property> properties;
     private final Map<String,Property> propertiesByName;
     private ListenerContext listeners;
+    private PathSubscriptions subscriptions;
     private ElementInstanceServiceContext elementServiceContext;
-    private boolean disposed = false;
+    private final boolean concurrent;
+    private final ValidationQueue validationQueue;
+    private Status validation;
+    private volatile boolean disposed = false;
     
     public ElementImpl( final ElementType type,
                         final Property parent,
@@ -82,6 +88,17 @@ public abstract class ElementImpl implements Element
         this.type = type;
         this.parent = parent;
         this.resource = resource;
+        this.concurrent = ( parent == null ? type.hasAnnotation( ConcurrentReads.class ) : parent.concurrent() );
+        
+        if( parent == null )
+        {
+            final DeferredValidation deferredValidationAnnotation = type.getAnnotation( DeferredValidation.class );
+            this.validationQueue = ( deferredValidationAnnotation == null ? null : new ValidationQueue( this, deferredValidationAnnotation.background() ) );
+        }
+        else
+        {
+            this.validationQueue = parent.validationQueue();
+        }
         
         final SortedSetFactory<Property> propertiesSetFactory = SortedSetFactory.start( PROPERTY_INSTANCE_COMPARATOR );
         final MapFactory<String,Property> propertiesByNameMapFactory = MapFactory.start();
@@ -140,6 +157,30 @@ public abstract class ElementImpl implements Element
         return this.resource;
     }
     
+    /**
+     * Indicates whether the model that this element belongs to allows reads of initialized content without
+     * acquiring the model lock.
+     * 
+     * @see ConcurrentReads
+     */
+    
+    final boolean concurrent()
+    {
+        return this.concurrent;
+    }
+    
+    /**
+     * Returns the queue of properties with stale validation or null if the model that this element belongs to
+     * recomputes validation eagerly.
+     * 
+     * @see DeferredValidation
+     */
+    
+    final ValidationQueue validationQueue()
+    {
+        return this.validationQueue;
+    }
+    
     public final Element root()
     {
         if( this.parent == null )
@@ -247,6 +288,13 @@ public abstract class ElementImpl implements Element
     
     public final SortedSet<Property> properties()
     {
+        if( this.concurrent )
+        {
+            assertNotDisposed();
+            
+            return this.properties;
+        }
+        
         synchronized( root() )
         {
             assertNotDisposed();
@@ -308,6 +356,18 @@ public abstract class ElementImpl implements Element
             throw new IllegalArgumentException();
         }
         
+        if( this.concurrent )
+        {
+            assertNotDisposed();
+            
+            final Property property = this.propertiesByName.get( path.toLowerCase() );
+            
+            if( property != null )
+            {
+                return property;
+            }
+        }
+        
         synchronized( root() )
         {
             assertNotDisposed();
@@ -361,19 +421,29 @@ public abstract class ElementImpl implements Element
             throw new IllegalArgumentException();
         }
         
+        if( this.concurrent )
+        {
+            return property$( property );
+        }
+        
         synchronized( root() )
         {
-            assertNotDisposed();
+            return property$( property );
+        }
+    }
+    
+    private Property property$( final PropertyDef property )
+    {
+        assertNotDisposed();
 
-            final Property instance = property( property.name() );
-            
-            if( instance == null )
-            {
-                throw new IllegalArgumentException();
-            }
-            
-            return instance;
+        final Property instance = property( property.name() );
+        
+        if( instance == null )
+        {
+            throw new IllegalArgumentException();
         }
+        
+        return instance;
     }
     
     @SuppressWarnings( "unchecked" )
@@ -384,6 +454,11 @@ public abstract class ElementImpl implements Element
             throw new IllegalArgumentException();
         }
         
+        if( this.concurrent )
+        {
+            return (Value<T>) property$( property );
+        }
+        
         synchronized( root() )
         {
             assertNotDisposed();
@@ -400,6 +475,11 @@ public abstract class ElementImpl implements Element
             throw new IllegalArgumentException();
         }
         
+        if( this.concurrent )
+        {
+            return (Transient<T>) property$( property );
+        }
+        
         synchronized( root() )
         {
             assertNotDisposed();
@@ -416,6 +496,11 @@ public abstract class ElementImpl implements Element
             throw new IllegalArgumentException();
         }
         
+        if( this.concurrent )
+        {
+            return (ElementHandle<T>) property$( property );
+        }
+        
         synchronized( root() )
         {
             assertNotDisposed();
@@ -432,6 +517,11 @@ public abstract class ElementImpl implements Element
             throw new IllegalArgumentException();
         }
         
+        if( this.concurrent )
+        {
+            return (ElementList<T>) property$( property );
+        }
+        
         synchronized( root() )
         {
             assertNotDisposed();
@@ -808,6 +898,11 @@ public abstract class ElementImpl implements Element
         {
             assertNotDisposed();
             
+            if( this.validation != null )
+            {
+                return this.validation;
+            }
+            
             final Status.CompositeStatusFactory factory = Status.factoryForComposite();
             
             for( Property property : properties() )
@@ -835,7 +930,68 @@ public abstract class ElementImpl implements Element
                 }
             }
             
-            return factory.create();
+            this.validation = factory.create();
+            
+            return this.validation;
+        }
+    }
+    
+    public final List<Status> problems( final int limit )
+    {
+        if( limit < 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        final Status validation = validation();
+        
+        if( validation.ok() || limit == 0 )
+        {
+            return ListFactory.empty();
+        }
+        
+        final SortedSet<Status> children = validation.children();
+        
+        if( children.isEmpty() )
+        {
+            return ListFactory.singleton( validation );
+        }
+        
+        final ListFactory<Status> problems = ListFactory.start();
+        
+        for( Status problem : children )
+        {
+            if( problems.size() == limit )
+            {
+                break;
+            }
+            
+            problems.add( problem );
+        }
+        
+        return problems.result();
+    }
+    
+    /**
+     * Discards the cached validation result of this element and of the elements above it in the model tree.
+     * Called when validation or enablement of a property of this element changes or when an element is
+     * added to or removed from a property of this element.
+     */
+    
+    final void invalidateValidation()
+    {
+        synchronized( root() )
+        {
+            // An element caches its validation result only after the elements beneath it have done the same,
+            // so the walk can stop at the first element that has nothing cached.
+            
+            for( ElementImpl element = this; element != null && element.validation != null; )
+            {
+                element.validation = null;
+                
+                final Property parent = element.parent;
+                element = ( parent == null ? null : (ElementImpl) parent.element() );
+            }
         }
     }
     
@@ -921,6 +1077,10 @@ public abstract class ElementImpl implements Element
             final ModelPath p = ( new ModelPath( parent.name() ) ).append( path.tail() );
             parent.element().attach( listener, p );
         }
+        else if( PathSubscriptions.supports( path ) )
+        {
+            subscribe( listener, path );
+        }
         else if( head instanceof TypeFilterSegment )
         {
             final String t = this.type.getSimpleName();
@@ -1031,6 +1191,10 @@ public abstract class ElementImpl implements Element
             final ModelPath p = ( new ModelPath( parent.name() ) ).append( path.tail() );
             parent.element().detach( listener, p );
         }
+        else if( PathSubscriptions.supports( path ) )
+        {
+            unsubscribe( listener, path );
+        }
         else if( head instanceof TypeFilterSegment )
         {
             final String t = this.type.getSimpleName();
@@ -1070,6 +1234,123 @@ public abstract class ElementImpl implements Element
             property.detach( listener, path.tail() );
         }
     }
+    
+    /**
+     * Adds a listener to the path subscriptions of the model. The path is validated to the extent that the
+     * listener would be attached to properties of this element.
+     */
+    
+    private void subscribe( final Listener listener, final ModelPath path )
+    {
+        if( listener == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        final ElementImpl root = (ElementImpl) root();
+        
+        synchronized( root )
+        {
+            ModelPath p = path;
+            
+            while( p.length() > 0 && p.head() instanceof TypeFilterSegment )
+            {
+                if( ! matches( (TypeFilterSegment) p.head() ) )
+                {
+                    return;
+                }
+                
+                p = p.tail();
+            }
+            
+            if( p.length() > 0 && p.head() instanceof PropertySegment )
+            {
+                final Property property = property( ( (PropertySegment) p.head() ).getPropertyName() );
+                
+                if( property == null )
+                {
+                    throw createIllegalPathException( p );
+                }
+                
+                final ModelPath tail = p.tail();
+                
+                if( tail.length() > 0 && ! ( tail.head() instanceof AllDescendentsSegment ) &&
+                    ! ( property instanceof ElementList || property instanceof ElementHandle ) )
+                {
+                    throw property.createIllegalPathException( tail );
+                }
+            }
+            
+            if( root.subscriptions == null )
+            {
+                root.subscriptions = new PathSubscriptions();
+            }
+            
+            root.subscriptions.add( this, path, listener );
+        }
+    }
+    
+    private void unsubscribe( final Listener listener, final ModelPath path )
+    {
+        if( listener == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        final ElementImpl root = (ElementImpl) root();
+        
+        synchronized( root )
+        {
+            if( root.subscriptions != null && root.subscriptions.remove( this, path, listener ) )
+            {
+                queue().prune
+                (
+                    new Filter<EventDeliveryJob>()
+                    {
+                        @Override
+                        public boolean allows( final EventDeliveryJob job )
+                        {
+                            return ! job.listener().equals( listener );
+                        }
+                    }
+                );
+            }
+        }
+    }
+    
+    /**
+     * Returns the listeners attached with a path that matches the specified property.
+     */
+    
+    final Set<Listener> subscribers( final Property property )
+    {
+        final ElementImpl root = (ElementImpl) root();
+        
+        synchronized( root )
+        {
+            if( root.subscriptions == null )
+            {
+                return Collections.emptySet();
+            }
+            
+            return root.subscriptions.match( property );
+        }
+    }
+    
+    private boolean matches( final TypeFilterSegment filter )
+    {
+        final String t = this.type.getSimpleName();
+        
+        for( String type : filter.getTypes() )
+        {
+            if( type.equalsIgnoreCase( t ) )
+            {
+                return true;
+            }
+        }
+        
+        return false;
+    }
         
     protected final void post( final Event event )
     {
@@ -1127,6 +1408,11 @@ public abstract class ElementImpl implements Element
     
     public final boolean disposed()
     {
+        if( this.concurrent )
+        {
+            return this.disposed;
+        }
+        
         synchronized( root() )
         {
             return this.disposed;
@@ -1141,6 +1427,7 @@ public abstract class ElementImpl implements Element
             if( ! this.disposed )
             {
                 this.disposed = true;
+                this.validation = null;
                 
                 broadcast( new ElementDisposeEvent( this ) );
                 
@@ -1154,6 +1441,18 @@ public abstract class ElementImpl implements Element
                     property.dispose();
                 }
                 
+                final ElementImpl root = (ElementImpl) root();
+                
+                if( root.subscriptions != null )
+                {
+                    root.subscriptions.remove( this );
+                }
+                
+                if( this == root )
+                {
+                    this.subscriptions = null;
+                }
+                
                 try
                 {
                     resource().dispose();
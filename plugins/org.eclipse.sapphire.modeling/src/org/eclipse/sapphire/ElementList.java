@@ -15,12 +15,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.sapphire.internal.DefaultCollationService;
 import org.eclipse.sapphire.internal.NonSuspendableListener;
 import org.eclipse.sapphire.modeling.ModelPath;
 import org.eclipse.sapphire.modeling.ModelPath.AllDescendentsSegment;
@@ -28,6 +30,7 @@ import org.eclipse.sapphire.modeling.ModelPath.PropertySegment;
 import org.eclipse.sapphire.modeling.ModelPath.TypeFilterSegment;
 import org.eclipse.sapphire.util.EqualsFactory;
 import org.eclipse.sapphire.util.HashCodeFactory;
+import org.eclipse.sapphire.util.ListFactory;
 
 /**
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
@@ -35,17 +38,7 @@ import org.eclipse.sapphire.util.HashCodeFactory;
 
 public final class ElementList<T extends Element> extends Property implements List<T>
 {
-    private static final Comparator<String> DEFAULT_COMPARATOR = new Comparator<String>()
-    {
-        @Override
-        public int compare( final String str1, final String str2 )
-        {
-            return str1.compareTo( str2 );
-        }
-
-    };
-    
-    private List<T> content;
+    private volatile List<T> content;
     private Map<IndexCacheKey,Index<T>> indexes;
     
     public ElementList( final Element element, final ListProperty property )
@@ -93,6 +86,26 @@ public final class ElementList<T extends Element> extends Property implements Li
         }
     }
     
+    /**
+     * Returns the current content of the list if it can be read without acquiring the model lock. That is the case
+     * when the model allows concurrent reads and the content has already been initialized. The content list is never
+     * modified once published, so it can be safely read while another thread is refreshing this property.
+     * 
+     * @return the current content of the list or null if the read must go through the model lock
+     */
+    
+    private List<T> snapshot()
+    {
+        if( concurrent() )
+        {
+            assertNotDisposed();
+            
+            return this.content;
+        }
+        
+        return null;
+    }
+    
     private void refreshContent( final boolean onlyIfNotInitialized )
     {
         boolean initialized = ( ( this.initialization & CONTENT_INITIALIZED ) != 0 );
@@ -134,53 +147,80 @@ public final class ElementList<T extends Element> extends Property implements Li
             
             if( proceed )
             {
+                final List<T> oldContent = ( this.content == null ? ListFactory.<T>empty() : this.content );
+                final Map<Resource,Integer> oldPositions = new IdentityHashMap<Resource,Integer>( oldContent.size() );
+                
+                for( int i = 0, n = oldContent.size(); i < n; i++ )
+                {
+                    oldPositions.put( oldContent.get( i ).resource(), i );
+                }
+                
                 final List<T> freshContent = new ArrayList<T>( freshContentSize );
+                final int[] sources = new int[ freshContentSize ];
+                final boolean[] retained = new boolean[ oldContent.size() ];
+                final List<Element> added = new ArrayList<Element>();
+                final List<Integer> addedPositions = new ArrayList<Integer>();
+                int lastRetainedPosition = -1;
+                boolean reordered = false;
                 
-                for( Resource resource : freshResources )
+                for( int i = 0; i < freshContentSize; i++ )
                 {
-                    T element = null;
+                    final Resource resource = freshResources.get( i );
+                    final Integer oldPosition = oldPositions.get( resource );
+                    final T element;
                     
-                    if( this.content != null )
+                    if( oldPosition == null )
+                    {
+                        final ElementType type = binding.type( resource );
+                        element = type.instantiate( this, resource );
+                        added.add( element );
+                        addedPositions.add( i );
+                        sources[ i ] = -1;
+                    }
+                    else
                     {
-                        for( T x : this.content )
+                        element = oldContent.get( oldPosition );
+                        retained[ oldPosition ] = true;
+                        sources[ i ] = oldPosition;
+                        
+                        if( oldPosition < lastRetainedPosition )
                         {
-                            if( resource == x.resource() )
-                            {
-                                element = x;
-                                break;
-                            }
+                            reordered = true;
                         }
+                        
+                        lastRetainedPosition = oldPosition;
                     }
                     
-                    if( element == null )
+                    freshContent.add( element );
+                }
+                
+                final List<Element> toBeDisposed = new ArrayList<Element>( 1 );
+                final List<Integer> removedPositions = new ArrayList<Integer>( 1 );
+                
+                for( int i = 0, n = oldContent.size(); i < n; i++ )
+                {
+                    if( ! retained[ i ] )
                     {
-                        final ElementType type = binding.type( resource );
-                        element = type.instantiate( this, resource );
+                        toBeDisposed.add( oldContent.get( i ) );
+                        removedPositions.add( i );
                     }
-                    
-                    freshContent.add( element );
                 }
                 
-                final List<T> toBeDisposed = new ArrayList<T>( 1 );
+                final List<Element> moved = new ArrayList<Element>( 1 );
+                final List<Integer> movedFrom = new ArrayList<Integer>( 1 );
+                final List<Integer> movedTo = new ArrayList<Integer>( 1 );
                 
-                if( this.content != null )
+                if( reordered )
                 {
-                    for( T x : this.content )
+                    final boolean[] unmoved = unmoved( sources );
+                    
+                    for( int i = 0; i < freshContentSize; i++ )
                     {
-                        boolean retained = false;
-    
-                        for( T y : freshContent )
-                        {
-                            if( x == y )
-                            {
-                                retained = true;
-                                break;
-                            }
-                        }
-    
-                        if( ! retained )
+                        if( sources[ i ] != -1 && ! unmoved[ i ] )
                         {
-                            toBeDisposed.add( x );
+                            moved.add( freshContent.get( i ) );
+                            movedFrom.add( sources[ i ] );
+                            movedTo.add( i );
                         }
                     }
                 }
@@ -191,7 +231,10 @@ public final class ElementList<T extends Element> extends Property implements Li
                 
                 if( initialized )
                 {
-                    event = new PropertyContentEvent( this );
+                    event = new ListPropertyContentEvent
+                    (
+                        this, added, addedPositions, toBeDisposed, removedPositions, moved, movedFrom, movedTo
+                    );
                 }
                 else
                 {
@@ -215,6 +258,62 @@ public final class ElementList<T extends Element> extends Property implements Li
         }
     }
     
+    /**
+     * Finds the largest set of retained elements that kept their relative order, using the longest increasing
+     * subsequence of their old positions. The remaining retained elements are the ones reported as moved.
+     * 
+     * @param sources the old position of each element in the fresh content or -1 for added elements
+     * @return flags identifying the elements that were not moved
+     */
+    
+    private static boolean[] unmoved( final int[] sources )
+    {
+        final int n = sources.length;
+        final int[] tails = new int[ n ];
+        final int[] previous = new int[ n ];
+        int length = 0;
+        
+        for( int i = 0; i < n; i++ )
+        {
+            if( sources[ i ] != -1 )
+            {
+                int low = 0;
+                int high = length;
+                
+                while( low < high )
+                {
+                    final int middle = ( low + high ) >>> 1;
+                    
+                    if( sources[ tails[ middle ] ] < sources[ i ] )
+                    {
+                        low = middle + 1;
+                    }
+                    else
+                    {
+                        high = middle;
+                    }
+                }
+                
+                previous[ i ] = ( low > 0 ? tails[ low - 1 ] : -1 );
+                tails[ low ] = i;
+                
+                if( low == length )
+                {
+                    length++;
+                }
+            }
+        }
+        
+        final boolean[] unmoved = new boolean[ n ];
+        
+        for( int i = ( length > 0 ? tails[ length - 1 ] : -1 ); i != -1; i = previous[ i ] )
+        {
+            unmoved[ i ] = true;
+        }
+        
+        return unmoved;
+    }
+    
     @Override
     public ListProperty definition()
     {
@@ -250,12 +349,22 @@ public final class ElementList<T extends Element> extends Property implements Li
                 
                 if( head instanceof AllDescendentsSegment || head instanceof PropertySegment || head instanceof TypeFilterSegment )
                 {
-                    attach( listener );
-                    attach( new PropagationListener( listener, path ) );
-                    
-                    for( Element element : this )
+                    if( PathSubscriptions.supports( path ) )
                     {
-                        element.attach( listener, path );
+                        // The path is matched against properties of the model as events are broadcast, so
+                        // nothing needs to be attached to this property or its content.
+                        
+                        element().attach( listener, ( new ModelPath( name() ) ).append( path ) );
+                    }
+                    else
+                    {
+                        attach( listener );
+                        attach( new PropagationListener( listener, path ) );
+                        
+                        for( Element element : this )
+                        {
+                            element.attach( listener, path );
+                        }
                     }
                     
                     return;
@@ -287,12 +396,19 @@ public final class ElementList<T extends Element> extends Property implements Li
                 
                 if( head instanceof AllDescendentsSegment || head instanceof PropertySegment || head instanceof TypeFilterSegment )
                 {
-                    detach( listener );
-                    detach( new PropagationListener( listener, path ) );
-                    
-                    for( Element element : this )
+                    if( PathSubscriptions.supports( path ) )
+                    {
+                        element().detach( listener, ( new ModelPath( name() ) ).append( path ) );
+                    }
+                    else
                     {
-                        element.detach( listener, path );
+                        detach( listener );
+                        detach( new PropagationListener( listener, path ) );
+                        
+                        for( Element element : this )
+                        {
+                            element.detach( listener, path );
+                        }
                     }
                     
                     return;
@@ -721,6 +837,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public T get( final int index )
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return snapshot.get( index );
+        }
+        
         synchronized( root() )
         {
             init();
@@ -732,6 +855,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public int indexOf( final Object object )
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return indexOf$( snapshot, object );
+        }
+        
         synchronized( root() )
         {
             init();
@@ -742,12 +872,17 @@ public final class ElementList<T extends Element> extends Property implements Li
     }
 
     private int indexOf$( final Object object )
+    {
+        return indexOf$( this.content, object );
+    }
+    
+    private static int indexOf$( final List<?> content, final Object object )
     {
         int index = -1;
         
-        for( int i = 0, n = this.content.size(); i < n; i++ )
+        for( int i = 0, n = content.size(); i < n; i++ )
         {
-            if( this.content.get( i ) == object )
+            if( content.get( i ) == object )
             {
                 index = i;
                 break;
@@ -780,6 +915,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public boolean contains( final Object object )
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return contains$( snapshot, object );
+        }
+        
         synchronized( root() )
         {
             init();
@@ -791,7 +933,12 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     private boolean contains$( final Object object )
     {
-        for( Object x : this.content )
+        return contains$( this.content, object );
+    }
+    
+    private static boolean contains$( final List<?> content, final Object object )
+    {
+        for( Object x : content )
         {
             if( x == object )
             {
@@ -823,6 +970,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public boolean isEmpty()
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return snapshot.isEmpty();
+        }
+        
         synchronized( root() )
         {
             init();
@@ -835,6 +989,13 @@ public final class ElementList<T extends Element> extends Property implements Li
     @Override
     public boolean empty()
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return snapshot.isEmpty();
+        }
+        
         synchronized( root() )
         {
             init();
@@ -846,6 +1007,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public int size()
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return snapshot.size();
+        }
+        
         synchronized( root() )
         {
             init();
@@ -862,6 +1030,13 @@ public final class ElementList<T extends Element> extends Property implements Li
     
     public Iterator<T> iterator()
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return new Itr<T>( snapshot.iterator() );
+        }
+        
         synchronized( root() )
         {
             init();
@@ -873,6 +1048,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public ListIterator<T> listIterator()
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return new ListItr<T>( snapshot.listIterator() );
+        }
+        
         synchronized( root() )
         {
             init();
@@ -884,6 +1066,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public ListIterator<T> listIterator( final int index )
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return new ListItr<T>( snapshot.listIterator( index ) );
+        }
+        
         synchronized( root() )
         {
             init();
@@ -901,6 +1090,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public Object[] toArray()
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return snapshot.toArray();
+        }
+        
         synchronized( root() )
         {
             init();
@@ -912,6 +1108,13 @@ public final class ElementList<T extends Element> extends Property implements Li
 
     public <E> E[] toArray( E[] array )
     {
+        final List<T> snapshot = snapshot();
+        
+        if( snapshot != null )
+        {
+            return snapshot.toArray( array );
+        }
+        
         synchronized( root() )
         {
             init();
@@ -1040,7 +1243,7 @@ public final class ElementList<T extends Element> extends Property implements Li
         }
         
         final ValueProperty vp = (ValueProperty) p;
-        final Comparator<String> c = ( comparator == null ? DEFAULT_COMPARATOR : comparator );
+        final Comparator<String> c = ( comparator == null ? DefaultCollationService.COMPARATOR : comparator );
         
         synchronized( root() )
         {
@@ -13,6 +13,8 @@ package org.eclipse.sapphire;
 
 import static org.eclipse.sapphire.modeling.util.MiscUtil.equal;
 
+import java.util.Set;
+
 import org.eclipse.sapphire.services.ReferenceService;
 import org.eclipse.sapphire.services.ServiceEvent;
 
@@ -43,6 +45,9 @@ import org.eclipse.sapphire.services.ServiceEvent;
  * 
  * <p>A PossibleValuesService implementation is automatically provided when this service is implemented.</p>
  * 
+ * <p>When the key is a value property of the list entry type, references are resolved through an {@link Index} of
+ * the list and a reference is only refreshed when the set of elements corresponding to its key changes.</p>
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
@@ -51,6 +56,13 @@ public abstract class ElementReferenceService extends ReferenceService<Element>
     private ElementList<?> list;
     private String key;
     private Listener listener;
+    private Index<?> index;
+    private String indexKey;
+    private Listener indexListener;
+    private Listener reorderListener;
+    private boolean reorderWatched;
+    private Value<?> targetKey;
+    private Listener targetKeyListener;
     
     /**
      * Returns the list containing elements being referenced. If the list returned by this method changes to another list,
@@ -89,6 +101,39 @@ public abstract class ElementReferenceService extends ReferenceService<Element>
             }
         };
 
+        this.indexListener = new FilteredListener<IndexEvent>()
+        {
+            @Override
+            protected void handleTypedEvent( final IndexEvent event )
+            {
+                refresh();
+            }
+        };
+        
+        this.reorderListener = new FilteredListener<ListPropertyContentEvent>()
+        {
+            @Override
+            protected void handleTypedEvent( final ListPropertyContentEvent event )
+            {
+                if( event.reordered() )
+                {
+                    refresh();
+                }
+            }
+        };
+        
+        this.targetKeyListener = new FilteredListener<ValuePropertyContentEvent>()
+        {
+            @Override
+            protected void handleTypedEvent( final ValuePropertyContentEvent event )
+            {
+                if( event.refactor() )
+                {
+                    context( Value.class ).write( event.after() );
+                }
+            }
+        };
+
         attach
         (
             new FilteredListener<SourceEvent>()
@@ -112,32 +157,84 @@ public abstract class ElementReferenceService extends ReferenceService<Element>
         
         if( this.list != list || ! equal( this.key, key ) )
         {
-            if( this.list != null )
-            {
-                if( ! this.list.disposed() )
-                {
-                    this.list.detach( this.listener, this.key );
-                }
-                
-                this.list = null;
-            }
+            release();
 
             this.list = list;
             this.key = key;
             
             if( list != null )
             {
-                this.list.attach( this.listener, this.key );
+                if( indexable( list, key ) )
+                {
+                    this.index = list.index( key );
+                }
+                else
+                {
+                    this.list.attach( this.listener, this.key );
+                }
             }
         }
         
+        Element target = null;
+        
         if( list != null && text != null )
+        {
+            if( this.index != null )
+            {
+                target = lookup( list, text );
+            }
+            else
+            {
+                for( final Element element : list )
+                {
+                    final String n = reference( element );
+                    
+                    if( n != null && n.equals( text ) )
+                    {
+                        target = element;
+                        break;
+                    }
+                }
+            }
+        }
+        
+        if( this.index != null )
+        {
+            watch( text, target, ( text != null && this.index.elements( text ).size() > 1 ) );
+        }
+        
+        return target;
+    }
+    
+    /**
+     * Determines whether references can be resolved through an index of the list, which is the case when the key is
+     * the name of a value property of the list entry type rather than a path.
+     */
+    
+    private static boolean indexable( final ElementList<?> list, final String key )
+    {
+        return ( key != null && key.indexOf( '/' ) == -1 && list.definition().getType().property( key ) instanceof ValueProperty );
+    }
+    
+    /**
+     * Finds the element corresponding to the reference text using the index. If several elements have the same key,
+     * the one that appears first in the list is returned, which matches the result of scanning the list.
+     */
+    
+    private Element lookup( final ElementList<?> list, final String text )
+    {
+        final Set<? extends Element> elements = this.index.elements( text );
+        
+        if( elements.size() == 1 )
+        {
+            return elements.iterator().next();
+        }
+        
+        if( ! elements.isEmpty() )
         {
             for( final Element element : list )
             {
-                final String n = reference( element );
-                
-                if( n != null && n.equals( text ) )
+                if( elements.contains( element ) )
                 {
                     return element;
                 }
@@ -147,10 +244,102 @@ public abstract class ElementReferenceService extends ReferenceService<Element>
         return null;
     }
     
+    /**
+     * Subscribes to changes in the index for the reference text and to refactoring of the key of the target, moving
+     * the subscriptions if the reference text or the target have changed since the last resolution. When several
+     * elements have the same key, the target depends on their order, which the index does not track, so the list is
+     * also watched for reordering.
+     */
+    
+    private void watch( final String text, final Element target, final boolean ambiguous )
+    {
+        if( ! equal( this.indexKey, text ) )
+        {
+            if( this.indexKey != null )
+            {
+                this.index.detach( this.indexListener, this.indexKey );
+            }
+            
+            this.indexKey = text;
+            
+            if( this.indexKey != null )
+            {
+                this.index.attach( this.indexListener, this.indexKey );
+            }
+        }
+        
+        final Value<?> targetKey = ( target == null ? null : (Value<?>) target.property( this.key ) );
+        
+        if( this.targetKey != targetKey )
+        {
+            if( this.targetKey != null )
+            {
+                this.targetKey.detach( this.targetKeyListener );
+            }
+            
+            this.targetKey = targetKey;
+            
+            if( this.targetKey != null )
+            {
+                this.targetKey.attach( this.targetKeyListener );
+            }
+        }
+        
+        if( this.reorderWatched != ambiguous )
+        {
+            if( ambiguous )
+            {
+                this.list.attach( this.reorderListener );
+            }
+            else
+            {
+                this.list.detach( this.reorderListener );
+            }
+            
+            this.reorderWatched = ambiguous;
+        }
+    }
+    
+    private void release()
+    {
+        if( this.targetKey != null )
+        {
+            this.targetKey.detach( this.targetKeyListener );
+            this.targetKey = null;
+        }
+        
+        if( this.reorderWatched )
+        {
+            if( ! this.list.disposed() )
+            {
+                this.list.detach( this.reorderListener );
+            }
+            
+            this.reorderWatched = false;
+        }
+        
+        if( this.index != null )
+        {
+            if( this.indexKey != null )
+            {
+                this.index.detach( this.indexListener, this.indexKey );
+                this.indexKey = null;
+            }
+            
+            this.index = null;
+        }
+        else if( this.list != null && ! this.list.disposed() )
+        {
+            this.list.detach( this.listener, this.key );
+        }
+        
+        this.list = null;
+    }
+    
     @Override
     public final String reference( final Element element )
     {
-        if( ! list().contains( element ) )
+        if( element.parent() != list() )
         {
             throw new IllegalArgumentException();
         }
@@ -161,18 +350,13 @@ public abstract class ElementReferenceService extends ReferenceService<Element>
     @Override
     public void dispose()
     {
-        if( this.list != null )
-        {
-            if( ! this.list.disposed() )
-            {
-                this.list.detach( this.listener, this.key );
-            }
-            
-            this.list = null;
-        }
+        release();
         
         this.key = null;
         this.listener = null;
+        this.indexListener = null;
+        this.reorderListener = null;
+        this.targetKeyListener = null;
         
         super.dispose();
     }
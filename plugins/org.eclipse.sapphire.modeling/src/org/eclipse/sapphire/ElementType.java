@@ -15,12 +15,12 @@ package org.eclipse.sapphire;
 import static org.eclipse.sapphire.modeling.localization.LocalizationUtil.transformCamelCaseToLabel;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
+import java.util.function.BiFunction;
 
 import org.eclipse.sapphire.internal.ElementClassLoaders;
 import org.eclipse.sapphire.modeling.ModelMetadataItem;
@@ -62,8 +62,7 @@ public final class ElementType extends ModelMetadataItem
     };
 
     private final Class<?> typeClass;
-    private Class<?> implClass = null;
-    private Constructor<?> implClassConstructor = null;
+    private BiFunction<Property,Resource,Element> implFactory = null;
     private boolean implClassLoaded = false;
     private final List<ElementType> baseTypes;
     private SortedSet<PropertyDef> properties;
@@ -173,36 +172,26 @@ public final class ElementType extends ModelMetadataItem
     
     public <T extends Element> T instantiate( final Property property, final Resource resource )
     {
+        final BiFunction<Property,Resource,Element> factory;
+        
         synchronized( this )
         {
             if( ! this.implClassLoaded )
             {
                 this.implClassLoaded = true;
-                
-                this.implClass = ElementClassLoaders.loadImplementationClass( this );
-                
-                try
-                {
-                    this.implClassConstructor = this.implClass.getConstructor( Property.class, Resource.class );
-                }
-                catch( NoSuchMethodException e )
-                {
-                    // todo: log a better message here
-                    
-                    Sapphire.service( LoggingService.class ).log( e );
-                    
-                    this.implClass = null;
-                }
+                this.implFactory = ElementClassLoaders.loadImplementationFactory( this );
             }
+            
+            factory = this.implFactory;
         }
         
-        if( this.implClassConstructor != null )
+        if( factory != null )
         {
             T element;
             
             try
             {
-                element = (T) this.implClassConstructor.newInstance( property, resource );
+                element = (T) factory.apply( property, resource );
             }
             catch( Exception e )
             {
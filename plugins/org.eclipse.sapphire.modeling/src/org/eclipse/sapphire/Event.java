@@ -24,11 +24,40 @@ public class Event
 {
     private static final int TRACE_SOURCE_STACK_DEPTH = 1;
     
+    private static final ClassValue<Boolean> SUPERSEDING = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue( final Class<?> type )
+        {
+            try
+            {
+                return type.getMethod( "supersedes", Event.class ).getDeclaringClass() != Event.class;
+            }
+            catch( final NoSuchMethodException e )
+            {
+                return true;
+            }
+        }
+    };
+    
     public boolean supersedes( final Event event )
     {
         return false;
     }
     
+    /**
+     * Determines whether this event is able to supersede other events. Only events that override
+     * {@link #supersedes(Event)} can do so, which allows the event queue to skip the scan of outstanding
+     * jobs for the vast majority of events.
+     * 
+     * @return true if this event type overrides {@link #supersedes(Event)}
+     */
+    
+    final boolean superseding()
+    {
+        return SUPERSEDING.get( getClass() );
+    }
+    
     final void trace( final int listeners )
     {
         final Map<String,String> info = new LinkedHashMap<String,String>();
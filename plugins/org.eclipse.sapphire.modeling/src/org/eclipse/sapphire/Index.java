@@ -14,12 +14,16 @@ package org.eclipse.sapphire;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
+import org.eclipse.sapphire.internal.DefaultCollationService;
+import org.eclipse.sapphire.util.Comparators;
 import org.eclipse.sapphire.util.IdentityHashSet;
 import org.eclipse.sapphire.util.SetFactory;
 
@@ -28,6 +32,10 @@ import org.eclipse.sapphire.util.SetFactory;
  * 
  * <p>To create an index, use the {@link ElementList#index(ValueProperty)} method.</p>
  * 
+ * <p>When the comparator is the default case-sensitive comparator or the case-insensitive comparator from
+ * {@link Comparators#createIgnoreCaseComparator()}, the index is backed by a hash table with keys in canonical
+ * form and lookups take constant time. Otherwise, the index is backed by a sorted map.</p>
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
@@ -46,10 +54,14 @@ public final class Index<T extends Element>
     private final ElementList<T> list;
     private final ValueProperty property;
     private final Comparator<String> comparator;
+    private final Comparator<Object> keyComparator;
+    private final boolean hashed;
+    private final boolean ignoreCase;
     private Map<Object,Object> keyToElements;
     private Map<Element,Object> elementToKey;
     private Listener listener;
     private ListenerContext listeners;
+    private Map<Object,ListenerContext> keyListeners;
     
     Index( final ElementList<T> list, final ValueProperty property, final Comparator<String> comparator )
     {
@@ -71,6 +83,33 @@ public final class Index<T extends Element>
         this.list = list;
         this.property = property;
         this.comparator = comparator;
+        
+        this.keyComparator = new Comparator<Object>()
+        {
+            @Override
+            public int compare( final Object x, final Object y )
+            {
+                if( x == y )
+                {
+                    return 0;
+                }
+                else if( x == NULL )
+                {
+                    return -1;
+                }
+                else if( y == NULL )
+                {
+                    return 1;
+                }
+                else
+                {
+                    return Index.this.comparator.compare( (String) x, (String) y );
+                }
+            }
+        };
+        
+        this.ignoreCase = ( comparator == Comparators.createIgnoreCaseComparator() );
+        this.hashed = ( this.ignoreCase || comparator == DefaultCollationService.COMPARATOR );
     }
     
     private void initialize()
@@ -88,36 +127,7 @@ public final class Index<T extends Element>
             
             this.list.attach( this.listener );
             
-            Comparator<Object> comparator = null;
-            
-            if( this.comparator != null )
-            {
-                comparator = new Comparator<Object>()
-                {
-                    @Override
-                    public int compare( final Object x, final Object y )
-                    {
-                        if( x == y )
-                        {
-                            return 0;
-                        }
-                        else if( x == NULL )
-                        {
-                            return -1;
-                        }
-                        else if( y == NULL )
-                        {
-                            return 1;
-                        }
-                        else
-                        {
-                            return Index.this.comparator.compare( (String) x, (String) y );
-                        }
-                    }
-                };
-            }
-            
-            this.keyToElements = new TreeMap<Object,Object>( comparator );
+            this.keyToElements = createKeyMap();
             this.elementToKey = new IdentityHashMap<Element,Object>();
             
             for( final Element element : this.list )
@@ -170,7 +180,7 @@ public final class Index<T extends Element>
             assertNotDisposed();
             initialize();
             
-            final Object obj = this.keyToElements.get( key == null ? NULL : key );
+            final Object obj = this.keyToElements.get( normalize( key == null ? NULL : key ) );
             
             if( obj != null )
             {
@@ -180,7 +190,7 @@ public final class Index<T extends Element>
                 }
                 else
                 {
-                    return ( (Set<T>) obj ).iterator().next();
+                    return (T) ( (Bucket) obj ).elements.iterator().next();
                 }
             }
         }
@@ -205,7 +215,7 @@ public final class Index<T extends Element>
             assertNotDisposed();
             initialize();
             
-            final Object obj = this.keyToElements.get( key == null ? NULL : key );
+            final Object obj = this.keyToElements.get( normalize( key == null ? NULL : key ) );
             
             if( obj != null )
             {
@@ -215,7 +225,7 @@ public final class Index<T extends Element>
                 }
                 else
                 {
-                    return Collections.unmodifiableSet( new IdentityHashSet<T>( (Set<T>) obj ) );
+                    return (Set<T>) ( (Bucket) obj ).snapshot();
                 }
             }
         }
@@ -241,6 +251,7 @@ public final class Index<T extends Element>
         synchronized( this.list.root() )
         {
             assertNotDisposed();
+            initialize();
             
             if( this.listeners == null )
             {
@@ -274,11 +285,82 @@ public final class Index<T extends Element>
         }
     }
     
+    /**
+     * Attaches a listener to this index that is only notified when the set of elements corresponding to the
+     * given key changes. The key is matched using the comparator of this index.
+     * 
+     * @param listener the listener
+     * @param key the key of interest or null for elements with a null key value
+     * @throws IllegalArgumentException if the listener is null
+     * @throws IllegalStateException if the list property is disposed
+     */
+    
+    public void attach( final Listener listener, final String key )
+    {
+        if( listener == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        synchronized( this.list.root() )
+        {
+            assertNotDisposed();
+            initialize();
+            
+            if( this.keyListeners == null )
+            {
+                this.keyListeners = createKeyMap();
+            }
+            
+            final Object k = normalize( key == null ? NULL : key );
+            ListenerContext listeners = this.keyListeners.get( k );
+            
+            if( listeners == null )
+            {
+                listeners = new ListenerContext( ( (ElementImpl) this.list.element() ).queue() );
+                this.keyListeners.put( k, listeners );
+            }
+            
+            listeners.attach( listener );
+        }
+    }
+    
+    /**
+     * Detaches a listener that was attached to this index for the given key.
+     * 
+     * @param listener the listener
+     * @param key the key that the listener was attached for
+     * @throws IllegalArgumentException if the listener is null
+     */
+    
+    public void detach( final Listener listener, final String key )
+    {
+        if( listener == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        synchronized( this.list.root() )
+        {
+            if( this.keyListeners != null )
+            {
+                final Object k = normalize( key == null ? NULL : key );
+                final ListenerContext listeners = this.keyListeners.get( k );
+                
+                if( listeners != null && listeners.detach( listener ) && listeners.empty() )
+                {
+                    this.keyListeners.remove( k );
+                }
+            }
+        }
+    }
+    
     private void handle( final PropertyContentEvent event )
     {
         synchronized( this.list.root() )
         {
             boolean changed = false;
+            final Set<Object> keys = new LinkedHashSet<Object>();
             
             final Property property = event.property();
             
@@ -286,18 +368,56 @@ public final class Index<T extends Element>
             {
                 final Element element = property.element();
                 
-                remove( element );
-                insert( element );
+                final Object before = remove( element );
+                final Object after = insert( element );
+                
+                if( before == null || ! same( before, after ) )
+                {
+                    if( before != null )
+                    {
+                        keys.add( before );
+                    }
+                    
+                    keys.add( after );
+                }
                 
                 changed = true;
             }
+            else if( event instanceof ListPropertyContentEvent )
+            {
+                final ListPropertyContentEvent evt = (ListPropertyContentEvent) event;
+                
+                for( final Element element : evt.removed() )
+                {
+                    final Object key = remove( element );
+                    
+                    if( key != null )
+                    {
+                        keys.add( key );
+                        changed = true;
+                    }
+                }
+                
+                for( final Element element : evt.added() )
+                {
+                    if( ! element.disposed() && ! this.elementToKey.containsKey( element ) )
+                    {
+                        keys.add( insert( element ) );
+                        
+                        element.attach( this.listener );
+                        element.property( this.property ).attach( this.listener );
+                        
+                        changed = true;
+                    }
+                }
+            }
             else
             {
                 for( final Element element : this.list )
                 {
                     if( ! this.elementToKey.containsKey( element ) )
                     {
-                        insert( element );
+                        keys.add( insert( element ) );
                         
                         element.attach( this.listener );
                         element.property( this.property ).attach( this.listener );
@@ -325,7 +445,7 @@ public final class Index<T extends Element>
                 {
                     for( final Element element : disposed )
                     {
-                        remove( element );
+                        keys.add( remove( element ) );
                     }
                     
                     changed = true;
@@ -334,15 +454,55 @@ public final class Index<T extends Element>
             
             if( changed )
             {
-                if( this.listeners != null )
+                broadcast( keys );
+            }
+        }
+    }
+    
+    private void broadcast( final Set<Object> keys )
+    {
+        final Set<String> k = new LinkedHashSet<String>();
+        
+        for( final Object key : keys )
+        {
+            k.add( key == NULL ? null : (String) key );
+        }
+        
+        final IndexEvent event = new IndexEvent( this, Collections.unmodifiableSet( k ) );
+        boolean posted = false;
+        
+        if( this.listeners != null )
+        {
+            this.listeners.post( event );
+            posted = true;
+        }
+        
+        if( this.keyListeners != null )
+        {
+            // Keys that differ only in letter case share listeners when the index ignores case, so the listeners
+            // are tracked to deliver the event only once.
+            
+            final Set<ListenerContext> notified = Collections.newSetFromMap( new IdentityHashMap<ListenerContext,Boolean>() );
+            
+            for( final Object key : keys )
+            {
+                final ListenerContext listeners = this.keyListeners.get( normalize( key ) );
+                
+                if( listeners != null && notified.add( listeners ) )
                 {
-                    this.listeners.broadcast( new Event() );
+                    listeners.post( event );
+                    posted = true;
                 }
             }
         }
+        
+        if( posted )
+        {
+            ( (ElementImpl) this.list.element() ).queue().process();
+        }
     }
     
-    private void insert( final Element element )
+    private Object insert( final Element element )
     {
         if( element == null )
         {
@@ -356,33 +516,33 @@ public final class Index<T extends Element>
             key = NULL;
         }
         
-        final Object object = this.keyToElements.get( key );
+        final Object k = normalize( key );
+        final Object object = this.keyToElements.get( k );
         
         if( object == null )
         {
-            this.keyToElements.put( key, element );
+            this.keyToElements.put( k, element );
         }
         else if( object instanceof Element )
         {
-            final Set<Element> set = new IdentityHashSet<Element>();
+            final Bucket bucket = new Bucket();
             
-            set.add( (Element) object );
-            set.add( element );
+            bucket.add( (Element) object );
+            bucket.add( element );
             
-            this.keyToElements.put( key, set );
+            this.keyToElements.put( k, bucket );
         }
         else
         {
-            @SuppressWarnings( "unchecked" )
-            final Set<Element> set = (Set<Element>) object;
-            
-            set.add( element );
+            ( (Bucket) object ).add( element );
         }
             
         this.elementToKey.put( element, key );
+        
+        return key;
     }
     
-    private void remove( final Element element )
+    private Object remove( final Element element )
     {
         if( element == null )
         {
@@ -393,27 +553,86 @@ public final class Index<T extends Element>
         
         if( key != null )
         {
-            final Object object = this.keyToElements.get( key );
+            final Object k = normalize( key );
+            final Object object = this.keyToElements.get( k );
             
             if( object != null )
             {
                 if( object instanceof Element )
                 {
-                    this.keyToElements.remove( key );
+                    this.keyToElements.remove( k );
                 }
                 else
                 {
-                    final Set<?> set = (Set<?>) object;
+                    final Bucket bucket = (Bucket) object;
                     
-                    set.remove( element );
+                    bucket.remove( element );
+                    
+                    if( bucket.elements.size() == 1 )
+                    {
+                        this.keyToElements.put( k, bucket.elements.iterator().next() );
+                    }
+                }
+            }
+        }
+        
+        return key;
+    }
+    
+    private <V> Map<Object,V> createKeyMap()
+    {
+        if( this.hashed )
+        {
+            return new HashMap<Object,V>();
+        }
+        else
+        {
+            return new TreeMap<Object,V>( this.keyComparator );
+        }
+    }
+    
+    /**
+     * Converts a key to the form used for lookups in the key maps. In hashed mode with case-insensitive comparator,
+     * the key is converted to a canonical letter case that matches the equivalence of String.compareToIgnoreCase().
+     */
+    
+    private Object normalize( final Object key )
+    {
+        if( this.ignoreCase && key != NULL )
+        {
+            final String str = (String) key;
+            
+            for( int i = 0, n = str.length(); i < n; i++ )
+            {
+                final char ch = str.charAt( i );
+                
+                if( ch != Character.toLowerCase( Character.toUpperCase( ch ) ) )
+                {
+                    final char[] chars = str.toCharArray();
                     
-                    if( set.size() == 1 )
+                    for( int j = i; j < n; j++ )
                     {
-                        this.keyToElements.put( key, set.iterator().next() );
+                        chars[ j ] = Character.toLowerCase( Character.toUpperCase( chars[ j ] ) );
                     }
+                    
+                    return new String( chars );
                 }
             }
         }
+        
+        return key;
+    }
+    
+    private boolean same( final Object x, final Object y )
+    {
+        if( this.hashed )
+        {
+            return normalize( x ).equals( normalize( y ) );
+        }
+        else
+        {
+            return ( this.keyComparator.compare( x, y ) == 0 );
+        }
     }
     
     private void assertNotDisposed()
@@ -425,4 +644,41 @@ public final class Index<T extends Element>
         }
     }
     
+    /**
+     * Holds the elements corresponding to a key when there is more than one. An unmodifiable snapshot of the
+     * elements is retained until the next change, so that repeated lookups do not need to copy the set.
+     */
+    
+    private static final class Bucket
+    {
+        private final Set<Element> elements = new IdentityHashSet<Element>();
+        private Set<Element> snapshot;
+        
+        public void add( final Element element )
+        {
+            if( this.elements.add( element ) )
+            {
+                this.snapshot = null;
+            }
+        }
+        
+        public void remove( final Element element )
+        {
+            if( this.elements.remove( element ) )
+            {
+                this.snapshot = null;
+            }
+        }
+        
+        public Set<Element> snapshot()
+        {
+            if( this.snapshot == null )
+            {
+                this.snapshot = Collections.unmodifiableSet( new IdentityHashSet<Element>( this.elements ) );
+            }
+            
+            return this.snapshot;
+        }
+    }
+    
 }
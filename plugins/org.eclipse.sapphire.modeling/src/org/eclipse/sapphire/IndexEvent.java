@@ -0,0 +1,65 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The event that's broadcast when the content of an index changes.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class IndexEvent extends Event
+{
+    private final Index<?> index;
+    private final Set<String> keys;
+
+    IndexEvent( final Index<?> index, final Set<String> keys )
+    {
+        this.index = index;
+        this.keys = keys;
+    }
+
+    /**
+     * Returns the index that has changed.
+     */
+
+    public Index<?> index()
+    {
+        return this.index;
+    }
+
+    /**
+     * Returns the keys whose set of corresponding elements has changed, including keys that were added to or removed
+     * from the index. A null key is included if the set of elements with a null key value has changed. The returned
+     * set may be empty if only the key of an element changed in a way that is not significant to the index comparator.
+     */
+
+    public Set<String> keys()
+    {
+        return this.keys;
+    }
+
+    @Override
+    public Map<String,String> fillTracingInfo( final Map<String,String> info )
+    {
+        super.fillTracingInfo( info );
+
+        info.put( "index", this.index.property().name() );
+        info.put( "keys", this.keys.toString() );
+
+        return info;
+    }
+
+}
@@ -120,6 +120,11 @@ public final class JobQueue<T extends Runnable>
             throw new IllegalArgumentException();
         }
         
+        if( this.queue.isEmpty() )
+        {
+            return;
+        }
+        
         for( final Iterator<T> itr = this.queue.iterator(); itr.hasNext(); )
         {
             if( ! filter.allows( itr.next() ) )
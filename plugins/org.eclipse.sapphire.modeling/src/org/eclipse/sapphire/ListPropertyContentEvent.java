@@ -0,0 +1,146 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.sapphire.util.ListFactory;
+
+/**
+ * The event that's broadcast when the content of a list property changes. In addition to identifying the property,
+ * the event describes the change, allowing listeners to update incrementally instead of re-reading the entire list.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class ListPropertyContentEvent extends PropertyContentEvent
+{
+    private final List<Element> added;
+    private final List<Integer> addedPositions;
+    private final List<Element> removed;
+    private final List<Integer> removedPositions;
+    private final List<Element> moved;
+    private final List<Integer> movedFrom;
+    private final List<Integer> movedTo;
+    
+    ListPropertyContentEvent( final ElementList<?> property,
+                              final List<Element> added,
+                              final List<Integer> addedPositions,
+                              final List<Element> removed,
+                              final List<Integer> removedPositions,
+                              final List<Element> moved,
+                              final List<Integer> movedFrom,
+                              final List<Integer> movedTo )
+    {
+        super( property );
+        
+        this.added = ListFactory.unmodifiable( added );
+        this.addedPositions = ListFactory.unmodifiable( addedPositions );
+        this.removed = ListFactory.unmodifiable( removed );
+        this.removedPositions = ListFactory.unmodifiable( removedPositions );
+        this.moved = ListFactory.unmodifiable( moved );
+        this.movedFrom = ListFactory.unmodifiable( movedFrom );
+        this.movedTo = ListFactory.unmodifiable( movedTo );
+    }
+    
+    /**
+     * Returns the elements that were added to the list, in the order of their appearance in the list.
+     */
+    
+    public List<Element> added()
+    {
+        return this.added;
+    }
+    
+    /**
+     * Returns the positions of the added elements in the list after the change, in the same order as {@link #added()}.
+     */
+    
+    public List<Integer> addedPositions()
+    {
+        return this.addedPositions;
+    }
+    
+    /**
+     * Returns the elements that were removed from the list. These elements are disposed by the time the event
+     * is delivered.
+     */
+    
+    public List<Element> removed()
+    {
+        return this.removed;
+    }
+    
+    /**
+     * Returns the positions of the removed elements in the list before the change, in the same order as
+     * {@link #removed()}.
+     */
+    
+    public List<Integer> removedPositions()
+    {
+        return this.removedPositions;
+    }
+    
+    /**
+     * Returns the elements that were retained by the list, but moved relative to the other retained elements, in
+     * the order of their appearance in the list. The fewest elements that account for the new order are reported,
+     * so moving one element reports only that element even though the elements in between shift by one.
+     */
+    
+    public List<Element> moved()
+    {
+        return this.moved;
+    }
+    
+    /**
+     * Returns the positions of the moved elements in the list before the change, in the same order as
+     * {@link #moved()}.
+     */
+    
+    public List<Integer> movedFrom()
+    {
+        return this.movedFrom;
+    }
+    
+    /**
+     * Returns the positions of the moved elements in the list after the change, in the same order as
+     * {@link #moved()}.
+     */
+    
+    public List<Integer> movedTo()
+    {
+        return this.movedTo;
+    }
+    
+    /**
+     * Indicates whether the relative order of the elements that were retained by the list has changed.
+     */
+    
+    public boolean reordered()
+    {
+        return ! this.moved.isEmpty();
+    }
+    
+    @Override
+    public Map<String,String> fillTracingInfo( final Map<String,String> info )
+    {
+        super.fillTracingInfo( info );
+        
+        info.put( "added", String.valueOf( this.added.size() ) );
+        info.put( "removed", String.valueOf( this.removed.size() ) );
+        info.put( "moved", String.valueOf( this.moved.size() ) );
+        
+        return info;
+    }
+
+}
@@ -11,6 +11,7 @@
 
 package org.eclipse.sapphire;
 
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -88,24 +89,35 @@ public final class ListenerContext
         return false;
     }
     
+    public boolean empty()
+    {
+        synchronized( this )
+        {
+            return this.listeners.isEmpty();
+        }
+    }
+    
     public void post( final Event event )
+    {
+        post( event, Collections.<Listener>emptySet() );
+    }
+    
+    /**
+     * Posts an event for delivery to the listeners in this context and to additional listeners. A listener
+     * that is both in this context and among the additional listeners receives the event once.
+     * 
+     * @param event the event
+     * @param additional the additional listeners
+     */
+    
+    void post( final Event event, final Set<Listener> additional )
     {
         if( event == null )
         {
             throw new IllegalArgumentException();
         }
         
-        this.queue.prune
-        (
-            new Filter<EventDeliveryJob>()
-            {
-                @Override
-                public boolean allows( final EventDeliveryJob job )
-                {
-                    return ! event.supersedes( job.event() );
-                }
-            }
-        );
+        prune( this.queue, event );
         
         synchronized( this )
         {
@@ -118,6 +130,14 @@ public final class ListenerContext
             {
                 this.queue.add( new EventDeliveryJob( listener, event ) );
             }
+            
+            for( Listener listener : additional )
+            {
+                if( ! this.listeners.contains( listener ) )
+                {
+                    this.queue.add( new EventDeliveryJob( listener, event ) );
+                }
+            }
         }
     }
     
@@ -131,5 +151,54 @@ public final class ListenerContext
         post( event );
         broadcast();
     }
+    
+    void broadcast( final Event event, final Set<Listener> additional )
+    {
+        post( event, additional );
+        broadcast();
+    }
+    
+    /**
+     * Delivers an event to the specified listeners through a queue, without requiring a listener context.
+     * 
+     * @param queue the queue to deliver through
+     * @param event the event
+     * @param listeners the listeners
+     */
+    
+    static void broadcast( final JobQueue<EventDeliveryJob> queue, final Event event, final Set<Listener> listeners )
+    {
+        if( event == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        prune( queue, event );
+        
+        for( Listener listener : listeners )
+        {
+            queue.add( new EventDeliveryJob( listener, event ) );
+        }
+        
+        queue.process();
+    }
+    
+    private static void prune( final JobQueue<EventDeliveryJob> queue, final Event event )
+    {
+        if( event.superseding() )
+        {
+            queue.prune
+            (
+                new Filter<EventDeliveryJob>()
+                {
+                    @Override
+                    public boolean allows( final EventDeliveryJob job )
+                    {
+                        return ! event.supersedes( job.event() );
+                    }
+                }
+            );
+        }
+    }
 
 }
@@ -11,12 +11,30 @@
 
 package org.eclipse.sapphire;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 import org.eclipse.sapphire.services.Service;
 
 /**
  * Converts an object to the specified type by delegating to available ConversionService and UniversalConversionService 
  * implementations. If object is null or is already of desired type, the object is returned unchanged.
  * 
+ * <p>The conversion services applicable to a given source and target type are determined once and retained
+ * in a dispatch table, including the finding that no conversion service is applicable. Since every element and
+ * property has its own instance of this service, the tables are shared by all instances whose conversion
+ * services have the same source and target types in the same order. A table refers to the conversion services
+ * by their position. The registry of shared tables holds them weakly, so a table and the classes that it refers
+ * to are retained only while a service instance uses it.</p>
+ * 
  * <p>An implementation of this service is provided with Sapphire. This service is not intended to
  * be implemented by adopters.</p>
  * 
@@ -25,6 +43,12 @@ import org.eclipse.sapphire.services.Service;
 
 public final class MasterConversionService extends Service
 {
+    private static final int[] NONE = new int[ 0 ];
+    
+    private static final Map<List<Class<?>>,WeakReference<DispatchTable>> tables = new WeakHashMap<List<Class<?>>,WeakReference<DispatchTable>>();
+    
+    private volatile Dispatch dispatch;
+    
     /**
      * Converts an object to the specified type.
      * 
@@ -34,8 +58,6 @@ public final class MasterConversionService extends Service
      * @throws IllegalArgumentException if type is null
      */
     
-    @SuppressWarnings( { "unchecked", "rawtypes" } )
-    
     public <T> T convert( final Object object, final Class<T> type )
     {
         if( type == null )
@@ -53,31 +75,98 @@ public final class MasterConversionService extends Service
             return type.cast( object );
         }
         
+        final List<ConversionService<?,?>> services = services();
+        
+        return convert( object, type, services, table( services ).dispatch( object.getClass(), type ) );
+    }
+    
+    /**
+     * Converts a collection of objects to the specified type. The result is the same as calling
+     * {@link #convert(Object, Class)} for each object, but the conversion services are resolved only once
+     * for every distinct class of objects in the collection.
+     * 
+     * @param objects the objects to convert
+     * @param type the desired type of converted objects
+     * @return the list of converted objects in the order of the source collection, with null in place of
+     *     objects that could not be converted
+     * @throws IllegalArgumentException if objects or type is null
+     */
+    
+    public <T> List<T> convertAll( final Collection<?> objects, final Class<T> type )
+    {
+        if( objects == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        if( type == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        final List<T> result = new ArrayList<T>( objects.size() );
+        final List<ConversionService<?,?>> services = services();
+        final DispatchTable table = table( services );
+        
+        Class<?> source = null;
+        int[] applicable = null;
+        
+        for( final Object object : objects )
+        {
+            if( object == null )
+            {
+                result.add( null );
+            }
+            else if( type.isInstance( object ) )
+            {
+                result.add( type.cast( object ) );
+            }
+            else
+            {
+                if( object.getClass() != source )
+                {
+                    source = object.getClass();
+                    applicable = table.dispatch( source, type );
+                }
+                
+                result.add( convert( object, type, services, applicable ) );
+            }
+        }
+        
+        return Collections.unmodifiableList( result );
+    }
+    
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    
+    private <T> T convert( final Object object,
+                           final Class<T> type,
+                           final List<ConversionService<?,?>> services,
+                           final int[] applicable )
+    {
         T result = null;
         
         try
         {
-            for( final ConversionService service : services( ConversionService.class ) )
+            for( final int index : applicable )
             {
-                if( service.source().isAssignableFrom( object.getClass() ) && type.isAssignableFrom( service.target() ) )
+                final ConversionService service = services.get( index );
+                
+                try
                 {
-                    try
-                    {
-                        result = type.cast( service.convert( object ) );
-                    }
-                    catch( ConversionException e )
-                    {
-                        throw e;
-                    }
-                    catch( Exception e )
-                    {
-                        Sapphire.service( LoggingService.class ).log( e );
-                    }
-                    
-                    if( result != null )
-                    {
-                        break;
-                    }
+                    result = type.cast( service.convert( object ) );
+                }
+                catch( ConversionException e )
+                {
+                    throw e;
+                }
+                catch( Exception e )
+                {
+                    Sapphire.service( LoggingService.class ).log( e );
+                }
+                
+                if( result != null )
+                {
+                    break;
                 }
             }
             
@@ -109,4 +198,135 @@ public final class MasterConversionService extends Service
         return result;
     }
     
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    
+    private List<ConversionService<?,?>> services()
+    {
+        return (List) services( ConversionService.class );
+    }
+    
+    /**
+     * Returns the dispatch table for the specified conversion services, which are the current conversion services
+     * of this instance. The table is looked up again only if the conversion services change.
+     */
+    
+    private DispatchTable table( final List<ConversionService<?,?>> services )
+    {
+        Dispatch dispatch = this.dispatch;
+        
+        if( dispatch == null || dispatch.services != services )
+        {
+            final List<Class<?>> signature = new ArrayList<Class<?>>( services.size() * 2 );
+            
+            for( final ConversionService<?,?> service : services )
+            {
+                signature.add( service.source() );
+                signature.add( service.target() );
+            }
+            
+            DispatchTable table;
+            
+            synchronized( tables )
+            {
+                final WeakReference<DispatchTable> ref = tables.get( signature );
+                
+                table = ( ref == null ? null : ref.get() );
+                
+                if( table == null )
+                {
+                    table = new DispatchTable( signature );
+                    tables.put( signature, new WeakReference<DispatchTable>( table ) );
+                }
+            }
+            
+            dispatch = new Dispatch( services, table );
+            
+            this.dispatch = dispatch;
+        }
+        
+        return dispatch.table;
+    }
+    
+    /**
+     * The conversion services of an instance together with the dispatch table for them. Replaced as a whole when
+     * the conversion services change, so that both can be read without locking.
+     */
+    
+    private static final class Dispatch
+    {
+        private final List<ConversionService<?,?>> services;
+        private final DispatchTable table;
+        
+        public Dispatch( final List<ConversionService<?,?>> services, final DispatchTable table )
+        {
+            this.services = services;
+            this.table = table;
+        }
+    }
+    
+    /**
+     * The positions of the conversion services that are applicable to a given source and target type, for a list of
+     * conversion services described by their source and target types. Safe for concurrent use without locking.
+     */
+    
+    private static final class DispatchTable
+    {
+        private final List<Class<?>> signature;
+        private final Map<Class<?>,Map<Class<?>,int[]>> dispatch = new ConcurrentHashMap<Class<?>,Map<Class<?>,int[]>>();
+        
+        public DispatchTable( final List<Class<?>> signature )
+        {
+            this.signature = signature;
+        }
+        
+        /**
+         * Returns the positions of the conversion services that are applicable to the specified source and target
+         * types, in the order in which they should be tried.
+         */
+        
+        public int[] dispatch( final Class<?> source, final Class<?> target )
+        {
+            final Map<Class<?>,int[]> targets = this.dispatch.computeIfAbsent
+            (
+                source,
+                new Function<Class<?>,Map<Class<?>,int[]>>()
+                {
+                    public Map<Class<?>,int[]> apply( final Class<?> key )
+                    {
+                        return new ConcurrentHashMap<Class<?>,int[]>();
+                    }
+                }
+            );
+            
+            return targets.computeIfAbsent
+            (
+                target,
+                new Function<Class<?>,int[]>()
+                {
+                    public int[] apply( final Class<?> key )
+                    {
+                        return applicable( source, target );
+                    }
+                }
+            );
+        }
+        
+        private int[] applicable( final Class<?> source, final Class<?> target )
+        {
+            final int count = this.signature.size() / 2;
+            final int[] indexes = new int[ count ];
+            int size = 0;
+            
+            for( int i = 0; i < count; i++ )
+            {
+                if( this.signature.get( i * 2 ).isAssignableFrom( source ) && target.isAssignableFrom( this.signature.get( i * 2 + 1 ) ) )
+                {
+                    indexes[ size++ ] = i;
+                }
+            }
+            
+            return ( size == 0 ? NONE : Arrays.copyOf( indexes, size ) );
+        }
+    }
+    
 }
@@ -0,0 +1,461 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.sapphire.modeling.ModelPath;
+import org.eclipse.sapphire.modeling.ModelPath.AllDescendentsSegment;
+import org.eclipse.sapphire.modeling.ModelPath.PropertySegment;
+import org.eclipse.sapphire.modeling.ModelPath.TypeFilterSegment;
+
+/**
+ * The registry of listeners attached with a path to the elements of a model. Rather than attaching a listener
+ * to every property that a path matches, the registry holds the paths in a trie for each element that a listener
+ * was attached to and matches the trie against the location of a property when the property broadcasts an event.
+ * Attaching and detaching a listener is proportional to the length of the path and changes to the content of
+ * the model do not require listeners to be attached or detached.
+ *
+ * <p>Only paths composed of property names, type filters and the all descendants segment are held in the registry.
+ * Since nothing beyond the all descendants segment affects which properties the listener is attached to, the
+ * path is truncated after that segment.</p>
+ *
+ * <p>The registry is owned by the root element and is guarded by its lock.</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+final class PathSubscriptions
+{
+    private final Map<Element,Node> anchors = new IdentityHashMap<Element,Node>();
+    
+    /**
+     * Determines whether a path can be held in the registry.
+     *
+     * @param path the path relative to an element
+     * @return true if the path can be held in the registry
+     */
+    
+    static boolean supports( final ModelPath path )
+    {
+        final int length = path.length();
+        
+        if( length == 0 )
+        {
+            return false;
+        }
+        
+        for( int i = 0; i < length; i++ )
+        {
+            final ModelPath.Segment segment = path.segment( i );
+            
+            if( segment instanceof AllDescendentsSegment )
+            {
+                return true;
+            }
+            
+            if( ! ( segment instanceof PropertySegment || segment instanceof TypeFilterSegment ) )
+            {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Adds a listener with a path relative to an element.
+     *
+     * @param anchor the element that the path is relative to
+     * @param path the path
+     * @param listener the listener
+     * @return true if the listener was not already present with this path
+     */
+    
+    boolean add( final Element anchor, final ModelPath path, final Listener listener )
+    {
+        Node node = this.anchors.get( anchor );
+        
+        if( node == null )
+        {
+            node = new Node();
+            this.anchors.put( anchor, node );
+        }
+        
+        for( int i = 0, n = path.length(); i < n; i++ )
+        {
+            final ModelPath.Segment segment = path.segment( i );
+            
+            node = node.child( segment, true );
+            
+            if( segment instanceof AllDescendentsSegment )
+            {
+                break;
+            }
+        }
+        
+        return node.listeners().add( listener );
+    }
+    
+    /**
+     * Removes a listener with a path relative to an element.
+     *
+     * @param anchor the element that the path is relative to
+     * @param path the path
+     * @param listener the listener
+     * @return true if the listener was present with this path
+     */
+    
+    boolean remove( final Element anchor, final ModelPath path, final Listener listener )
+    {
+        final Node root = this.anchors.get( anchor );
+        
+        if( root == null )
+        {
+            return false;
+        }
+        
+        final List<Node> nodes = new ArrayList<Node>();
+        Node node = root;
+        
+        nodes.add( node );
+        
+        for( int i = 0, n = path.length(); i < n; i++ )
+        {
+            final ModelPath.Segment segment = path.segment( i );
+            
+            node = node.child( segment, false );
+            
+            if( node == null )
+            {
+                return false;
+            }
+            
+            nodes.add( node );
+            
+            if( segment instanceof AllDescendentsSegment )
+            {
+                break;
+            }
+        }
+        
+        if( node.listeners == null || ! node.listeners.remove( listener ) )
+        {
+            return false;
+        }
+        
+        for( int i = nodes.size() - 1; i > 0; i-- )
+        {
+            if( nodes.get( i ).empty() )
+            {
+                nodes.get( i - 1 ).prune( nodes.get( i ) );
+            }
+        }
+        
+        if( root.empty() )
+        {
+            this.anchors.remove( anchor );
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Removes all listeners with paths relative to an element. Called when the element is disposed.
+     *
+     * @param anchor the element
+     */
+    
+    void remove( final Element anchor )
+    {
+        this.anchors.remove( anchor );
+    }
+    
+    /**
+     * Returns the listeners whose paths match a property.
+     *
+     * @param property the property
+     * @return the matching listeners
+     */
+    
+    Set<Listener> match( final Property property )
+    {
+        if( this.anchors.isEmpty() )
+        {
+            return Collections.emptySet();
+        }
+        
+        final List<Property> chain = new ArrayList<Property>();
+        
+        for( Property p = property; p != null; p = p.element().parent() )
+        {
+            chain.add( p );
+        }
+        
+        Set<Listener> result = null;
+        
+        for( int i = 0, n = chain.size(); i < n; i++ )
+        {
+            final Node node = this.anchors.get( chain.get( i ).element() );
+            
+            if( node != null )
+            {
+                result = matchElement( node, chain, i, result );
+            }
+        }
+        
+        return ( result == null ? Collections.<Listener>emptySet() : result );
+    }
+    
+    /**
+     * Matches the segments that follow a node against the element of the property at the given position
+     * in the chain.
+     */
+    
+    private static Set<Listener> matchElement( final Node node, final List<Property> chain, final int position, Set<Listener> result )
+    {
+        final Property property = chain.get( position );
+        
+        if( node.all != null )
+        {
+            result = collect( node.all, result );
+        }
+        
+        if( node.types != null )
+        {
+            final String type = property.element().type().getSimpleName();
+            
+            for( final Map.Entry<TypeFilterSegment,Node> entry : node.types.entrySet() )
+            {
+                for( final String t : entry.getKey().getTypes() )
+                {
+                    if( t.equalsIgnoreCase( type ) )
+                    {
+                        result = matchElement( entry.getValue(), chain, position, result );
+                        break;
+                    }
+                }
+            }
+        }
+        
+        if( node.properties != null )
+        {
+            final Node child = node.properties.get( property.name() );
+            
+            if( child != null )
+            {
+                result = matchProperty( child, chain, position, result );
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Matches a node against the property at the given position in the chain.
+     */
+    
+    private static Set<Listener> matchProperty( final Node node, final List<Property> chain, final int position, Set<Listener> result )
+    {
+        if( position > 0 )
+        {
+            return matchElement( node, chain, position - 1, result );
+        }
+        
+        final Property property = chain.get( 0 );
+        
+        result = add( node.listeners, result );
+        
+        if( node.all != null )
+        {
+            result = collect( node.all, result );
+        }
+        
+        if( property instanceof ElementList || property instanceof ElementHandle )
+        {
+            // A path that continues into the elements of a list or element property also matches
+            // the property itself.
+            
+            if( node.types != null )
+            {
+                for( final Node child : node.types.values() )
+                {
+                    result = collect( child, result );
+                }
+            }
+            
+            if( node.properties != null )
+            {
+                for( final Node child : node.properties.values() )
+                {
+                    result = collect( child, result );
+                }
+            }
+        }
+        
+        return result;
+    }
+    
+    private static Set<Listener> collect( final Node node, Set<Listener> result )
+    {
+        result = add( node.listeners, result );
+        
+        if( node.all != null )
+        {
+            result = collect( node.all, result );
+        }
+        
+        if( node.types != null )
+        {
+            for( final Node child : node.types.values() )
+            {
+                result = collect( child, result );
+            }
+        }
+        
+        if( node.properties != null )
+        {
+            for( final Node child : node.properties.values() )
+            {
+                result = collect( child, result );
+            }
+        }
+        
+        return result;
+    }
+    
+    private static Set<Listener> add( final Set<Listener> listeners, Set<Listener> result )
+    {
+        if( listeners != null && ! listeners.isEmpty() )
+        {
+            if( result == null )
+            {
+                result = new LinkedHashSet<Listener>();
+            }
+            
+            result.addAll( listeners );
+        }
+        
+        return result;
+    }
+    
+    private static final class Node
+    {
+        private Set<Listener> listeners;
+        private Map<String,Node> properties;
+        private Map<TypeFilterSegment,Node> types;
+        private Node all;
+        
+        public Set<Listener> listeners()
+        {
+            if( this.listeners == null )
+            {
+                this.listeners = new LinkedHashSet<Listener>();
+            }
+            
+            return this.listeners;
+        }
+        
+        public Node child( final ModelPath.Segment segment, final boolean createIfNecessary )
+        {
+            Node child = null;
+            
+            if( segment instanceof AllDescendentsSegment )
+            {
+                if( this.all == null && createIfNecessary )
+                {
+                    this.all = new Node();
+                }
+                
+                child = this.all;
+            }
+            else if( segment instanceof PropertySegment )
+            {
+                final String name = ( (PropertySegment) segment ).getPropertyName();
+                
+                if( this.properties != null )
+                {
+                    child = this.properties.get( name );
+                }
+                
+                if( child == null && createIfNecessary )
+                {
+                    if( this.properties == null )
+                    {
+                        this.properties = new TreeMap<String,Node>( String.CASE_INSENSITIVE_ORDER );
+                    }
+                    
+                    child = new Node();
+                    this.properties.put( name, child );
+                }
+            }
+            else if( segment instanceof TypeFilterSegment )
+            {
+                final TypeFilterSegment filter = (TypeFilterSegment) segment;
+                
+                if( this.types != null )
+                {
+                    child = this.types.get( filter );
+                }
+                
+                if( child == null && createIfNecessary )
+                {
+                    if( this.types == null )
+                    {
+                        this.types = new LinkedHashMap<TypeFilterSegment,Node>();
+                    }
+                    
+                    child = new Node();
+                    this.types.put( filter, child );
+                }
+            }
+            else
+            {
+                throw new IllegalArgumentException();
+            }
+            
+            return child;
+        }
+        
+        public void prune( final Node child )
+        {
+            if( this.all == child )
+            {
+                this.all = null;
+            }
+            
+            if( this.properties != null && this.properties.values().remove( child ) && this.properties.isEmpty() )
+            {
+                this.properties = null;
+            }
+            
+            if( this.types != null && this.types.values().remove( child ) && this.types.isEmpty() )
+            {
+                this.types = null;
+            }
+        }
+        
+        public boolean empty()
+        {
+            return ( this.listeners == null || this.listeners.isEmpty() ) && this.all == null && this.properties == null && this.types == null;
+        }
+    }
+
+}
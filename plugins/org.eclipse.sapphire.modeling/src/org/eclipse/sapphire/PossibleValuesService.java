@@ -80,6 +80,13 @@ public abstract class PossibleValuesService extends DataService<Set<String>>
     @Override
     protected final Set<String> compute()
     {
+        final Set<String> shared = computeShared( ordered() ? null : this.collationService.comparator() );
+        
+        if( shared != null )
+        {
+            return shared;
+        }
+        
         if( ordered() )
         {
             final Set<String> values = new LinkedHashSet<String>();
@@ -97,6 +104,22 @@ public abstract class PossibleValuesService extends DataService<Set<String>>
     
     protected abstract void compute( Set<String> values );
     
+    /**
+     * Returns possible values that are maintained outside of this service, typically shared by many service instances.
+     * The returned set must already be ordered and exclude empty values. Returning the same set instance for as long as
+     * the possible values do not change avoids repeated comparisons of large sets when the service is refreshed. The
+     * default implementation returns null, in which case the possible values are collected by {@link #compute(Set)}.
+     * 
+     * @param comparator the comparator that the possible values must be ordered by or null if the possible values
+     *   are already ordered
+     * @return the shared possible values or null
+     */
+    
+    protected Set<String> computeShared( final Comparator<String> comparator )
+    {
+        return null;
+    }
+    
     public Status problem( final Value<?> value )
     {
         if( this.invalidValueSeverity != Status.Severity.OK )
@@ -11,6 +11,7 @@
 
 package org.eclipse.sapphire;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -26,6 +27,7 @@ import org.eclipse.sapphire.modeling.Status;
 import org.eclipse.sapphire.modeling.annotations.ClearOnDisable;
 import org.eclipse.sapphire.services.DependenciesService;
 import org.eclipse.sapphire.services.Service;
+import org.eclipse.sapphire.services.ServiceEvent;
 import org.eclipse.sapphire.services.ValidationService;
 import org.eclipse.sapphire.services.internal.PropertyInstanceServiceContext;
 
@@ -59,8 +61,12 @@ public abstract class Property implements Observable
     private ListenerContext listeners;
     private boolean enablement;
     private Status validation;
-    protected byte initialization;
-    private boolean disposed = false;
+    private boolean validationStale;
+    private ValidationService validationForced;
+    protected volatile byte initialization;
+    private final boolean concurrent;
+    private final ValidationQueue validationQueue;
+    private volatile boolean disposed = false;
     
     public Property( final Element element, final PropertyDef property )
     {
@@ -77,6 +83,8 @@ public abstract class Property implements Observable
         }
         
         this.definition = property;
+        this.concurrent = ( element instanceof ElementImpl && ( (ElementImpl) element ).concurrent() );
+        this.validationQueue = ( element instanceof ElementImpl ? ( (ElementImpl) element ).validationQueue() : null );
     }
     
     protected final void init()
@@ -220,12 +228,34 @@ public abstract class Property implements Observable
     }
     
     protected final void refreshValidation( final boolean onlyIfNotInitialized )
+    {
+        if( ! onlyIfNotInitialized && this.validationQueue != null && invalidateValidation() )
+        {
+            return;
+        }
+        
+        computeValidation( onlyIfNotInitialized );
+    }
+    
+    private void computeValidation( final boolean onlyIfNotInitialized )
     {
         boolean initialized;
+        boolean stale = false;
         
         synchronized( this )
         {
             initialized = ( ( this.initialization & VALIDATION_INITIALIZED ) != 0 );
+            
+            if( ! initialized || ! onlyIfNotInitialized )
+            {
+                stale = this.validationStale;
+                this.validationStale = false;
+            }
+        }
+        
+        if( stale )
+        {
+            this.validationQueue.remove( this );
         }
         
         if( ! initialized || ! onlyIfNotInitialized )
@@ -239,6 +269,11 @@ public abstract class Property implements Observable
                     @Override
                     public void handle( final Event event )
                     {
+                        if( event instanceof ServiceEvent && forced( ( (ServiceEvent) event ).service() ) )
+                        {
+                            return;
+                        }
+                        
                         refreshValidation( false );
                     }
                 };
@@ -251,7 +286,32 @@ public abstract class Property implements Observable
             
             for( final ValidationService service : services( ValidationService.class ) )
             {
-                freshValidationResultFactory.merge( service.validation() );
+                if( this.validationQueue == null )
+                {
+                    freshValidationResultFactory.merge( service.validation() );
+                }
+                else
+                {
+                    // A stale service broadcasts when it is forced to recompute. The result is merged here, so the
+                    // broadcast must not mark this property stale again.
+                    
+                    synchronized( this )
+                    {
+                        this.validationForced = service;
+                    }
+                    
+                    try
+                    {
+                        freshValidationResultFactory.merge( service.validation() );
+                    }
+                    finally
+                    {
+                        synchronized( this )
+                        {
+                            this.validationForced = null;
+                        }
+                    }
+                }
             }
             
             final Status freshValidationResult = freshValidationResultFactory.create();
@@ -283,6 +343,100 @@ public abstract class Property implements Observable
         }
     }
     
+    /**
+     * Returns the queue of properties with stale validation or null if the model that this property belongs to
+     * recomputes validation eagerly.
+     * 
+     * @see DeferredValidation
+     */
+    
+    final ValidationQueue validationQueue()
+    {
+        return this.validationQueue;
+    }
+    
+    /**
+     * Marks the validation result of this property as stale and queues it for recomputation. Only applicable
+     * to models with deferred validation.
+     * 
+     * @return true if the validation result has been marked as stale or false if it has not been computed yet
+     * @see DeferredValidation
+     */
+    
+    private boolean invalidateValidation()
+    {
+        synchronized( this )
+        {
+            if( ( this.initialization & VALIDATION_INITIALIZED ) == 0 )
+            {
+                return false;
+            }
+            
+            if( this.validationStale )
+            {
+                return true;
+            }
+            
+            this.validationStale = true;
+        }
+        
+        this.validationQueue.add( this );
+        
+        invalidateElementValidation();
+        
+        return true;
+    }
+    
+    /**
+     * Determines whether the specified validation service is being forced to recompute its result as part of
+     * recomputing the validation result of this property.
+     */
+    
+    private synchronized boolean forced( final Service service )
+    {
+        return ( this.validationForced == service );
+    }
+    
+    private void invalidateElementValidation()
+    {
+        if( this.element instanceof ElementImpl )
+        {
+            ( (ElementImpl) this.element ).invalidateValidation();
+        }
+    }
+    
+    /**
+     * Recomputes the validation result of this property if it has been marked as stale. Only to be called by
+     * the framework.
+     */
+    
+    final void refreshValidationIfStale()
+    {
+        final boolean stale;
+        
+        synchronized( this )
+        {
+            stale = this.validationStale;
+        }
+        
+        if( stale && ! disposed() )
+        {
+            computeValidation( false );
+        }
+    }
+    
+    /**
+     * Indicates whether the model that this property belongs to allows reads of initialized content without
+     * acquiring the model lock.
+     * 
+     * @see ConcurrentReads
+     */
+    
+    final boolean concurrent()
+    {
+        return this.concurrent;
+    }
+    
     /**
      * Returns the root of the model.
      * 
@@ -473,7 +627,15 @@ public abstract class Property implements Observable
     public final Status validation()
     {
         init();
-        refreshValidation( true );
+        
+        final boolean stale;
+        
+        synchronized( this )
+        {
+            stale = this.validationStale;
+        }
+        
+        computeValidation( ! stale );
         
         synchronized( this )
         {
@@ -773,11 +935,36 @@ public abstract class Property implements Observable
     {
         if( event != null )
         {
+            if( event instanceof PropertyValidationEvent || event instanceof PropertyEnablementEvent ||
+                ( event instanceof PropertyContentEvent && ( this instanceof ElementHandle || this instanceof ElementList ) ) )
+            {
+                invalidateElementValidation();
+            }
+            
+            final Element element = element();
+            final Set<Listener> subscribers;
+            
+            if( element instanceof ElementImpl )
+            {
+                subscribers = ( (ElementImpl) element ).subscribers( this );
+            }
+            else
+            {
+                subscribers = Collections.emptySet();
+            }
+            
             final ListenerContext listeners = listeners( false );
             
             if( listeners != null )
             {
-                listeners.broadcast( event );
+                listeners.broadcast( event, subscribers );
+            }
+            else if( ! subscribers.isEmpty() && ! this.disposed )
+            {
+                // Path subscribers are delivered through the queue of the root, so that a property that only has
+                // subscribers does not need a listener context of its own.
+                
+                ListenerContext.broadcast( ( (ElementImpl) element ).queue(), event, subscribers );
             }
         }
     }
@@ -808,6 +995,11 @@ public abstract class Property implements Observable
     
     public final boolean disposed()
     {
+        if( this.concurrent )
+        {
+            return this.disposed;
+        }
+        
         synchronized( root() )
         {
             return this.disposed;
@@ -826,6 +1018,11 @@ public abstract class Property implements Observable
             {
                 this.disposed = true;
                 
+                if( this.validationQueue != null )
+                {
+                    this.validationQueue.remove( this );
+                }
+                
                 if( this.services != null )
                 {
                     this.services.dispose();
@@ -0,0 +1,118 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.sapphire.internal.ValidationExecutor;
+
+/**
+ * The properties of a model with {@link DeferredValidation} whose validation is stale and awaits recomputation
+ * on a background thread. All access is synchronized on the root element of the model.
+ *
+ * <p>Properties are only queued in background mode. Otherwise, stale validation is recomputed when it is
+ * requested, so there is nothing to queue. A property leaves the queue when its validation is recomputed or
+ * when it is disposed, so that the queue does not retain properties that are no longer in use.</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+final class ValidationQueue
+{
+    private final Element root;
+    private final boolean background;
+    private final Set<Property> pending = new LinkedHashSet<Property>();
+    private boolean scheduled;
+    
+    ValidationQueue( final Element root, final boolean background )
+    {
+        this.root = root;
+        this.background = background;
+    }
+    
+    void add( final Property property )
+    {
+        if( ! this.background )
+        {
+            return;
+        }
+        
+        synchronized( this.root )
+        {
+            this.pending.add( property );
+            
+            if( ! this.scheduled )
+            {
+                this.scheduled = true;
+                
+                ValidationExecutor.execute
+                (
+                    new Runnable()
+                    {
+                        public void run()
+                        {
+                            try
+                            {
+                                flush();
+                            }
+                            catch( final Exception e )
+                            {
+                                Sapphire.service( LoggingService.class ).log( e );
+                            }
+                        }
+                    }
+                );
+            }
+        }
+    }
+    
+    void remove( final Property property )
+    {
+        if( ! this.background )
+        {
+            return;
+        }
+        
+        synchronized( this.root )
+        {
+            this.pending.remove( property );
+        }
+    }
+    
+    /**
+     * Recomputes validation of all pending properties, including properties that become stale as a result.
+     */
+    
+    void flush()
+    {
+        synchronized( this.root )
+        {
+            this.scheduled = false;
+            
+            while( ! this.pending.isEmpty() )
+            {
+                final List<Property> batch = new ArrayList<Property>( this.pending );
+                
+                this.pending.clear();
+                
+                for( final Property property : batch )
+                {
+                    property.refreshValidationIfStale();
+                }
+            }
+        }
+    }
+    
+}
@@ -26,10 +26,10 @@ public class Value<T> extends Property
 {
     private static final int DEFAULT_CONTENT_INITIALIZED = 1 << 4;
     
-    private String text;
-    private T content;
-    private String defaultText;
-    private T defaultContent;
+    private volatile String text;
+    private volatile T content;
+    private volatile String defaultText;
+    private volatile T defaultContent;
     private boolean writing;
     
     public Value( final Element element,
@@ -251,6 +251,16 @@ public class Value<T> extends Property
     @Override
     public final boolean empty()
     {
+        if( concurrent() )
+        {
+            assertNotDisposed();
+            
+            if( ( this.initialization & CONTENT_INITIALIZED ) != 0 )
+            {
+                return ( this.text == null );
+            }
+        }
+        
         synchronized( root() )
         {
             init();
@@ -267,6 +277,31 @@ public class Value<T> extends Property
     
     public final String text( final boolean useDefaultValue )
     {
+        if( concurrent() )
+        {
+            assertNotDisposed();
+            
+            // The content fields are written before the initialization flags are set, so a set flag
+            // guarantees that the corresponding field is visible to this thread.
+            
+            final int initialization = this.initialization;
+            
+            if( ( initialization & CONTENT_INITIALIZED ) != 0 )
+            {
+                final String text = this.text;
+                
+                if( text != null || ! useDefaultValue )
+                {
+                    return text;
+                }
+                
+                if( ( initialization & DEFAULT_CONTENT_INITIALIZED ) != 0 )
+                {
+                    return this.defaultText;
+                }
+            }
+        }
+        
         init();
         
         refreshContent( true );
@@ -299,6 +334,28 @@ public class Value<T> extends Property
     
     public final T content( final boolean useDefaultValue )
     {
+        if( concurrent() )
+        {
+            assertNotDisposed();
+            
+            final int initialization = this.initialization;
+            
+            if( ( initialization & CONTENT_INITIALIZED ) != 0 )
+            {
+                final T content = this.content;
+                
+                if( content != null || ! useDefaultValue )
+                {
+                    return content;
+                }
+                
+                if( ( initialization & DEFAULT_CONTENT_INITIALIZED ) != 0 )
+                {
+                    return this.defaultContent;
+                }
+            }
+        }
+        
         init();
         
         refreshContent( true );
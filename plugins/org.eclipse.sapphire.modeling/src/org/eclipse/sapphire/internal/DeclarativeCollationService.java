@@ -31,6 +31,7 @@ import org.eclipse.sapphire.modeling.el.ModelElementFunctionContext;
 import org.eclipse.sapphire.modeling.el.parser.ExpressionLanguageParser;
 import org.eclipse.sapphire.services.ServiceCondition;
 import org.eclipse.sapphire.services.ServiceContext;
+import org.eclipse.sapphire.util.Comparators;
 
 /**
  * A {@link CollationService} implementation that derives its behavior from @{@link Collation} annotation.
@@ -40,14 +41,6 @@ import org.eclipse.sapphire.services.ServiceContext;
 
 public final class DeclarativeCollationService extends CollationService
 {
-    private static final Comparator<String> IGNORE_CASE_COMPARATOR = new Comparator<String>()
-    {
-        public int compare( final String str1, final String str2 )
-        {
-            return str1.compareToIgnoreCase( str2 );
-        }
-    };
-    
     private FunctionResult ignoreCaseDifferencesFunctionResult;
     
     @Override
@@ -90,7 +83,7 @@ public final class DeclarativeCollationService extends CollationService
     {
         if( ( (Boolean) this.ignoreCaseDifferencesFunctionResult.value() ) == true )
         {
-            return IGNORE_CASE_COMPARATOR;
+            return Comparators.createIgnoreCaseComparator();
         }
         else
         {
@@ -159,7 +159,7 @@ public final class DeclarativeValidationService extends ValidationService
             Function ruleFunction = ExpressionLanguageParser.parse( rule );
             ruleFunction = FailSafeFunction.create( ruleFunction, Boolean.class, false );
             
-            this.ruleFunctionResult = ruleFunction.evaluate( new ModelElementFunctionContext( element ) );
+            this.ruleFunctionResult = ruleFunction.evaluate( new ModelElementFunctionContext( element ), true );
         }
         
         public Status validation()
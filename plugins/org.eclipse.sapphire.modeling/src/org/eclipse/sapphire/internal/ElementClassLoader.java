@@ -11,9 +11,21 @@
 
 package org.eclipse.sapphire.internal;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.function.BiFunction;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementImpl;
 import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.Property;
+import org.eclipse.sapphire.Resource;
 
 /**
+ * Loads element implementation classes and the factories that instantiate them without reflection. Classes that
+ * were compiled ahead of time into the bundle of the element type interface are preferred, as long as the signature
+ * held by the implementation class matches the element type. Otherwise, the classes are compiled on demand.
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
@@ -32,12 +44,103 @@ public final class ElementClassLoader extends ClassLoader
         
         if( typeImplClass == null )
         {
-            final byte[] typeImplClassBytes = ( new ElementCompiler( type ) ).compile();
-            typeImplClass = defineClass( typeImplClassName, typeImplClassBytes, 0, typeImplClassBytes.length );
-            resolveClass( typeImplClass );
+            typeImplClass = findPrecompiledClass( typeInterfaceClass.getClassLoader(), typeImplClassName, typeInterfaceClass );
+            
+            if( typeImplClass == null || ! ElementImpl.class.isAssignableFrom( typeImplClass ) || ! current( typeImplClass, type ) )
+            {
+                final byte[] typeImplClassBytes = ( new ElementCompiler( type ) ).compile();
+                typeImplClass = defineClass( typeImplClassName, typeImplClassBytes, 0, typeImplClassBytes.length );
+                resolveClass( typeImplClass );
+            }
         }
         
         return typeImplClass;
     }
     
+    @SuppressWarnings( "unchecked" )
+    
+    public synchronized BiFunction<Property,Resource,Element> loadImplementationFactory( final ElementType type )
+    {
+        final Class<?> typeImplClass = loadImplementationClass( type );
+        final String typeImplFactoryClassName = typeImplClass.getName() + "$Factory";
+        Class<?> typeImplFactoryClass = findLoadedClass( typeImplFactoryClassName );
+        
+        if( typeImplFactoryClass == null && typeImplClass.getClassLoader() != this )
+        {
+            typeImplFactoryClass = findPrecompiledClass( typeImplClass.getClassLoader(), typeImplFactoryClassName, BiFunction.class );
+        }
+        
+        if( typeImplFactoryClass == null )
+        {
+            // A factory compiled here resolves the implementation class through this loader, which finds
+            // a precompiled implementation class in the parent when one is used.
+            
+            final byte[] typeImplFactoryClassBytes = ( new ElementCompiler( type ) ).compileFactory();
+            typeImplFactoryClass = defineClass( typeImplFactoryClassName, typeImplFactoryClassBytes, 0, typeImplFactoryClassBytes.length );
+            resolveClass( typeImplFactoryClass );
+        }
+        
+        try
+        {
+            return (BiFunction<Property,Resource,Element>) typeImplFactoryClass.getDeclaredConstructor().newInstance();
+        }
+        catch( final Exception e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+    
+    /**
+     * Finds a class that was compiled ahead of time. The class must be defined by the specified loader, rather
+     * than found by that loader elsewhere, and must be a subtype of the specified type.
+     */
+    
+    private static Class<?> findPrecompiledClass( final ClassLoader loader, final String name, final Class<?> base )
+    {
+        try
+        {
+            final Class<?> cl = Class.forName( name, false, loader );
+            
+            if( cl.getClassLoader() == loader && base.isAssignableFrom( cl ) )
+            {
+                return cl;
+            }
+        }
+        catch( final ClassNotFoundException | LinkageError e )
+        {
+            // Not compiled ahead of time.
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Determines whether a precompiled implementation class was compiled from the element type as it exists
+     * at runtime. The class is stale if the element type interface, any of its base types or the compiler
+     * changed since the class was compiled.
+     */
+    
+    private static boolean current( final Class<?> typeImplClass, final ElementType type )
+    {
+        final Object signature;
+        
+        try
+        {
+            final Field field = typeImplClass.getDeclaredField( ElementCompiler.SIGNATURE_FIELD );
+            
+            if( ! Modifier.isStatic( field.getModifiers() ) )
+            {
+                return false;
+            }
+            
+            signature = field.get( null );
+        }
+        catch( final NoSuchFieldException | IllegalAccessException | LinkageError e )
+        {
+            return false;
+        }
+        
+        return ( new ElementCompiler( type ) ).signature().equals( signature );
+    }
+    
 }
@@ -15,8 +15,12 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.function.BiFunction;
 
+import org.eclipse.sapphire.Element;
 import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.Property;
+import org.eclipse.sapphire.Resource;
 
 /**
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
@@ -27,6 +31,16 @@ public final class ElementClassLoaders
     private static final Map<ClassLoader,ElementClassLoader> loaders = new WeakHashMap<ClassLoader,ElementClassLoader>();
     
     public static Class<?> loadImplementationClass( final ElementType type )
+    {
+        return loader( type ).loadImplementationClass( type );
+    }
+    
+    public static BiFunction<Property,Resource,Element> loadImplementationFactory( final ElementType type )
+    {
+        return loader( type ).loadImplementationFactory( type );
+    }
+    
+    private static ElementClassLoader loader( final ElementType type )
     {
         final ClassLoader typeInterfaceClassLoader = type.getModelElementClass().getClassLoader();
         
@@ -54,7 +68,7 @@ public final class ElementClassLoaders
             }
         }
         
-        return loader.loadImplementationClass( type );
+        return loader;
     }
     
     private ElementClassLoaders() {}
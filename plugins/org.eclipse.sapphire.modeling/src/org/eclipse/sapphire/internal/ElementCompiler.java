@@ -14,6 +14,7 @@ package org.eclipse.sapphire.internal;
 import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
 import static org.objectweb.asm.Opcodes.ACC_FINAL;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
 import static org.objectweb.asm.Opcodes.ACC_SUPER;
 import static org.objectweb.asm.Opcodes.ALOAD;
 import static org.objectweb.asm.Opcodes.ARETURN;
@@ -32,8 +33,12 @@ import static org.objectweb.asm.Opcodes.V1_5;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.BiFunction;
 
 import org.eclipse.sapphire.Disposable;
 import org.eclipse.sapphire.Element;
@@ -55,6 +60,7 @@ import org.eclipse.sapphire.Value;
 import org.eclipse.sapphire.ValueProperty;
 import org.eclipse.sapphire.modeling.annotations.DelegateImplementation;
 import org.eclipse.sapphire.modeling.annotations.Reference;
+import org.eclipse.sapphire.modeling.util.MiscUtil;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
@@ -65,10 +71,24 @@ import org.objectweb.asm.Type;
 
 public final class ElementCompiler
 {
+    /**
+     * The name of the constant that holds the signature of the element type in a compiled implementation class.
+     */
+    
+    public static final String SIGNATURE_FIELD = "$SIGNATURE";
+    
+    /**
+     * The version of the generated code. Must be incremented whenever the code generated by the compiler changes,
+     * so that implementation classes compiled ahead of time by an older compiler are not used.
+     */
+    
+    private static final int VERSION = 1;
+    
     private final ElementType type;
     private final Class<?> typeInterfaceClass;
     private final String typeInterfaceClassInternalName;
     private final String typeImplClassInternalName;
+    private final String typeImplFactoryClassInternalName;
     private final Set<Method> implementedMethods;
     
     public ElementCompiler( final ElementType type )
@@ -77,6 +97,7 @@ public final class ElementCompiler
         this.typeInterfaceClass = this.type.getModelElementClass();
         this.typeInterfaceClassInternalName = Type.getInternalName( this.typeInterfaceClass );
         this.typeImplClassInternalName = this.typeInterfaceClassInternalName + "$Impl";
+        this.typeImplFactoryClassInternalName = this.typeImplClassInternalName + "$Factory";
         this.implementedMethods = new HashSet<Method>();
     }
     
@@ -86,6 +107,8 @@ public final class ElementCompiler
 
         cw.visit( V1_5, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, this.typeImplClassInternalName, null, Type.getInternalName( ElementImpl.class ), new String[] { this.typeInterfaceClassInternalName } );
         
+        cw.visitField( ACC_PUBLIC + ACC_STATIC + ACC_FINAL, SIGNATURE_FIELD, Type.getDescriptor( String.class ), null, signature() ).visitEnd();
+        
         processConstructor( cw );
         
         for( PropertyDef property : this.type.properties() )
@@ -122,6 +145,111 @@ public final class ElementCompiler
         return cw.toByteArray();
     }
     
+    /**
+     * Computes the signature of the element type. The signature covers everything that the compiled implementation
+     * class depends on: the methods of the element type interface and its base types, the properties and the fields
+     * that hold them, and the version of the compiler. An implementation class that was compiled ahead of time can
+     * only be used if the signature that it holds matches the signature of the element type at runtime.
+     * 
+     * @return the signature of the element type
+     */
+    
+    public String signature()
+    {
+        final List<String> entries = new ArrayList<String>();
+        
+        for( Method method : this.typeInterfaceClass.getMethods() )
+        {
+            final DelegateImplementation delegateImplementationAnnotation = method.getAnnotation( DelegateImplementation.class );
+            
+            entries.add
+            (
+                "method " + method.getDeclaringClass().getName() + " " + method.getName() + Type.getMethodDescriptor( method ) +
+                ( delegateImplementationAnnotation == null ? "" : " " + delegateImplementationAnnotation.value().getName() )
+            );
+        }
+        
+        for( PropertyDef property : this.type.properties() )
+        {
+            final Field field = findPropertyField( property );
+            final Class<?> typeClass = property.getTypeClass();
+            final Reference referenceAnnotation = property.getAnnotation( Reference.class );
+            
+            entries.add
+            (
+                "property " + property.getClass().getName() + " " + property.name() + " " + ( field == null ? "" : field.getName() ) + " " +
+                ( typeClass == null ? "" : typeClass.getName() ) + ( referenceAnnotation == null ? "" : " " + referenceAnnotation.target().getName() )
+            );
+        }
+        
+        // The order in which reflection reports methods and fields is not specified.
+        
+        Collections.sort( entries );
+        
+        final StringBuilder buf = new StringBuilder();
+        
+        buf.append( VERSION ).append( '\n' );
+        buf.append( this.typeInterfaceClass.getName() ).append( '\n' );
+        
+        for( String entry : entries )
+        {
+            buf.append( entry ).append( '\n' );
+        }
+        
+        return MiscUtil.createStringDigest( buf.toString() );
+    }
+    
+    /**
+     * Compiles a factory class for the implementation class. The factory implements {@link BiFunction}, taking
+     * the parent property and the resource, and returning a new instance of the implementation class. Using
+     * the factory avoids the cost of reflective constructor invocation when instantiating elements.
+     * 
+     * @return the bytes of the compiled factory class
+     */
+    
+    public byte[] compileFactory()
+    {
+        final ClassWriter cw = new ClassWriter( COMPUTE_MAXS );
+        
+        cw.visit( V1_5, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, this.typeImplFactoryClassInternalName, null, Type.getInternalName( Object.class ), new String[] { Type.getInternalName( BiFunction.class ) } );
+        
+        MethodVisitor mv = cw.visitMethod( ACC_PUBLIC, "<init>", Type.getMethodDescriptor( Type.VOID_TYPE, new Type[ 0 ] ), null, null );
+        
+        mv.visitCode();
+        mv.visitVarInsn( ALOAD, 0 );
+        mv.visitMethodInsn( INVOKESPECIAL, Type.getInternalName( Object.class ), "<init>", Type.getMethodDescriptor( Type.VOID_TYPE, new Type[ 0 ] ), false );
+        mv.visitInsn( RETURN );
+        mv.visitMaxs( 0, 0 );
+        mv.visitEnd();
+        
+        final Type objectType = Type.getType( Object.class );
+        
+        mv = cw.visitMethod( ACC_PUBLIC, "apply", Type.getMethodDescriptor( objectType, new Type[] { objectType, objectType } ), null, null );
+        
+        mv.visitCode();
+        mv.visitTypeInsn( NEW, this.typeImplClassInternalName );
+        mv.visitInsn( DUP );
+        mv.visitVarInsn( ALOAD, 1 );
+        mv.visitTypeInsn( CHECKCAST, Type.getInternalName( Property.class ) );
+        mv.visitVarInsn( ALOAD, 2 );
+        mv.visitTypeInsn( CHECKCAST, Type.getInternalName( Resource.class ) );
+        
+        mv.visitMethodInsn
+        (
+            INVOKESPECIAL, 
+            this.typeImplClassInternalName, 
+            "<init>", 
+            Type.getMethodDescriptor( Type.VOID_TYPE, new Type[] { Type.getType( Property.class ), Type.getType( Resource.class ) } ),
+            false
+        );
+        
+        mv.visitInsn( ARETURN );
+        mv.visitMaxs( 0, 0 );
+        mv.visitEnd();
+        
+        return cw.toByteArray();
+    }
+    
     private void processConstructor( final ClassWriter cw )
     {
         final MethodVisitor mv = cw.visitMethod
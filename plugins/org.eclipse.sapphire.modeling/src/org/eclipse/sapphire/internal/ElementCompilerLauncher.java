@@ -0,0 +1,137 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementType;
+
+/**
+ * Compiles element implementation classes ahead of time, so that they do not need to be compiled when the element
+ * types are first used at runtime. Runs from the command line as a build step, with the folder of compiled classes
+ * and the output folder as arguments. For each element type interface found among the compiled classes, the
+ * implementation class and its factory are written at the same relative location in the output folder. If the
+ * output folder is not specified, they are written next to the interface.
+ *
+ * <p>The launcher runs after compilation of the bundles that define element types, through the post.compile.@dot
+ * target of their custom build callbacks. The classpath must include the compiled classes, ASM and the bundles that
+ * the compiled classes depend on. Each implementation class holds the signature of the element type that it was
+ * compiled from, so that {@link ElementClassLoader} can ignore it if the element type has changed since.</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class ElementCompilerLauncher
+{
+    private ElementCompilerLauncher()
+    {
+    }
+    
+    public static void main( final String[] args ) throws Exception
+    {
+        if( args.length < 1 || args.length > 2 )
+        {
+            System.err.println( "Usage: ElementCompilerLauncher <classes folder> [<output folder>]" );
+            System.exit( 1 );
+        }
+        
+        final File classes = new File( args[ 0 ] );
+        final File output = ( args.length == 2 ? new File( args[ 1 ] ) : classes );
+        
+        System.out.println( "Compiled " + compileAll( classes, output ) + " element implementations." );
+    }
+    
+    private static int compileAll( final File classes, final File output ) throws IOException
+    {
+        final List<String> names = new ArrayList<String>();
+        
+        find( classes, "", names );
+        
+        final ClassLoader loader = ElementCompilerLauncher.class.getClassLoader();
+        
+        int count = 0;
+        
+        for( final String name : names )
+        {
+            final ElementType type;
+            
+            try
+            {
+                final Class<?> cl = Class.forName( name, false, loader );
+                
+                if( ! cl.isInterface() || cl == Element.class || ! Element.class.isAssignableFrom( cl ) )
+                {
+                    continue;
+                }
+                
+                type = ElementType.read( cl, false );
+                
+                // An interface without its own TYPE field sees the field of its base type.
+                
+                if( type == null || type.getModelElementClass() != cl )
+                {
+                    continue;
+                }
+            }
+            catch( final ClassNotFoundException | LinkageError e )
+            {
+                System.err.println( "Skipping " + name + ": " + e );
+                continue;
+            }
+            
+            final ElementCompiler compiler = new ElementCompiler( type );
+            
+            write( output, name + "$Impl", compiler.compile() );
+            write( output, name + "$Impl$Factory", compiler.compileFactory() );
+            
+            count++;
+        }
+        
+        return count;
+    }
+    
+    private static void find( final File folder, final String pkg, final List<String> names )
+    {
+        final File[] children = folder.listFiles();
+        
+        if( children != null )
+        {
+            for( final File child : children )
+            {
+                final String name = child.getName();
+                
+                if( child.isDirectory() )
+                {
+                    find( child, pkg + name + ".", names );
+                }
+                else if( name.endsWith( ".class" ) && ! name.contains( "$Impl" ) )
+                {
+                    names.add( pkg + name.substring( 0, name.length() - 6 ) );
+                }
+            }
+        }
+    }
+    
+    private static void write( final File output, final String name, final byte[] bytes ) throws IOException
+    {
+        final File file = new File( output, name.replace( '.', '/' ) + ".class" );
+        
+        Files.createDirectories( file.getParentFile().toPath() );
+        Files.write( file.toPath(), bytes );
+    }
+
+}
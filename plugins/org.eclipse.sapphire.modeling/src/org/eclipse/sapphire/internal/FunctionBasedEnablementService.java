@@ -71,7 +71,7 @@ public final class FunctionBasedEnablementService extends EnablementService
             {
                 function = FailSafeFunction.create( function, Literal.create( Boolean.class ), Literal.create( Boolean.FALSE ) );
                 
-                final FunctionResult functionResult = function.evaluate( fnContext );
+                final FunctionResult functionResult = function.evaluate( fnContext, true );
                 
                 functionResult.attach( functionResultListener );
                 this.functionResults.add( functionResult );
@@ -12,11 +12,15 @@
 
 package org.eclipse.sapphire.internal;
 
+import java.util.Comparator;
 import java.util.Set;
 
 import org.eclipse.sapphire.Element;
 import org.eclipse.sapphire.ElementList;
+import org.eclipse.sapphire.Event;
 import org.eclipse.sapphire.FilteredListener;
+import org.eclipse.sapphire.Index;
+import org.eclipse.sapphire.ListProperty;
 import org.eclipse.sapphire.Listener;
 import org.eclipse.sapphire.PossibleValues;
 import org.eclipse.sapphire.PossibleValuesService;
@@ -25,14 +29,22 @@ import org.eclipse.sapphire.PropertyContentEvent;
 import org.eclipse.sapphire.PropertyDef;
 import org.eclipse.sapphire.PropertyVisitor;
 import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.ValueProperty;
 import org.eclipse.sapphire.modeling.CapitalizationType;
 import org.eclipse.sapphire.modeling.ModelPath;
+import org.eclipse.sapphire.modeling.ModelPath.ModelRootSegment;
+import org.eclipse.sapphire.modeling.ModelPath.ParentElementSegment;
+import org.eclipse.sapphire.modeling.ModelPath.PropertySegment;
 import org.eclipse.sapphire.services.ServiceCondition;
 import org.eclipse.sapphire.services.ServiceContext;
 
 /**
  * {@link PossibleValuesService} implementation that derives its behavior from @{@link PossibleValues} annotation.
  * 
+ * <p>When the path leads to a value property of the entries of a list held by this element or one of its ancestors,
+ * the possible values are shared with all other services that resolve to the same list and key property. See
+ * {@link SharedPossibleValues}.</p>
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  * @author <a href="mailto:gregory.amerson@liferay.com">Gregory Amerson</a>
  */
@@ -41,6 +53,8 @@ public final class ModelBasedPossibleValuesService extends PossibleValuesService
 {
     private ModelPath path;
     private Listener listener;
+    private Index<?> index;
+    private SharedPossibleValues shared;
     
     @Override
     protected void initPossibleValuesService()
@@ -62,28 +76,109 @@ public final class ModelBasedPossibleValuesService extends PossibleValuesService
         this.invalidValueSeverity = a.invalidValueSeverity();
         this.ordered = a.ordered();
         
-        this.listener = new FilteredListener<PropertyContentEvent>()
+        if( ! this.ordered )
+        {
+            this.index = index( element, this.path );
+        }
+        
+        if( this.index != null )
+        {
+            this.listener = new Listener()
+            {
+                @Override
+                public void handle( final Event event )
+                {
+                    if( ! property.disposed() )
+                    {
+                        refresh();
+                    }
+                }
+            };
+        }
+        else
         {
-            @Override
-            protected void handleTypedEvent( final PropertyContentEvent event )
+            this.listener = new FilteredListener<PropertyContentEvent>()
             {
-                if( ! property.disposed() )
+                @Override
+                protected void handleTypedEvent( final PropertyContentEvent event )
                 {
-                    refresh();
+                    if( ! property.disposed() )
+                    {
+                        refresh();
+                    }
                 }
+            };
+            
+            try
+            {
+                element.attach( this.listener, this.path );
             }
-        };
+            catch( IllegalArgumentException e )
+            {
+                // Ignore exceptions caused by an invalid model path. This can happen when the element is instantiated
+                // outside its typical model context. This service is expected to gracefully degrade by returning an
+                // empty set of possible values.
+            }
+        }
+    }
+    
+    /**
+     * Finds the index that can supply the possible values for the path. The path qualifies if it leads to a value
+     * property of the entries of a list held by this element or one of its ancestors. Such a list cannot be swapped
+     * out for a different list while this element exists.
+     * 
+     * @return the index of the list by the key property or null if the path does not qualify
+     */
+    
+    private static Index<?> index( final Element element, final ModelPath path )
+    {
+        Element e = element;
+        ModelPath p = path;
         
-        try
+        while( p.length() > 2 )
         {
-            element.attach( this.listener, this.path );
+            final ModelPath.Segment head = p.head();
+            
+            if( head instanceof ModelRootSegment )
+            {
+                e = e.root();
+            }
+            else if( head instanceof ParentElementSegment )
+            {
+                final Property parent = e.parent();
+                
+                if( parent == null )
+                {
+                    return null;
+                }
+                
+                e = parent.element();
+            }
+            else
+            {
+                return null;
+            }
+            
+            p = p.tail();
         }
-        catch( IllegalArgumentException e )
+        
+        if( p.length() == 2 && p.head() instanceof PropertySegment && p.tail().head() instanceof PropertySegment )
         {
-            // Ignore exceptions caused by an invalid model path. This can happen when the element is instantiated
-            // outside its typical model context. This service is expected to gracefully degrade by returning an
-            // empty set of possible values.
+            final PropertyDef listPropertyDef = e.type().property( ( (PropertySegment) p.head() ).getPropertyName() );
+            
+            if( listPropertyDef instanceof ListProperty )
+            {
+                final ElementList<?> list = e.property( (ListProperty) listPropertyDef );
+                final PropertyDef key = list.definition().getType().property( ( (PropertySegment) p.tail().head() ).getPropertyName() );
+                
+                if( key instanceof ValueProperty )
+                {
+                    return list.index( (ValueProperty) key );
+                }
+            }
         }
+        
+        return null;
     }
 
     @Override
@@ -115,18 +210,48 @@ public final class ModelBasedPossibleValuesService extends PossibleValuesService
         }
     }
     
+    @Override
+    protected Set<String> computeShared( final Comparator<String> comparator )
+    {
+        if( this.index == null || context( Element.class ).disposed() )
+        {
+            return null;
+        }
+        
+        if( this.shared == null || this.shared.comparator() != comparator )
+        {
+            if( this.shared != null )
+            {
+                this.shared.detach( this.listener );
+                this.shared.release();
+            }
+            
+            this.shared = SharedPossibleValues.acquire( this.index, comparator );
+            this.shared.attach( this.listener );
+        }
+        
+        return this.shared.values();
+    }
+    
     @Override
     public void dispose()
     {
         super.dispose();
         
-        this.path = null;
-        
-        if( this.listener != null )
+        if( this.shared != null )
         {
-            context( Element.class ).detach( this.listener, ModelBasedPossibleValuesService.this.path );
-            this.listener = null;
+            this.shared.detach( this.listener );
+            this.shared.release();
+            this.shared = null;
         }
+        else if( this.listener != null && this.index == null )
+        {
+            context( Element.class ).detach( this.listener, this.path );
+        }
+        
+        this.path = null;
+        this.listener = null;
+        this.index = null;
     }
 
     public static final class Condition extends ServiceCondition
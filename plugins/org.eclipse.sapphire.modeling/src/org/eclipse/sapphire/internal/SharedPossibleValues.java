@@ -0,0 +1,390 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.internal;
+
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.FilteredListener;
+import org.eclipse.sapphire.Index;
+import org.eclipse.sapphire.IndexEvent;
+import org.eclipse.sapphire.Listener;
+import org.eclipse.sapphire.ListenerContext;
+import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.util.Filters;
+import org.eclipse.sapphire.util.SortedSetFactory;
+
+/**
+ * A set of possible values drawn from a value property of the elements in a list, shared by all
+ * {@link ModelBasedPossibleValuesService} instances that resolve to the same list, key property and
+ * collation. The set is maintained incrementally from the events of the list index and the same immutable
+ * snapshot is handed out to all services until the set changes.
+ *
+ * <p>Instances are reference counted. Each {@link #acquire(Index, Comparator)} call must be matched by a
+ * {@link #release()} call.</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+final class SharedPossibleValues
+{
+    private static final Map<Key,SharedPossibleValues> instances = new HashMap<Key,SharedPossibleValues>();
+    
+    private final Key key;
+    private final Index<?> index;
+    private final Comparator<String> comparator;
+    private final ListenerContext listeners = new ListenerContext();
+    private int references;
+    private Listener indexListener;
+    private Set<String> keys;
+    private TreeMap<String,Integer> values;
+    private Snapshot snapshot;
+    private long version;
+    
+    private SharedPossibleValues( final Key key )
+    {
+        this.key = key;
+        this.index = key.index;
+        this.comparator = key.comparator;
+    }
+    
+    /**
+     * Returns the shared possible values for the given index and collation, creating them if necessary.
+     *
+     * @param index the index of the list by the key property
+     * @param comparator the comparator of the collation used to order and match possible values
+     * @return the shared possible values
+     */
+    
+    static SharedPossibleValues acquire( final Index<?> index, final Comparator<String> comparator )
+    {
+        final Key key = new Key( index, comparator );
+        
+        synchronized( instances )
+        {
+            SharedPossibleValues shared = instances.get( key );
+            
+            if( shared == null )
+            {
+                shared = new SharedPossibleValues( key );
+                instances.put( key, shared );
+            }
+            
+            shared.references++;
+            
+            return shared;
+        }
+    }
+    
+    /**
+     * Releases a reference acquired by {@link #acquire(Index, Comparator)}. Once all references are released,
+     * the shared possible values stop tracking the list.
+     */
+    
+    void release()
+    {
+        synchronized( instances )
+        {
+            this.references--;
+            
+            if( this.references > 0 )
+            {
+                return;
+            }
+            
+            instances.remove( this.key );
+        }
+        
+        synchronized( this.index.list().root() )
+        {
+            if( this.indexListener != null )
+            {
+                this.index.detach( this.indexListener );
+                this.indexListener = null;
+            }
+            
+            this.keys = null;
+            this.values = null;
+            this.snapshot = null;
+        }
+    }
+    
+    Comparator<String> comparator()
+    {
+        return this.comparator;
+    }
+    
+    /**
+     * Returns the current possible values. The returned set is immutable and the same set instance is returned
+     * until the possible values change.
+     */
+    
+    Set<String> values()
+    {
+        synchronized( this.index.list().root() )
+        {
+            if( this.values == null )
+            {
+                this.keys = new HashSet<String>();
+                this.values = new TreeMap<String,Integer>( this.comparator );
+                
+                this.indexListener = new FilteredListener<IndexEvent>()
+                {
+                    @Override
+                    protected void handleTypedEvent( final IndexEvent event )
+                    {
+                        update( event );
+                    }
+                };
+                
+                this.index.attach( this.indexListener );
+                
+                for( final Element element : this.index.list() )
+                {
+                    add( ( (Value<?>) element.property( this.index.property() ) ).text() );
+                }
+            }
+            
+            if( this.snapshot == null )
+            {
+                this.snapshot = new Snapshot
+                (
+                    this,
+                    this.version,
+                    SortedSetFactory.start( this.comparator ).filter( Filters.createNotEmptyFilter() ).add( this.values.keySet() ).result()
+                );
+            }
+            
+            return this.snapshot;
+        }
+    }
+    
+    void attach( final Listener listener )
+    {
+        this.listeners.attach( listener );
+    }
+    
+    void detach( final Listener listener )
+    {
+        this.listeners.detach( listener );
+    }
+    
+    private void update( final IndexEvent event )
+    {
+        boolean changed = false;
+        
+        synchronized( this.index.list().root() )
+        {
+            if( this.values == null )
+            {
+                return;
+            }
+            
+            for( final String key : event.keys() )
+            {
+                if( key != null )
+                {
+                    if( this.index.element( key ) == null )
+                    {
+                        changed |= remove( key );
+                    }
+                    else
+                    {
+                        changed |= add( key );
+                    }
+                }
+            }
+            
+            if( changed )
+            {
+                this.version++;
+                this.snapshot = null;
+            }
+        }
+        
+        if( changed )
+        {
+            this.listeners.broadcast( event );
+        }
+    }
+    
+    /**
+     * Records a key that is present in the index. Keys that are equal according to the collation share a single
+     * possible value, which is retained until all of these keys are removed.
+     */
+    
+    private boolean add( final String key )
+    {
+        if( key == null || ! this.keys.add( key ) )
+        {
+            return false;
+        }
+        
+        final Integer count = this.values.get( key );
+        
+        this.values.put( key, ( count == null ? 1 : count + 1 ) );
+        
+        return ( count == null );
+    }
+    
+    private boolean remove( final String key )
+    {
+        if( ! this.keys.remove( key ) )
+        {
+            return false;
+        }
+        
+        final int count = this.values.get( key );
+        
+        if( count == 1 )
+        {
+            this.values.remove( key );
+            return true;
+        }
+        
+        final String representative = this.values.ceilingKey( key );
+        
+        if( representative.equals( key ) )
+        {
+            // The removed key was the one presented for its collation class, so one of the remaining
+            // equivalent keys takes its place.
+            
+            for( final String k : this.keys )
+            {
+                if( this.comparator.compare( k, key ) == 0 )
+                {
+                    this.values.remove( key );
+                    this.values.put( k, count - 1 );
+                    return true;
+                }
+            }
+        }
+        
+        this.values.put( key, count - 1 );
+        
+        return false;
+    }
+    
+    private static final class Key
+    {
+        private final Index<?> index;
+        private final Comparator<String> comparator;
+        
+        public Key( final Index<?> index, final Comparator<String> comparator )
+        {
+            this.index = index;
+            this.comparator = comparator;
+        }
+        
+        @Override
+        public boolean equals( final Object obj )
+        {
+            if( obj instanceof Key )
+            {
+                final Key key = (Key) obj;
+                return ( this.index == key.index && this.comparator == key.comparator );
+            }
+            
+            return false;
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode( this.index ) ^ System.identityHashCode( this.comparator );
+        }
+    }
+    
+    /**
+     * An immutable snapshot of shared possible values. Comparing two snapshots of the same shared possible values
+     * is constant time in the common cases, which keeps refreshing of many services that share the possible values
+     * from becoming quadratic.
+     */
+    
+    private static final class Snapshot extends AbstractSet<String>
+    {
+        private final SharedPossibleValues source;
+        private final long version;
+        private final Set<String> values;
+        private final Set<String> lookup;
+        private final int hashCode;
+        
+        public Snapshot( final SharedPossibleValues source, final long version, final Set<String> values )
+        {
+            this.source = source;
+            this.version = version;
+            this.values = values;
+            this.hashCode = values.hashCode();
+            
+            // When the collation is consistent with equals, membership can be checked by hashing rather
+            // than through the comparator.
+            
+            this.lookup = ( source.comparator == DefaultCollationService.COMPARATOR ? new HashSet<String>( values ) : values );
+        }
+        
+        @Override
+        public Iterator<String> iterator()
+        {
+            return this.values.iterator();
+        }
+        
+        @Override
+        public int size()
+        {
+            return this.values.size();
+        }
+        
+        @Override
+        public boolean contains( final Object object )
+        {
+            return this.lookup.contains( object );
+        }
+        
+        @Override
+        public boolean equals( final Object obj )
+        {
+            if( obj instanceof Snapshot )
+            {
+                final Snapshot snapshot = (Snapshot) obj;
+                
+                if( this.source == snapshot.source )
+                {
+                    if( this.version == snapshot.version )
+                    {
+                        return true;
+                    }
+                    
+                    if( this.hashCode != snapshot.hashCode )
+                    {
+                        return false;
+                    }
+                }
+            }
+            
+            return super.equals( obj );
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+    }
+
+}
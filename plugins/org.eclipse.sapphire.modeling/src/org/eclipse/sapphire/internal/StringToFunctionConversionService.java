@@ -36,7 +36,7 @@ public final class StringToFunctionConversionService extends ConversionService<S
         
         try
         {
-            result = ExpressionLanguageParser.parse( string );
+            result = ExpressionLanguageParser.parse( string, false );
         }
         catch( Exception e )
         {
@@ -11,6 +11,8 @@
 
 package org.eclipse.sapphire.internal;
 
+import static org.eclipse.sapphire.modeling.util.MiscUtil.equal;
+
 import org.eclipse.sapphire.CollationService;
 import org.eclipse.sapphire.Counter;
 import org.eclipse.sapphire.Element;
@@ -49,6 +51,7 @@ public final class UniqueValueValidationService extends ValidationService
     private Listener collationServiceListener;
     private boolean checkNullValues;
     private Index<?> index;
+    private String indexKey;
     private Listener indexListener;
     
     @Override
@@ -69,8 +72,9 @@ public final class UniqueValueValidationService extends ValidationService
                 {
                     if( UniqueValueValidationService.this.index != null )
                     {
-                        UniqueValueValidationService.this.index.detach( UniqueValueValidationService.this.indexListener );
+                        UniqueValueValidationService.this.index.detach( UniqueValueValidationService.this.indexListener, UniqueValueValidationService.this.indexKey );
                         UniqueValueValidationService.this.index = null;
+                        UniqueValueValidationService.this.indexKey = null;
                     }
                 }
                 
@@ -96,8 +100,12 @@ public final class UniqueValueValidationService extends ValidationService
         Counter.increment( UniqueValueValidationService.class );
 
         final Value<?> value = context( Value.class );
+        final String text = value.text();
         final Index<?> index;
         
+        // Only listen for changes to the elements matching this value's key, so that a change in the list
+        // does not cause every unique value in the list to be revalidated.
+        
         synchronized( this )
         {
             if( this.index == null )
@@ -105,14 +113,19 @@ public final class UniqueValueValidationService extends ValidationService
                 final ElementList<?> list = (ElementList<?>) value.element().parent();
                 
                 this.index = list.index( value.definition(), this.collationService.comparator() );
-                this.index.attach( this.indexListener );
+                this.index.attach( this.indexListener, text );
+                this.indexKey = text;
+            }
+            else if( ! equal( this.indexKey, text ) )
+            {
+                this.index.detach( this.indexListener, this.indexKey );
+                this.index.attach( this.indexListener, text );
+                this.indexKey = text;
             }
             
             index = this.index;
         }
         
-        final String text = value.text();
-        
         if( ( text != null || this.checkNullValues ) && index.elements( text ).size() > 1 )
         {
             final String msg = ( text == null ? messageForNull.text() : message.format( text ) );
@@ -134,8 +147,9 @@ public final class UniqueValueValidationService extends ValidationService
         
         if( this.index != null )
         {
-            this.index.detach( this.indexListener );
+            this.index.detach( this.indexListener, this.indexKey );
             this.index = null;
+            this.indexKey = null;
         }
         
         this.indexListener = null;
@@ -0,0 +1,77 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.internal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The pool of daemon threads that recompute deferred validation in the background. The pool is created when
+ * first needed. Since the threads are daemon threads, they do not keep the JVM alive. An environment that unloads
+ * the framework without exiting the JVM can release the threads with {@link #shutdown()}.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class ValidationExecutor
+{
+    private static final AtomicInteger threads = new AtomicInteger();
+    
+    private static ExecutorService executor;
+    
+    /**
+     * This class is not meant to be instantiated.
+     */
+    
+    private ValidationExecutor()
+    {
+    }
+    
+    public static synchronized void execute( final Runnable task )
+    {
+        if( executor == null )
+        {
+            executor = Executors.newFixedThreadPool
+            (
+                Runtime.getRuntime().availableProcessors(),
+                new ThreadFactory()
+                {
+                    public Thread newThread( final Runnable runnable )
+                    {
+                        final Thread thread = new Thread( runnable, "Sapphire Validation " + threads.incrementAndGet() );
+                        thread.setDaemon( true );
+                        return thread;
+                    }
+                }
+            );
+        }
+        
+        executor.execute( task );
+    }
+    
+    /**
+     * Stops the threads of the pool. Tasks that have not started are discarded. The pool is created again if more
+     * work is submitted later.
+     */
+    
+    public static synchronized void shutdown()
+    {
+        if( executor != null )
+        {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+}
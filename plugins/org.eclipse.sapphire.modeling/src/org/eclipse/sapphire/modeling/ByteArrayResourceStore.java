@@ -13,8 +13,11 @@ package org.eclipse.sapphire.modeling;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
@@ -54,6 +57,30 @@ public class ByteArrayResourceStore extends ResourceStore
         return copy;
     }
 
+    /**
+     * Returns a read-only view of the contents of this store. Unlike {@link #getContents()}, the contents are not
+     * copied. The view reflects the contents at the time of the call and is not affected by subsequent changes
+     * to the contents of the store.
+     * 
+     * @return a read-only view of the contents
+     */
+    
+    public ByteBuffer getContentsBuffer()
+    {
+        return ByteBuffer.wrap( this.contents ).asReadOnlyBuffer();
+    }
+    
+    /**
+     * Returns a stream that reads the contents of this store without copying them.
+     * 
+     * @return a stream that reads the contents
+     */
+    
+    public final InputStream getContentsStream()
+    {
+        return new ByteBufferInputStream( getContentsBuffer() );
+    }
+
     public void setContents( final byte[] contents )
     {
         if( contents == null )
@@ -65,7 +92,7 @@ public class ByteArrayResourceStore extends ResourceStore
         final byte[] copy = new byte[ length ];
         System.arraycopy( contents, 0, copy, 0, length );
         
-        this.contents = copy;
+        adoptContents( copy );
     }
 
     public void setContents( final InputStream in ) throws ResourceStoreException
@@ -93,13 +120,138 @@ public class ByteArrayResourceStore extends ResourceStore
                 }
             }
             
-            this.contents = new byte[ bufferUsedLength ];
-            System.arraycopy( buffer, 0, this.contents, 0, bufferUsedLength );
+            final byte[] contents = new byte[ bufferUsedLength ];
+            System.arraycopy( buffer, 0, contents, 0, bufferUsedLength );
+            
+            adoptContents( contents );
+        }
+        catch( final IOException e )
+        {
+            throw new ResourceStoreException( e );
+        }
+    }
+    
+    /**
+     * Replaces the contents of this store with the specified array without copying it. All changes to the contents
+     * go through this method, so subclasses that keep state derived from the contents can override it to be notified.
+     * The caller must not modify the array afterwards.
+     * 
+     * @param contents the new contents
+     */
+    
+    protected void adoptContents( final byte[] contents )
+    {
+        if( contents == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        this.contents = contents;
+    }
+    
+    /**
+     * Replaces the contents of this store with the contents produced by the specified writer and saves the store.
+     * Stores backed by external storage can override this method to stream the contents directly to the storage
+     * rather than holding complete copies of the contents in memory. The default implementation collects the
+     * contents in memory and then calls {@link #save()}.
+     * 
+     * @param writer the writer of the new contents
+     * @throws ResourceStoreException if the contents could not be written or saved
+     */
+    
+    public void save( final ContentsWriter writer ) throws ResourceStoreException
+    {
+        if( writer == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        validateSave();
+        
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        try
+        {
+            writer.write( out );
         }
         catch( final IOException e )
         {
             throw new ResourceStoreException( e );
         }
+        
+        adoptContents( out.toByteArray() );
+        
+        save();
+    }
+    
+    private static final class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+        
+        public ByteBufferInputStream( final ByteBuffer buffer )
+        {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int read()
+        {
+            return ( this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1 );
+        }
+        
+        @Override
+        public int read( final byte[] bytes, final int offset, final int length )
+        {
+            if( length == 0 )
+            {
+                return 0;
+            }
+            
+            final int remaining = this.buffer.remaining();
+            
+            if( remaining == 0 )
+            {
+                return -1;
+            }
+            
+            final int count = Math.min( length, remaining );
+            
+            this.buffer.get( bytes, offset, count );
+            
+            return count;
+        }
+        
+        @Override
+        public long skip( final long count )
+        {
+            final int skipped = (int) Math.max( 0, Math.min( count, this.buffer.remaining() ) );
+            
+            this.buffer.position( this.buffer.position() + skipped );
+            
+            return skipped;
+        }
+        
+        @Override
+        public int available()
+        {
+            return this.buffer.remaining();
+        }
+    }
+    
+    /**
+     * Produces the contents of a store when saving using {@link ByteArrayResourceStore#save(ContentsWriter)}.
+     */
+    
+    public interface ContentsWriter
+    {
+        /**
+         * Writes the contents to the specified stream. The stream should not be closed by the writer.
+         * 
+         * @param out the stream to write to
+         * @throws IOException if the contents could not be written
+         */
+        
+        void write( OutputStream out ) throws IOException;
     }
     
 }
@@ -13,67 +13,540 @@ package org.eclipse.sapphire.modeling;
 
 import static org.eclipse.sapphire.FileUtil.mkdirs;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileOwnerAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.sapphire.LoggingService;
+import org.eclipse.sapphire.Sapphire;
 
 /**
+ * A resource store backed by a file. The contents of the file are read once and shared as a read-only buffer until
+ * they are changed, rather than copied for every request. Saving writes the contents to a temporary file in the
+ * same directory and then renames it over the file, so that other readers never see a partially written file.
+ * If the file is a symbolic link, the file that it points to is replaced. The owner, permissions, access control
+ * list and extended attributes of the file are carried over where the file system allows it. If the temporary file
+ * cannot be created, for instance because the directory is not writable, the file is overwritten in place.
+ * After a save, the contents that were written are kept rather than read back from the file.
+ * Changes made to the file by other parties are detected through a watch service shared by all file resource
+ * stores.
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
 public class FileResourceStore extends ByteArrayResourceStore
 {
     private final File file;
+    private final Path path;
+    
+    /**
+     * The contents of the file, when they have not been changed since the file was read or saved.
+     */
+    
+    private ByteBuffer loaded;
+    
+    /**
+     * Indicates that the contents were streamed to the file without being held in memory. The contents are read
+     * from the file when they are next requested.
+     */
+    
+    private boolean unread;
+    
+    /**
+     * The modification time and the size of the file when it was last read or saved, or null if the file
+     * did not exist.
+     */
+    
+    private FileTime modified;
+    private long size;
+    
+    /**
+     * Indicates whether the file needs to be checked for changes. Cleared while the file is being watched
+     * and set when the watcher reports activity in the file.
+     */
+    
+    private volatile boolean changed = true;
+    private volatile boolean watched;
     
     public FileResourceStore( final File file ) throws ResourceStoreException
     {
         this.file = file;
+        this.path = file.toPath().toAbsolutePath();
+        
+        final FileWatcher watcher = FileWatcher.instance();
+        
+        if( watcher != null )
+        {
+            this.watched = watcher.register( this, this.path );
+        }
 
-        if( this.file.exists() )
+        try
+        {
+            load();
+        }
+        catch( final IOException e )
         {
-            try( InputStream in = new FileInputStream( this.file ) )
+            throw new ResourceStoreException( e );
+        }
+    }
+    
+    public File getFile()
+    {
+        return this.file;
+    }
+    
+    private synchronized void load() throws IOException
+    {
+        this.changed = false;
+        
+        final BasicFileAttributes attributes;
+        
+        try
+        {
+            attributes = Files.readAttributes( this.path, BasicFileAttributes.class );
+        }
+        catch( final NoSuchFileException e )
+        {
+            this.modified = null;
+            this.size = 0;
+            this.loaded = null;
+            this.unread = false;
+            
+            super.adoptContents( EMPTY_BYTE_ARRAY );
+            
+            return;
+        }
+        
+        // The file is read rather than memory-mapped. A mapping would be invalidated if another party truncated the
+        // file and would prevent the file from being replaced on some platforms.
+        
+        this.loaded = ByteBuffer.wrap( Files.readAllBytes( this.path ) ).asReadOnlyBuffer();
+        
+        this.modified = attributes.lastModifiedTime();
+        this.size = attributes.size();
+        this.unread = false;
+        
+        super.adoptContents( EMPTY_BYTE_ARRAY );
+    }
+    
+    /**
+     * Records the state of the file after it was saved, so that the file does not need to be read back. If the
+     * contents that were written are not known, they are read from the file when they are next requested.
+     */
+    
+    private void saved( final ByteBuffer contents ) throws IOException
+    {
+        this.changed = false;
+        
+        final BasicFileAttributes attributes = Files.readAttributes( this.path, BasicFileAttributes.class );
+        
+        this.modified = attributes.lastModifiedTime();
+        this.size = attributes.size();
+        this.loaded = contents;
+        this.unread = ( contents == null );
+        
+        super.adoptContents( EMPTY_BYTE_ARRAY );
+    }
+    
+    /**
+     * Returns the contents that were read from the file, reading them first if the file was saved by streaming.
+     * Returns null if the contents were changed since the file was read or saved.
+     */
+    
+    private ByteBuffer loaded()
+    {
+        if( this.unread )
+        {
+            this.unread = false;
+            
+            try
             {
-                setContents( in );
+                this.loaded = ByteBuffer.wrap( Files.readAllBytes( this.path ) ).asReadOnlyBuffer();
             }
             catch( final IOException e )
             {
-                throw new ResourceStoreException( e );
+                Sapphire.service( LoggingService.class ).log( e );
             }
         }
+        
+        return this.loaded;
     }
     
-    public File getFile()
+    @Override
+    public void save() throws ResourceStoreException
     {
-        return this.file;
+        final ByteBuffer contents = getContentsBuffer();
+        
+        write
+        (
+            new ContentsWriter()
+            {
+                public void write( final OutputStream out ) throws IOException
+                {
+                    final ByteBuffer buffer = contents.duplicate();
+                    final WritableByteChannel channel = Channels.newChannel( out );
+                    
+                    while( buffer.hasRemaining() )
+                    {
+                        channel.write( buffer );
+                    }
+                }
+            },
+            contents
+        );
     }
 
+    /**
+     * Streams the contents directly to the file. The contents are only read back from the file if they are
+     * requested afterwards.
+     */
+    
     @Override
-    public void save() throws ResourceStoreException
+    public void save( final ContentsWriter writer ) throws ResourceStoreException
+    {
+        if( writer == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        write( writer, null );
+    }
+    
+    private synchronized void write( final ContentsWriter writer, final ByteBuffer contents ) throws ResourceStoreException
     {
         validateSave();
+        
+        final Path target;
+        Path temp = null;
 
         try
         {
             mkdirs( this.file.getParentFile() );
+            
+            target = target();
+            
+            if( target != null )
+            {
+                try
+                {
+                    temp = createTempFile( target );
+                }
+                catch( final IOException e )
+                {
+                    // Fall back to writing the file in place.
+                }
+            }
         }
         catch( final IOException e )
         {
             throw new ResourceStoreException( e );
         }
         
-        try( OutputStream out = new FileOutputStream( this.file ) )
+        try
         {
-            out.write( getContents() );
-            out.flush();
+            if( temp == null )
+            {
+                write( this.path, writer );
+            }
+            else
+            {
+                write( temp, writer );
+                copyAttributes( target, temp );
+                
+                try
+                {
+                    Files.move( temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+                }
+                catch( final AtomicMoveNotSupportedException e )
+                {
+                    Files.move( temp, target, StandardCopyOption.REPLACE_EXISTING );
+                }
+            }
+            
+            saved( contents );
         }
         catch( final IOException e )
         {
+            if( temp != null )
+            {
+                try
+                {
+                    Files.deleteIfExists( temp );
+                }
+                catch( final IOException ignored ) {}
+            }
+            
             throw new ResourceStoreException( e );
         }
     }
+    
+    private static void write( final Path path, final ContentsWriter writer ) throws IOException
+    {
+        try( FileChannel channel = FileChannel.open( path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING ) )
+        {
+            final OutputStream out = new BufferedOutputStream( Channels.newOutputStream( channel ) );
+            
+            writer.write( out );
+            out.flush();
+            
+            channel.force( true );
+        }
+    }
+    
+    /**
+     * Returns the file that saving should replace. This is the file itself or, if the file is a symbolic link,
+     * the file that the link points to. Returns null if the file is a symbolic link that points to a file that
+     * does not exist, in which case the file is written in place through the link.
+     */
+    
+    private Path target() throws IOException
+    {
+        try
+        {
+            return this.path.toRealPath();
+        }
+        catch( final NoSuchFileException e )
+        {
+            return ( Files.isSymbolicLink( this.path ) ? null : this.path );
+        }
+    }
+    
+    /**
+     * Creates a temporary file next to the specified file. Unlike {@link File#createTempFile}, the temporary file
+     * is created with the default permissions, so that a file that did not exist before it is saved gets the same
+     * permissions as any other new file.
+     */
+    
+    private static Path createTempFile( final Path target ) throws IOException
+    {
+        final Path parent = target.getParent();
+        
+        while( true )
+        {
+            final String name = "." + target.getFileName() + "." + Long.toHexString( ThreadLocalRandom.current().nextLong() ) + ".tmp";
+            
+            try
+            {
+                return Files.createFile( parent.resolve( name ) );
+            }
+            catch( final FileAlreadyExistsException e )
+            {
+                // Try another name.
+            }
+        }
+    }
+    
+    /**
+     * Carries the attributes of the file over to the file that replaces it. The permissions must be copied, while the
+     * owner, the group, the access control list and the extended attributes are copied where the file system and the
+     * privileges of the process allow it.
+     */
+    
+    private static void copyAttributes( final Path from, final Path to ) throws IOException
+    {
+        if( ! Files.exists( from ) )
+        {
+            return;
+        }
+        
+        final PosixFileAttributeView posix = Files.getFileAttributeView( from, PosixFileAttributeView.class );
+        
+        if( posix != null )
+        {
+            final PosixFileAttributes attributes = posix.readAttributes();
+            final PosixFileAttributeView target = Files.getFileAttributeView( to, PosixFileAttributeView.class );
+            
+            target.setPermissions( attributes.permissions() );
+            
+            try
+            {
+                target.setGroup( attributes.group() );
+                target.setOwner( attributes.owner() );
+            }
+            catch( final IOException | SecurityException e )
+            {
+                // Only a privileged process can give away a file.
+            }
+        }
+        else
+        {
+            final FileOwnerAttributeView owner = Files.getFileAttributeView( from, FileOwnerAttributeView.class );
+            
+            if( owner != null )
+            {
+                try
+                {
+                    Files.getFileAttributeView( to, FileOwnerAttributeView.class ).setOwner( owner.getOwner() );
+                }
+                catch( final IOException | SecurityException e )
+                {
+                    // Only a privileged process can give away a file.
+                }
+            }
+        }
+        
+        try
+        {
+            final AclFileAttributeView acl = Files.getFileAttributeView( from, AclFileAttributeView.class );
+            
+            if( acl != null )
+            {
+                Files.getFileAttributeView( to, AclFileAttributeView.class ).setAcl( acl.getAcl() );
+            }
+            
+            final UserDefinedFileAttributeView xattrs = Files.getFileAttributeView( from, UserDefinedFileAttributeView.class );
+            
+            if( xattrs != null )
+            {
+                final UserDefinedFileAttributeView target = Files.getFileAttributeView( to, UserDefinedFileAttributeView.class );
+                
+                for( final String name : xattrs.list() )
+                {
+                    final ByteBuffer value = ByteBuffer.allocate( xattrs.size( name ) );
+                    
+                    xattrs.read( name, value );
+                    value.flip();
+                    target.write( name, value );
+                }
+            }
+        }
+        catch( final IOException | UnsupportedOperationException | SecurityException e )
+        {
+            // The file system does not support these attributes or does not allow them to be set.
+        }
+    }
+    
+    /**
+     * Returns a read-only view of the contents. If the contents have not been changed since the file was read
+     * or saved, the view shares the contents that were read from the file.
+     */
+    
+    @Override
+    public synchronized ByteBuffer getContentsBuffer()
+    {
+        final ByteBuffer loaded = loaded();
+        
+        if( loaded != null )
+        {
+            return loaded.duplicate();
+        }
+        
+        return super.getContentsBuffer();
+    }
+    
+    @Override
+    public synchronized byte[] getContents()
+    {
+        final ByteBuffer loaded = loaded();
+        
+        if( loaded != null )
+        {
+            final ByteBuffer buffer = loaded.duplicate();
+            final byte[] contents = new byte[ buffer.remaining() ];
+            
+            buffer.get( contents );
+            
+            return contents;
+        }
+        
+        return super.getContents();
+    }
+    
+    @Override
+    protected synchronized void adoptContents( final byte[] contents )
+    {
+        super.adoptContents( contents );
+        
+        this.loaded = null;
+        this.unread = false;
+    }
+    
+    /**
+     * Determines whether the file was changed by another party since it was last read or saved. While the file is
+     * being watched, the file system is only consulted after the watcher has reported activity in the file.
+     */
+    
+    @Override
+    public boolean isOutOfDate()
+    {
+        if( this.watched && ! this.changed )
+        {
+            return false;
+        }
+        
+        // Clear the flag before consulting the file system, so that activity reported in the meantime is not lost.
+        
+        this.changed = false;
+        
+        synchronized( this )
+        {
+            FileTime modified = null;
+            long size = 0;
+            
+            try
+            {
+                final BasicFileAttributes attributes = Files.readAttributes( this.path, BasicFileAttributes.class );
+                
+                modified = attributes.lastModifiedTime();
+                size = attributes.size();
+            }
+            catch( final IOException e )
+            {
+                // The file does not exist or cannot be read.
+            }
+            
+            final boolean outOfDate = ( modified == null ? this.modified != null : ! modified.equals( this.modified ) || size != this.size );
+            
+            if( outOfDate )
+            {
+                this.changed = true;
+            }
+            
+            return outOfDate;
+        }
+    }
+    
+    void changed()
+    {
+        this.changed = true;
+        
+        handleFileChanged();
+    }
+    
+    /**
+     * Called on the file watcher thread when the file may have been changed. The notification is also received
+     * for the writes made by this store, so {@link #isOutOfDate()} should be used to determine whether the file was
+     * actually changed by another party. The default implementation does nothing.
+     */
+    
+    protected void handleFileChanged()
+    {
+    }
+    
+    void unwatched()
+    {
+        this.watched = false;
+    }
 
     @Override
     public void validateSave()
@@ -94,6 +567,24 @@ public class FileResourceStore extends ByteArrayResourceStore
         }
     }
 
+    @Override
+    public void dispose()
+    {
+        if( this.watched )
+        {
+            final FileWatcher watcher = FileWatcher.instance();
+            
+            if( watcher != null )
+            {
+                watcher.unregister( this, this.path );
+            }
+            
+            this.watched = false;
+        }
+        
+        super.dispose();
+    }
+    
     @Override
     public <A> A adapt( final Class<A> adapterType )
     {
@@ -0,0 +1,400 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.modeling;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.sapphire.LoggingService;
+import org.eclipse.sapphire.Sapphire;
+
+/**
+ * Notifies file resource stores when their files may have been changed by another party. A single watch service
+ * and a single daemon thread are shared by all stores. Stores unregister when they are disposed. The watcher holds
+ * the stores weakly, so that stores that are no longer in use are unregistered even if they are not disposed. A
+ * directory stops being watched once no stores use it.
+ *
+ * <p>A notification only means that a store should compare the state of its file with the state it last saw, since
+ * the store receives notifications for its own writes as well.</p>
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+final class FileWatcher
+{
+    private static final long PURGE_INTERVAL = 10;
+    
+    private static FileWatcher instance;
+    private static boolean unavailable;
+    
+    private final WatchService service;
+    private final ReferenceQueue<FileResourceStore> queue = new ReferenceQueue<FileResourceStore>();
+    private final Map<Path,Directory> directories = new HashMap<Path,Directory>();
+    private final Map<WatchKey,Directory> keys = new HashMap<WatchKey,Directory>();
+    
+    private FileWatcher( final WatchService service )
+    {
+        this.service = service;
+        
+        final Thread thread = new Thread( "Sapphire File Watcher" )
+        {
+            @Override
+            public void run()
+            {
+                process();
+            }
+        };
+        
+        thread.setDaemon( true );
+        thread.start();
+    }
+    
+    /**
+     * Returns the shared watcher or null if the file system does not support watching.
+     *
+     * @return the shared watcher or null
+     */
+    
+    static synchronized FileWatcher instance()
+    {
+        if( instance == null && ! unavailable )
+        {
+            try
+            {
+                instance = new FileWatcher( FileSystems.getDefault().newWatchService() );
+            }
+            catch( final IOException | UnsupportedOperationException e )
+            {
+                unavailable = true;
+            }
+        }
+        
+        return instance;
+    }
+    
+    /**
+     * Starts watching the file of a store.
+     *
+     * @param store the store
+     * @param file the absolute path of the file
+     * @return true if the file is being watched, false if the directory containing the file could not be watched
+     */
+    
+    synchronized boolean register( final FileResourceStore store, final Path file )
+    {
+        final Path parent = file.getParent();
+        
+        if( parent == null )
+        {
+            return false;
+        }
+        
+        purge();
+        
+        Directory directory = this.directories.get( parent );
+        
+        if( directory == null )
+        {
+            final WatchKey key;
+            
+            try
+            {
+                key = parent.register( this.service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY );
+            }
+            catch( final IOException | ClosedWatchServiceException e )
+            {
+                return false;
+            }
+            
+            directory = new Directory( parent, key );
+            
+            this.directories.put( parent, directory );
+            this.keys.put( key, directory );
+        }
+        
+        final Path name = file.getFileName();
+        List<WeakReference<FileResourceStore>> stores = directory.stores.get( name );
+        
+        if( stores == null )
+        {
+            stores = new ArrayList<WeakReference<FileResourceStore>>( 1 );
+            directory.stores.put( name, stores );
+        }
+        
+        stores.add( new StoreReference( store, directory, name, this.queue ) );
+        
+        return true;
+    }
+    
+    /**
+     * Stops watching the file of a store.
+     *
+     * @param store the store
+     * @param file the absolute path of the file
+     */
+    
+    synchronized void unregister( final FileResourceStore store, final Path file )
+    {
+        final Path parent = file.getParent();
+        final Directory directory = ( parent == null ? null : this.directories.get( parent ) );
+        
+        if( directory != null )
+        {
+            final List<WeakReference<FileResourceStore>> stores = directory.stores.get( file.getFileName() );
+            
+            if( stores != null )
+            {
+                for( Iterator<WeakReference<FileResourceStore>> itr = stores.iterator(); itr.hasNext(); )
+                {
+                    if( itr.next().get() == store )
+                    {
+                        itr.remove();
+                    }
+                }
+            }
+            
+            remove( directory, file.getFileName() );
+        }
+        
+        purge();
+    }
+    
+    /**
+     * Removes the stores that have been reclaimed by the garbage collector.
+     */
+    
+    private void purge()
+    {
+        for( Reference<? extends FileResourceStore> ref = this.queue.poll(); ref != null; ref = this.queue.poll() )
+        {
+            final StoreReference sref = (StoreReference) ref;
+            final List<WeakReference<FileResourceStore>> stores = sref.directory.stores.get( sref.name );
+            
+            if( stores != null )
+            {
+                stores.remove( sref );
+            }
+            
+            remove( sref.directory, sref.name );
+        }
+    }
+    
+    /**
+     * Stops tracking a file that no longer has stores and stops watching its directory if no other files in the
+     * directory have stores.
+     */
+    
+    private void remove( final Directory directory, final Path name )
+    {
+        final List<WeakReference<FileResourceStore>> stores = directory.stores.get( name );
+        
+        if( stores != null && stores.isEmpty() )
+        {
+            directory.stores.remove( name );
+        }
+        
+        if( directory.stores.isEmpty() && this.directories.get( directory.path ) == directory )
+        {
+            directory.key.cancel();
+            
+            this.directories.remove( directory.path );
+            this.keys.remove( directory.key );
+        }
+    }
+    
+    private void process()
+    {
+        while( true )
+        {
+            final WatchKey key;
+            
+            try
+            {
+                key = this.service.poll( PURGE_INTERVAL, TimeUnit.SECONDS );
+            }
+            catch( final InterruptedException | ClosedWatchServiceException e )
+            {
+                return;
+            }
+            
+            if( key == null )
+            {
+                synchronized( this )
+                {
+                    purge();
+                }
+                
+                continue;
+            }
+            
+            final List<WatchEvent<?>> events = key.pollEvents();
+            final Set<FileResourceStore> changed = new LinkedHashSet<FileResourceStore>();
+            
+            synchronized( this )
+            {
+                final Directory directory = this.keys.get( key );
+                
+                if( directory != null )
+                {
+                    for( final WatchEvent<?> event : events )
+                    {
+                        if( event.kind() == OVERFLOW )
+                        {
+                            for( final List<WeakReference<FileResourceStore>> stores : directory.stores.values() )
+                            {
+                                collect( stores, changed );
+                            }
+                        }
+                        else
+                        {
+                            final List<WeakReference<FileResourceStore>> stores = directory.stores.get( event.context() );
+                            
+                            if( stores != null )
+                            {
+                                collect( stores, changed );
+                            }
+                        }
+                    }
+                    
+                    for( Iterator<List<WeakReference<FileResourceStore>>> itr = directory.stores.values().iterator(); itr.hasNext(); )
+                    {
+                        final List<WeakReference<FileResourceStore>> stores = itr.next();
+                        
+                        for( Iterator<WeakReference<FileResourceStore>> itr2 = stores.iterator(); itr2.hasNext(); )
+                        {
+                            if( itr2.next().get() == null )
+                            {
+                                itr2.remove();
+                            }
+                        }
+                        
+                        if( stores.isEmpty() )
+                        {
+                            itr.remove();
+                        }
+                    }
+                    
+                    if( ! key.reset() || directory.stores.isEmpty() )
+                    {
+                        key.cancel();
+                        
+                        this.keys.remove( key );
+                        
+                        if( this.directories.get( directory.path ) == directory )
+                        {
+                            this.directories.remove( directory.path );
+                        }
+                        
+                        // Stores in a directory that can no longer be watched must check their files on every request.
+                        
+                        for( final List<WeakReference<FileResourceStore>> stores : directory.stores.values() )
+                        {
+                            for( final WeakReference<FileResourceStore> ref : stores )
+                            {
+                                final FileResourceStore store = ref.get();
+                                
+                                if( store != null )
+                                {
+                                    store.unwatched();
+                                }
+                            }
+                        }
+                    }
+                }
+                else
+                {
+                    key.cancel();
+                }
+            }
+            
+            // The stores are notified without holding the lock, since a store may reload or register a store
+            // in response.
+            
+            for( final FileResourceStore store : changed )
+            {
+                try
+                {
+                    store.changed();
+                }
+                catch( final Exception e )
+                {
+                    Sapphire.service( LoggingService.class ).log( e );
+                }
+            }
+        }
+    }
+    
+    private static void collect( final List<WeakReference<FileResourceStore>> stores, final Set<FileResourceStore> result )
+    {
+        for( final WeakReference<FileResourceStore> ref : stores )
+        {
+            final FileResourceStore store = ref.get();
+            
+            if( store != null )
+            {
+                result.add( store );
+            }
+        }
+    }
+    
+    private static final class Directory
+    {
+        private final Path path;
+        private final WatchKey key;
+        private final Map<Path,List<WeakReference<FileResourceStore>>> stores = new HashMap<Path,List<WeakReference<FileResourceStore>>>();
+        
+        public Directory( final Path path, final WatchKey key )
+        {
+            this.path = path;
+            this.key = key;
+        }
+    }
+    
+    private static final class StoreReference extends WeakReference<FileResourceStore>
+    {
+        private final Directory directory;
+        private final Path name;
+        
+        public StoreReference( final FileResourceStore store,
+                               final Directory directory,
+                               final Path name,
+                               final ReferenceQueue<FileResourceStore> queue )
+        {
+            super( store, queue );
+            
+            this.directory = directory;
+            this.name = name;
+        }
+    }
+
+}
@@ -11,9 +11,12 @@
 
 package org.eclipse.sapphire.modeling;
 
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.sapphire.Element;
 import org.eclipse.sapphire.ElementType;
@@ -31,25 +34,92 @@ import org.eclipse.sapphire.Resource;
  * <p>The cache is managed in a memory-sensitive manner. In particular, there is no guarantee that a retrieve
  * call will return a non-null result even if you know that the particular model was stored in the cache. If 
  * memory gets tight and there are no other references to the model in question, the model held in the cache
- * will be garbage collected.</p>
+ * will be garbage collected. Models that are pinned are exempt.</p>
+ * 
+ * <p>The cache can also be bounded by weight. Each model is stored with a weight supplied by the caller, which
+ * should approximate the number of elements in the model. The cache does not estimate the weight itself, since
+ * that would require instantiating every element of the model. A model stored without a weight has the weight
+ * of one, so if no caller supplies weights, the capacity bounds the number of stored models. When the total
+ * weight of the stored models exceeds the capacity, models that are not pinned are evicted according to the
+ * eviction policy until the total weight falls to the capacity. The capacity can be set with the
+ * <code>sapphire.shared.models.cache.capacity</code> system property or with {@link #setCapacity(long)}.
+ * By default, the cache is not bounded.</p>
  * 
  * <p>The cache will never return a model whose resource reports that it is out of date. Models that are not
  * backed by a resource are never considered to be out of date.</p>
  * 
+ * <p>The cache is safe for concurrent use. Retrieving a model, including checking whether it is out of date,
+ * does not block other threads. The models are kept in eviction order as they are stored and used, so that
+ * evicting a model does not require ordering all stored models.</p>
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
 public final class SharedModelsCache
 {
-    private static final Map<Object,SoftReference<Element>> cache = new HashMap<Object,SoftReference<Element>>();
+    public static final String CAPACITY_PROPERTY = "sapphire.shared.models.cache.capacity";
+    
+    private static final Map<Object,Entry> cache = new ConcurrentHashMap<Object,Entry>();
+    private static final ConcurrentSkipListSet<Position> order = new ConcurrentSkipListSet<Position>();
+    private static final ReferenceQueue<Element> collected = new ReferenceQueue<Element>();
+    private static final Object evictionLock = new Object();
+    
+    /**
+     * The number of accesses per stored model after which the use counts of the {@link EvictionPolicy#LFU} policy
+     * are halved, so that models that were used often in the past but are no longer used are eventually evicted.
+     */
+    
+    private static final long AGING_PERIOD = 10;
+    
+    private static final AtomicLong clock = new AtomicLong();
+    private static final AtomicLong weight = new AtomicLong();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+    
+    private static volatile long capacity = initCapacity();
+    private static volatile EvictionPolicy policy = EvictionPolicy.LRU;
+    private static long aged;
+    
+    /**
+     * This class is not meant to be instantiated.
+     */
     
-    public static synchronized Element retrieve( final Object key )
+    private SharedModelsCache() {}
+    
+    private static long initCapacity()
     {
-        final SoftReference<Element> cachedModelRef = cache.get( key );
+        final String property = System.getProperty( CAPACITY_PROPERTY );
         
-        if( cachedModelRef != null )
+        if( property != null )
         {
-            final Element model = cachedModelRef.get();
+            try
+            {
+                final long capacity = Long.parseLong( property.trim() );
+                
+                if( capacity > 0 )
+                {
+                    return capacity;
+                }
+            }
+            catch( final NumberFormatException e )
+            {
+                // Fall through to the default.
+            }
+        }
+        
+        return Long.MAX_VALUE;
+    }
+    
+    public static Element retrieve( final Object key )
+    {
+        purge();
+        
+        final Entry entry = cache.get( key );
+        
+        if( entry != null )
+        {
+            final Element model = entry.get();
             
             if( model != null )
             {
@@ -57,20 +127,514 @@ public final class SharedModelsCache
                 
                 if( resource == null || ! resource.isOutOfDate() )
                 {
+                    entry.access();
+                    hits.incrementAndGet();
+                    
                     return model;
                 }
             }
             
-            cache.remove( key );
+            remove( key, entry );
         }
         
+        misses.incrementAndGet();
+        
         return null;
     }
     
-    public static synchronized void store( final Object key,
-                                           final Element modelElement )
+    /**
+     * Stores a model with the weight of one. Callers that use a weight-bounded cache should supply a weight
+     * through {@link #store(Object, Element, long)} instead.
+     * 
+     * @param key the key
+     * @param modelElement the model
+     * @throws IllegalArgumentException if the key or the model is null
+     */
+    
+    public static void store( final Object key,
+                              final Element modelElement )
+    {
+        store( key, modelElement, 1 );
+    }
+    
+    /**
+     * Stores a model with the specified weight.
+     * 
+     * @param key the key
+     * @param modelElement the model
+     * @param weight the weight of the model, which should approximate the number of elements in the model
+     * @throws IllegalArgumentException if the key or the model is null or the weight is negative
+     */
+    
+    public static void store( final Object key,
+                              final Element modelElement,
+                              final long weight )
+    {
+        if( key == null || modelElement == null || weight < 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        purge();
+        
+        final Entry entry = new Entry( key, modelElement, weight );
+        
+        SharedModelsCache.weight.addAndGet( weight );
+        
+        final Entry previous = cache.put( key, entry );
+        
+        if( previous != null )
+        {
+            SharedModelsCache.weight.addAndGet( -previous.weight );
+            previous.discard();
+        }
+        
+        entry.position( policy );
+        
+        evict( entry );
+    }
+    
+    /**
+     * Pins a stored model, so that it is neither evicted nor garbage collected. A pinned model is still
+     * removed when its resource is out of date.
+     * 
+     * @param key the key
+     * @return true if a model is stored with this key, false otherwise
+     */
+    
+    public static boolean pin( final Object key )
     {
-        cache.put( key, new SoftReference<Element>( modelElement ) );
+        final Entry entry = cache.get( key );
+        
+        return ( entry != null && entry.pin() );
+    }
+    
+    /**
+     * Releases a model pinned by {@link #pin(Object)}.
+     * 
+     * @param key the key
+     */
+    
+    public static void unpin( final Object key )
+    {
+        final Entry entry = cache.get( key );
+        
+        if( entry != null )
+        {
+            entry.unpin();
+            evict( null );
+        }
+    }
+    
+    /**
+     * Removes the model stored with the specified key.
+     * 
+     * @param key the key
+     */
+    
+    public static void remove( final Object key )
+    {
+        final Entry entry = cache.get( key );
+        
+        if( entry != null )
+        {
+            remove( key, entry );
+        }
+    }
+    
+    /**
+     * Removes all models, including the pinned models.
+     */
+    
+    public static void clear()
+    {
+        for( final Map.Entry<Object,Entry> entry : cache.entrySet() )
+        {
+            remove( entry.getKey(), entry.getValue() );
+        }
+        
+        restartAging();
+    }
+    
+    public static long getCapacity()
+    {
+        return capacity;
+    }
+    
+    /**
+     * Sets the maximum total weight of the stored models. Pinned models count toward the total weight, but are
+     * never evicted.
+     * 
+     * @param capacity the capacity or {@link Long#MAX_VALUE} for no bound
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    
+    public static void setCapacity( final long capacity )
+    {
+        if( capacity <= 0 )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        SharedModelsCache.capacity = capacity;
+        
+        evict( null );
+    }
+    
+    public static EvictionPolicy getEvictionPolicy()
+    {
+        return policy;
+    }
+    
+    public static void setEvictionPolicy( final EvictionPolicy policy )
+    {
+        if( policy == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        synchronized( evictionLock )
+        {
+            SharedModelsCache.policy = policy;
+            
+            for( final Entry entry : cache.values() )
+            {
+                entry.position( policy );
+            }
+        }
+        
+        restartAging();
+    }
+    
+    /**
+     * Starts a new aging period, so that the use counts are not halved right away when the cache is cleared or
+     * switched to the {@link EvictionPolicy#LFU} policy after a long time.
+     */
+    
+    private static void restartAging()
+    {
+        synchronized( evictionLock )
+        {
+            aged = clock.get();
+        }
+    }
+    
+    /**
+     * Returns a snapshot of the statistics of the cache.
+     * 
+     * @return a snapshot of the statistics
+     */
+    
+    public static Statistics statistics()
+    {
+        purge();
+        
+        return new Statistics( hits.get(), misses.get(), evictions.get(), cache.size(), weight.get() );
+    }
+    
+    private static boolean remove( final Object key, final Entry entry )
+    {
+        if( cache.remove( key, entry ) )
+        {
+            weight.addAndGet( -entry.weight );
+            entry.discard();
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Removes the entries whose models were garbage collected.
+     */
+    
+    private static void purge()
+    {
+        for( Entry entry = (Entry) collected.poll(); entry != null; entry = (Entry) collected.poll() )
+        {
+            remove( entry.key, entry );
+        }
+    }
+    
+    /**
+     * Evicts models until the total weight falls to the capacity.
+     * 
+     * @param stored the model that was just stored, which is only evicted if evicting all other models that are not
+     *   pinned is not sufficient, or null
+     */
+    
+    private static void evict( final Entry stored )
+    {
+        if( weight.get() <= capacity )
+        {
+            return;
+        }
+        
+        synchronized( evictionLock )
+        {
+            if( weight.get() <= capacity )
+            {
+                return;
+            }
+            
+            final EvictionPolicy policy = SharedModelsCache.policy;
+            
+            if( policy == EvictionPolicy.LFU && clock.get() - aged >= AGING_PERIOD * cache.size() )
+            {
+                for( final Entry entry : cache.values() )
+                {
+                    entry.age();
+                    entry.position( policy );
+                }
+                
+                aged = clock.get();
+            }
+            
+            for( final Position position : order )
+            {
+                if( weight.get() <= capacity )
+                {
+                    break;
+                }
+                
+                final Entry entry = position.entry;
+                
+                if( entry != stored && entry.pinned == null && remove( entry.key, entry ) )
+                {
+                    evictions.incrementAndGet();
+                }
+            }
+            
+            if( weight.get() > capacity && stored != null && stored.pinned == null && remove( stored.key, stored ) )
+            {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * The policy that determines which models are evicted first when the cache exceeds its capacity.
+     */
+    
+    public enum EvictionPolicy
+    {
+        /**
+         * Evicts the least recently used models first.
+         */
+        
+        LRU
+        {
+            @Override
+            long rank( final Entry entry )
+            {
+                return entry.accessed;
+            }
+        },
+        
+        /**
+         * Evicts the least frequently used models first. Models used equally often are evicted in the least
+         * recently used order. Storing a model counts as a use. The use counts are halved periodically, so that
+         * models that are no longer used do not stay in the cache on the strength of past uses.
+         */
+        
+        LFU
+        {
+            @Override
+            long rank( final Entry entry )
+            {
+                return entry.uses.get();
+            }
+        };
+        
+        abstract long rank( Entry entry );
+    }
+    
+    /**
+     * The place of a stored model in the eviction order, captured when the model was last stored, used or aged.
+     * The access time is unique to each model, so no two positions are equal.
+     */
+    
+    private static final class Position implements Comparable<Position>
+    {
+        private final Entry entry;
+        private final long rank;
+        private final long accessed;
+        
+        public Position( final Entry entry, final long rank, final long accessed )
+        {
+            this.entry = entry;
+            this.rank = rank;
+            this.accessed = accessed;
+        }
+        
+        public int compareTo( final Position position )
+        {
+            final int result = Long.compare( this.rank, position.rank );
+            return ( result == 0 ? Long.compare( this.accessed, position.accessed ) : result );
+        }
+    }
+    
+    /**
+     * A snapshot of the statistics of the cache.
+     */
+    
+    public static final class Statistics
+    {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final long weight;
+        
+        private Statistics( final long hits, final long misses, final long evictions, final int size, final long weight )
+        {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.weight = weight;
+        }
+        
+        /**
+         * Returns the number of retrieve calls that returned a model.
+         */
+        
+        public long hits()
+        {
+            return this.hits;
+        }
+        
+        /**
+         * Returns the number of retrieve calls that did not return a model.
+         */
+        
+        public long misses()
+        {
+            return this.misses;
+        }
+        
+        /**
+         * Returns the number of models that were evicted to keep the cache within its capacity.
+         */
+        
+        public long evictions()
+        {
+            return this.evictions;
+        }
+        
+        /**
+         * Returns the number of stored models.
+         */
+        
+        public int size()
+        {
+            return this.size;
+        }
+        
+        /**
+         * Returns the total weight of the stored models.
+         */
+        
+        public long weight()
+        {
+            return this.weight;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "hits=" + this.hits + ", misses=" + this.misses + ", evictions=" + this.evictions + ", size=" + this.size + ", weight=" + this.weight;
+        }
+    }
+    
+    private static final class Entry extends SoftReference<Element>
+    {
+        private final Object key;
+        private final long weight;
+        private final AtomicLong uses = new AtomicLong( 1 );
+        private volatile long accessed;
+        private volatile Element pinned;
+        private Position position;
+        private boolean discarded;
+        
+        public Entry( final Object key, final Element model, final long weight )
+        {
+            super( model, collected );
+            
+            this.key = key;
+            this.weight = weight;
+            this.accessed = clock.incrementAndGet();
+        }
+        
+        public void access()
+        {
+            this.uses.incrementAndGet();
+            this.accessed = clock.incrementAndGet();
+            
+            position( policy );
+        }
+        
+        /**
+         * Moves this entry to its current place in the eviction order.
+         */
+        
+        public synchronized void position( final EvictionPolicy policy )
+        {
+            if( this.discarded )
+            {
+                return;
+            }
+            
+            if( this.position != null )
+            {
+                order.remove( this.position );
+            }
+            
+            this.position = new Position( this, policy.rank( this ), this.accessed );
+            
+            order.add( this.position );
+        }
+        
+        /**
+         * Removes this entry from the eviction order once it is no longer stored.
+         */
+        
+        public synchronized void discard()
+        {
+            this.discarded = true;
+            
+            if( this.position != null )
+            {
+                order.remove( this.position );
+                this.position = null;
+            }
+        }
+        
+        public void age()
+        {
+            long uses = this.uses.get();
+            
+            // Rounding up keeps models that were used more often ahead of models that were used less often.
+            
+            while( ! this.uses.compareAndSet( uses, uses - uses / 2 ) )
+            {
+                uses = this.uses.get();
+            }
+        }
+        
+        public boolean pin()
+        {
+            final Element model = get();
+            
+            this.pinned = model;
+            
+            return ( model != null );
+        }
+        
+        public void unpin()
+        {
+            this.pinned = null;
+        }
     }
     
     public static final class StandardKey
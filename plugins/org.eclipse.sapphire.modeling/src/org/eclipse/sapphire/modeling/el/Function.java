@@ -35,25 +35,34 @@ public abstract class Function
     private boolean originInitialized;
     private List<Class<?>> signature;
     private List<Function> operands = ListFactory.empty();
+    private volatile boolean sealed;
     
     public final void initSignature( final List<Class<?>> signature )
     {
+        checkNotSealed();
+        
         this.signature = signature;
     }
     
     public final void init( final Function... operands )
     {
+        checkNotSealed();
+        
         this.operands = ListFactory.unmodifiable( operands );
     }
     
     public final void init( final List<Function> operands )
     {
+        checkNotSealed();
+        
         this.operands = ListFactory.unmodifiable( operands );
     }
     
     public final void initOrigin( final Object origin,
                                   final boolean applyToOperands )
     {
+        checkNotSealed();
+        
         if( this.originInitialized )
         {
             throw new IllegalStateException();
@@ -75,6 +84,43 @@ public abstract class Function
         return this.origin;
     }
     
+    /**
+     * Seals this function and its operands, after which the function can no longer be initialized. A sealed
+     * function can be safely shared, such as when the same expression is used in many places.
+     */
+    
+    public final void seal()
+    {
+        if( ! this.sealed )
+        {
+            for( Function operand : this.operands )
+            {
+                operand.seal();
+            }
+            
+            this.sealed = true;
+        }
+    }
+    
+    /**
+     * Determines whether this function has been sealed.
+     * 
+     * @return true if this function has been sealed
+     */
+    
+    public final boolean sealed()
+    {
+        return this.sealed;
+    }
+    
+    private void checkNotSealed()
+    {
+        if( this.sealed )
+        {
+            throw new IllegalStateException();
+        }
+    }
+    
     public abstract String name();
     
     public boolean operator()
@@ -111,6 +157,22 @@ public abstract class Function
     
     public abstract FunctionResult evaluate( FunctionContext context );
     
+    /**
+     * Evaluates the function, optionally in compiled mode. In compiled mode, the results of all sub-expressions
+     * share a single set of property dependencies and a single property listener, and only the root result
+     * maintains a listener context. Compiled mode is intended for expressions that are evaluated for many elements,
+     * such as enablement and validation rules.
+     * 
+     * @param context the function context
+     * @param compiled determines whether the function should be evaluated in compiled mode
+     * @return the result of the evaluation
+     */
+    
+    public final FunctionResult evaluate( final FunctionContext context, final boolean compiled )
+    {
+        return FunctionResult.evaluate( this, context, compiled );
+    }
+    
     @Override
     public final String toString()
     {
@@ -19,7 +19,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.sapphire.Disposable;
@@ -30,12 +33,23 @@ import org.eclipse.sapphire.ListenerContext;
 import org.eclipse.sapphire.LocalizableText;
 import org.eclipse.sapphire.MasterConversionService;
 import org.eclipse.sapphire.Property;
+import org.eclipse.sapphire.PropertyEvent;
 import org.eclipse.sapphire.Sapphire;
 import org.eclipse.sapphire.Text;
 import org.eclipse.sapphire.Value;
 import org.eclipse.sapphire.modeling.Status;
 
 /**
+ * The result of evaluating a function in a given context. The result tracks the model and updates its value as
+ * the model changes.
+ * 
+ * <p>A result can be created in compiled mode via {@link Function#evaluate(FunctionContext, boolean)}. In compiled
+ * mode, the results of all sub-expressions share a single set of property dependencies and a single property
+ * listener. Sub-expression results notify their parent directly instead of through a listener context, so only the
+ * root result allocates a listener context and only if a listener is attached to it. When a property changes, only
+ * the sub-expressions that depend on it are re-evaluated, followed by their ancestors for as long as values keep
+ * changing.</p>
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
@@ -58,12 +72,21 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
         LocalizableText.init( FunctionResult.class );
     }
 
+    /**
+     * The compilation that results created on this thread should join or null if results should be created in
+     * the standard mode.
+     */
+    
+    private static final ThreadLocal<Compilation> compilation = new ThreadLocal<Compilation>();
+    
     private final Function function;
     private final FunctionContext context;
+    private final Compilation compiled;
     private final List<FunctionResult> operands;
     private Set<Property> properties;
-    private final ListenerContext listeners;
-    private final Listener listener;
+    private ListenerContext listeners;
+    private Listener listener;
+    private FunctionResult parent;
     private Object value;
     private Status status;
     
@@ -72,27 +95,41 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
     {
         this.function = function;
         this.context = context;
-        this.listeners = new ListenerContext();
+        this.compiled = compilation.get();
         this.operands = Collections.unmodifiableList( initOperands() );
-
-        if( this.operands.isEmpty() )
+        
+        init();
+        refresh( false );
+    }
+    
+    static FunctionResult evaluate( final Function function, final FunctionContext context, final boolean compiled )
+    {
+        final Compilation previous = compilation.get();
+        
+        if( compiled )
         {
-            this.listener = null;
+            compilation.set( previous == null ? new Compilation() : previous );
         }
         else
         {
-            this.listener = new Listener()
-            {
-                @Override
-                public void handle( final Event event )
-                {
-                    refresh();
-                }
-            };
+            compilation.remove();
         }
         
-        init();
-        refresh( false );
+        try
+        {
+            return function.evaluate( context );
+        }
+        finally
+        {
+            if( previous == null )
+            {
+                compilation.remove();
+            }
+            else
+            {
+                compilation.set( previous );
+            }
+        }
     }
     
     protected List<FunctionResult> initOperands()
@@ -186,7 +223,14 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
     
     private void listenToOperand( final FunctionResult operand )
     {
-        operand.attach( this.listener );
+        if( operand.compiled != null && ( operand.parent == null || operand.parent == this ) )
+        {
+            operand.parent = this;
+        }
+        else
+        {
+            operand.attach( listener() );
+        }
         
         Object obj = null;
         
@@ -204,17 +248,62 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
         {
             final Property property = (Property) obj;
             
-            property.attach( this.listener );
-            
             if( this.properties == null )
             {
                 this.properties = new HashSet<Property>( 1 );
             }
             
-            this.properties.add( property );
+            if( this.properties.add( property ) )
+            {
+                if( this.compiled == null )
+                {
+                    property.attach( listener() );
+                }
+                else
+                {
+                    this.compiled.depend( property, this );
+                }
+            }
         }           
     }
     
+    private Listener listener()
+    {
+        if( this.listener == null )
+        {
+            this.listener = new Listener()
+            {
+                @Override
+                public void handle( final Event event )
+                {
+                    refresh();
+                }
+            };
+        }
+        
+        return this.listener;
+    }
+    
+    private void releaseProperties()
+    {
+        if( this.properties != null )
+        {
+            for( Property property : this.properties )
+            {
+                if( this.compiled == null )
+                {
+                    property.detach( this.listener );
+                }
+                else
+                {
+                    this.compiled.release( property, this );
+                }
+            }
+            
+            this.properties.clear();
+        }
+    }
+    
     protected abstract Object evaluate() throws FunctionException;
     
     /**
@@ -257,14 +346,16 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
         Object newValue = null;
         Status newStatus = Status.createOkStatus();
         
-        if( this.properties != null )
+        releaseProperties();
+        
+        // Results created while evaluating, such as by deferred functions, should not join the compilation
+        // unless they are explicitly evaluated in compiled mode.
+        
+        final Compilation compilation = FunctionResult.compilation.get();
+        
+        if( compilation != null )
         {
-            for( Property property : this.properties )
-            {
-                property.detach( this.listener );
-            }
-            
-            this.properties.clear();
+            FunctionResult.compilation.remove();
         }
         
         try
@@ -279,6 +370,13 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
         {
             newStatus = Status.createErrorStatus( e );
         }
+        finally
+        {
+            if( compilation != null )
+            {
+                FunctionResult.compilation.set( compilation );
+            }
+        }
         
         if( newValue instanceof Function )
         {
@@ -292,19 +390,32 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
             
             if( broadcastIfNecessary )
             {
-                this.listeners.broadcast( new Event() );
+                if( this.listeners != null )
+                {
+                    this.listeners.broadcast( new Event() );
+                }
+                
+                if( this.parent != null )
+                {
+                    this.parent.refresh();
+                }
             }
         }
     }
     
     public final boolean attach( final Listener listener )
     {
+        if( this.listeners == null )
+        {
+            this.listeners = new ListenerContext();
+        }
+        
         return this.listeners.attach( listener );
     }
     
     public final boolean detach( final Listener listener )
     {
-        return this.listeners.detach( listener );
+        return ( this.listeners != null && this.listeners.detach( listener ) );
     }
     
     @Override
@@ -315,15 +426,9 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
             operand.dispose();
         }
         
-        if( this.properties != null )
-        {
-            for( Property property : this.properties )
-            {
-                property.detach( this.listener );
-            }
-            
-            this.properties.clear();
-        }
+        releaseProperties();
+        
+        this.parent = null;
     }
     
     @Override
@@ -766,4 +871,106 @@ public abstract class FunctionResult implements Disposable, AutoCloseable
         }
     }
     
+    /**
+     * The state shared by all results that belong to an expression evaluated in compiled mode. Property dependencies
+     * of all results are tracked in one map and a single listener is attached to each property regardless of how
+     * many results depend on it. The dependents of a property are guarded by the root lock of the property, since
+     * property events can be delivered on any thread. An expression can span several models, so the map itself is
+     * additionally guarded by its own monitor, which is never held while calling out.
+     */
+    
+    private static final class Compilation
+    {
+        private final Map<Property,Set<FunctionResult>> dependencies = new IdentityHashMap<Property,Set<FunctionResult>>();
+        
+        private final Listener listener = new Listener()
+        {
+            @Override
+            public void handle( final Event event )
+            {
+                if( event instanceof PropertyEvent )
+                {
+                    final Property property = ( (PropertyEvent) event ).property();
+                    final FunctionResult[] dependents;
+                    
+                    synchronized( property.root() )
+                    {
+                        final Set<FunctionResult> set = dependents( property );
+                        
+                        if( set == null )
+                        {
+                            return;
+                        }
+                        
+                        dependents = set.toArray( new FunctionResult[ set.size() ] );
+                    }
+                    
+                    for( FunctionResult dependent : dependents )
+                    {
+                        final boolean current;
+                        
+                        synchronized( property.root() )
+                        {
+                            final Set<FunctionResult> set = dependents( property );
+                            current = ( set != null && set.contains( dependent ) );
+                        }
+                        
+                        if( current )
+                        {
+                            dependent.refresh();
+                        }
+                    }
+                }
+            }
+        };
+        
+        private Set<FunctionResult> dependents( final Property property )
+        {
+            synchronized( this.dependencies )
+            {
+                return this.dependencies.get( property );
+            }
+        }
+        
+        public void depend( final Property property, final FunctionResult result )
+        {
+            synchronized( property.root() )
+            {
+                Set<FunctionResult> dependents = dependents( property );
+                
+                if( dependents == null )
+                {
+                    dependents = new LinkedHashSet<FunctionResult>( 2 );
+                    
+                    synchronized( this.dependencies )
+                    {
+                        this.dependencies.put( property, dependents );
+                    }
+                    
+                    property.attach( this.listener );
+                }
+                
+                dependents.add( result );
+            }
+        }
+        
+        public void release( final Property property, final FunctionResult result )
+        {
+            synchronized( property.root() )
+            {
+                final Set<FunctionResult> dependents = dependents( property );
+                
+                if( dependents != null && dependents.remove( result ) && dependents.isEmpty() )
+                {
+                    synchronized( this.dependencies )
+                    {
+                        this.dependencies.remove( property );
+                    }
+                    
+                    property.detach( this.listener );
+                }
+            }
+        }
+    }
+    
 }
@@ -12,16 +12,29 @@
 package org.eclipse.sapphire.modeling.el.parser;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.sapphire.LocalizableText;
 import org.eclipse.sapphire.Text;
 import org.eclipse.sapphire.modeling.Status;
 import org.eclipse.sapphire.modeling.el.Function;
 import org.eclipse.sapphire.modeling.el.FunctionException;
+import org.eclipse.sapphire.modeling.el.Literal;
+import org.eclipse.sapphire.modeling.el.PropertyAccessFunction;
 import org.eclipse.sapphire.modeling.el.parser.internal.ExpressionLanguageParserImpl;
 import org.eclipse.sapphire.modeling.el.parser.internal.TokenMgrError;
 
 /**
+ * Parses expression language text into a function tree.
+ * 
+ * <p>Parsed functions are retained in a bounded cache keyed by the expression text, so that the same expression used
+ * in many places is only parsed once. Literals and property access functions are shared among all cached functions.
+ * The functions returned from the cache are sealed to prevent one user from affecting another. Callers that need to
+ * initialize the parsed function, such as to set its origin, should bypass the cache.</p>
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
@@ -35,7 +48,114 @@ public final class ExpressionLanguageParser
         LocalizableText.init( ExpressionLanguageParser.class );
     }
 
+    /**
+     * The maximum number of parsed expressions to retain in the cache.
+     */
+    
+    private static final int CACHE_SIZE = 1000;
+    
+    private static final Object NULL_KEY = new Object();
+    
+    private static final Map<String,Function> cache = new LruMap<String,Function>( CACHE_SIZE );
+    private static final Map<Object,Literal> literals = new LruMap<Object,Literal>( CACHE_SIZE );
+    private static final Map<List<Function>,PropertyAccessFunction> properties = new LruMap<List<Function>,PropertyAccessFunction>( CACHE_SIZE );
+    
+    private static long hits;
+    private static long misses;
+    
+    /**
+     * Parses an expression, using the cache. The returned function is sealed and may be shared with other callers.
+     * 
+     * @param expression the expression to parse
+     * @return the parsed function
+     * @throws FunctionException if the expression could not be parsed
+     */
+    
     public static Function parse( final String expression )
+    {
+        return parse( expression, true );
+    }
+    
+    /**
+     * Parses an expression.
+     * 
+     * @param expression the expression to parse
+     * @param cache determines whether the cache should be used; if true, the returned function is sealed and may be
+     *     shared with other callers, otherwise the returned function is newly created and can be initialized further
+     * @return the parsed function
+     * @throws FunctionException if the expression could not be parsed
+     */
+    
+    public static Function parse( final String expression, final boolean cache )
+    {
+        if( ! cache )
+        {
+            return parseNew( expression );
+        }
+        
+        synchronized( ExpressionLanguageParser.cache )
+        {
+            final Function function = ExpressionLanguageParser.cache.get( expression );
+            
+            if( function != null )
+            {
+                hits++;
+                return function;
+            }
+            
+            misses++;
+        }
+        
+        final Function function = parseNew( expression );
+        
+        synchronized( ExpressionLanguageParser.cache )
+        {
+            final Function existing = ExpressionLanguageParser.cache.get( expression );
+            
+            if( existing != null )
+            {
+                return existing;
+            }
+            
+            final Function interned = intern( function );
+            
+            interned.seal();
+            
+            ExpressionLanguageParser.cache.put( expression, interned );
+            
+            return interned;
+        }
+    }
+    
+    /**
+     * Returns the number of parse requests that were satisfied from the cache.
+     * 
+     * @return the number of cache hits
+     */
+    
+    public static long hits()
+    {
+        synchronized( cache )
+        {
+            return hits;
+        }
+    }
+    
+    /**
+     * Returns the number of parse requests that could not be satisfied from the cache.
+     * 
+     * @return the number of cache misses
+     */
+    
+    public static long misses()
+    {
+        synchronized( cache )
+        {
+            return misses;
+        }
+    }
+    
+    private static Function parseNew( final String expression )
     {
         final ExpressionLanguageParserImpl parser = new ExpressionLanguageParserImpl( new StringReader( expression ) );
         
@@ -53,5 +173,89 @@ public final class ExpressionLanguageParser
         }
     }
     
+    /**
+     * Replaces literals and property access functions in a newly parsed function with equivalent functions that
+     * are already in use by other cached functions. Must be called while holding the cache lock.
+     */
+    
+    private static Function intern( final Function function )
+    {
+        if( function instanceof Literal )
+        {
+            final Object value = ( (Literal) function ).value();
+            final Object key = ( value == null ? NULL_KEY : value );
+            final Literal existing = literals.get( key );
+            
+            if( existing != null )
+            {
+                return existing;
+            }
+            
+            literals.put( key, (Literal) function );
+            
+            return function;
+        }
+        
+        final List<Function> operands = function.operands();
+        
+        if( ! operands.isEmpty() )
+        {
+            final List<Function> interned = new ArrayList<Function>( operands.size() );
+            boolean changed = false;
+            
+            for( final Function operand : operands )
+            {
+                final Function x = intern( operand );
+                
+                interned.add( x );
+                
+                if( x != operand )
+                {
+                    changed = true;
+                }
+            }
+            
+            if( changed )
+            {
+                function.init( interned );
+            }
+        }
+        
+        if( function instanceof PropertyAccessFunction )
+        {
+            final List<Function> key = function.operands();
+            final PropertyAccessFunction existing = properties.get( key );
+            
+            if( existing != null )
+            {
+                return existing;
+            }
+            
+            properties.put( key, (PropertyAccessFunction) function );
+        }
+        
+        return function;
+    }
+    
+    private static final class LruMap<K,V> extends LinkedHashMap<K,V>
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private final int capacity;
+        
+        public LruMap( final int capacity )
+        {
+            super( 16, 0.75f, true );
+            
+            this.capacity = capacity;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<K,V> eldest )
+        {
+            return size() > this.capacity;
+        }
+    }
+    
 }
 
@@ -13,6 +13,9 @@ package org.eclipse.sapphire.modeling.localization;
 
 import static org.eclipse.sapphire.modeling.localization.LocalizationUtil.transformCamelCaseToLabel;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.sapphire.modeling.CapitalizationType;
 import org.eclipse.sapphire.modeling.annotations.Label;
 
@@ -22,6 +25,21 @@ import org.eclipse.sapphire.modeling.annotations.Label;
 
 public abstract class LocalizationService
 {
+    private static final int TRANSFORMS_GENERATION_CAPACITY = 512;
+    
+    private static final int VARIANTS = CapitalizationType.values().length * 2;
+    
+    /**
+     * The transformed variants of recently transformed strings, indexed by capitalization type and mnemonic flag.
+     * A variant is computed when it is first requested. The strings are kept in two generations. When the recent
+     * generation is full, it becomes the older generation and the previous older generation is dropped. A string
+     * found in the older generation moves back to the recent one, so strings in steady use are retained while the
+     * total number of strings stays bounded.
+     */
+    
+    private volatile Map<String,String[]> transforms = new ConcurrentHashMap<String,String[]>();
+    private volatile Map<String,String[]> olderTransforms = new ConcurrentHashMap<String,String[]>();
+    
     public abstract String text( String sourceLangText,
                                  CapitalizationType capitalizationType,
                                  boolean includeMnemonic );
@@ -55,6 +73,16 @@ public abstract class LocalizationService
         return text( sourceLangString, capitalizationType, includeMnemonic );
     }
     
+    /**
+     * Applies capitalization to a string and handles the mnemonic designator. The results for recently transformed
+     * strings are retained, since the same strings are transformed repeatedly as labels are rendered.
+     * 
+     * @param string the string to transform
+     * @param capitalizationType the capitalization to apply
+     * @param includeMnemonic whether the mnemonic designator should be retained
+     * @return the transformed string
+     */
+    
     public String transform( final String string,
                              final CapitalizationType capitalizationType,
                              final boolean includeMnemonic )
@@ -64,6 +92,65 @@ public abstract class LocalizationService
             return null;
         }
         
+        final String[] variants = variants( string );
+        final int index = capitalizationType.ordinal() * 2 + ( includeMnemonic ? 1 : 0 );
+        
+        String result = variants[ index ];
+        
+        if( result == null )
+        {
+            result = transform$( string, capitalizationType, includeMnemonic );
+            
+            // Strings are immutable, so a variant computed concurrently by another thread can be safely replaced.
+            
+            variants[ index ] = result;
+        }
+        
+        return result;
+    }
+    
+    private String[] variants( final String string )
+    {
+        final Map<String,String[]> transforms = this.transforms;
+        
+        String[] variants = transforms.get( string );
+        
+        if( variants == null )
+        {
+            variants = this.olderTransforms.get( string );
+            
+            if( variants == null )
+            {
+                variants = new String[ VARIANTS ];
+            }
+            
+            if( transforms.size() >= TRANSFORMS_GENERATION_CAPACITY )
+            {
+                synchronized( this )
+                {
+                    if( this.transforms == transforms )
+                    {
+                        this.olderTransforms = transforms;
+                        this.transforms = new ConcurrentHashMap<String,String[]>();
+                    }
+                }
+            }
+            
+            final String[] existing = this.transforms.putIfAbsent( string, variants );
+            
+            if( existing != null )
+            {
+                variants = existing;
+            }
+        }
+        
+        return variants;
+    }
+    
+    private static String transform$( final String string,
+                                      final CapitalizationType capitalizationType,
+                                      final boolean includeMnemonic )
+    {
         final StringBuilder result = new StringBuilder( string );
         
         final int mnemonicDesignatorPos = string.indexOf( '&' );
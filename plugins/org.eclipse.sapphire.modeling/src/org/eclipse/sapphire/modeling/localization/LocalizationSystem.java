@@ -12,6 +12,8 @@
 package org.eclipse.sapphire.modeling.localization;
 
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
@@ -19,6 +21,23 @@ import java.util.Locale;
 
 public final class LocalizationSystem
 {
+    private static final ClassValue<ConcurrentMap<Locale,LocalizationService>> SERVICES = new ClassValue<ConcurrentMap<Locale,LocalizationService>>()
+    {
+        @Override
+        protected ConcurrentMap<Locale,LocalizationService> computeValue( final Class<?> cl )
+        {
+            return new ConcurrentHashMap<Locale,LocalizationService>( 2 );
+        }
+    };
+    
+    /**
+     * Returns the localization service for the specified class and the default locale. The service is shared
+     * by all callers for the same class and locale, so that the translations are loaded only once.
+     * 
+     * @param cl the class
+     * @return the localization service
+     */
+    
     public static LocalizationService service( final Class<?> cl )
     {
         final Locale locale = Locale.getDefault();
@@ -29,7 +48,23 @@ public final class LocalizationSystem
         }
         else
         {
-            return new ClassLocalizationService( cl, locale );
+            final ConcurrentMap<Locale,LocalizationService> services = SERVICES.get( cl );
+            
+            LocalizationService service = services.get( locale );
+            
+            if( service == null )
+            {
+                service = new ClassLocalizationService( cl, locale );
+                
+                final LocalizationService existing = services.putIfAbsent( locale, service );
+                
+                if( existing != null )
+                {
+                    service = existing;
+                }
+            }
+            
+            return service;
         }
     }
 
@@ -45,6 +45,7 @@ public abstract class DataService<T> extends Service
     
     private boolean initialized;
     private boolean refreshing;
+    private boolean stale;
     
     @Override
     protected final void init()
@@ -70,7 +71,7 @@ public abstract class DataService<T> extends Service
                 throw new IllegalStateException( dataAccessedPriorToInitMessage.format( getClass().getSimpleName() ) );
             }
             
-            if( this.data == INITIAL_DATA )
+            if( this.data == INITIAL_DATA || this.stale )
             {
                 refresh();
             }
@@ -81,6 +82,23 @@ public abstract class DataService<T> extends Service
     
     protected abstract T compute();
     
+    /**
+     * Marks the data as stale without recomputing it. The data is recomputed when it is next accessed, at which
+     * point the listeners are notified if the data has changed. Useful when the data is expensive to compute and
+     * is likely to be invalidated repeatedly before it is needed.
+     */
+    
+    protected final void invalidate()
+    {
+        synchronized( context().lock() )
+        {
+            if( this.data != INITIAL_DATA )
+            {
+                this.stale = true;
+            }
+        }
+    }
+    
     protected final void refresh()
     {
         boolean broadcast = false;
@@ -93,6 +111,7 @@ public abstract class DataService<T> extends Service
             }
             
             this.refreshing = true;
+            this.stale = false;
             
             try
             {
@@ -12,14 +12,17 @@
 package org.eclipse.sapphire.services;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.sapphire.Disposable;
+import org.eclipse.sapphire.ElementType;
 import org.eclipse.sapphire.EventDeliveryJob;
 import org.eclipse.sapphire.JobQueue;
+import org.eclipse.sapphire.PropertyDef;
 import org.eclipse.sapphire.modeling.internal.SapphireModelingExtensionSystem;
 import org.eclipse.sapphire.modeling.internal.SapphireModelingExtensionSystem.ServiceExtension;
 import org.eclipse.sapphire.modeling.util.DependencySorter;
@@ -47,6 +50,32 @@ public class ServiceContext implements Disposable
     
     private Map<Class<?>,List<? extends Service>> cache;
     
+    /**
+     * Resolution plans shared by child contexts, keyed by child context type and variant. Allocated when the first
+     * child context requests a plan, since most contexts never have children that share plans.
+     */
+    
+    private Map<PlanKey,ServicePlan> plans;
+    
+    /**
+     * The resolution plan used by this context or null if this context does not share its resolution plan.
+     */
+    
+    private ServicePlan plan;
+    
+    /**
+     * Service proxies created from the candidates of the resolution plan.
+     */
+    
+    private Map<ServicePlan.Candidate,ServiceProxy> proxies;
+    
+    /**
+     * Tracks lookups performed while a service condition is being evaluated in order to determine whether
+     * the verdict depends on the instance.
+     */
+    
+    private Recording recording;
+    
     private final JobQueue<EventDeliveryJob> queue;
     
     /**
@@ -87,6 +116,13 @@ public class ServiceContext implements Disposable
     
     public <T> T find( final Class<T> type )
     {
+        final Recording recording = this.recording;
+        
+        if( recording != null && ! PropertyDef.class.isAssignableFrom( type ) && type != ElementType.class )
+        {
+            recording.instance = true;
+        }
+        
         return null;
     }
     
@@ -122,6 +158,14 @@ public class ServiceContext implements Disposable
                 throw new IllegalStateException();
             }
             
+            if( this.recording != null )
+            {
+                // A service condition that consults the services of an instance context is presumed
+                // to depend on the instance.
+                
+                this.recording.instance = true;
+            }
+            
             if( this.cache != null )
             {
                 final List<? extends Service> services = this.cache.get( type );
@@ -132,99 +176,311 @@ public class ServiceContext implements Disposable
                 }
             }
             
-            if( this.services == null )
+            final List<S> services;
+            final Recording recording = this.recording;
+            
+            this.recording = null;
+            
+            try
             {
-                final ListFactory<ServiceProxy> services = ListFactory.start();
-                
-                services.add( local() );
-                
-                for( final ServiceExtension extension : SapphireModelingExtensionSystem.services() )
+                if( this.services == null )
                 {
-                    if( extension.contexts().contains( this.type ) )
+                    this.services = new CopyOnWriteArrayList<ServiceProxy>();
+                    
+                    if( shared() && this.parent != null )
                     {
-                        services.add
-                        (
-                            new ServiceProxy
-                            (
-                                this,
-                                extension.id(),
-                                extension.implementation(),
-                                extension.condition(),
-                                extension.overrides(),
-                                null
-                            )
-                        );
+                        this.plan = this.parent.plan( this );
+                        this.proxies = new IdentityHashMap<ServicePlan.Candidate,ServiceProxy>();
+                    }
+                    else
+                    {
+                        this.services.addAll( candidates() );
                     }
                 }
                 
-                this.services = new CopyOnWriteArrayList<ServiceProxy>( services.result() );
+                services = ( this.plan == null ? resolve( type ) : resolve( type, this.plan ) );
+            }
+            finally
+            {
+                this.recording = recording;
+            }
+            
+            for( final Service service : services )
+            {
+                service.initIfNecessary();
+            }
+            
+            if( this.cache == null )
+            {
+                this.cache = new IdentityHashMap<Class<?>,List<? extends Service>>();
+            }
+            
+            this.cache.put( type, services );
+            
+            return services;
+        }
+    }
+    
+    private List<ServiceProxy> candidates()
+    {
+        final ListFactory<ServiceProxy> services = ListFactory.start();
+        
+        services.add( local() );
+        
+        for( final ServiceExtension extension : SapphireModelingExtensionSystem.services() )
+        {
+            if( extension.contexts().contains( this.type ) )
+            {
+                services.add
+                (
+                    new ServiceProxy
+                    (
+                        this,
+                        extension.id(),
+                        extension.implementation(),
+                        extension.condition(),
+                        extension.overrides(),
+                        null
+                    )
+                );
             }
+        }
+        
+        return services.result();
+    }
+    
+    private ServicePlan plan( final ServiceContext child )
+    {
+        final PlanKey key = new PlanKey( child.type, child.variant() );
+        
+        synchronized( this )
+        {
+            if( this.plans == null )
+            {
+                this.plans = new HashMap<PlanKey,ServicePlan>();
+            }
+            
+            ServicePlan plan = this.plans.get( key );
             
-            final DependencySorter<String,S> sorter = new DependencySorter<String,S>();
-            final ListFactory<ServiceProxy> failed = ListFactory.start();
+            if( plan == null )
+            {
+                plan = new ServicePlan( child.candidates() );
+                this.plans.put( key, plan );
+            }
             
-            for( final ServiceProxy proxy : this.services )
+            return plan;
+        }
+    }
+    
+    private <S extends Service> List<S> resolve( final Class<S> type )
+    {
+        final DependencySorter<String,S> sorter = new DependencySorter<String,S>();
+        final ListFactory<ServiceProxy> failed = ListFactory.start();
+        
+        for( final ServiceProxy proxy : this.services )
+        {
+            if( type.isAssignableFrom( proxy.type() ) )
             {
-                if( type.isAssignableFrom( proxy.type() ) )
+                if( sorter.contains( proxy.id() ) )
+                {
+                    failed.add( proxy );
+                }
+                else
                 {
-                    if( sorter.contains( proxy.id() ) )
+                    final S service = type.cast( proxy.service() );
+                    
+                    if( service == null )
                     {
                         failed.add( proxy );
                     }
                     else
                     {
-                        final S service = type.cast( proxy.service() );
-                        
-                        if( service == null )
-                        {
-                            failed.add( proxy );
-                        }
-                        else
-                        {
-                            sorter.add( service.id(), service );
-                            
-                            for( final String override : service.overrides() )
-                            {
-                                sorter.dependency( override, service.id() );
-                            }
-                        }
+                        add( sorter, service );
                     }
                 }
             }
+        }
+        
+        this.services.removeAll( failed.result() );
+        
+        if( this.parent != null )
+        {
+            for( final S service : this.parent.services( type ) )
+            {
+                if( ! sorter.contains( service.id()  ) )
+                {
+                    add( sorter, service );
+                }
+            }
+        }
+        
+        return sorter.sort();
+    }
+    
+    /**
+     * Resolves services using a shared resolution plan. Conditions are only evaluated if their verdict is not
+     * already known to the plan. If none of the verdicts depend on the instance, the order of services is stored
+     * in the plan and subsequent contexts skip the sort.
+     */
+    
+    private <S extends Service> List<S> resolve( final Class<S> type, final ServicePlan plan )
+    {
+        final List<ServicePlan.Candidate> candidates = plan.candidates( type );
+        final List<String> order = plan.order( type );
+        
+        if( order != null )
+        {
+            final Map<String,S> available = new HashMap<String,S>();
             
-            this.services.removeAll( failed.result() );
-            
-            if( this.parent != null )
+            for( final ServicePlan.Candidate candidate : candidates )
             {
-                for( final S service : this.parent.services( type ) )
+                if( ! available.containsKey( candidate.id ) && plan.verdict( candidate ) == Boolean.TRUE )
                 {
-                    if( ! sorter.contains( service.id()  ) )
+                    final S service = type.cast( proxy( candidate, true ).service() );
+                    
+                    if( service != null )
                     {
-                        sorter.add( service.id(), service );
-                        
-                        for( final String override : service.overrides() )
-                        {
-                            sorter.dependency( override, service.id() );
-                        }
+                        available.put( candidate.id, service );
                     }
                 }
             }
             
-            final List<S> services = sorter.sort();
+            for( final S service : this.parent.services( type ) )
+            {
+                if( ! available.containsKey( service.id() ) )
+                {
+                    available.put( service.id(), service );
+                }
+            }
             
-            for( final Service service : services )
+            final ListFactory<S> services = ListFactory.start();
+            
+            for( final String id : order )
             {
-                service.initIfNecessary();
+                final S service = available.get( id );
+                
+                if( service != null )
+                {
+                    services.add( service );
+                }
             }
             
-            if( this.cache == null )
+            return services.result();
+        }
+        
+        final DependencySorter<String,S> sorter = new DependencySorter<String,S>();
+        boolean instance = false;
+        
+        for( final ServicePlan.Candidate candidate : candidates )
+        {
+            if( sorter.contains( candidate.id ) )
             {
-                this.cache = new IdentityHashMap<Class<?>,List<? extends Service>>();
+                continue;
             }
             
-            this.cache.put( type, services );
+            final Boolean verdict = plan.verdict( candidate );
             
-            return services;
+            if( verdict == Boolean.FALSE )
+            {
+                continue;
+            }
+            
+            final ServiceProxy proxy = proxy( candidate, verdict == Boolean.TRUE );
+            
+            if( verdict == null )
+            {
+                final Recording recording = new Recording();
+                final boolean applicable;
+                
+                this.recording = recording;
+                
+                try
+                {
+                    applicable = proxy.applicable();
+                }
+                finally
+                {
+                    this.recording = null;
+                }
+                
+                if( recording.instance )
+                {
+                    instance = true;
+                }
+                else
+                {
+                    plan.verdict( candidate, applicable );
+                }
+                
+                if( ! applicable )
+                {
+                    continue;
+                }
+            }
+            
+            final S service = type.cast( proxy.service() );
+            
+            if( service != null )
+            {
+                add( sorter, service );
+            }
+        }
+        
+        for( final S service : this.parent.services( type ) )
+        {
+            if( ! sorter.contains( service.id()  ) )
+            {
+                add( sorter, service );
+            }
+        }
+        
+        final List<S> services = sorter.sort();
+        
+        if( ! instance )
+        {
+            final ListFactory<String> ids = ListFactory.start();
+            
+            for( final S service : services )
+            {
+                ids.add( service.id() );
+            }
+            
+            plan.order( type, ids.result() );
+        }
+        
+        return services;
+    }
+    
+    private ServiceProxy proxy( final ServicePlan.Candidate candidate, final boolean applicable )
+    {
+        ServiceProxy proxy = this.proxies.get( candidate );
+        
+        if( proxy == null )
+        {
+            proxy = new ServiceProxy
+            (
+                this,
+                candidate.id,
+                candidate.implementation,
+                ( applicable ? null : candidate.condition ),
+                candidate.overrides,
+                candidate.parameters
+            );
+            
+            this.proxies.put( candidate, proxy );
+            this.services.add( proxy );
+        }
+        
+        return proxy;
+    }
+    
+    private static <S extends Service> void add( final DependencySorter<String,S> sorter, final S service )
+    {
+        sorter.add( service.id(), service );
+        
+        for( final String override : service.overrides() )
+        {
+            sorter.dependency( override, service.id() );
         }
     }
     
@@ -249,17 +505,85 @@ public class ServiceContext implements Disposable
         return Collections.emptyList();
     }
     
+    /**
+     * Determines whether the candidate services and the verdicts of instance-independent service conditions
+     * can be shared with other contexts of the same type that have the same parent. This is the case when the
+     * parent is a metamodel context and the candidate services are derived solely from the metamodel. The
+     * default implementation returns false.
+     * 
+     * @return true if the resolution plan of this context can be shared
+     */
+    
+    protected boolean shared()
+    {
+        return false;
+    }
+    
+    /**
+     * Returns the metamodel object, other than the parent's metamodel, that the verdicts of instance-independent
+     * service conditions may be based on. Contexts that share a resolution plan must also share the variant.
+     * For instance, an inherited property definition is shared by several element types, so the verdicts
+     * of conditions evaluated in the context of the property cannot be shared across element types. The default
+     * implementation returns null.
+     * 
+     * @return the variant of the resolution plan or null
+     */
+    
+    protected Object variant()
+    {
+        return null;
+    }
+    
     @Override
     public final void dispose()
     {
         this.disposed = true;
         
-        for( final ServiceProxy service : this.services )
+        if( this.services != null )
         {
-            service.dispose();
+            for( final ServiceProxy service : this.services )
+            {
+                service.dispose();
+            }
         }
         
         this.services = null;
+        this.proxies = null;
+    }
+    
+    private static final class Recording
+    {
+        private boolean instance;
+    }
+    
+    private static final class PlanKey
+    {
+        private final String type;
+        private final Object variant;
+        
+        public PlanKey( final String type, final Object variant )
+        {
+            this.type = type;
+            this.variant = variant;
+        }
+        
+        @Override
+        public boolean equals( final Object obj )
+        {
+            if( obj instanceof PlanKey )
+            {
+                final PlanKey key = (PlanKey) obj;
+                return this.type.equals( key.type ) && this.variant == key.variant;
+            }
+            
+            return false;
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return this.type.hashCode() ^ System.identityHashCode( this.variant );
+        }
     }
     
 }
@@ -0,0 +1,127 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.services;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.sapphire.util.ListFactory;
+
+/**
+ * The part of service resolution that is shared by all service contexts of the same type created for the
+ * same metamodel. The plan holds the candidate services, the verdicts of service conditions that do not
+ * depend on the instance and the order of services for service types whose resolution does not depend
+ * on the instance at all.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+final class ServicePlan
+{
+    private final List<Candidate> candidates;
+    private final Map<Class<?>,List<Candidate>> candidatesByType = new IdentityHashMap<Class<?>,List<Candidate>>();
+    private final Map<Class<?>,List<String>> orders = new IdentityHashMap<Class<?>,List<String>>();
+    
+    ServicePlan( final List<ServiceProxy> proxies )
+    {
+        final ListFactory<Candidate> candidates = ListFactory.start();
+        
+        for( final ServiceProxy proxy : proxies )
+        {
+            candidates.add( new Candidate( proxy ) );
+        }
+        
+        this.candidates = candidates.result();
+    }
+    
+    /**
+     * Returns the candidates whose implementation is compatible with the specified service type, in the order
+     * in which they should be considered.
+     */
+    
+    synchronized List<Candidate> candidates( final Class<?> type )
+    {
+        List<Candidate> candidates = this.candidatesByType.get( type );
+        
+        if( candidates == null )
+        {
+            final ListFactory<Candidate> factory = ListFactory.start();
+            
+            for( final Candidate candidate : this.candidates )
+            {
+                if( type.isAssignableFrom( candidate.implementation ) )
+                {
+                    factory.add( candidate );
+                }
+            }
+            
+            candidates = factory.result();
+            
+            this.candidatesByType.put( type, candidates );
+        }
+        
+        return candidates;
+    }
+    
+    /**
+     * Returns the ids of services of the specified type in the order of resolution or null if the resolution
+     * has not been performed yet or depends on the instance.
+     */
+    
+    synchronized List<String> order( final Class<?> type )
+    {
+        return this.orders.get( type );
+    }
+    
+    synchronized void order( final Class<?> type, final List<String> order )
+    {
+        this.orders.put( type, order );
+    }
+    
+    /**
+     * Returns the verdict of the candidate's condition if it does not depend on the instance or null if the
+     * verdict is not known.
+     */
+    
+    synchronized Boolean verdict( final Candidate candidate )
+    {
+        return candidate.verdict;
+    }
+    
+    synchronized void verdict( final Candidate candidate, final boolean verdict )
+    {
+        candidate.verdict = verdict;
+    }
+    
+    static final class Candidate
+    {
+        final String id;
+        final Class<? extends Service> implementation;
+        final Class<? extends ServiceCondition> condition;
+        final Set<String> overrides;
+        final Map<String,String> parameters;
+        private Boolean verdict;
+        
+        private Candidate( final ServiceProxy proxy )
+        {
+            this.id = proxy.id();
+            this.implementation = proxy.type();
+            this.condition = proxy.condition();
+            this.overrides = proxy.overrides();
+            this.parameters = proxy.parameters();
+            this.verdict = ( this.condition == null ? Boolean.TRUE : null );
+        }
+    }
+
+}
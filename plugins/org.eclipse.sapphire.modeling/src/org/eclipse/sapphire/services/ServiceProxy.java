@@ -32,6 +32,7 @@ public final class ServiceProxy implements Disposable
     private final Class<? extends ServiceCondition> condition;
     private final Set<String> overrides;
     private final Map<String,String> parameters;
+    private Boolean applicable;
     private Service service;
     
     public ServiceProxy( final ServiceContext context,
@@ -79,9 +80,26 @@ public final class ServiceProxy implements Disposable
         return this.overrides;
     }
     
-    public synchronized Service service()
+    Class<? extends ServiceCondition> condition()
+    {
+        return this.condition;
+    }
+    
+    Map<String,String> parameters()
+    {
+        return this.parameters;
+    }
+    
+    /**
+     * Determines whether the service is applicable in the context by evaluating the service condition. The
+     * condition is evaluated only once.
+     * 
+     * @return true if the service is applicable in the context
+     */
+    
+    synchronized boolean applicable()
     {
-        if( this.service == null )
+        if( this.applicable == null )
         {
             boolean applicable;
             
@@ -104,19 +122,26 @@ public final class ServiceProxy implements Disposable
                 }
             }
             
-            if( applicable )
+            this.applicable = applicable;
+        }
+        
+        return this.applicable;
+    }
+    
+    public synchronized Service service()
+    {
+        if( this.service == null && applicable() )
+        {
+            try
             {
-                try
-                {
-                    final Service instance = this.implementation.newInstance();
-                    instance.init( context, this.id, this.parameters, this.overrides );
-                    
-                    this.service = instance;
-                }
-                catch( Exception e )
-                {
-                    Sapphire.service( LoggingService.class ).log( e );
-                }
+                final Service instance = this.implementation.newInstance();
+                instance.init( context, this.id, this.parameters, this.overrides );
+                
+                this.service = instance;
+            }
+            catch( Exception e )
+            {
+                Sapphire.service( LoggingService.class ).log( e );
             }
         }
         
@@ -11,6 +11,7 @@
 
 package org.eclipse.sapphire.services;
 
+import org.eclipse.sapphire.DeferredValidation;
 import org.eclipse.sapphire.FilteredListener;
 import org.eclipse.sapphire.Property;
 import org.eclipse.sapphire.PropertyContentEvent;
@@ -25,14 +26,24 @@ public abstract class ValidationService extends DataService<Status>
     @Override
     protected final void initDataService()
     {
-        context( Property.class ).attach
+        final Property property = context( Property.class );
+        final boolean deferred = property.root().type().hasAnnotation( DeferredValidation.class );
+        
+        property.attach
         (
             new FilteredListener<PropertyContentEvent>()
             {
                 @Override
                 protected void handleTypedEvent( final PropertyContentEvent event )
                 {
-                    refresh();
+                    if( deferred )
+                    {
+                        invalidate();
+                    }
+                    else
+                    {
+                        refresh();
+                    }
                 }
             }
         );
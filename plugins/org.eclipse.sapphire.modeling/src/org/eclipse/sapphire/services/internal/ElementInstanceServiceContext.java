@@ -29,6 +29,12 @@ public final class ElementInstanceServiceContext extends ElementServiceContext
         this.element = element;
     }
     
+    @Override
+    protected boolean shared()
+    {
+        return true;
+    }
+    
     @Override
     @SuppressWarnings( "unchecked" )
     
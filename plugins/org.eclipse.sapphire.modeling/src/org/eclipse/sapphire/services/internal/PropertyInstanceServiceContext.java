@@ -33,6 +33,18 @@ public final class PropertyInstanceServiceContext extends PropertyServiceContext
         this.property = instance;
     }
     
+    @Override
+    protected boolean shared()
+    {
+        return true;
+    }
+    
+    @Override
+    protected Object variant()
+    {
+        return this.property.element().type();
+    }
+    
     @Override
     public <T> T find( final Class<T> type )
     {
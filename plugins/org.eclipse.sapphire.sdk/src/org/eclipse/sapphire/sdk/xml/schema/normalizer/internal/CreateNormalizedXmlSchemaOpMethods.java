@@ -401,6 +401,8 @@ public final class CreateNormalizedXmlSchemaOpMethods
                     rootDomNode.insertBefore( inlinedDomNode, includeElementDomNode );
                 }
                 
+                root.getResourceStore().notifyDomChanged();
+                
                 includeElement.remove();
                 
                 changed = true;
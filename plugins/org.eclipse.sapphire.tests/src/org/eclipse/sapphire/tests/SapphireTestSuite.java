@@ -16,6 +16,7 @@ import org.eclipse.sapphire.tests.binding.list.LayeredListPropertyBindingTests;
 import org.eclipse.sapphire.tests.collation.CollationTests;
 import org.eclipse.sapphire.tests.concurrency.ConcurrencyTests;
 import org.eclipse.sapphire.tests.conversion.ConversionTestSuite;
+import org.eclipse.sapphire.tests.element.ElementClassLoaderTests;
 import org.eclipse.sapphire.tests.element.ElementTests;
 import org.eclipse.sapphire.tests.index.IndexTests;
 import org.eclipse.sapphire.tests.java.JavaTestSuite;
@@ -52,6 +53,7 @@ import org.junit.runners.Suite.SuiteClasses;
         ConversionTestSuite.class,
         ElementReferenceTests.class,
         ElementTests.class,
+        ElementClassLoaderTests.class,
         IndexTests.class,
         JavaTestSuite.class,
         LayeredListPropertyBindingTests.class,
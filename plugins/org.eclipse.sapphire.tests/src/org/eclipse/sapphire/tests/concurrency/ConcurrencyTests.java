@@ -11,6 +11,7 @@
 
 package org.eclipse.sapphire.tests.concurrency;
 
+import org.eclipse.sapphire.tests.concurrency.reads.ConcurrentReadsTests;
 import org.eclipse.sapphire.tests.concurrency.service.ServiceLookupConcurrencyTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -25,7 +26,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses
 (
     {
-        ServiceLookupConcurrencyTest.class
+        ServiceLookupConcurrencyTest.class,
+        ConcurrentReadsTests.class
     }
 )
 
@@ -0,0 +1,251 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.concurrency.reads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementList;
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests {@link org.eclipse.sapphire.ConcurrentReads}.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class ConcurrentReadsTests extends SapphireTestCase
+{
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis( 10 );
+    private static final int READERS = 4;
+    private static final int WRITES = 1000;
+    
+    @Test
+    
+    public void testStandardReadsWaitForModelLock() throws Exception
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            element.setValue( "x0" );
+            element.getList().insert();
+            
+            final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            final Thread reader = reader( element, failure );
+            
+            synchronized( element.root() )
+            {
+                reader.start();
+                
+                final long deadline = System.currentTimeMillis() + TIMEOUT;
+                
+                while( reader.getState() != Thread.State.BLOCKED && reader.isAlive() && System.currentTimeMillis() < deadline )
+                {
+                    Thread.yield();
+                }
+                
+                assertEquals( Thread.State.BLOCKED, reader.getState() );
+            }
+            
+            reader.join( TIMEOUT );
+            
+            assertFalse( reader.isAlive() );
+            assertNoFailure( failure );
+        }
+    }
+    
+    @Test
+    
+    public void testConcurrentReadsDoNotWaitForModelLock() throws Exception
+    {
+        try( TestElement element = TestConcurrentElement.TYPE.instantiate() )
+        {
+            element.setValue( "x0" );
+            element.getList().insert();
+            
+            // Initialize the content, since only reads of initialized content bypass the model lock.
+            
+            read( element );
+            
+            final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            final Thread reader = reader( element, failure );
+            
+            synchronized( element.root() )
+            {
+                reader.start();
+                reader.join( TIMEOUT );
+                
+                assertFalse( reader.isAlive() );
+            }
+            
+            assertNoFailure( failure );
+        }
+    }
+    
+    @Test
+    
+    public void testStandardReadsAreConsistent() throws Exception
+    {
+        testReadsAreConsistent( TestElement.TYPE );
+    }
+    
+    @Test
+    
+    public void testConcurrentReadsAreConsistent() throws Exception
+    {
+        testReadsAreConsistent( TestConcurrentElement.TYPE );
+    }
+    
+    /**
+     * Runs several readers against a model of the specified type while a writer keeps modifying it and verifies
+     * that the readers never observe inconsistent content.
+     */
+    
+    private static void testReadsAreConsistent( final ElementType type ) throws Exception
+    {
+        try( TestElement element = type.instantiate() )
+        {
+            element.setValue( "x0" );
+            element.getList().insert();
+            
+            final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            
+            final Thread writer = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        final ElementList<Element> list = element.getList();
+                        
+                        for( int i = 1; i <= WRITES && failure.get() == null; i++ )
+                        {
+                            element.setValue( "x" + i );
+                            
+                            if( i % 2 == 0 )
+                            {
+                                list.remove( list.size() - 1 );
+                            }
+                            else
+                            {
+                                list.insert();
+                            }
+                        }
+                    }
+                    catch( final Throwable e )
+                    {
+                        failure.compareAndSet( null, e );
+                    }
+                }
+            };
+            
+            final Thread[] readers = new Thread[ READERS ];
+            
+            for( int i = 0; i < READERS; i++ )
+            {
+                readers[ i ] = new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            while( writer.isAlive() && failure.get() == null )
+                            {
+                                read( element );
+                            }
+                        }
+                        catch( final Throwable e )
+                        {
+                            failure.compareAndSet( null, e );
+                        }
+                    }
+                };
+            }
+            
+            writer.start();
+            
+            for( Thread reader : readers )
+            {
+                reader.start();
+            }
+            
+            writer.join( TIMEOUT );
+            
+            for( Thread reader : readers )
+            {
+                reader.join( TIMEOUT );
+            }
+            
+            assertFalse( writer.isAlive() );
+            assertNoFailure( failure );
+            
+            assertEquals( "x" + WRITES, element.getValue().text() );
+            assertEquals( 1, element.getList().size() );
+        }
+    }
+    
+    private static Thread reader( final TestElement element, final AtomicReference<Throwable> failure )
+    {
+        return new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    read( element );
+                }
+                catch( final Throwable e )
+                {
+                    failure.compareAndSet( null, e );
+                }
+            }
+        };
+    }
+    
+    private static void read( final TestElement element )
+    {
+        final String text = element.getValue().text();
+        
+        assertNotNull( text );
+        assertTrue( text.startsWith( "x" ) );
+        
+        final ElementList<Element> list = element.getList();
+        final int size = list.size();
+        
+        assertTrue( size == 1 || size == 2 );
+        
+        int count = 0;
+        
+        for( Element child : list )
+        {
+            assertNotNull( child );
+            count++;
+        }
+        
+        assertTrue( count == 1 || count == 2 );
+        assertTrue( element.properties().size() == 2 );
+    }
+    
+    private static void assertNoFailure( final AtomicReference<Throwable> failure )
+    {
+        if( failure.get() != null )
+        {
+            throw new AssertionError( failure.get() );
+        }
+    }
+
+}
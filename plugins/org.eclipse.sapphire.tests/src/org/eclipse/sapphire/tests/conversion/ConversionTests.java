@@ -17,7 +17,10 @@ import java.math.BigInteger;
 import java.net.URI;
 import java.net.URL;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -863,4 +866,26 @@ public final class ConversionTests extends SapphireTestCase
         assertNull( service.convert( "ab.c", JavaIdentifier.class ) );
     }
     
+    @Test
+    
+    public void testConvertAll() throws Exception
+    {
+        final MasterConversionService service = Sapphire.service( MasterConversionService.class );
+        
+        final List<Integer> integers = service.convertAll( Arrays.asList( "1", null, 2, "abc", "-3", Long.valueOf( 4 ) ), Integer.class );
+        
+        assertEquals( 6, integers.size() );
+        assertEquals( Integer.valueOf( 1 ), integers.get( 0 ) );
+        assertNull( integers.get( 1 ) );
+        assertEquals( Integer.valueOf( 2 ), integers.get( 2 ) );
+        assertNull( integers.get( 3 ) );
+        assertEquals( Integer.valueOf( -3 ), integers.get( 4 ) );
+        assertNull( integers.get( 5 ) );
+        
+        assertEquals( Integer.valueOf( 5 ), service.convert( "5", Integer.class ) );
+        assertNull( service.convert( new Object(), Integer.class ) );
+        
+        assertEquals( Collections.emptyList(), service.convertAll( Collections.emptyList(), Integer.class ) );
+    }
+    
 }
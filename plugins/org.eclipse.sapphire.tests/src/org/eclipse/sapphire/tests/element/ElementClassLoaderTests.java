@@ -0,0 +1,112 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.element;
+
+import java.util.function.BiFunction;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.Property;
+import org.eclipse.sapphire.Resource;
+import org.eclipse.sapphire.internal.ElementClassLoader;
+import org.eclipse.sapphire.internal.ElementClassLoaders;
+import org.eclipse.sapphire.internal.ElementCompiler;
+import org.eclipse.sapphire.modeling.internal.MemoryResource;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the compilation of element implementation classes and their factories.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class ElementClassLoaderTests extends SapphireTestCase
+{
+    @Test
+    
+    public void ImplementationClass()
+    {
+        final ElementClassLoader loader = new ElementClassLoader( TestElement.class.getClassLoader() );
+        final Class<?> implClass = loader.loadImplementationClass( TestElement.TYPE );
+        
+        assertEquals( TestElement.class.getName() + "$Impl", implClass.getName() );
+        assertSame( loader, implClass.getClassLoader() );
+        assertTrue( TestElement.class.isAssignableFrom( implClass ) );
+        assertSame( implClass, loader.loadImplementationClass( TestElement.TYPE ) );
+    }
+    
+    @Test
+    
+    public void Factory() throws Exception
+    {
+        final ElementClassLoader loader = new ElementClassLoader( TestElement.class.getClassLoader() );
+        final BiFunction<Property,Resource,Element> factory = loader.loadImplementationFactory( TestElement.TYPE );
+        final Class<?> implClass = loader.loadImplementationClass( TestElement.TYPE );
+        
+        assertEquals( implClass.getName() + "$Factory", factory.getClass().getName() );
+        assertSame( loader, factory.getClass().getClassLoader() );
+        
+        // The factory class is compiled once per loader.
+        
+        assertSame( factory.getClass(), loader.loadImplementationFactory( TestElement.TYPE ).getClass() );
+        
+        try( Element element = factory.apply( null, new MemoryResource( TestElement.TYPE ) ) )
+        {
+            assertSame( implClass, element.getClass() );
+            assertSame( TestElement.TYPE, element.type() );
+            
+            element.initialize();
+            
+            final TestElement test = (TestElement) element;
+            
+            test.setValue( "abc" );
+            
+            assertEquals( "abc", test.getValue().text() );
+        }
+    }
+    
+    @Test
+    
+    public void Signature() throws Exception
+    {
+        final ElementClassLoader loader = new ElementClassLoader( TestElement.class.getClassLoader() );
+        final Class<?> implClass = loader.loadImplementationClass( TestElement.TYPE );
+        final String signature = ( new ElementCompiler( TestElement.TYPE ) ).signature();
+        
+        // The implementation class holds the signature that a precompiled class is checked against.
+        
+        assertEquals( signature, implClass.getField( ElementCompiler.SIGNATURE_FIELD ).get( null ) );
+        assertEquals( signature, ( new ElementCompiler( TestElement.TYPE ) ).signature() );
+        
+        // A derived type with an added property has a different signature than its base type.
+        
+        final String childSignature = ( new ElementCompiler( CopyTestElementChild.TYPE ) ).signature();
+        final String childExSignature = ( new ElementCompiler( CopyTestElementChildEx.TYPE ) ).signature();
+        
+        assertFalse( childSignature.equals( childExSignature ) );
+        assertFalse( signature.equals( childSignature ) );
+    }
+    
+    @Test
+    
+    public void Instantiate() throws Exception
+    {
+        // Element types instantiate elements through the factory of the shared loader.
+        
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            assertSame( ElementClassLoaders.loadImplementationClass( TestElement.TYPE ), element.getClass() );
+            assertSame( element.getClass(), ElementClassLoaders.loadImplementationFactory( TestElement.TYPE ).apply( null, new MemoryResource( TestElement.TYPE ) ).getClass() );
+        }
+    }
+
+}
@@ -16,6 +16,7 @@ import java.util.List;
 
 import org.eclipse.sapphire.ElementData;
 import org.eclipse.sapphire.Suspension;
+import org.eclipse.sapphire.modeling.Status;
 import org.eclipse.sapphire.tests.EventLog;
 import org.eclipse.sapphire.tests.SapphireTestCase;
 import org.junit.Test;
@@ -159,6 +160,91 @@ public final class ElementTests extends SapphireTestCase
 
     @Test
     
+    public void AttachWithPath()
+    {
+        final EventLog log = new EventLog();
+        
+        try( TestElement a = TestElement.TYPE.instantiate() )
+        {
+            a.attach( log, "List/Value" );
+            
+            final TestElement ab = a.getList().insert();
+            
+            assertEquals( 1, log.size() );
+            assertPropertyContentEvent( log.event( 0 ), a.getList() );
+            
+            log.clear();
+            
+            ab.setValue( "abc" );
+            
+            assertEquals( 1, log.size() );
+            assertPropertyContentEvent( log.event( 0 ), ab.getValue() );
+            
+            log.clear();
+            
+            a.setValue( "abc" );
+            ab.setTransient( "abc" );
+            ab.getList().insert().setValue( "abc" );
+            
+            assertEquals( 0, log.size() );
+            
+            a.attach( log, "*" );
+            ab.setValue( "def" );
+            
+            assertEquals( 1, log.size() );
+            assertPropertyContentEvent( log.event( 0 ), ab.getValue() );
+            
+            log.clear();
+            
+            a.detach( log, "*" );
+            a.detach( log, "List/Value" );
+            
+            ab.setValue( "ghi" );
+            a.getList().insert().setValue( "ghi" );
+            
+            assertEquals( 0, log.size() );
+        }
+    }
+    
+    @Test
+    
+    public void AttachWithPathToList()
+    {
+        final EventLog log = new EventLog();
+        
+        try( TestElement a = TestElement.TYPE.instantiate() )
+        {
+            a.getList().attach( log, "*" );
+            
+            final TestElement ab = a.getList().insert();
+            final TestElement abb = ab.getElement().content( true );
+            
+            abb.setValue( "abc" );
+            
+            assertEquals( 3, log.size() );
+            assertPropertyContentEvent( log.event( 0 ), a.getList() );
+            assertPropertyContentEvent( log.event( 1 ), ab.getElement() );
+            assertPropertyContentEvent( log.event( 2 ), abb.getValue() );
+            
+            log.clear();
+            
+            a.getList().remove( ab );
+            a.getElement().content( true ).setValue( "abc" );
+            
+            assertEquals( 1, log.size() );
+            assertPropertyContentEvent( log.event( 0 ), a.getList() );
+            
+            log.clear();
+            
+            a.getList().detach( log, "*" );
+            a.getList().insert().setValue( "def" );
+            
+            assertEquals( 0, log.size() );
+        }
+    }
+    
+    @Test
+    
     public void CopyElement() throws Exception
     {
         final CopyTestElementRoot a = CopyTestElementRoot.TYPE.instantiate();
@@ -331,5 +417,61 @@ public final class ElementTests extends SapphireTestCase
         
         assertEquals( b.getTransientProperty().content(), t );
     }
+    
+    @Test
+    
+    public void ValidationRollup() throws Exception
+    {
+        try( ValidationTestElement root = ValidationTestElement.TYPE.instantiate() )
+        {
+            assertValidationError( root, "Value must be specified" );
+            assertSame( root.validation(), root.validation() );
+            
+            root.setValue( "root" );
+            
+            assertValidationOk( root );
+            assertEquals( 0, root.problems( 5 ).size() );
+            
+            final ValidationTestElement a = root.getList().insert();
+            final ValidationTestElement b = root.getList().insert();
+            final ValidationTestElement c = root.getElement().content( true );
+            
+            a.setValue( "a" );
+            a.setNumber( "abc" );
+            b.setValue( "b" );
+            b.setNumber( "def" );
+            c.setValue( "c" );
+            c.setNumber( "ghi" );
+            
+            assertEquals( 3, root.problems( 5 ).size() );
+            assertEquals( 2, root.problems( 2 ).size() );
+            assertEquals( 0, root.problems( 0 ).size() );
+            assertEquals( 1, a.problems( 5 ).size() );
+            assertTrue( a.problems( 5 ).get( 0 ).message().contains( "abc" ) );
+            
+            final Status a1 = a.validation();
+            final Status c1 = c.validation();
+            
+            b.setNumber( 7 );
+            
+            assertSame( a1, a.validation() );
+            assertSame( c1, c.validation() );
+            assertEquals( 2, root.problems( 5 ).size() );
+            
+            c.setValue( null );
+            
+            assertNotSame( c1, c.validation() );
+            assertEquals( 3, root.problems( 5 ).size() );
+            assertEquals( Status.Severity.ERROR, root.problems( 5 ).get( 0 ).severity() );
+            
+            root.getList().remove( a );
+            
+            assertEquals( 2, root.problems( 5 ).size() );
+            
+            root.getElement().clear();
+            
+            assertValidationOk( root );
+        }
+    }
 
 }
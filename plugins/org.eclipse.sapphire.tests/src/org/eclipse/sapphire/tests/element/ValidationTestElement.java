@@ -0,0 +1,68 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.element;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementHandle;
+import org.eclipse.sapphire.ElementList;
+import org.eclipse.sapphire.ElementProperty;
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.ListProperty;
+import org.eclipse.sapphire.Type;
+import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.ValueProperty;
+import org.eclipse.sapphire.modeling.annotations.Required;
+
+/**
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public interface ValidationTestElement extends Element
+{
+    ElementType TYPE = new ElementType( ValidationTestElement.class );
+    
+    // *** Value ***
+    
+    @Required
+    
+    ValueProperty PROP_VALUE = new ValueProperty( TYPE, "Value" );
+    
+    Value<String> getValue();
+    void setValue( String value );
+    
+    // *** Number ***
+    
+    @Type( base = Integer.class )
+    
+    ValueProperty PROP_NUMBER = new ValueProperty( TYPE, "Number" );
+    
+    Value<Integer> getNumber();
+    void setNumber( String value );
+    void setNumber( Integer value );
+    
+    // *** Element ***
+    
+    @Type( base = ValidationTestElement.class )
+    
+    ElementProperty PROP_ELEMENT = new ElementProperty( TYPE, "Element" );
+    
+    ElementHandle<ValidationTestElement> getElement();
+    
+    // *** List ***
+    
+    @Type( base = ValidationTestElement.class )
+    
+    ListProperty PROP_LIST = new ListProperty( TYPE, "List" );
+    
+    ElementList<ValidationTestElement> getList();
+
+}
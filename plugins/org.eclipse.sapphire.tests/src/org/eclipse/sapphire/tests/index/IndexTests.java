@@ -11,17 +11,23 @@
 
 package org.eclipse.sapphire.tests.index;
 
+import java.util.Comparator;
 import java.util.Set;
 
 import org.eclipse.sapphire.ElementList;
 import org.eclipse.sapphire.Index;
+import org.eclipse.sapphire.IndexEvent;
 import org.eclipse.sapphire.ValueProperty;
+import org.eclipse.sapphire.modeling.xml.RootXmlResource;
+import org.eclipse.sapphire.modeling.xml.XmlResource;
+import org.eclipse.sapphire.modeling.xml.XmlResourceStore;
 import org.eclipse.sapphire.tests.EventLog;
 import org.eclipse.sapphire.tests.SapphireTestCase;
 import org.eclipse.sapphire.tests.index.TestElement.ListEntry;
 import org.eclipse.sapphire.tests.index.TestElement.ListEntry.NestedListEntry;
 import org.eclipse.sapphire.util.Comparators;
 import org.junit.Test;
+import org.w3c.dom.Element;
 
 /**
  * Tests the index feature.
@@ -169,6 +175,66 @@ public final class IndexTests extends SapphireTestCase
     
     @Test
     
+    public void testIndexCustomComparator()
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            final ElementList<ListEntry> list = element.getList();
+            
+            for( int i = 0; i < 100; i++ )
+            {
+                list.insert().setStringValue( String.valueOf( i ) );
+            }
+            
+            final Comparator<String> comparator = new Comparator<String>()
+            {
+                @Override
+                public int compare( final String x, final String y )
+                {
+                    return x.length() - y.length();
+                }
+            };
+            
+            final Index<ListEntry> index = list.index( ListEntry.PROP_STRING_VALUE, comparator );
+            
+            assertEquals( 10, index.elements( "x" ).size() );
+            assertEquals( 90, index.elements( "xy" ).size() );
+            assertEquals( 0, index.elements( "xyz" ).size() );
+            
+            list.insert().setStringValue( "abc" );
+            
+            assertEquals( 1, index.elements( "xyz" ).size() );
+        }
+    }
+    
+    @Test
+    
+    public void testIndexElementsSnapshot()
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            final ElementList<ListEntry> list = element.getList();
+            
+            list.insert().setStringValue( "a" );
+            list.insert().setStringValue( "A" );
+            list.insert().setStringValue( "b" );
+            
+            final Index<ListEntry> index = list.index( ListEntry.PROP_STRING_VALUE, Comparators.createIgnoreCaseComparator() );
+            final Set<ListEntry> elements = index.elements( "a" );
+            
+            assertEquals( 2, elements.size() );
+            assertSame( elements, index.elements( "A" ) );
+            
+            list.insert().setStringValue( "a" );
+            
+            assertEquals( 2, elements.size() );
+            assertEquals( 3, index.elements( "a" ).size() );
+            assertNotSame( elements, index.elements( "a" ) );
+        }
+    }
+    
+    @Test
+    
     public void testIndexEvents()
     {
         try( TestElement element = TestElement.TYPE.instantiate() )
@@ -233,6 +299,124 @@ public final class IndexTests extends SapphireTestCase
         }
     }
     
+    @Test
+    
+    public void testIndexKeyEvents()
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            final ElementList<ListEntry> list = element.getList();
+            
+            for( int i = 0; i < 100; i++ )
+            {
+                list.insert().setStringValue( "abc" + String.valueOf( i ) );
+            }
+            
+            final Index<ListEntry> index = list.index( ListEntry.PROP_STRING_VALUE, Comparators.createIgnoreCaseComparator() );
+            final EventLog log = new EventLog();
+            
+            index.attach( log, "ABC1" );
+            
+            // Initialize the index by accessing it.
+            
+            index.element( "abc1" );
+            
+            assertEquals( 0, log.size() );
+            
+            // Change a value with a different key.
+            
+            list.get( 10 ).setStringValue( "xyz" );
+            
+            assertEquals( 0, log.size() );
+            
+            // Add an element with the key.
+            
+            final ListEntry entry = list.insert();
+            
+            assertEquals( 0, log.size() );
+            
+            entry.setStringValue( "Abc1" );
+            
+            assertEquals( 1, log.size() );
+            
+            IndexEvent event = (IndexEvent) log.event( 0 );
+            
+            assertSame( index, event.index() );
+            assertEquals( 2, event.keys().size() );
+            assertTrue( event.keys().contains( null ) );
+            assertTrue( event.keys().contains( "Abc1" ) );
+            
+            log.clear();
+            
+            // Change the letter case of the key, which is not significant to the index.
+            
+            entry.setStringValue( "ABC1" );
+            
+            assertEquals( 0, log.size() );
+            
+            // Remove the element with the key.
+            
+            list.remove( entry );
+            
+            assertEquals( 1, log.size() );
+            
+            event = (IndexEvent) log.event( 0 );
+            
+            assertEquals( 1, event.keys().size() );
+            
+            log.clear();
+            
+            // Detach the listener.
+            
+            index.detach( log, "abc1" );
+            list.get( 1 ).setStringValue( "abc" );
+            
+            assertEquals( 0, log.size() );
+        }
+    }
+    
+    @Test
+    
+    public void testIndexKeyEventsWithKeysDifferingInCase() throws Exception
+    {
+        final XmlResourceStore store = new XmlResourceStore();
+        
+        try( TestElement element = TestElement.TYPE.instantiate( new RootXmlResource( store ) ) )
+        {
+            final ElementList<ListEntry> list = element.getList();
+            
+            list.insert().setStringValue( "abc" );
+            list.insert().setStringValue( "Abc" );
+            list.insert().setStringValue( "xyz" );
+            
+            final Index<ListEntry> index = list.index( ListEntry.PROP_STRING_VALUE, Comparators.createIgnoreCaseComparator() );
+            final EventLog log = new EventLog();
+            
+            index.attach( log, "ABC" );
+            index.element( "abc" );
+            
+            // Remove both elements with the key in one change to the list.
+            
+            final Element x = ( (XmlResource) list.get( 0 ).resource() ).getXmlElement().getDomNode();
+            final Element y = ( (XmlResource) list.get( 1 ).resource() ).getXmlElement().getDomNode();
+            
+            x.getParentNode().removeChild( x );
+            y.getParentNode().removeChild( y );
+            store.notifyDomChanged();
+            
+            element.refresh();
+            
+            assertEquals( 1, list.size() );
+            assertEquals( 1, log.size() );
+            
+            final IndexEvent event = (IndexEvent) log.event( 0 );
+            
+            assertEquals( 2, event.keys().size() );
+            assertTrue( event.keys().contains( "abc" ) );
+            assertTrue( event.keys().contains( "Abc" ) );
+        }
+    }
+    
     /**
      * Test index behavior with list elements that have a custom EqualityService.
      */
@@ -0,0 +1,273 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.sapphire.modeling.ByteArrayResourceStore.ContentsWriter;
+import org.eclipse.sapphire.modeling.FileResourceStore;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FileResourceStore}.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class FileResourceStoreTests extends SapphireTestCase
+{
+    @Test
+    
+    public void Contents() throws Exception
+    {
+        final File directory = Files.createTempDirectory( "sapphire" ).toFile();
+        
+        try
+        {
+            final File file = new File( directory, "test.txt" );
+            
+            Files.write( file.toPath(), "abc".getBytes( UTF_8 ) );
+            
+            final FileResourceStore store = new FileResourceStore( file );
+            final ByteBuffer buffer = store.getContentsBuffer();
+            
+            assertEquals( "abc", UTF_8.decode( buffer.duplicate() ).toString() );
+            assertEquals( "abc", new String( store.getContents(), UTF_8 ) );
+            
+            try
+            {
+                buffer.put( (byte) 'x' );
+                fail( "Expected ReadOnlyBufferException." );
+            }
+            catch( final ReadOnlyBufferException e )
+            {
+                // Expected.
+            }
+            
+            store.setContents( "defg".getBytes( UTF_8 ) );
+            
+            assertEquals( "defg", UTF_8.decode( store.getContentsBuffer() ).toString() );
+            assertEquals( "abc", new String( Files.readAllBytes( file.toPath() ), UTF_8 ) );
+            
+            store.save();
+            
+            assertEquals( "defg", new String( Files.readAllBytes( file.toPath() ), UTF_8 ) );
+            assertEquals( "defg", new String( store.getContents(), UTF_8 ) );
+            assertEquals( 1, directory.list().length );
+            
+            store.dispose();
+        }
+        finally
+        {
+            delete( directory );
+        }
+    }
+    
+    @Test
+    
+    public void OutOfDate() throws Exception
+    {
+        final File directory = Files.createTempDirectory( "sapphire" ).toFile();
+        
+        try
+        {
+            final File file = new File( directory, "test.txt" );
+            final Semaphore notifications = new Semaphore( 0 );
+            
+            final FileResourceStore store = new FileResourceStore( file )
+            {
+                @Override
+                protected void handleFileChanged()
+                {
+                    notifications.release();
+                }
+            };
+            
+            assertEquals( 0, store.getContents().length );
+            assertFalse( store.isOutOfDate() );
+            
+            store.setContents( "abc".getBytes( UTF_8 ) );
+            store.save();
+            
+            assertFalse( store.isOutOfDate() );
+            
+            Files.write( file.toPath(), "changed externally".getBytes( UTF_8 ) );
+            
+            // The change is reported asynchronously, possibly after the notifications for the save.
+            
+            while( ! store.isOutOfDate() )
+            {
+                assertTrue( notifications.tryAcquire( 10, TimeUnit.SECONDS ) );
+            }
+            
+            assertTrue( store.isOutOfDate() );
+            
+            store.dispose();
+            
+            final FileResourceStore reloaded = new FileResourceStore( file );
+            
+            assertEquals( "changed externally", new String( reloaded.getContents(), UTF_8 ) );
+            assertFalse( reloaded.isOutOfDate() );
+            
+            reloaded.dispose();
+        }
+        finally
+        {
+            delete( directory );
+        }
+    }
+    
+    @Test
+    
+    public void Permissions() throws Exception
+    {
+        final File directory = Files.createTempDirectory( "sapphire" ).toFile();
+        
+        try
+        {
+            final PosixFileAttributeView reference = Files.getFileAttributeView( Files.createFile( new File( directory, "reference.txt" ).toPath() ), PosixFileAttributeView.class );
+            
+            if( reference == null )
+            {
+                return;
+            }
+            
+            // A file that did not exist is created with the default permissions.
+            
+            final File file = new File( directory, "test.txt" );
+            final FileResourceStore store = new FileResourceStore( file );
+            
+            store.setContents( "abc".getBytes( UTF_8 ) );
+            store.save();
+            
+            final PosixFileAttributeView view = Files.getFileAttributeView( file.toPath(), PosixFileAttributeView.class );
+            
+            assertEquals( reference.readAttributes().permissions(), view.readAttributes().permissions() );
+            
+            store.dispose();
+        }
+        finally
+        {
+            delete( directory );
+        }
+    }
+    
+    @Test
+    
+    public void SymbolicLink() throws Exception
+    {
+        final File directory = Files.createTempDirectory( "sapphire" ).toFile();
+        
+        try
+        {
+            final Path target = Files.write( new File( directory, "target.txt" ).toPath(), "abc".getBytes( UTF_8 ) );
+            final Path link = new File( directory, "link.txt" ).toPath();
+            
+            try
+            {
+                Files.createSymbolicLink( link, target.getFileName() );
+            }
+            catch( final UnsupportedOperationException | IOException e )
+            {
+                return;
+            }
+            
+            // Saving through a symbolic link replaces the file that the link points to and keeps the link.
+            
+            final FileResourceStore store = new FileResourceStore( link.toFile() );
+            
+            store.setContents( "defg".getBytes( UTF_8 ) );
+            store.save();
+            
+            assertTrue( Files.isSymbolicLink( link ) );
+            assertEquals( "defg", new String( Files.readAllBytes( target ), UTF_8 ) );
+            assertEquals( 2, directory.list().length );
+            
+            store.dispose();
+        }
+        finally
+        {
+            delete( directory );
+        }
+    }
+    
+    @Test
+    
+    public void StreamingSave() throws Exception
+    {
+        final File directory = Files.createTempDirectory( "sapphire" ).toFile();
+        
+        try
+        {
+            final File file = new File( directory, "test.txt" );
+            
+            Files.write( file.toPath(), "abc".getBytes( UTF_8 ) );
+            
+            final FileResourceStore store = new FileResourceStore( file );
+            
+            store.save
+            (
+                new ContentsWriter()
+                {
+                    public void write( final OutputStream out ) throws IOException
+                    {
+                        out.write( "streamed".getBytes( UTF_8 ) );
+                    }
+                }
+            );
+            
+            assertEquals( "streamed", new String( Files.readAllBytes( file.toPath() ), UTF_8 ) );
+            assertFalse( store.isOutOfDate() );
+            
+            // The streamed contents are read back from the file when they are requested.
+            
+            assertEquals( "streamed", new String( store.getContents(), UTF_8 ) );
+            
+            store.setContents( "defg".getBytes( UTF_8 ) );
+            store.save();
+            
+            assertEquals( "defg", new String( Files.readAllBytes( file.toPath() ), UTF_8 ) );
+            assertEquals( "defg", UTF_8.decode( store.getContentsBuffer() ).toString() );
+            assertFalse( store.isOutOfDate() );
+            assertEquals( 1, directory.list().length );
+            
+            store.dispose();
+        }
+        finally
+        {
+            delete( directory );
+        }
+    }
+    
+    private static void delete( final File directory )
+    {
+        for( final File file : directory.listFiles() )
+        {
+            file.delete();
+        }
+        
+        directory.delete();
+    }
+
+}
@@ -618,6 +618,96 @@ public final class FindInsertionPositionTests extends SapphireTestCase
         test( XmlContentModel, start, "X", expected );
     }
     
+    @Test
+    
+    public void test_6A() throws Exception
+    {
+        final XmlContentModel XmlContentModel = 
+            
+            sequence
+            (
+                1, 1,
+                element( "A", 0, -1 ),
+                element( "B", 0, -1 ),
+                element( "C", 0, -1 )
+            ).create( null );
+        
+        // Repeated inserts extend the run of existing elements of the same name.
+        
+        final Element root = parse( "<root><A/><B/><C/></root>" );
+        final NodeList nodeList = root.getChildNodes();
+        
+        for( int i = 0; i < 10; i++ )
+        {
+            final int position = XmlContentModel.findInsertionPosition( nodeList, new QName( "B" ) );
+            
+            assertEquals( i + 2, position );
+            
+            root.insertBefore( root.getOwnerDocument().createElementNS( null, "B" ), nodeList.item( position ) );
+        }
+        
+        assertEquals( 13, nodeList.getLength() );
+        assertEquals( "A", nodeList.item( 0 ).getLocalName() );
+        
+        for( int i = 1; i < 12; i++ )
+        {
+            assertEquals( "B", nodeList.item( i ).getLocalName() );
+        }
+        
+        assertEquals( "C", nodeList.item( 12 ).getLocalName() );
+    }
+    
+    @Test
+    
+    public void test_6B() throws Exception
+    {
+        final XmlContentModel XmlContentModel = 
+            
+            sequence
+            (
+                1, 1,
+                element( "A", 1, 1 ),
+                element( "B", 0, 3 ),
+                element( "C", 1, 1 )
+            ).create( null );
+        
+        final Element root = parse( "<root><A/><B/><C/></root>" );
+        final NodeList nodeList = root.getChildNodes();
+        
+        assertEquals( 2, XmlContentModel.findInsertionPosition( nodeList, new QName( "B" ), 2 ) );
+        assertEquals( -1, XmlContentModel.findInsertionPosition( nodeList, new QName( "B" ), 3 ) );
+        assertEquals( -1, XmlContentModel.findInsertionPosition( nodeList, new QName( "A" ), 1 ) );
+    }
+    
+    @Test
+    
+    public void test_6C() throws Exception
+    {
+        final XmlContentModel XmlContentModel = 
+            
+            sequence
+            (
+                1, 1,
+                element( "A", 0, -1 ),
+                choice
+                (
+                    0, -1,
+                    element( "B", 1, 1 ),
+                    element( "C", 1, 1 )
+                ),
+                element( "D", 0, 1 )
+            ).create( null );
+        
+        // Non-conforming content is handled by the heuristic.
+        
+        final String start = "<root><D/><A/><B/></root>";
+        final String expected = "<root><D/><A/><A/><B/></root>";
+        
+        test( XmlContentModel, start, "A", expected );
+        
+        assertEquals( -1, XmlContentModel.findInsertionPosition( parse( start ).getChildNodes(), new QName( "A" ), 1 ) );
+    }
+    
     private static void test( final XmlContentModel XmlContentModel,
                               final String initialContent,
                               final String elementNameToInsert,
@@ -0,0 +1,78 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling;
+
+import static org.eclipse.sapphire.modeling.CapitalizationType.FIRST_WORD_ONLY;
+import static org.eclipse.sapphire.modeling.CapitalizationType.NO_CAPS;
+import static org.eclipse.sapphire.modeling.CapitalizationType.TITLE_STYLE;
+
+import java.util.Locale;
+
+import org.eclipse.sapphire.modeling.localization.LocalizationService;
+import org.eclipse.sapphire.modeling.localization.LocalizationSystem;
+import org.eclipse.sapphire.modeling.localization.SourceLanguageLocalizationService;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LocalizationSystem} and {@link LocalizationService}.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class LocalizationServiceTests extends SapphireTestCase
+{
+    @Test
+    
+    public void ServiceSharedPerClassAndLocale()
+    {
+        final Locale original = Locale.getDefault();
+        
+        try
+        {
+            Locale.setDefault( Locale.GERMAN );
+            
+            final LocalizationService a = LocalizationSystem.service( LocalizationServiceTests.class );
+            final LocalizationService b = LocalizationSystem.service( LocalizationServiceTests.class );
+            
+            assertSame( a, b );
+            assertNotSame( a, LocalizationSystem.service( FindInsertionPositionTests.class ) );
+            
+            Locale.setDefault( Locale.JAPANESE );
+            
+            final LocalizationService c = LocalizationSystem.service( LocalizationServiceTests.class );
+            
+            assertNotSame( a, c );
+            assertSame( c, LocalizationSystem.service( LocalizationServiceTests.class ) );
+        }
+        finally
+        {
+            Locale.setDefault( original );
+        }
+    }
+    
+    @Test
+    
+    public void Transform()
+    {
+        final LocalizationService service = SourceLanguageLocalizationService.INSTANCE;
+        
+        assertEquals( "Save &all files", service.transform( "save &all files", FIRST_WORD_ONLY, true ) );
+        assertEquals( "Save all files", service.transform( "save &all files", FIRST_WORD_ONLY, false ) );
+        assertEquals( "Save &All Files", service.transform( "save &all files", TITLE_STYLE, true ) );
+        assertEquals( "Save All Files", service.transform( "save &all files", TITLE_STYLE, false ) );
+        assertEquals( "save all files", service.transform( "save &all files", NO_CAPS, false ) );
+        assertSame( service.transform( "save &all files", TITLE_STYLE, true ), service.transform( "save &all files", TITLE_STYLE, true ) );
+        assertNull( service.transform( null, TITLE_STYLE, false ) );
+    }
+
+}
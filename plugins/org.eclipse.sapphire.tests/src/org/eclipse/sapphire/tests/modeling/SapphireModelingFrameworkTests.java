@@ -12,6 +12,7 @@
 package org.eclipse.sapphire.tests.modeling;
 
 import org.eclipse.sapphire.tests.modeling.el.ExpressionLanguageTests;
+import org.eclipse.sapphire.tests.modeling.events.TestEventQueue;
 import org.eclipse.sapphire.tests.modeling.events.TestPropertyEvents;
 import org.eclipse.sapphire.tests.modeling.misc.ModelingMiscTests;
 import org.eclipse.sapphire.tests.modeling.properties.element.ElementPropertyTests;
@@ -30,10 +31,14 @@ import org.junit.runners.Suite.SuiteClasses;
 (
     {
         FindInsertionPositionTests.class,
+        LocalizationServiceTests.class,
+        FileResourceStoreTests.class,
+        SharedModelsCacheTests.class,
         XmlTests.class,
         TopologicalSorterTests.class,
         ExpressionLanguageTests.class,
         TestPropertyEvents.class,
+        TestEventQueue.class,
         ModelingMiscTests.class,
         ElementPropertyTests.class
     }
@@ -0,0 +1,190 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.modeling.SharedModelsCache;
+import org.eclipse.sapphire.modeling.SharedModelsCache.EvictionPolicy;
+import org.eclipse.sapphire.modeling.SharedModelsCache.Statistics;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.eclipse.sapphire.tests.modeling.events.TestElement;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SharedModelsCache}.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class SharedModelsCacheTests extends SapphireTestCase
+{
+    @After
+    
+    public void reset()
+    {
+        SharedModelsCache.clear();
+        SharedModelsCache.setCapacity( Long.MAX_VALUE );
+        SharedModelsCache.setEvictionPolicy( EvictionPolicy.LRU );
+    }
+    
+    @Test
+    
+    public void Statistics()
+    {
+        final Statistics before = SharedModelsCache.statistics();
+        
+        try( TestElement a = TestElement.TYPE.instantiate() )
+        {
+            assertNull( SharedModelsCache.retrieve( "a" ) );
+            
+            SharedModelsCache.store( "a", a, 5 );
+            
+            assertSame( a, SharedModelsCache.retrieve( "a" ) );
+            assertSame( a, SharedModelsCache.retrieve( "a" ) );
+            
+            final Statistics after = SharedModelsCache.statistics();
+            
+            assertEquals( 2, after.hits() - before.hits() );
+            assertEquals( 1, after.misses() - before.misses() );
+            assertEquals( 1, after.size() );
+            assertEquals( 5, after.weight() );
+            
+            SharedModelsCache.remove( "a" );
+            
+            assertNull( SharedModelsCache.retrieve( "a" ) );
+            assertEquals( 0, SharedModelsCache.statistics().weight() );
+        }
+    }
+    
+    @Test
+    
+    public void EvictionLRU()
+    {
+        SharedModelsCache.setCapacity( 2 );
+        
+        try( TestElement a = TestElement.TYPE.instantiate(); TestElement b = TestElement.TYPE.instantiate(); TestElement c = TestElement.TYPE.instantiate() )
+        {
+            final long evictions = SharedModelsCache.statistics().evictions();
+            
+            SharedModelsCache.store( "a", a );
+            SharedModelsCache.store( "b", b );
+            SharedModelsCache.retrieve( "a" );
+            SharedModelsCache.store( "c", c );
+            
+            assertSame( a, SharedModelsCache.retrieve( "a" ) );
+            assertNull( SharedModelsCache.retrieve( "b" ) );
+            assertSame( c, SharedModelsCache.retrieve( "c" ) );
+            assertEquals( 1, SharedModelsCache.statistics().evictions() - evictions );
+        }
+    }
+    
+    @Test
+    
+    public void EvictionLFU()
+    {
+        SharedModelsCache.setCapacity( 2 );
+        SharedModelsCache.setEvictionPolicy( EvictionPolicy.LFU );
+        
+        try( TestElement a = TestElement.TYPE.instantiate(); TestElement b = TestElement.TYPE.instantiate(); TestElement c = TestElement.TYPE.instantiate() )
+        {
+            SharedModelsCache.store( "a", a );
+            SharedModelsCache.store( "b", b );
+            SharedModelsCache.retrieve( "a" );
+            SharedModelsCache.retrieve( "a" );
+            SharedModelsCache.retrieve( "b" );
+            SharedModelsCache.store( "c", c );
+            
+            // The model that was just stored is not evicted, even though it has been used the least.
+            
+            assertSame( a, SharedModelsCache.retrieve( "a" ) );
+            assertNull( SharedModelsCache.retrieve( "b" ) );
+            assertSame( c, SharedModelsCache.retrieve( "c" ) );
+        }
+    }
+    
+    @Test
+    
+    public void EvictionLFUAging()
+    {
+        SharedModelsCache.setCapacity( 2 );
+        SharedModelsCache.setEvictionPolicy( EvictionPolicy.LFU );
+        
+        try( TestElement a = TestElement.TYPE.instantiate() )
+        {
+            SharedModelsCache.store( "a", a );
+            
+            for( int i = 0; i < 100; i++ )
+            {
+                SharedModelsCache.retrieve( "a" );
+            }
+            
+            // A model that is no longer used is eventually evicted in favor of the models that are stored later.
+            
+            for( int i = 0; i < 200; i++ )
+            {
+                try( TestElement x = TestElement.TYPE.instantiate() )
+                {
+                    SharedModelsCache.store( "x" + i, x );
+                }
+            }
+            
+            assertNull( SharedModelsCache.retrieve( "a" ) );
+        }
+    }
+    
+    @Test
+    
+    public void EvictionWeight()
+    {
+        SharedModelsCache.setCapacity( 10 );
+        
+        try( TestElement a = TestElement.TYPE.instantiate(); TestElement b = TestElement.TYPE.instantiate(); TestElement c = TestElement.TYPE.instantiate() )
+        {
+            SharedModelsCache.store( "a", a, 4 );
+            SharedModelsCache.store( "b", b, 4 );
+            SharedModelsCache.store( "c", c, 4 );
+            
+            assertNull( SharedModelsCache.retrieve( "a" ) );
+            assertSame( b, SharedModelsCache.retrieve( "b" ) );
+            assertSame( c, SharedModelsCache.retrieve( "c" ) );
+            assertEquals( 8, SharedModelsCache.statistics().weight() );
+        }
+    }
+    
+    @Test
+    
+    public void Pinning()
+    {
+        SharedModelsCache.setCapacity( 1 );
+        
+        try( TestElement a = TestElement.TYPE.instantiate(); TestElement b = TestElement.TYPE.instantiate() )
+        {
+            SharedModelsCache.store( "a", a );
+            
+            assertTrue( SharedModelsCache.pin( "a" ) );
+            assertFalse( SharedModelsCache.pin( "x" ) );
+            
+            SharedModelsCache.store( "b", b );
+            
+            assertSame( a, SharedModelsCache.retrieve( "a" ) );
+            assertNull( SharedModelsCache.retrieve( "b" ) );
+            
+            SharedModelsCache.unpin( "a" );
+            SharedModelsCache.store( "b", b );
+            
+            assertNull( SharedModelsCache.retrieve( "a" ) );
+            assertSame( b, SharedModelsCache.retrieve( "b" ) );
+        }
+    }
+
+}
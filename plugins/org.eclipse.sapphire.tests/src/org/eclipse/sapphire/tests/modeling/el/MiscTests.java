@@ -14,9 +14,14 @@ package org.eclipse.sapphire.tests.modeling.el;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import org.eclipse.sapphire.modeling.el.FailSafeFunction;
+import org.eclipse.sapphire.modeling.el.Function;
 import org.eclipse.sapphire.modeling.el.FunctionContext;
+import org.eclipse.sapphire.modeling.el.FunctionResult;
+import org.eclipse.sapphire.modeling.el.Literal;
 import org.eclipse.sapphire.modeling.el.ModelElementFunctionContext;
 import org.eclipse.sapphire.modeling.el.parser.ExpressionLanguageParser;
+import org.eclipse.sapphire.tests.EventLog;
 import org.eclipse.sapphire.tests.SapphireTestCase;
 import org.junit.Test;
 
@@ -402,6 +407,118 @@ public final class MiscTests extends SapphireTestCase
     {
         properties( "${ StringProp }${ FooBar.StringProp }${ FooBar.FooBar[ 'StringProp' ] }", "ABCDEFGHI" );
     }
+    
+    @Test
+    
+    public void parseCache()
+    {
+        final String expr = "${ IntegerProp + FooBar.IntegerProp * 17 }";
+        
+        final Function a = ExpressionLanguageParser.parse( expr );
+        final long hits = ExpressionLanguageParser.hits();
+        final Function b = ExpressionLanguageParser.parse( expr );
+        
+        assertSame( a, b );
+        assertEquals( hits + 1, ExpressionLanguageParser.hits() );
+        assertTrue( a.sealed() );
+        
+        try
+        {
+            a.initOrigin( this, true );
+            fail( "Expected IllegalStateException" );
+        }
+        catch( final IllegalStateException e )
+        {
+            // Expected.
+        }
+        
+        final Function c = ExpressionLanguageParser.parse( expr, false );
+        
+        assertNotSame( a, c );
+        assertFalse( c.sealed() );
+        assertEquals( a.toString(), c.toString() );
+        
+        c.initOrigin( this, true );
+        
+        assertSame( this, c.origin() );
+    }
+    
+    @Test
+    
+    public void parseCacheSharing()
+    {
+        final Function a = ExpressionLanguageParser.parse( "${ FooBar.IntegerProp + 18 }" );
+        final Function b = ExpressionLanguageParser.parse( "${ FooBar.IntegerProp * 18 }" );
+        
+        assertNotSame( a, b );
+        assertSame( a.operand( 0 ), b.operand( 0 ) );
+        assertSame( a.operand( 1 ), b.operand( 1 ) );
+    }
+    
+    private void compiled( final boolean compiled )
+    {
+        try( TestElement root = TestElement.TYPE.instantiate() )
+        {
+            final TestElement child = root.getFooBar().content( true );
+            
+            root.setIntegerProp( 1 );
+            child.setIntegerProp( 2 );
+            
+            final Function function = FailSafeFunction.create
+            (
+                ExpressionLanguageParser.parse( "${ IntegerProp + FooBar.IntegerProp > 5 ? 'big' : StringProp }" ),
+                Literal.create( String.class )
+            );
+            
+            try( FunctionResult result = function.evaluate( new ModelElementFunctionContext( root ), compiled ) )
+            {
+                final EventLog log = new EventLog();
+                
+                result.attach( log );
+                
+                assertEquals( "", result.value() );
+                
+                root.setStringProp( "small" );
+                
+                assertEquals( "small", result.value() );
+                assertEquals( 1, log.size() );
+                
+                child.setIntegerProp( 7 );
+                
+                assertEquals( "big", result.value() );
+                assertEquals( 2, log.size() );
+                
+                root.setStringProp( "tiny" );
+                
+                assertEquals( "big", result.value() );
+                assertEquals( 2, log.size() );
+                
+                root.setIntegerProp( -10 );
+                
+                assertEquals( "tiny", result.value() );
+                assertEquals( 3, log.size() );
+                
+                root.getFooBar().clear();
+                
+                assertEquals( "tiny", result.value() );
+                assertEquals( 3, log.size() );
+            }
+        }
+    }
+    
+    @Test
+    
+    public void standardMode()
+    {
+        compiled( false );
+    }
+    
+    @Test
+    
+    public void compiledMode()
+    {
+        compiled( true );
+    }
 
 }
 
@@ -0,0 +1,134 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.events;
+
+import org.eclipse.sapphire.Disposable;
+import org.eclipse.sapphire.Event;
+import org.eclipse.sapphire.EventDeliveryJob;
+import org.eclipse.sapphire.Filter;
+import org.eclipse.sapphire.ListenerContext;
+import org.eclipse.sapphire.tests.EventLog;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests queuing of events by {@link ListenerContext}, including pruning of superseded events.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class TestEventQueue extends SapphireTestCase
+{
+    private static final class PlainEvent extends Event
+    {
+    }
+    
+    private static final class SupersedingEvent extends Event
+    {
+        @Override
+        public boolean supersedes( final Event event )
+        {
+            return ( event instanceof SupersedingEvent );
+        }
+    }
+    
+    private static Disposable suspend( final ListenerContext context )
+    {
+        return context.queue().suspend
+        (
+            new Filter<EventDeliveryJob>()
+            {
+                @Override
+                public boolean allows( final EventDeliveryJob job )
+                {
+                    return false;
+                }
+            }
+        );
+    }
+    
+    @Test
+    
+    public void testPlainEventsNotPruned()
+    {
+        final ListenerContext context = new ListenerContext();
+        final EventLog log = new EventLog();
+        
+        context.attach( log );
+        
+        final Disposable suspension = suspend( context );
+        
+        for( int i = 0; i < 1000; i++ )
+        {
+            context.broadcast( new PlainEvent() );
+        }
+        
+        assertEquals( 0, log.size() );
+        
+        suspension.dispose();
+        context.broadcast();
+        
+        assertEquals( 1000, log.size() );
+    }
+    
+    @Test
+    
+    public void testSupersededEventsPruned()
+    {
+        final ListenerContext context = new ListenerContext();
+        final EventLog log = new EventLog();
+        
+        context.attach( log );
+        
+        final Disposable suspension = suspend( context );
+        
+        final Event plain = new PlainEvent();
+        
+        context.broadcast( plain );
+        context.broadcast( new SupersedingEvent() );
+        context.broadcast( new SupersedingEvent() );
+        
+        final Event last = new SupersedingEvent();
+        
+        context.broadcast( last );
+        
+        assertEquals( 0, log.size() );
+        
+        suspension.dispose();
+        context.broadcast();
+        
+        assertEquals( 2, log.size() );
+        assertSame( plain, log.event( 0 ) );
+        assertSame( last, log.event( 1 ) );
+    }
+    
+    @Test
+    
+    public void testDetachPrunesQueuedEvents()
+    {
+        final ListenerContext context = new ListenerContext();
+        final EventLog log = new EventLog();
+        
+        context.attach( log );
+        
+        final Disposable suspension = suspend( context );
+        
+        context.broadcast( new PlainEvent() );
+        context.detach( log );
+        
+        suspension.dispose();
+        context.broadcast();
+        
+        assertEquals( 0, log.size() );
+    }
+
+}
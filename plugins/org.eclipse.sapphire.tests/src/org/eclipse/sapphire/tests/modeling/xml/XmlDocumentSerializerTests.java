@@ -0,0 +1,134 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.xml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.eclipse.sapphire.modeling.ByteArrayResourceStore;
+import org.eclipse.sapphire.modeling.xml.XmlDocumentSerializer;
+import org.eclipse.sapphire.modeling.xml.XmlResourceStore;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+/**
+ * Tests for {@link XmlDocumentSerializer}.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class XmlDocumentSerializerTests extends SapphireTestCase
+{
+    private static final String DOCUMENT =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+        "<?target data?>" +
+        "<root xmlns=\"http://www.eclipse.org/sapphire/tests\" xmlns:x=\"http://www.eclipse.org/sapphire/tests/x\" a=\"1\" x:b=\"é\">" +
+        "<!-- comment --><child>text</child><x:child><![CDATA[<cdata>]]></x:child><child/>" +
+        "</root>";
+    
+    @Test
+    
+    public void RoundTrip() throws Exception
+    {
+        final Document original = new XmlResourceStore( DOCUMENT ).getDomDocument();
+        final Document restored = XmlDocumentSerializer.read( ByteBuffer.wrap( write( original ) ) );
+        
+        assertTrue( original.getDocumentElement().isEqualNode( restored.getDocumentElement() ) );
+        assertEquals( "http://www.eclipse.org/sapphire/tests/x", restored.getDocumentElement().getChildNodes().item( 2 ).getNamespaceURI() );
+    }
+    
+    @Test
+    
+    public void Store() throws Exception
+    {
+        final Document restored = XmlDocumentSerializer.read( ByteBuffer.wrap( write( new XmlResourceStore( DOCUMENT ).getDomDocument() ) ) );
+        final ByteArrayResourceStore base = new ByteArrayResourceStore();
+        final XmlResourceStore store = new XmlResourceStore( base, restored );
+        
+        assertSame( restored, store.getDomDocument() );
+        
+        store.save();
+        
+        final Document saved = new XmlResourceStore( new String( base.getContents(), UTF_8 ) ).getDomDocument();
+        
+        assertTrue( restored.getDocumentElement().isEqualNode( saved.getDocumentElement() ) );
+    }
+    
+    @Test( expected = IOException.class )
+    
+    public void Corrupted() throws Exception
+    {
+        final byte[] bytes = write( new XmlResourceStore( DOCUMENT ).getDomDocument() );
+        
+        XmlDocumentSerializer.read( ByteBuffer.wrap( bytes, 0, bytes.length - 8 ) );
+    }
+    
+    @Test( expected = IOException.class )
+    
+    public void NegativeStringCount() throws Exception
+    {
+        read( 8, -1 );
+    }
+    
+    @Test( expected = IOException.class )
+    
+    public void ExcessiveStringCount() throws Exception
+    {
+        read( 8, Integer.MAX_VALUE );
+    }
+    
+    @Test( expected = IOException.class )
+    
+    public void NegativeStringLength() throws Exception
+    {
+        read( 12, -1 );
+    }
+    
+    @Test( expected = IOException.class )
+    
+    public void ExcessiveStringLength() throws Exception
+    {
+        read( 12, Integer.MAX_VALUE );
+    }
+    
+    /**
+     * Reads the binary form of the test document with an int at the specified offset replaced. The string count
+     * is at offset 8 and the length of the first string is at offset 12.
+     */
+    
+    private static void read( final int offset, final int value ) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap( write( new XmlResourceStore( DOCUMENT ).getDomDocument() ) );
+        
+        buffer.putInt( offset, value );
+        
+        XmlDocumentSerializer.read( buffer );
+    }
+    
+    private static byte[] write( final Document document ) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try( DataOutputStream out = new DataOutputStream( bytes ) )
+        {
+            XmlDocumentSerializer.write( document, out );
+        }
+        
+        return bytes.toByteArray();
+    }
+
+}
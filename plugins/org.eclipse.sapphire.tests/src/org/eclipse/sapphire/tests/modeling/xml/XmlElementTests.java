@@ -0,0 +1,294 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.xml;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.sapphire.modeling.xml.XmlElement;
+import org.eclipse.sapphire.modeling.xml.XmlResourceStore;
+import org.eclipse.sapphire.modeling.xml.XmlUtil;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+/**
+ * Tests for XmlElement.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class XmlElementTests extends SapphireTestCase
+{
+    @Test
+    
+    public void testChildElements() throws Exception
+    {
+        final XmlResourceStore store = new XmlResourceStore( "<root><a/><b/><a/></root>" );
+        final XmlElement root = new XmlElement( store, store.getDomDocument().getDocumentElement() );
+        
+        final List<XmlElement> children = root.getChildElements();
+        
+        assertEquals( 3, children.size() );
+        assertSame( children, root.getChildElements() );
+        
+        final List<XmlElement> a = root.getChildElements( new QName( "a" ) );
+        
+        assertEquals( 2, a.size() );
+        assertSame( children.get( 0 ), a.get( 0 ) );
+        assertSame( children.get( 2 ), a.get( 1 ) );
+        assertSame( a, root.getChildElements( new QName( "a" ) ) );
+        assertEquals( 0, root.getChildElements( new QName( "c" ) ).size() );
+        assertSame( children.get( 1 ), root.getChildElement( new QName( "b" ), false ) );
+    }
+    
+    @Test
+    
+    public void testChildElementsAfterEdit() throws Exception
+    {
+        final XmlResourceStore store = new XmlResourceStore( "<root><a/><b/></root>" );
+        final XmlElement root = new XmlElement( store, store.getDomDocument().getDocumentElement() );
+        
+        final List<XmlElement> before = root.getChildElements();
+        
+        assertEquals( 2, before.size() );
+        
+        root.addChildElement( "c" );
+        
+        final List<XmlElement> after = root.getChildElements();
+        
+        assertEquals( 3, after.size() );
+        assertSame( before.get( 0 ), after.get( 0 ) );
+        assertSame( before.get( 1 ), after.get( 1 ) );
+        assertEquals( "c", after.get( 2 ).getLocalName() );
+        assertEquals( 1, root.getChildElements( new QName( "c" ) ).size() );
+        
+        after.get( 0 ).remove();
+        
+        assertEquals( 2, root.getChildElements().size() );
+        assertEquals( 0, root.getChildElements( new QName( "a" ) ).size() );
+        
+        after.get( 1 ).swap( after.get( 2 ) );
+        
+        assertEquals( "c", root.getChildElements().get( 0 ).getLocalName() );
+        assertEquals( "b", root.getChildElements().get( 1 ).getLocalName() );
+        
+        root.setText( "text" );
+        
+        assertEquals( 0, root.getChildElements().size() );
+    }
+    
+    @Test
+    
+    public void testChildElementsAfterDomChange() throws Exception
+    {
+        final XmlResourceStore store = new XmlResourceStore( "<root><a/><b/></root>" );
+        final Element domRoot = store.getDomDocument().getDocumentElement();
+        final XmlElement root = new XmlElement( store, domRoot );
+        
+        final List<XmlElement> before = root.getChildElements();
+        
+        assertEquals( 2, before.size() );
+        
+        domRoot.appendChild( store.getDomDocument().createElementNS( null, "c" ) );
+        store.notifyDomChanged();
+        
+        final List<XmlElement> after = root.getChildElements();
+        
+        assertEquals( 3, after.size() );
+        assertSame( before.get( 0 ), after.get( 0 ) );
+        assertSame( before.get( 1 ), after.get( 1 ) );
+        assertEquals( "c", after.get( 2 ).getLocalName() );
+        assertEquals( 1, root.getChildElements( new QName( "c" ) ).size() );
+        
+        domRoot.removeChild( before.get( 0 ).getDomNode() );
+        store.notifyDomChanged();
+        
+        assertEquals( 2, root.getChildElements().size() );
+        assertEquals( 0, root.getChildElements( new QName( "a" ) ).size() );
+    }
+    
+    @Test
+    
+    public void testChildElementsAfterUnreportedDomChange() throws Exception
+    {
+        final XmlResourceStore store = new XmlResourceStore( "<root><a/><b/></root>" );
+        final Element domRoot = store.getDomDocument().getDocumentElement();
+        final XmlElement root = new XmlElement( store, domRoot );
+        
+        final List<XmlElement> before = root.getChildElements();
+        
+        domRoot.appendChild( store.getDomDocument().createElementNS( null, "c" ) );
+        
+        assertEquals( 3, root.getChildElements().size() );
+        assertSame( before.get( 0 ), root.getChildElements().get( 0 ) );
+        
+        domRoot.removeChild( before.get( 0 ).getDomNode() );
+        
+        assertEquals( 2, root.getChildElements().size() );
+        assertEquals( 0, root.getChildElements( new QName( "a" ) ).size() );
+    }
+    
+    @Test
+    
+    public void testDomVersionAfterNamespaceConversion() throws Exception
+    {
+        final XmlResourceStore store = new XmlResourceStore( "<root><a/><b/></root>" );
+        
+        long version = store.getDomVersion();
+        
+        XmlUtil.convertToNamespaceForm( store.getDomDocument(), "http://www.eclipse.org/sapphire/tests/xml" );
+        
+        assertTrue( store.getDomVersion() != version );
+        assertEquals( "http://www.eclipse.org/sapphire/tests/xml", store.getDomDocument().getDocumentElement().getNamespaceURI() );
+        
+        version = store.getDomVersion();
+        
+        XmlUtil.convertFromNamespaceForm( store.getDomDocument() );
+        
+        assertTrue( store.getDomVersion() != version );
+        assertNull( store.getDomDocument().getDocumentElement().getNamespaceURI() );
+    }
+    
+    @Test
+    
+    public void testAddChildElements() throws Exception
+    {
+        final XmlElement root = parse( "<root><a/><c/></root>" );
+        
+        final List<XmlElement> added = root.addChildElements( "b", 3 );
+        
+        assertEquals( 3, added.size() );
+        assertEquals( "a b b b c", names( root ) );
+        
+        for( int i = 0; i < 3; i++ )
+        {
+            assertSame( root.getChildElements().get( i + 1 ), added.get( i ) );
+        }
+    }
+    
+    @Test
+    
+    public void testAddChildElementsFallback() throws Exception
+    {
+        // The children do not conform to the content model, so the elements are added one at a time.
+        
+        final XmlElement x = parse( "<root><c/><a/><a/></root>" );
+        final XmlElement y = parse( "<root><c/><a/><a/></root>" );
+        
+        assertEquals( 2, x.addChildElements( "b", 2 ).size() );
+        
+        y.addChildElement( "b" );
+        y.addChildElement( "b" );
+        
+        assertEquals( 5, x.getChildElements().size() );
+        assertEquals( names( y ), names( x ) );
+    }
+    
+    @Test
+    
+    public void testAddChildElementsWithoutContentModel() throws Exception
+    {
+        final XmlResourceStore store = new XmlResourceStore( "<root><a/><c/></root>" );
+        final XmlElement root = new XmlElement( store, store.getDomDocument().getDocumentElement() );
+        
+        root.addChildElements( "b", 2 );
+        
+        assertEquals( "a c b b", names( root ) );
+    }
+    
+    @Test
+    
+    public void testAddChildElementAfterEdit() throws Exception
+    {
+        final XmlElement root = parse( "<root><a/><c/></root>" );
+        
+        root.addChildElement( "b" );
+        root.addChildElement( "b" );
+        
+        assertEquals( "a b b c", names( root ) );
+        
+        root.getChildElements().get( 2 ).remove();
+        root.addChildElement( "b" );
+        
+        assertEquals( "a b b c", names( root ) );
+        
+        root.addChildElement( "a" );
+        root.addChildElement( "b" );
+        
+        assertEquals( "a a b b b c", names( root ) );
+        
+        root.getChildElements().get( 4 ).move( root.getChildElements().get( 0 ) );
+        root.getChildElements().get( 0 ).remove();
+        root.addChildElement( "b" );
+        
+        assertEquals( "a a b b b c", names( root ) );
+        
+        final Element domRoot = root.getDomNode();
+        
+        domRoot.removeChild( root.getChildElements().get( 5 ).getDomNode() );
+        root.getResourceStore().notifyDomChanged();
+        root.addChildElement( "b" );
+        root.addChildElement( "c" );
+        
+        assertEquals( "a a b b b b c", names( root ) );
+    }
+    
+    @Test
+    
+    public void testAddChildElementPerformance() throws Exception
+    {
+        final XmlElement root = parse( "<root><a/><c/></root>" );
+        
+        for( int i = 0; i < 5000; i++ )
+        {
+            root.addChildElement( "b" );
+        }
+        
+        final List<XmlElement> children = root.getChildElements();
+        
+        assertEquals( 5002, children.size() );
+        assertEquals( "a", children.get( 0 ).getLocalName() );
+        assertEquals( 5000, root.getChildElements( new QName( "b" ) ).size() );
+        assertEquals( "c", children.get( 5001 ).getLocalName() );
+    }
+    
+    private XmlElement parse( final String content ) throws Exception
+    {
+        final String doctype = "<!DOCTYPE root SYSTEM \"" + getClass().getResource( "XmlElementTests.dtd" ) + "\">";
+        final XmlResourceStore store = new XmlResourceStore( doctype + content );
+        final XmlElement root = new XmlElement( store, store.getDomDocument().getDocumentElement() );
+        
+        assertNotNull( root.getContentModel() );
+        
+        return root;
+    }
+    
+    private static String names( final XmlElement element )
+    {
+        final StringBuilder names = new StringBuilder();
+        
+        for( XmlElement child : element.getChildElements() )
+        {
+            if( names.length() > 0 )
+            {
+                names.append( ' ' );
+            }
+            
+            names.append( child.getLocalName() );
+        }
+        
+        return names.toString();
+    }
+
+}
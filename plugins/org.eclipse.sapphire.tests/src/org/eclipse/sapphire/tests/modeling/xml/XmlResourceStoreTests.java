@@ -0,0 +1,84 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.xml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.eclipse.sapphire.modeling.ByteArrayResourceStore;
+import org.eclipse.sapphire.modeling.FileResourceStore;
+import org.eclipse.sapphire.modeling.xml.XmlResourceStore;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+/**
+ * Tests for XmlResourceStore.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class XmlResourceStoreTests extends SapphireTestCase
+{
+    private static final String EXPECTED = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<root><a>é</a><b/></root>";
+    
+    @Test
+    
+    public void testSaveToByteArray() throws Exception
+    {
+        final ByteArrayResourceStore base = new ByteArrayResourceStore( "<root><a>é</a></root>" );
+        final XmlResourceStore store = new XmlResourceStore( base );
+        
+        addElement( store, "b" );
+        store.save();
+        
+        assertEquals( EXPECTED, new String( base.getContents(), UTF_8 ) );
+        
+        store.save();
+        
+        assertEquals( EXPECTED, new String( base.getContents(), UTF_8 ) );
+    }
+    
+    @Test
+    
+    public void testSaveToFile() throws Exception
+    {
+        final File file = File.createTempFile( "sapphire", ".xml" );
+        
+        try
+        {
+            Files.write( file.toPath(), "<root><a>é</a></root>".getBytes( UTF_8 ) );
+            
+            final FileResourceStore base = new FileResourceStore( file );
+            final XmlResourceStore store = new XmlResourceStore( base );
+            
+            addElement( store, "b" );
+            store.save();
+            
+            assertEquals( EXPECTED, new String( Files.readAllBytes( file.toPath() ), UTF_8 ) );
+            assertEquals( EXPECTED, new String( base.getContents(), UTF_8 ) );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+    
+    private static void addElement( final XmlResourceStore store, final String name )
+    {
+        final Element root = store.getDomDocument().getDocumentElement();
+        root.appendChild( store.getDomDocument().createElementNS( null, name ) );
+    }
+
+}
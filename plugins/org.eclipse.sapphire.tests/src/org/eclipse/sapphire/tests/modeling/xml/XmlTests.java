@@ -28,6 +28,9 @@ import org.junit.runners.Suite.SuiteClasses;
 (
     {
         XmlBindingTests.class,
+        XmlElementTests.class,
+        XmlResourceStoreTests.class,
+        XmlDocumentSerializerTests.class,
         XmlBindingTestSuite.class,
         XmlDtdTestSuite.class,
         XmlXsdTestSuite.class
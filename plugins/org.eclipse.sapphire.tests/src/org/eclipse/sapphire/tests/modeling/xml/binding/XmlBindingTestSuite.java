@@ -30,6 +30,7 @@ import org.eclipse.sapphire.tests.modeling.xml.binding.t0011f.TestXmlBinding0011
 import org.eclipse.sapphire.tests.modeling.xml.binding.t0011g.TestXmlBinding0011g;
 import org.eclipse.sapphire.tests.modeling.xml.binding.t0011h.TestXmlBinding0011h;
 import org.eclipse.sapphire.tests.modeling.xml.binding.t0012.TestXmlBinding0012;
+import org.eclipse.sapphire.tests.modeling.xml.binding.t0013.TestXmlBinding0013;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
@@ -61,7 +62,8 @@ import org.junit.runners.Suite.SuiteClasses;
         TestXmlBinding0011f.class,
         TestXmlBinding0011g.class,
         TestXmlBinding0011h.class,
-        TestXmlBinding0012.class
+        TestXmlBinding0012.class,
+        TestXmlBinding0013.class
     }
 )
 
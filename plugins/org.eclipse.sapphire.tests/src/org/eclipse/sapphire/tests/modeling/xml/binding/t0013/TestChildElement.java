@@ -0,0 +1,46 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.xml.binding.t0013;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.ValueProperty;
+import org.eclipse.sapphire.modeling.xml.annotations.XmlBinding;
+
+/**
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public interface TestChildElement extends Element
+{
+    ElementType TYPE = new ElementType( TestChildElement.class );
+    
+    // *** Value ***
+    
+    @XmlBinding( path = "@value" )
+    
+    ValueProperty PROP_VALUE = new ValueProperty( TYPE, "Value" );
+    
+    Value<String> getValue();
+    void setValue( String value );
+    
+    // *** Comment ***
+    
+    @XmlBinding( path = "%comment" )
+    
+    ValueProperty PROP_COMMENT = new ValueProperty( TYPE, "Comment" );
+    
+    Value<String> getComment();
+    void setComment( String value );
+    
+}
@@ -0,0 +1,102 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.xml.binding.t0013;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementHandle;
+import org.eclipse.sapphire.ElementList;
+import org.eclipse.sapphire.ElementProperty;
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.ImpliedElementProperty;
+import org.eclipse.sapphire.ListProperty;
+import org.eclipse.sapphire.Type;
+import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.ValueProperty;
+import org.eclipse.sapphire.modeling.xml.annotations.XmlBinding;
+import org.eclipse.sapphire.modeling.xml.annotations.XmlListBinding;
+import org.eclipse.sapphire.modeling.xml.annotations.XmlValueBinding;
+
+/**
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+@XmlBinding( path = "root" )
+
+public interface TestRootElement extends Element
+{
+    ElementType TYPE = new ElementType( TestRootElement.class );
+    
+    // *** Name ***
+    
+    @XmlBinding( path = "@name" )
+    
+    ValueProperty PROP_NAME = new ValueProperty( TYPE, "Name" );
+    
+    Value<String> getName();
+    void setName( String value );
+    
+    // *** Description ***
+    
+    @XmlBinding( path = "description" )
+    
+    ValueProperty PROP_DESCRIPTION = new ValueProperty( TYPE, "Description" );
+    
+    Value<String> getDescription();
+    void setDescription( String value );
+    
+    // *** Nested ***
+    
+    @XmlBinding( path = "nested/value" )
+    
+    ValueProperty PROP_NESTED = new ValueProperty( TYPE, "Nested" );
+    
+    Value<String> getNested();
+    void setNested( String value );
+    
+    // *** Enabled ***
+    
+    @Type( base = Boolean.class )
+    @XmlValueBinding( path = "enabled", mapExistanceToValue = "true;false" )
+    
+    ValueProperty PROP_ENABLED = new ValueProperty( TYPE, "Enabled" );
+    
+    Value<Boolean> getEnabled();
+    void setEnabled( Boolean value );
+    
+    // *** Child ***
+    
+    @Type( base = TestChildElement.class )
+    @XmlBinding( path = "child" )
+    
+    ElementProperty PROP_CHILD = new ElementProperty( TYPE, "Child" );
+    
+    ElementHandle<TestChildElement> getChild();
+    
+    // *** Implied ***
+    
+    @Type( base = TestChildElement.class )
+    @XmlBinding( path = "implied" )
+    
+    ImpliedElementProperty PROP_IMPLIED = new ImpliedElementProperty( TYPE, "Implied" );
+    
+    TestChildElement getImplied();
+    
+    // *** Children ***
+    
+    @Type( base = TestChildElement.class )
+    @XmlListBinding( path = "children", mappings = @XmlListBinding.Mapping( element = "item", type = TestChildElement.class ) )
+    
+    ListProperty PROP_CHILDREN = new ListProperty( TYPE, "Children" );
+    
+    ElementList<TestChildElement> getChildren();
+    
+}
@@ -0,0 +1,160 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.xml.binding.t0013;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+
+import org.eclipse.sapphire.modeling.xml.RootXmlResource;
+import org.eclipse.sapphire.modeling.xml.StreamingXmlResource;
+import org.eclipse.sapphire.modeling.xml.XmlResourceStore;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests reading of XML documents using StreamingXmlResource.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class TestXmlBinding0013 extends SapphireTestCase
+{
+    private static final String CONTENT = 
+        "<root name=\"abc\">\n" +
+        "  <description>Some <![CDATA[description]]></description>\n" +
+        "  <nested><value>123</value></nested>\n" +
+        "  <enabled/>\n" +
+        "  <child value=\"c\"><!-- comment:xyz --></child>\n" +
+        "  <implied value=\"i\"/>\n" +
+        "  <children>\n" +
+        "    <item value=\"1\"/>\n" +
+        "    <other value=\"x\"/>\n" +
+        "    <item value=\"2\"/>\n" +
+        "    <item/>\n" +
+        "  </children>\n" +
+        "</root>";
+    
+    @Test
+    
+    public void testRead() throws Exception
+    {
+        try( TestRootElement element = TestRootElement.TYPE.instantiate( new StreamingXmlResource( stream( CONTENT ) ) ) )
+        {
+            assertEquals( "abc", element.getName().text() );
+            assertEquals( "Some description", element.getDescription().text() );
+            assertEquals( "123", element.getNested().text() );
+            assertEquals( Boolean.TRUE, element.getEnabled().content() );
+            assertEquals( "c", element.getChild().content().getValue().text() );
+            assertEquals( "xyz", element.getChild().content().getComment().text() );
+            assertEquals( "i", element.getImplied().getValue().text() );
+            assertEquals( 3, element.getChildren().size() );
+            assertEquals( "1", element.getChildren().get( 0 ).getValue().text() );
+            assertEquals( "2", element.getChildren().get( 1 ).getValue().text() );
+            assertNull( element.getChildren().get( 2 ).getValue().text() );
+        }
+    }
+    
+    @Test
+    
+    public void testReadMissing() throws Exception
+    {
+        try( TestRootElement element = TestRootElement.TYPE.instantiate( new StreamingXmlResource( stream( "<root/>" ) ) ) )
+        {
+            assertNull( element.getName().text() );
+            assertNull( element.getDescription().text() );
+            assertNull( element.getNested().text() );
+            assertEquals( Boolean.FALSE, element.getEnabled().content() );
+            assertNull( element.getChild().content() );
+            assertNull( element.getImplied().getValue().text() );
+            assertEquals( 0, element.getChildren().size() );
+        }
+    }
+    
+    @Test
+    
+    public void testReadWrongRoot() throws Exception
+    {
+        try( TestRootElement element = TestRootElement.TYPE.instantiate( new StreamingXmlResource( stream( "<other name=\"abc\"/>" ) ) ) )
+        {
+            assertNull( element.getName().text() );
+            assertEquals( 0, element.getChildren().size() );
+        }
+    }
+    
+    @Test
+    
+    public void testReadMalformed() throws Exception
+    {
+        try( TestRootElement element = TestRootElement.TYPE.instantiate( new StreamingXmlResource( stream( "<root name=\"abc\">" ) ) ) )
+        {
+            assertNull( element.getName().text() );
+        }
+    }
+    
+    @Test
+    
+    public void testConsistentWithDom() throws Exception
+    {
+        try( TestRootElement a = TestRootElement.TYPE.instantiate( new StreamingXmlResource( stream( CONTENT ) ) );
+             TestRootElement b = TestRootElement.TYPE.instantiate( new RootXmlResource( new XmlResourceStore( CONTENT ) ) ) )
+        {
+            assertEquals( b.getName().text(), a.getName().text() );
+            assertEquals( b.getDescription().text(), a.getDescription().text() );
+            assertEquals( b.getNested().text(), a.getNested().text() );
+            assertEquals( b.getEnabled().content(), a.getEnabled().content() );
+            assertEquals( b.getChild().content().getValue().text(), a.getChild().content().getValue().text() );
+            assertEquals( b.getChild().content().getComment().text(), a.getChild().content().getComment().text() );
+            assertEquals( b.getImplied().getValue().text(), a.getImplied().getValue().text() );
+            assertEquals( b.getChildren().size(), a.getChildren().size() );
+            
+            for( int i = 0; i < b.getChildren().size(); i++ )
+            {
+                assertEquals( b.getChildren().get( i ).getValue().text(), a.getChildren().get( i ).getValue().text() );
+            }
+        }
+    }
+    
+    @Test
+    
+    public void testWrite() throws Exception
+    {
+        try( TestRootElement element = TestRootElement.TYPE.instantiate( new StreamingXmlResource( stream( CONTENT ) ) ) )
+        {
+            try
+            {
+                element.setName( "xyz" );
+                fail( "Did not catch the expected exception." );
+            }
+            catch( UnsupportedOperationException e )
+            {
+                assertEquals( "Streaming XML resource is read-only.", e.getMessage() );
+            }
+            
+            try
+            {
+                element.getChildren().insert();
+                fail( "Did not catch the expected exception." );
+            }
+            catch( UnsupportedOperationException e )
+            {
+                // Expected.
+            }
+        }
+    }
+    
+    private static ByteArrayInputStream stream( final String content )
+    {
+        return new ByteArrayInputStream( content.getBytes( UTF_8 ) );
+    }
+
+}
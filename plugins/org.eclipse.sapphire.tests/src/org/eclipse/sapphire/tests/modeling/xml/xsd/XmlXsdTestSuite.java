@@ -19,6 +19,8 @@ import org.eclipse.sapphire.tests.modeling.xml.xsd.t0003.TestXmlXsd0003;
 import org.eclipse.sapphire.tests.modeling.xml.xsd.t0004.TestXmlXsd0004;
 import org.eclipse.sapphire.tests.modeling.xml.xsd.t0005.TestXmlXsd0005;
 import org.eclipse.sapphire.tests.modeling.xml.xsd.t0006.TestXmlXsd0006;
+import org.eclipse.sapphire.tests.modeling.xml.xsd.t0007.TestXmlXsd0007;
+import org.eclipse.sapphire.tests.modeling.xml.xsd.t0008.TestXmlXsd0008;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
@@ -38,6 +40,8 @@ import org.junit.runners.Suite.SuiteClasses;
         TestXmlXsd0004.class,
         TestXmlXsd0005.class,
         TestXmlXsd0006.class,
+        TestXmlXsd0007.class,
+        TestXmlXsd0008.class,
         XmlSchemaAllGroupTests.class
     }
 )
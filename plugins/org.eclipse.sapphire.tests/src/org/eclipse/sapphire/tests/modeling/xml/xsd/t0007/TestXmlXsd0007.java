@@ -0,0 +1,113 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.xml.xsd.t0007;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+
+import org.eclipse.sapphire.modeling.xml.dtd.DtdParser;
+import org.eclipse.sapphire.modeling.xml.schema.XmlDocumentSchema;
+import org.eclipse.sapphire.modeling.xml.schema.XmlDocumentSchemaParser;
+import org.eclipse.sapphire.modeling.xml.schema.XmlDocumentSchemaSerializer;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the binary form of compiled XML schemas.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class TestXmlXsd0007 extends SapphireTestCase
+{
+    @Test
+    
+    public void testXmlSchema() throws Exception
+    {
+        test( parse( "0007.xsd" ) );
+    }
+    
+    @Test
+    
+    public void testDtd() throws Exception
+    {
+        test( DtdParser.parse( loadResource( "0007.dtd" ) ) );
+    }
+    
+    @Test
+    
+    public void testCorrupted() throws Exception
+    {
+        final byte[] bytes = write( parse( "0007.xsd" ) );
+        
+        try
+        {
+            XmlDocumentSchemaSerializer.read( ByteBuffer.wrap( bytes, 0, bytes.length / 2 ).slice() );
+            fail( "Expected IOException" );
+        }
+        catch( final IOException e )
+        {
+            // Expected.
+        }
+        
+        bytes[ 0 ]++;
+        
+        try
+        {
+            XmlDocumentSchemaSerializer.read( ByteBuffer.wrap( bytes ) );
+            fail( "Expected IOException" );
+        }
+        catch( final IOException e )
+        {
+            // Expected.
+        }
+    }
+    
+    private static XmlDocumentSchema parse( final String resource )
+    {
+        final XmlDocumentSchemaParser.Resolver resolver = new XmlDocumentSchemaParser.Resolver()
+        {
+            @Override
+            public URL resolve( final String location )
+            {
+                throw new IllegalArgumentException( location );
+            }
+        };
+        
+        return XmlDocumentSchemaParser.parse( TestXmlXsd0007.class.getResource( resource ), resolver );
+    }
+    
+    private static void test( final XmlDocumentSchema schema ) throws Exception
+    {
+        final XmlDocumentSchema restored = XmlDocumentSchemaSerializer.read( ByteBuffer.wrap( write( schema ) ) );
+        
+        assertEquals( schema.getNamespace(), restored.getNamespace() );
+        assertEquals( schema.getSchemaLocations(), restored.getSchemaLocations() );
+        assertEquals( schema.toString(), restored.toString() );
+    }
+    
+    private static byte[] write( final XmlDocumentSchema schema ) throws Exception
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try( DataOutputStream out = new DataOutputStream( bytes ) )
+        {
+            XmlDocumentSchemaSerializer.write( schema, out );
+        }
+        
+        return bytes.toByteArray();
+    }
+
+}
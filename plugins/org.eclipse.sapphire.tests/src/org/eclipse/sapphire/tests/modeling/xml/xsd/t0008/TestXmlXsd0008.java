@@ -0,0 +1,166 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.modeling.xml.xsd.t0008;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.sapphire.modeling.xml.schema.XmlDocumentSchema;
+import org.eclipse.sapphire.modeling.xml.schema.XmlDocumentSchemaParser;
+import org.eclipse.sapphire.modeling.xml.schema.internal.PersistentXmlDocumentSchemasCache;
+import org.eclipse.sapphire.modeling.xml.schema.internal.RecentXmlDocumentSchemasCache;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests the caches of compiled XML schemas.
+ *
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class TestXmlXsd0008 extends SapphireTestCase
+{
+    @Test
+    
+    public void testPersistentReuse() throws Exception
+    {
+        final File directory = Files.createTempDirectory( "sapphire" ).toFile();
+        
+        try
+        {
+            final URL url = copy( directory );
+            final String location = url.toString();
+            final XmlDocumentSchema schema = parse( url );
+            
+            assertNull( new PersistentXmlDocumentSchemasCache( directory ).load( location ) );
+            
+            new PersistentXmlDocumentSchemasCache( directory ).store( location, Collections.singletonList( url ), schema );
+            
+            final XmlDocumentSchema restored = new PersistentXmlDocumentSchemasCache( directory ).load( location );
+            
+            assertNotNull( restored );
+            assertEquals( schema.toString(), restored.toString() );
+            
+            // The persisted schema is used as long as the content is the same, even if the file was touched.
+            
+            final File file = new File( url.toURI() );
+            
+            assertTrue( file.setLastModified( file.lastModified() - 10000 ) );
+            assertNotNull( new PersistentXmlDocumentSchemasCache( directory ).load( location ) );
+        }
+        finally
+        {
+            delete( directory );
+        }
+    }
+    
+    @Test
+    
+    public void testPersistentInvalidation() throws Exception
+    {
+        final File directory = Files.createTempDirectory( "sapphire" ).toFile();
+        
+        try
+        {
+            final URL url = copy( directory );
+            final String location = url.toString();
+            final File file = new File( url.toURI() );
+            final long modified = file.lastModified();
+            
+            new PersistentXmlDocumentSchemasCache( directory ).store( location, Collections.singletonList( url ), parse( url ) );
+            
+            final String content = new String( Files.readAllBytes( file.toPath() ), UTF_8 );
+            
+            Files.write( file.toPath(), content.replace( "description", "explanation" ).getBytes( UTF_8 ) );
+            assertTrue( file.setLastModified( modified + 10000 ) );
+            
+            assertNull( new PersistentXmlDocumentSchemasCache( directory ).load( location ) );
+            
+            assertTrue( file.delete() );
+            
+            assertNull( new PersistentXmlDocumentSchemasCache( directory ).load( location ) );
+        }
+        finally
+        {
+            delete( directory );
+        }
+    }
+    
+    @Test
+    
+    public void testRecentLimit() throws Exception
+    {
+        final RecentXmlDocumentSchemasCache cache = new RecentXmlDocumentSchemasCache( 2 );
+        final XmlDocumentSchema a = ( new XmlDocumentSchema.Factory() ).create();
+        final XmlDocumentSchema b = ( new XmlDocumentSchema.Factory() ).create();
+        final XmlDocumentSchema c = ( new XmlDocumentSchema.Factory() ).create();
+        
+        cache.put( "a", a );
+        cache.put( "b", b );
+        
+        assertSame( a, cache.get( "a" ) );
+        assertEquals( Arrays.asList( "b", "a" ), cache.recent() );
+        
+        cache.put( "c", c );
+        
+        assertEquals( Arrays.asList( "a", "c" ), cache.recent() );
+        
+        // The schema that is no longer held strongly is still available while it is reachable.
+        
+        assertSame( b, cache.get( "b" ) );
+        assertEquals( Arrays.asList( "c", "b" ), cache.recent() );
+        assertNull( cache.get( "d" ) );
+    }
+    
+    private static URL copy( final File directory ) throws Exception
+    {
+        final File file = new File( directory, "0008.xsd" );
+        
+        try( InputStream in = TestXmlXsd0008.class.getResourceAsStream( "0008.xsd" ) )
+        {
+            Files.copy( in, file.toPath() );
+        }
+        
+        return file.toURI().toURL();
+    }
+    
+    private static XmlDocumentSchema parse( final URL url )
+    {
+        final XmlDocumentSchemaParser.Resolver resolver = new XmlDocumentSchemaParser.Resolver()
+        {
+            @Override
+            public URL resolve( final String location )
+            {
+                throw new IllegalArgumentException( location );
+            }
+        };
+        
+        return XmlDocumentSchemaParser.parse( url, resolver );
+    }
+    
+    private static void delete( final File directory )
+    {
+        for( final File file : directory.listFiles() )
+        {
+            file.delete();
+        }
+        
+        directory.delete();
+    }
+
+}
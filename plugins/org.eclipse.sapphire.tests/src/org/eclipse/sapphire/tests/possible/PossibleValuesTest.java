@@ -157,5 +157,52 @@ public final class PossibleValuesTest extends SapphireTestCase
             assertEquals( set( "a", "b", "c", "d" ), service.values() );
         }
     }
+    
+    @Test
+    
+    public void testSharedModelPossibles()
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            final ListEntry a = element.getEntries().insert();
+            a.setValue( "a" );
+            
+            final ListEntry b = element.getEntries().insert();
+            b.setValue( "b" );
+            
+            final ListEntry c = element.getEntries().insert();
+            c.setValue( "b" );
+            
+            final Row x = element.getRows().insert();
+            x.setReference( "b" );
+            
+            final Row y = element.getRows().insert();
+            y.setReference( "c" );
+            
+            final PossibleValuesService xs = x.getReference().service( PossibleValuesService.class );
+            final PossibleValuesService ys = y.getReference().service( PossibleValuesService.class );
+            
+            assertNotSame( xs, ys );
+            assertEquals( set( "a", "b" ), xs.values() );
+            assertSame( xs.values(), ys.values() );
+            
+            assertValidationOk( x.getReference() );
+            assertValidationError( y.getReference(), "\"c\" is not among possible values" );
+            
+            c.setValue( "c" );
+            
+            assertEquals( set( "a", "b", "c" ), xs.values() );
+            assertSame( xs.values(), ys.values() );
+            assertValidationOk( x.getReference() );
+            assertValidationOk( y.getReference() );
+            
+            element.getEntries().remove( b );
+            
+            assertEquals( set( "a", "c" ), xs.values() );
+            assertSame( xs.values(), ys.values() );
+            assertValidationError( x.getReference(), "\"b\" is not among possible values" );
+            assertValidationOk( y.getReference() );
+        }
+    }
 
 }
@@ -0,0 +1,37 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.possible;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.PossibleValues;
+import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.ValueProperty;
+
+/**
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public interface Row extends Element
+{
+    ElementType TYPE = new ElementType( Row.class );
+
+    // *** Reference ***
+    
+    @PossibleValues( property = "../Entries/Value" )
+    
+    ValueProperty PROP_REFERENCE = new ValueProperty( TYPE, "Reference" );
+    
+    Value<String> getReference();
+    void setReference( String value );
+
+}
\ No newline at end of file
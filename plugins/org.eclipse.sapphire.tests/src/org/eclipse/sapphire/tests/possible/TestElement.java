@@ -36,6 +36,14 @@ public interface TestElement extends Element
     
     ElementList<ListEntry> getEntries();
     
+    // *** Rows ***
+    
+    @Type( base = Row.class )
+    
+    ListProperty PROP_ROWS = new ListProperty( TYPE, "Rows" );
+    
+    ElementList<Row> getRows();
+    
     // *** ValueWithStaticPossibles ***
     
     @PossibleValues( values = { "a", "b", "c" } )
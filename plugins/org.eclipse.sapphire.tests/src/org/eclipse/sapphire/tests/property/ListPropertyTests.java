@@ -15,15 +15,17 @@ import org.eclipse.sapphire.Element;
 import org.eclipse.sapphire.ElementList;
 import org.eclipse.sapphire.ElementType;
 import org.eclipse.sapphire.ListProperty;
+import org.eclipse.sapphire.ListPropertyContentEvent;
 import org.eclipse.sapphire.PossibleTypesService;
 import org.eclipse.sapphire.Type;
 import org.eclipse.sapphire.Value;
 import org.eclipse.sapphire.ValueProperty;
+import org.eclipse.sapphire.tests.EventLog;
 import org.eclipse.sapphire.tests.SapphireTestCase;
 import org.junit.Test;
 
 /**
- * Tests the ability of a list property to hold multiple entry types.
+ * Tests the ability of a list property to hold multiple entry types and the content events that it broadcasts.
  * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
@@ -96,4 +98,86 @@ public final class ListPropertyTests extends SapphireTestCase
         }
     }
     
+    @Test
+    
+    public void ContentEvents() throws Exception
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            final ElementList<TestElement> list = element.getList();
+            final TestElement a = list.insert();
+            final TestElement b = list.insert();
+            final EventLog log = new EventLog();
+            
+            list.attach( log );
+            
+            final TestElement c = list.insert();
+            
+            assertEquals( 1, log.size() );
+            
+            ListPropertyContentEvent event = (ListPropertyContentEvent) log.event( 0 );
+            
+            assertSame( list, event.property() );
+            assertEquals( 1, event.added().size() );
+            assertSame( c, event.added().get( 0 ) );
+            assertEquals( Integer.valueOf( 2 ), event.addedPositions().get( 0 ) );
+            assertEquals( 0, event.removed().size() );
+            assertFalse( event.reordered() );
+            assertEquals( 0, event.moved().size() );
+            
+            log.clear();
+            list.moveUp( c );
+            
+            assertEquals( 1, log.size() );
+            
+            event = (ListPropertyContentEvent) log.event( 0 );
+            
+            assertEquals( 0, event.added().size() );
+            assertEquals( 0, event.removed().size() );
+            assertTrue( event.reordered() );
+            assertEquals( 1, event.moved().size() );
+            assertSame( c, event.moved().get( 0 ) );
+            assertEquals( Integer.valueOf( 2 ), event.movedFrom().get( 0 ) );
+            assertEquals( Integer.valueOf( 1 ), event.movedTo().get( 0 ) );
+            
+            log.clear();
+            list.remove( a );
+            
+            assertEquals( 1, log.size() );
+            
+            event = (ListPropertyContentEvent) log.event( 0 );
+            
+            assertEquals( 0, event.added().size() );
+            assertEquals( 1, event.removed().size() );
+            assertSame( a, event.removed().get( 0 ) );
+            assertEquals( Integer.valueOf( 0 ), event.removedPositions().get( 0 ) );
+            assertTrue( a.disposed() );
+            assertFalse( event.reordered() );
+            
+            assertEquals( 2, list.size() );
+            assertSame( c, list.get( 0 ) );
+            assertSame( b, list.get( 1 ) );
+            
+            final TestElement d = list.insert();
+            final TestElement e = list.insert();
+            
+            log.clear();
+            list.move( b, 4 );
+            
+            assertEquals( 1, log.size() );
+            
+            event = (ListPropertyContentEvent) log.event( 0 );
+            
+            assertEquals( 1, event.moved().size() );
+            assertSame( b, event.moved().get( 0 ) );
+            assertEquals( Integer.valueOf( 1 ), event.movedFrom().get( 0 ) );
+            assertEquals( Integer.valueOf( 3 ), event.movedTo().get( 0 ) );
+            
+            assertSame( c, list.get( 0 ) );
+            assertSame( d, list.get( 1 ) );
+            assertSame( e, list.get( 2 ) );
+            assertSame( b, list.get( 3 ) );
+        }
+    }
+    
 }
@@ -99,6 +99,76 @@ public final class ElementReferenceTests extends SapphireTestCase
         }
     }
     
+    @Test
+    
+    public void DeclarativeElementReference_DuplicateKeys()
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            final ElementList<TestElement.Item> list = element.getItemList1();
+            
+            final TestElement.Item a = list.insert();
+            a.setName( "x" );
+            
+            final TestElement.Item b = list.insert();
+            b.setName( "x" );
+            
+            element.setDeclarativeReference( "x" );
+            assertSame( a, element.getDeclarativeReference().target() );
+            
+            list.remove( a );
+            assertSame( b, element.getDeclarativeReference().target() );
+            
+            final TestElement.Item c = list.insert( 0 );
+            c.setName( "x" );
+            assertSame( c, element.getDeclarativeReference().target() );
+            
+            c.setName( "y" );
+            assertSame( b, element.getDeclarativeReference().target() );
+            
+            b.setName( "z" );
+            assertNull( element.getDeclarativeReference().target() );
+            
+            element.setDeclarativeReference( "y" );
+            assertSame( c, element.getDeclarativeReference().target() );
+        }
+    }
+    
+    @Test
+    
+    public void DeclarativeElementReference_DuplicateKeys_Reorder()
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            final ElementList<TestElement.Item> list = element.getItemList1();
+            
+            final TestElement.Item a = list.insert();
+            a.setName( "x" );
+            
+            final TestElement.Item b = list.insert();
+            b.setName( "y" );
+            
+            final TestElement.Item c = list.insert();
+            c.setName( "x" );
+            
+            element.setDeclarativeReference( "x" );
+            assertSame( a, element.getDeclarativeReference().target() );
+            
+            list.moveDown( a );
+            assertSame( a, element.getDeclarativeReference().target() );
+            
+            list.moveDown( a );
+            assertSame( c, element.getDeclarativeReference().target() );
+            
+            list.move( a, 0 );
+            assertSame( a, element.getDeclarativeReference().target() );
+            
+            c.setName( "z" );
+            list.moveDown( a );
+            assertSame( a, element.getDeclarativeReference().target() );
+        }
+    }
+    
     /**
      * Tests rejection of a foreign element from another list in the same model. 
      */
@@ -23,6 +23,8 @@ import org.eclipse.sapphire.tests.services.t0011.PreferDefaultValueTests;
 import org.eclipse.sapphire.tests.services.t0012.TestServices0012;
 import org.eclipse.sapphire.tests.services.t0013.RequiredConstraintTests;
 import org.eclipse.sapphire.tests.services.t0014.DeclarativeValidationServiceTests;
+import org.eclipse.sapphire.tests.services.t0015.ServiceResolutionTests;
+import org.eclipse.sapphire.tests.services.t0016.DeferredValidationTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
@@ -47,7 +49,9 @@ import org.junit.runners.Suite.SuiteClasses;
         PreferDefaultValueTests.class,
         TestServices0012.class,
         RequiredConstraintTests.class,
-        DeclarativeValidationServiceTests.class
+        DeclarativeValidationServiceTests.class,
+        ServiceResolutionTests.class,
+        DeferredValidationTests.class
     }
 )
 
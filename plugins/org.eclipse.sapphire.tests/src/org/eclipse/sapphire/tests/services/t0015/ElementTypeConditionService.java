@@ -0,0 +1,36 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.services.t0015;
+
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.services.Service;
+import org.eclipse.sapphire.services.ServiceCondition;
+import org.eclipse.sapphire.services.ServiceContext;
+
+/**
+ * A property instance service whose condition only consults the type of the element holding the property.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class ElementTypeConditionService extends Service
+{
+    public static final class Condition extends ServiceCondition
+    {
+        @Override
+        public boolean applicable( final ServiceContext context )
+        {
+            return ( context.find( ElementType.class ) == TestSubElement.TYPE );
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.services.t0015;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.sapphire.ValueProperty;
+import org.eclipse.sapphire.services.Service;
+import org.eclipse.sapphire.services.ServiceCondition;
+import org.eclipse.sapphire.services.ServiceContext;
+
+/**
+ * A property instance service whose condition only consults the property metamodel.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class MetaModelConditionService extends Service
+{
+    public static final AtomicInteger evaluations = new AtomicInteger();
+    
+    public static final class Condition extends ServiceCondition
+    {
+        @Override
+        public boolean applicable( final ServiceContext context )
+        {
+            evaluations.incrementAndGet();
+            
+            final ValueProperty property = context.find( ValueProperty.class );
+            
+            return ( property != null && property.getModelElementType() == TestElement.TYPE && property.name().equals( "Value" ) );
+        }
+    }
+
+}
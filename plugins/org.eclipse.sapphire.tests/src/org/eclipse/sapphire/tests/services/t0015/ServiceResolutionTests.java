@@ -0,0 +1,99 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.services.t0015;
+
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests sharing of service resolution across instance contexts created for the same metamodel.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class ServiceResolutionTests extends SapphireTestCase
+{
+    @Test
+    
+    public void testMetaModelConditionEvaluatedOnce() throws Exception
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            assertNotNull( element.property( TestElement.PROP_VALUE ).service( MetaModelConditionService.class ) );
+            assertNull( element.property( TestElement.PROP_OTHER ).service( MetaModelConditionService.class ) );
+        }
+        
+        final int evaluations = MetaModelConditionService.evaluations.get();
+        
+        for( int i = 0; i < 10; i++ )
+        {
+            try( TestElement element = TestElement.TYPE.instantiate() )
+            {
+                final MetaModelConditionService service = element.property( TestElement.PROP_VALUE ).service( MetaModelConditionService.class );
+                
+                assertNotNull( service );
+                assertSame( service, element.property( TestElement.PROP_VALUE ).service( MetaModelConditionService.class ) );
+                assertNull( element.property( TestElement.PROP_OTHER ).service( MetaModelConditionService.class ) );
+            }
+        }
+        
+        assertEquals( evaluations, MetaModelConditionService.evaluations.get() );
+    }
+    
+    @Test
+    
+    public void testInstanceConditionEvaluatedPerInstance() throws Exception
+    {
+        final int evaluations = InstanceConditionService.evaluations.get();
+        
+        for( int i = 0; i < 10; i++ )
+        {
+            try( TestElement element = TestElement.TYPE.instantiate() )
+            {
+                final boolean enabled = ( i % 2 == 0 );
+                
+                element.setEnabled( enabled );
+                
+                if( enabled )
+                {
+                    assertNotNull( element.property( TestElement.PROP_VALUE ).service( InstanceConditionService.class ) );
+                }
+                else
+                {
+                    assertNull( element.property( TestElement.PROP_VALUE ).service( InstanceConditionService.class ) );
+                }
+            }
+        }
+        
+        assertEquals( evaluations + 10, InstanceConditionService.evaluations.get() );
+    }
+    
+    @Test
+    
+    public void testConditionOnElementTypeOfInheritedProperty() throws Exception
+    {
+        for( int i = 0; i < 2; i++ )
+        {
+            try( TestElement element = TestElement.TYPE.instantiate() )
+            {
+                assertNull( element.property( TestElement.PROP_VALUE ).service( ElementTypeConditionService.class ) );
+            }
+            
+            try( TestSubElement element = TestSubElement.TYPE.instantiate() )
+            {
+                assertSame( TestElement.PROP_VALUE, element.property( TestElement.PROP_VALUE ).definition() );
+                assertNotNull( element.property( TestElement.PROP_VALUE ).service( ElementTypeConditionService.class ) );
+            }
+        }
+    }
+
+}
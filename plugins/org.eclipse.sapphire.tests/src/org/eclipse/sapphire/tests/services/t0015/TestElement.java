@@ -0,0 +1,52 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.services.t0015;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.Type;
+import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.ValueProperty;
+
+/**
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public interface TestElement extends Element
+{
+    ElementType TYPE = new ElementType( TestElement.class );
+    
+    // *** Value ***
+    
+    ValueProperty PROP_VALUE = new ValueProperty( TYPE, "Value" );
+    
+    Value<String> getValue();
+    void setValue( String value );
+    
+    // *** Other ***
+    
+    ValueProperty PROP_OTHER = new ValueProperty( TYPE, "Other" );
+    
+    Value<String> getOther();
+    void setOther( String value );
+    
+    // *** Enabled ***
+    
+    @Type( base = Boolean.class )
+    
+    ValueProperty PROP_ENABLED = new ValueProperty( TYPE, "Enabled" );
+    
+    Value<Boolean> getEnabled();
+    void setEnabled( String value );
+    void setEnabled( Boolean value );
+
+}
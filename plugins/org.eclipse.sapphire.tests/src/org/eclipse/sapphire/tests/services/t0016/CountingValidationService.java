@@ -0,0 +1,44 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.services.t0016;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.sapphire.Value;
+import org.eclipse.sapphire.modeling.Status;
+import org.eclipse.sapphire.services.ValidationService;
+
+/**
+ * A validation service that reports an error when the value is not specified and counts how many times
+ * the validation has been computed.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class CountingValidationService extends ValidationService
+{
+    public static final AtomicInteger computations = new AtomicInteger();
+    
+    @Override
+    protected Status compute()
+    {
+        computations.incrementAndGet();
+        
+        if( context( Value.class ).text() == null )
+        {
+            return Status.createErrorStatus( "Value is missing" );
+        }
+        
+        return Status.createOkStatus();
+    }
+
+}
@@ -0,0 +1,222 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.services.t0016;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.sapphire.Element;
+import org.eclipse.sapphire.ElementList;
+import org.eclipse.sapphire.ElementType;
+import org.eclipse.sapphire.FilteredListener;
+import org.eclipse.sapphire.PropertyValidationEvent;
+import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.junit.Test;
+
+/**
+ * Tests for DeferredValidation.
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class DeferredValidationTests extends SapphireTestCase
+{
+    private static final int CHANGES = 100;
+    private static final int CHILDREN = 10;
+    
+    @Test
+    
+    public void testEagerValidation() throws Exception
+    {
+        try( TestElement element = TestElement.TYPE.instantiate() )
+        {
+            assertValidationError( element.getValue(), "Value is missing" );
+            
+            final AtomicInteger events = countValidationEvents( element );
+            final int computations = CountingValidationService.computations.get();
+            
+            for( int i = 0; i < CHANGES; i++ )
+            {
+                element.setValue( "x" + i );
+            }
+            
+            assertEquals( computations + CHANGES, CountingValidationService.computations.get() );
+            assertEquals( 1, events.get() );
+            assertValidationOk( element.getValue() );
+        }
+    }
+    
+    @Test
+    
+    public void testDeferredValidation() throws Exception
+    {
+        try( TestElement element = TestDeferredElement.TYPE.instantiate() )
+        {
+            assertValidationError( element.getValue(), "Value is missing" );
+            
+            final AtomicInteger events = countValidationEvents( element );
+            final int computations = CountingValidationService.computations.get();
+            
+            for( int i = 0; i < CHANGES; i++ )
+            {
+                element.setValue( "x" + i );
+            }
+            
+            assertEquals( computations, CountingValidationService.computations.get() );
+            assertEquals( 0, events.get() );
+            
+            assertValidationOk( element.getValue() );
+            assertEquals( computations + 1, CountingValidationService.computations.get() );
+            assertEquals( 1, events.get() );
+            
+            assertValidationOk( element.getValue() );
+            assertEquals( computations + 1, CountingValidationService.computations.get() );
+            
+            element.setValue( null );
+            
+            assertValidationError( element, "Value is missing" );
+            assertEquals( computations + 2, CountingValidationService.computations.get() );
+            assertEquals( 2, events.get() );
+        }
+    }
+    
+    @Test
+    
+    public void testBackgroundValidation() throws Exception
+    {
+        try( TestElement element = TestBackgroundElement.TYPE.instantiate() )
+        {
+            assertValidationError( element.getValue(), "Value is missing" );
+            
+            final CountDownLatch latch = new CountDownLatch( 1 );
+            
+            element.getValue().attach
+            (
+                new FilteredListener<PropertyValidationEvent>()
+                {
+                    @Override
+                    protected void handleTypedEvent( final PropertyValidationEvent event )
+                    {
+                        latch.countDown();
+                    }
+                }
+            );
+            
+            synchronized( element.root() )
+            {
+                for( int i = 0; i < CHANGES; i++ )
+                {
+                    element.setValue( "x" + i );
+                }
+            }
+            
+            assertTrue( latch.await( 10, TimeUnit.SECONDS ) );
+            assertValidationOk( element.getValue() );
+        }
+    }
+    
+    @Test
+    
+    public void testDeferredValidationReleasesProperties() throws Exception
+    {
+        testReleasesProperties( TestDeferredListElement.TYPE );
+    }
+    
+    @Test
+    
+    public void testBackgroundValidationReleasesProperties() throws Exception
+    {
+        testReleasesProperties( TestBackgroundListElement.TYPE );
+    }
+    
+    /**
+     * Makes the validation of several properties stale and then removes the elements holding them. The queue of
+     * stale properties must not retain the removed elements.
+     */
+    
+    private static void testReleasesProperties( final ElementType type ) throws Exception
+    {
+        final List<WeakReference<TestElement>> removed = new ArrayList<WeakReference<TestElement>>();
+        
+        try( Element root = type.instantiate() )
+        {
+            @SuppressWarnings( "unchecked" )
+            
+            final ElementList<TestElement> list = (ElementList<TestElement>) root.property( "List" );
+            
+            for( int i = 0; i < CHILDREN; i++ )
+            {
+                final TestElement child = list.insert();
+                
+                assertValidationError( child.getValue(), "Value is missing" );
+                
+                removed.add( new WeakReference<TestElement>( child ) );
+            }
+            
+            synchronized( root )
+            {
+                for( final TestElement child : list )
+                {
+                    child.setValue( "x" );
+                }
+            }
+            
+            list.clear();
+            root.validation();
+            
+            for( int i = 0; i < 100 && ! reclaimed( removed ); i++ )
+            {
+                System.gc();
+                Thread.sleep( 10 );
+            }
+            
+            assertTrue( reclaimed( removed ) );
+        }
+    }
+    
+    private static boolean reclaimed( final List<WeakReference<TestElement>> references )
+    {
+        for( final WeakReference<TestElement> reference : references )
+        {
+            if( reference.get() != null )
+            {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    private static AtomicInteger countValidationEvents( final TestElement element )
+    {
+        final AtomicInteger events = new AtomicInteger();
+        
+        element.getValue().attach
+        (
+            new FilteredListener<PropertyValidationEvent>()
+            {
+                @Override
+                protected void handleTypedEvent( final PropertyValidationEvent event )
+                {
+                    events.incrementAndGet();
+                }
+            }
+        );
+        
+        return events;
+    }
+
+}
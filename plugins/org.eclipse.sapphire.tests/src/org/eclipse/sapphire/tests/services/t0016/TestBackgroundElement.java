@@ -0,0 +1,27 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.tests.services.t0016;
+
+import org.eclipse.sapphire.DeferredValidation;
+import org.eclipse.sapphire.ElementType;
+
+/**
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+@DeferredValidation( background = true )
+
+public interface TestBackgroundElement extends TestElement
+{
+    ElementType TYPE = new ElementType( TestBackgroundElement.class );
+
+}
@@ -11,9 +11,22 @@
 
 package org.eclipse.sapphire.tests.ui.def.loader;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.sapphire.Context;
+import org.eclipse.sapphire.Sapphire;
+import org.eclipse.sapphire.modeling.ByteArrayResourceStore;
 import org.eclipse.sapphire.osgi.BundleBasedContext;
 import org.eclipse.sapphire.tests.SapphireTestCase;
+import org.eclipse.sapphire.ui.def.DefinitionCompiler;
 import org.eclipse.sapphire.ui.def.DefinitionLoader;
 import org.eclipse.sapphire.ui.forms.DialogDef;
 import org.junit.Test;
@@ -76,5 +89,130 @@ public final class DefinitionLoaderTests extends SapphireTestCase
             assertSame( h1.resolve(), h2.resolve() );
         }
     }
+    
+    @Test
+    
+    public void testCompiled() throws Exception
+    {
+        if( Sapphire.isDevMode() )
+        {
+            return;
+        }
+        
+        // The label in the compiled form is altered, so that the test can tell which form the definition was
+        // loaded from. The compiled form still matches the source, since the recorded hash is not changed.
+        
+        final byte[] source = source();
+        final byte[] compiled = replace( compile( source ), "test dialog", "TEST DIALOG" );
+        
+        assertEquals( "TEST DIALOG", label( new TestContext( source, compiled ) ) );
+    }
+    
+    @Test
+    
+    public void testCompiledStale() throws Exception
+    {
+        final byte[] source = source();
+        final byte[] compiled = compile( source );
+        final byte[] edited = replace( source, "test dialog", "edited dialog" );
+        
+        assertEquals( "edited dialog", label( new TestContext( edited, compiled ) ) );
+    }
+    
+    @Test
+    
+    public void testCompiledCorrupted() throws Exception
+    {
+        final byte[] source = source();
+        final byte[] compiled = compile( source );
+        final byte[] truncated = new byte[ compiled.length / 2 ];
+        
+        System.arraycopy( compiled, 0, truncated, 0, truncated.length );
+        
+        assertEquals( "test dialog", label( new TestContext( source, truncated ) ) );
+    }
+    
+    @Test
+    
+    public void testNotCompiled() throws Exception
+    {
+        assertEquals( "test dialog", label( new TestContext( source(), null ) ) );
+    }
+    
+    private static String label( final Context context )
+    {
+        try( DefinitionLoader.Reference<DialogDef> dialog = DefinitionLoader.context( context ).sdef( "TestDefinition" ).dialog() )
+        {
+            return dialog.resolve().getLabel().text();
+        }
+    }
+    
+    private static byte[] source() throws Exception
+    {
+        try( InputStream in = DefinitionLoaderTests.class.getResourceAsStream( "TestDefinition.sdef" ) )
+        {
+            return ( new ByteArrayResourceStore( in ) ).getContents();
+        }
+    }
+    
+    private static byte[] compile( final byte[] source ) throws Exception
+    {
+        final File sdef = File.createTempFile( "sapphire", ".sdef" );
+        final File compiled = File.createTempFile( "sapphire", ".sdefc" );
+        
+        try
+        {
+            Files.write( sdef.toPath(), source );
+            DefinitionCompiler.compile( sdef, compiled );
+            
+            return Files.readAllBytes( compiled.toPath() );
+        }
+        finally
+        {
+            sdef.delete();
+            compiled.delete();
+        }
+    }
+    
+    private static byte[] replace( final byte[] bytes, final String from, final String to )
+    {
+        final String string = new String( bytes, ISO_8859_1 );
+        
+        assertTrue( string.contains( from ) );
+        
+        return string.replace( from, to ).getBytes( ISO_8859_1 );
+    }
+    
+    /**
+     * Serves a definition and its compiled form from memory.
+     */
+    
+    private static final class TestContext extends Context
+    {
+        private final Map<String,byte[]> resources = new HashMap<String,byte[]>();
+        
+        public TestContext( final byte[] source, final byte[] compiled )
+        {
+            this.resources.put( "TestDefinition.sdef", source );
+            
+            if( compiled != null )
+            {
+                this.resources.put( "TestDefinition.sdefc", compiled );
+            }
+        }
+        
+        @Override
+        public <T> Class<T> findClass( final String name )
+        {
+            return Context.adapt( DefinitionLoaderTests.class ).findClass( name );
+        }
+        
+        @Override
+        public InputStream findResource( final String name )
+        {
+            final byte[] bytes = this.resources.get( name );
+            return ( bytes == null ? null : new ByteArrayInputStream( bytes ) );
+        }
+    }
 
 }
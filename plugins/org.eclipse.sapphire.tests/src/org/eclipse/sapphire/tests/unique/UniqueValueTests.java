@@ -15,6 +15,7 @@ import org.eclipse.sapphire.Counter;
 import org.eclipse.sapphire.ElementList;
 import org.eclipse.sapphire.internal.UniqueValueValidationService;
 import org.eclipse.sapphire.modeling.ByteArrayResourceStore;
+import org.eclipse.sapphire.modeling.Status;
 import org.eclipse.sapphire.modeling.xml.RootXmlResource;
 import org.eclipse.sapphire.modeling.xml.XmlResourceStore;
 import org.eclipse.sapphire.tests.SapphireTestCase;
@@ -171,15 +172,28 @@ public final class UniqueValueTests extends SapphireTestCase
         
         counter.reset();
         
+        // Only the changed entry and the entries sharing its old or new key should be revalidated.
+        
         element.getList().get( 0 ).setValue( "a" );
         element.validation();
-        assertEquals( entries + 1, counter.read() );
+        assertEquals( 2, counter.read() );
+        assertEquals( Status.Severity.OK, element.getList().get( 0 ).getValue().validation().severity() );
         
         counter.reset();
         
         element.getList().get( 0 ).setValue( "9" );
         element.validation();
-        assertEquals( entries + 1, counter.read() );
+        assertEquals( 3, counter.read() );
+        assertEquals( Status.Severity.ERROR, element.getList().get( 0 ).getValue().validation().severity() );
+        assertEquals( Status.Severity.ERROR, element.getList().get( 9 ).getValue().validation().severity() );
+        
+        counter.reset();
+        
+        element.getList().get( 0 ).setValue( "0" );
+        element.validation();
+        assertEquals( 3, counter.read() );
+        assertEquals( Status.Severity.OK, element.getList().get( 0 ).getValue().validation().severity() );
+        assertEquals( Status.Severity.OK, element.getList().get( 9 ).getValue().validation().severity() );
     }
     
     private String generateTestData( final int entries )
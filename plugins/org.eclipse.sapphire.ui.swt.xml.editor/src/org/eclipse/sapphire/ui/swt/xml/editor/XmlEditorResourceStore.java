@@ -113,6 +113,8 @@ public class XmlEditorResourceStore extends XmlResourceStore
                     attachXmlNodeListener( (IDOMNode) newValue );
                 }
                 
+                notifyDomChanged();
+                
                 DelayedTasksExecutor.schedule( new RefreshElementsTask( getModelElements( (Node) notifier ) ) );
             }
         };
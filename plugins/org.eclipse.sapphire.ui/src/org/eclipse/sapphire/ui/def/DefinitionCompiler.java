@@ -0,0 +1,198 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.ui.def;
+
+import static org.eclipse.sapphire.FileUtil.mkdirs;
+import static org.eclipse.sapphire.ui.def.DefinitionLoader.COMPILED_EXTENSION;
+import static org.eclipse.sapphire.ui.def.DefinitionLoader.EXTENSION;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.eclipse.sapphire.modeling.xml.XmlDocumentSerializer;
+import org.eclipse.sapphire.modeling.xml.XmlResourceStore;
+import org.w3c.dom.Document;
+
+/**
+ * Compiles .sdef files into the binary form read by {@link DefinitionLoader}, so that definitions shipped
+ * with a bundle can be loaded without XML parsing. Each .sdef file found under a source folder is compiled into
+ * a .sdefc file at the same relative location in an output folder.
+ * 
+ * <p>The compiler runs after compilation of the bundles that ship definitions, through the post.compile.@dot
+ * target of their custom build callbacks. Each compiled file records a hash of the .sdef file that it was compiled
+ * from. A compiled file that does not match its .sdef file is ignored, so an edited definition is never shadowed by
+ * a stale compiled file. The definitions are always loaded from the .sdef files in dev mode.</p>
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class DefinitionCompiler
+{
+    private static final int MAGIC = 0x53444643;
+    
+    /**
+     * The version of the compiled form. Must be incremented when the compiled form changes. The binary form of the
+     * document is versioned separately by {@link XmlDocumentSerializer}.
+     */
+    
+    private static final int VERSION = 1;
+    
+    private DefinitionCompiler()
+    {
+    }
+    
+    /**
+     * Compiles all .sdef files found under a folder.
+     * 
+     * @param source the folder to search for .sdef files
+     * @param output the folder to write the compiled files to
+     * @return the number of compiled files
+     * @throws IOException if a file could not be read or written
+     */
+    
+    public static int compileAll( final File source, final File output ) throws IOException
+    {
+        if( source == null || output == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        int count = 0;
+        
+        final File[] children = source.listFiles();
+        
+        if( children != null )
+        {
+            for( final File child : children )
+            {
+                final String name = child.getName();
+                
+                if( child.isDirectory() )
+                {
+                    count += compileAll( child, new File( output, name ) );
+                }
+                else if( name.endsWith( EXTENSION ) )
+                {
+                    final String base = name.substring( 0, name.length() - EXTENSION.length() );
+                    
+                    compile( child, new File( output, base + COMPILED_EXTENSION ) );
+                    
+                    count++;
+                }
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Compiles a single .sdef file.
+     * 
+     * @param sdef the .sdef file
+     * @param compiled the file to write the compiled form to
+     * @throws IOException if the .sdef file could not be read or the compiled file could not be written
+     */
+    
+    public static void compile( final File sdef, final File compiled ) throws IOException
+    {
+        if( sdef == null || compiled == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        final byte[] source = Files.readAllBytes( sdef.toPath() );
+        final XmlResourceStore store = new XmlResourceStore( source );
+        
+        if( store.getDomDocument().getDocumentElement() == null )
+        {
+            throw new IOException( sdef.getPath() );
+        }
+        
+        mkdirs( compiled.getAbsoluteFile().getParentFile() );
+        
+        try( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( compiled ) ) ) )
+        {
+            final byte[] hash = hash( source );
+            
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeInt( hash.length );
+            out.write( hash );
+            
+            XmlDocumentSerializer.write( store.getDomDocument(), out );
+        }
+    }
+    
+    /**
+     * Reads a compiled definition.
+     * 
+     * @param compiled the compiled form
+     * @param source the contents of the .sdef file that the compiled form should match
+     * @return the document or null if the compiled form was written by a different version of the compiler or
+     *   was compiled from different contents
+     * @throws IOException if the compiled form is corrupted
+     */
+    
+    static Document read( final ByteBuffer compiled, final byte[] source ) throws IOException
+    {
+        try
+        {
+            if( compiled.getInt() != MAGIC || compiled.getInt() != VERSION )
+            {
+                return null;
+            }
+            
+            final int length = compiled.getInt();
+            
+            if( length < 0 || length > compiled.remaining() )
+            {
+                throw new IOException( "Corrupted compiled definition." );
+            }
+            
+            final byte[] hash = new byte[ length ];
+            
+            compiled.get( hash );
+            
+            if( ! MessageDigest.isEqual( hash, hash( source ) ) )
+            {
+                return null;
+            }
+        }
+        catch( final BufferUnderflowException e )
+        {
+            throw new IOException( "Corrupted compiled definition.", e );
+        }
+        
+        return XmlDocumentSerializer.read( compiled );
+    }
+    
+    private static byte[] hash( final byte[] source )
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-256" ).digest( source );
+        }
+        catch( final NoSuchAlgorithmException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+}
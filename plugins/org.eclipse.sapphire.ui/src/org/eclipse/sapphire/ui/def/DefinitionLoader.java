@@ -35,13 +35,22 @@ import org.eclipse.sapphire.ui.forms.FormComponentDef;
 import org.eclipse.sapphire.ui.forms.WizardDef;
 import org.eclipse.sapphire.util.EqualsFactory;
 import org.eclipse.sapphire.util.HashCodeFactory;
+import org.w3c.dom.Document;
 
 /**
+ * Loads Sapphire UI definitions from .sdef files. Outside of dev mode, a definition that was compiled by
+ * {@link DefinitionCompiler} into a .sdefc file alongside the .sdef file is loaded from the compiled form,
+ * which does not require XML parsing. The compiled form is only used if it was compiled from the current
+ * contents of the .sdef file.
+ * 
  * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
  */
 
 public final class DefinitionLoader
 {
+    static final String EXTENSION = ".sdef";
+    static final String COMPILED_EXTENSION = ".sdefc";
+    
     private static final Map<CacheKey,SoftReference<DefinitionLoader>> cache = new HashMap<CacheKey,SoftReference<DefinitionLoader>>();
     
     private final Context context;
@@ -133,7 +142,10 @@ public final class DefinitionLoader
         
         try
         {
-            resource = new RootXmlResource( new XmlResourceStore( new DefinitionLoaderResourceStore( this.context, name ) ) );
+            final DefinitionLoaderResourceStore store = new DefinitionLoaderResourceStore( this.context, name );
+            final Document compiled = store.compiled();
+            
+            resource = new RootXmlResource( compiled == null ? new XmlResourceStore( store ) : new XmlResourceStore( store, compiled ) );
         }
         catch( final ResourceStoreException e )
         {
@@ -371,13 +383,14 @@ public final class DefinitionLoader
     {
         private final Context context;
         private final String name;
+        private Document compiled;
         
         public DefinitionLoaderResourceStore( final Context context, final String name ) throws ResourceStoreException
         {
             this.context = context;
             this.name = name.replace( '.', '/' );
             
-            try( InputStream stream = this.context.findResource( this.name + ".sdef" ) )
+            try( InputStream stream = this.context.findResource( this.name + EXTENSION ) )
             {
                 if( stream == null )
                 {
@@ -390,6 +403,40 @@ public final class DefinitionLoader
             {
                 throw new ResourceStoreException( e );
             }
+            
+            if( ! Sapphire.isDevMode() )
+            {
+                this.compiled = loadCompiled( this.context, this.name, getContents() );
+            }
+        }
+        
+        /**
+         * Reads the compiled form of a definition. Returns null if the definition was not compiled or if the
+         * compiled form cannot be used, such as when it was compiled from different contents of the .sdef file
+         * or written by a different version of the compiler, in which case the definition is loaded from XML.
+         */
+        
+        private static Document loadCompiled( final Context context, final String name, final byte[] source )
+        {
+            try( InputStream stream = context.findResource( name + COMPILED_EXTENSION ) )
+            {
+                if( stream != null )
+                {
+                    final ByteArrayResourceStore contents = new ByteArrayResourceStore( stream );
+                    return DefinitionCompiler.read( contents.getContentsBuffer(), source );
+                }
+            }
+            catch( final IOException | ResourceStoreException e )
+            {
+                // Fall through and load the definition from XML.
+            }
+            
+            return null;
+        }
+        
+        public Document compiled()
+        {
+            return this.compiled;
         }
 
         @Override
@@ -0,0 +1,49 @@
+/******************************************************************************
+ * Copyright (c) 2016 Oracle
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Konstantin Komissarchik - initial implementation and ongoing maintenance
+ ******************************************************************************/
+
+package org.eclipse.sapphire.ui.def.internal;
+
+import java.io.File;
+
+import org.eclipse.sapphire.ui.def.DefinitionCompiler;
+
+/**
+ * Runs {@link DefinitionCompiler} from the command line as a build step, with the source folder and the output
+ * folder as arguments. If the output folder is not specified, the compiled files are written next to the .sdef
+ * files.
+ * 
+ * <p>The launcher runs after compilation of the bundles that ship definitions, through the post.compile.@dot
+ * target of their custom build callbacks.</p>
+ * 
+ * @author <a href="mailto:konstantin@komissarchik.net">Konstantin Komissarchik</a>
+ */
+
+public final class DefinitionCompilerLauncher
+{
+    private DefinitionCompilerLauncher()
+    {
+    }
+    
+    public static void main( final String[] args ) throws Exception
+    {
+        if( args.length < 1 || args.length > 2 )
+        {
+            System.err.println( "Usage: DefinitionCompilerLauncher <source folder> [<output folder>]" );
+            System.exit( 1 );
+        }
+        
+        final File source = new File( args[ 0 ] );
+        final File output = ( args.length == 2 ? new File( args[ 1 ] ) : source );
+        
+        System.out.println( "Compiled " + DefinitionCompiler.compileAll( source, output ) + " definitions." );
+    }
+
+}
@@ -11,10 +11,13 @@
 
 package org.eclipse.sapphire.workspace;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.ByteBuffer;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -22,6 +25,8 @@ import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.sapphire.LoggingService;
+import org.eclipse.sapphire.Sapphire;
 import org.eclipse.sapphire.modeling.ByteArrayResourceStore;
 import org.eclipse.sapphire.modeling.ResourceStoreException;
 import org.eclipse.sapphire.modeling.ValidateEditException;
@@ -35,6 +40,13 @@ public class WorkspaceFileResourceStore extends ByteArrayResourceStore
     private final IFile file;
     private long modStamp;
     
+    /**
+     * Indicates that the contents were streamed to the file without being held in memory. The contents are read
+     * from the file when they are next requested.
+     */
+    
+    private boolean unread;
+    
     public WorkspaceFileResourceStore( final IFile file )
     
         throws ResourceStoreException
@@ -82,30 +94,124 @@ public class WorkspaceFileResourceStore extends ByteArrayResourceStore
         
         try
         {
-            final byte[] content = getContents();
-            final InputStream stream = new ByteArrayInputStream( content ); 
+            write( getContentsStream() );
+        }
+        catch( CoreException e )
+        {
+            throw new ResourceStoreException( e );
+        }
+        catch( final IOException e )
+        {
+            throw new ResourceStoreException( e );
+        }
+    }
+    
+    /**
+     * Streams the contents directly to the workspace file. The writer runs on a separate thread that feeds the
+     * stream consumed by the workspace. The contents are only read back from the file if they are requested
+     * afterwards.
+     */
+    
+    @Override
+    public void save( final ContentsWriter writer ) throws ResourceStoreException
+    {
+        if( writer == null )
+        {
+            throw new IllegalArgumentException();
+        }
+        
+        validateSave();
+        
+        try( InputStream in = new ContentsPipe( writer ) )
+        {
+            write( in );
+        }
+        catch( final CoreException e )
+        {
+            throw new ResourceStoreException( e );
+        }
+        catch( final IOException e )
+        {
+            throw new ResourceStoreException( e );
+        }
+        
+        adoptContents( EMPTY_BYTE_ARRAY );
+        
+        this.unread = true;
+    }
+    
+    private void write( final InputStream contents ) throws CoreException, IOException
+    {
+        if( this.file.exists() )
+        {
+            this.file.setContents( contents, true, false, null );
+        }
+        else
+        {
+            final InputStream in = new BufferedInputStream( contents );
             
-            if( this.file.exists() )
+            in.mark( 1 );
+            
+            if( in.read() != -1 )
             {
-                this.file.setContents( stream, true, false, null );
+                in.reset();
+                
+                create( this.file.getParent() );
+                this.file.create( in, true, null );
             }
-            else
+        }
+        
+        this.modStamp = this.file.getModificationStamp();
+    }
+    
+    /**
+     * Reads the contents back from the file if they were streamed to the file by the last save.
+     */
+    
+    private void read()
+    {
+        if( this.unread )
+        {
+            this.unread = false;
+            
+            if( this.file.exists() )
             {
-                if( content.length > 0 )
+                try( InputStream in = this.file.getContents() )
+                {
+                    setContents( in );
+                }
+                catch( final CoreException | IOException | ResourceStoreException e )
                 {
-                    create( this.file.getParent() );
-                    this.file.create( stream, true, null );
+                    Sapphire.service( LoggingService.class ).log( e );
                 }
             }
-            
-            this.modStamp = this.file.getModificationStamp();
-        }
-        catch( CoreException e )
-        {
-            throw new ResourceStoreException( e );
         }
     }
     
+    @Override
+    public byte[] getContents()
+    {
+        read();
+        
+        return super.getContents();
+    }
+    
+    @Override
+    public ByteBuffer getContentsBuffer()
+    {
+        read();
+        
+        return super.getContentsBuffer();
+    }
+    
+    @Override
+    protected void adoptContents( final byte[] contents )
+    {
+        super.adoptContents( contents );
+        
+        this.unread = false;
+    }
+    
     @Override
     public void validateSave()
     {
@@ -150,5 +256,104 @@ public class WorkspaceFileResourceStore extends ByteArrayResourceStore
             iFolder.create( true, true, null );
         }
     }
+    
+    /**
+     * A stream that delivers the contents produced by a writer running on a separate thread. A failure of the writer
+     * is reported to the reader at the end of the stream, so that the workspace does not accept truncated contents
+     * as complete. Closing the stream waits for the writer to finish.
+     */
+    
+    private static final class ContentsPipe extends PipedInputStream
+    {
+        private final Thread thread;
+        private volatile Throwable failure;
+        
+        public ContentsPipe( final ContentsWriter writer ) throws IOException
+        {
+            super( 64 * 1024 );
+            
+            final PipedOutputStream out = new PipedOutputStream( this );
+            
+            this.thread = new Thread( "Sapphire Save" )
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        writer.write( out );
+                    }
+                    catch( final Throwable e )
+                    {
+                        ContentsPipe.this.failure = e;
+                    }
+                    finally
+                    {
+                        try
+                        {
+                            out.close();
+                        }
+                        catch( final IOException e ) {}
+                    }
+                }
+            };
+            
+            this.thread.setDaemon( true );
+            this.thread.start();
+        }
+        
+        @Override
+        public synchronized int read() throws IOException
+        {
+            final int b = super.read();
+            
+            if( b == -1 )
+            {
+                check();
+            }
+            
+            return b;
+        }
+        
+        @Override
+        public synchronized int read( final byte[] bytes, final int offset, final int length ) throws IOException
+        {
+            final int count = super.read( bytes, offset, length );
+            
+            if( count == -1 )
+            {
+                check();
+            }
+            
+            return count;
+        }
+        
+        private void check() throws IOException
+        {
+            final Throwable failure = this.failure;
+            
+            if( failure != null )
+            {
+                throw ( failure instanceof IOException ? (IOException) failure : new IOException( failure ) );
+            }
+        }
+        
+        @Override
+        public void close() throws IOException
+        {
+            super.close();
+            
+            try
+            {
+                this.thread.join();
+            }
+            catch( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            
+            check();
+        }
+    }
 
 }